@@ -76,6 +76,74 @@ public interface ClientConfig extends Config {
     @DefaultBoolean(false)
     boolean getRemoteMessagesSearchEnabled();
 
+    /**
+     * @return interval of checking the version of server messages. If the version is changed, the client clears
+     * its messages cache including messages loaded from the server.
+     */
+    @Property("cuba.remoteMessagesRevalidationIntervalSec")
+    @DefaultInt(60)
+    int getRemoteMessagesRevalidationIntervalSec();
+
+    /**
+     * @return domains of {@code UniqueNumbersService} for which the client reserves ranges of numbers and hands them
+     * out from memory. The domains must be listed in {@code cuba.uniqueNumbersLeasedDomains} on the middleware.
+     * Numbers are leased only if they are obtained through {@code UniqueNumbersClient}.
+     * @see com.haulmont.cuba.client.sys.UniqueNumbersClient
+     */
+    @Property("cuba.uniqueNumbersClientLeasedDomains")
+    @Factory(factory = CommaSeparatedStringListTypeFactory.class)
+    List<String> getUniqueNumbersClientLeasedDomains();
+
+    /**
+     * @return whether {@code DataManager} caches instances of cacheable entities loaded by id on the client.
+     * Cached instances are invalidated on commits registered by the middleware with a delay up to
+     * {@code cuba.entityNearCacheCheckIntervalSec}.
+     * @see com.haulmont.cuba.client.sys.cache.EntityNearCache
+     */
+    @Property("cuba.entityNearCacheEnabled")
+    @DefaultBoolean(false)
+    boolean getEntityNearCacheEnabled();
+
+    /**
+     * @return maximum number of entity instances cached for a single user session
+     */
+    @Property("cuba.entityNearCacheMaxSize")
+    @DefaultInt(1000)
+    int getEntityNearCacheMaxSize();
+
+    /**
+     * @return interval of checking the middleware for changes of cached entities
+     */
+    @Property("cuba.entityNearCacheCheckIntervalSec")
+    @DefaultInt(10)
+    int getEntityNearCacheCheckIntervalSec();
+
+    /**
+     * @return whether {@code DataManager} caches results of queries marked as cacheable on the client, in addition
+     * to instances loaded by id. Works only if {@code cuba.entityNearCacheEnabled} is true, and only for queries
+     * using cacheable entities.
+     * @see com.haulmont.cuba.core.global.LoadContext.Query#setCacheable(boolean)
+     */
+    @Property("cuba.entityNearCacheQueriesEnabled")
+    @DefaultBoolean(false)
+    boolean getEntityNearCacheQueriesEnabled();
+
+    /**
+     * @return whether client caches of config properties, dynamic attributes and entities are invalidated by changes
+     * pushed from the middleware through a long-polling request instead of periodic checks
+     * @see com.haulmont.cuba.client.sys.cache.CacheInvalidationReceiver
+     */
+    @Property("cuba.cacheInvalidationPushEnabled")
+    @DefaultBoolean(false)
+    boolean getCacheInvalidationPushEnabled();
+
+    /**
+     * @return max time in seconds a single long-polling request for cache changes waits on the middleware
+     */
+    @Property("cuba.cacheInvalidationPollTimeoutSec")
+    @DefaultInt(30)
+    int getCacheInvalidationPollTimeoutSec();
+
     /**
      * List of screen aliases for which saving screen history is enabled.
      * <p>Obsolete. Recommended way to specify this information is entity annotations
@@ -366,4 +434,19 @@ public interface ClientConfig extends Config {
     @Property("cuba.gui.suggestionField.asyncSearchDelayMs")
     @DefaultInt(300)
     int getSuggestionFieldAsyncSearchDelayMs();
+
+    /**
+     * @return true if independent collection datasources of a screen should be loaded from the middleware concurrently
+     * when the screen is opened. The loaded data is applied to datasources in the UI thread as before.
+     */
+    @Property("cuba.gui.concurrentDatasourceLoading")
+    @DefaultBoolean(true)
+    boolean getConcurrentDatasourceLoading();
+
+    /**
+     * @return maximum number of threads used for concurrent loading of datasources
+     */
+    @Property("cuba.gui.datasourceLoadingThreads")
+    @DefaultInt(8)
+    int getDatasourceLoadingThreads();
 }
\ No newline at end of file
@@ -18,6 +18,10 @@
 package com.haulmont.cuba.client.sys;
 
 import com.haulmont.chile.core.model.MetaClass;
+import com.haulmont.cuba.client.ClientConfig;
+import com.haulmont.cuba.client.sys.cache.ClientCacheManager;
+import com.haulmont.cuba.client.sys.cache.EntityCacheStrategy;
+import com.haulmont.cuba.client.sys.cache.EntityNearCache;
 import com.haulmont.cuba.core.app.DataService;
 import com.haulmont.cuba.core.entity.Entity;
 import com.haulmont.cuba.core.entity.KeyValueEntity;
@@ -27,10 +31,7 @@ import org.springframework.stereotype.Component;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
-import java.util.Collections;
-import java.util.List;
-import java.util.Objects;
-import java.util.Set;
+import java.util.*;
 
 @Component(DataManager.NAME)
 public class DataManagerClientImpl implements DataManager {
@@ -41,16 +42,58 @@ public class DataManagerClientImpl implements DataManager {
     @Inject
     protected Metadata metadata;
 
+    @Inject
+    protected ClientConfig clientConfig;
+
+    @Inject
+    protected ClientCacheManager clientCacheManager;
+
+    @Inject
+    protected UserSessionSource userSessionSource;
+
     @Nullable
     @Override
     public <E extends Entity> E load(LoadContext<E> context) {
-        return dataService.load(context);
+        EntityNearCache nearCache = getEntityNearCache();
+        if (nearCache == null || !nearCache.isCacheable(context)) {
+            return dataService.load(context);
+        }
+
+        UUID sessionId = userSessionSource.getUserSession().getId();
+        EntityNearCache.Key key = nearCache.createKey(context);
+        E entity = nearCache.get(sessionId, key);
+        if (entity == null) {
+            long stamp = nearCache.getStamp();
+            entity = dataService.load(context);
+            if (entity != null) {
+                nearCache.put(sessionId, key, entity, stamp);
+            }
+        }
+        return entity;
     }
 
     @Nonnull
     @Override
     public <E extends Entity> List<E> loadList(LoadContext<E> context) {
-        return dataService.loadList(context);
+        EntityNearCache nearCache = getEntityNearCache();
+        if (nearCache == null || !nearCache.isQueryCacheable(context)) {
+            return dataService.loadList(context);
+        }
+
+        UUID sessionId = userSessionSource.getUserSession().getId();
+        EntityNearCache.QueryKey key = nearCache.createQueryKey(context);
+        List<E> list = nearCache.getList(sessionId, key);
+        if (list == null) {
+            long stamp = nearCache.getStamp();
+            list = dataService.loadList(context);
+            nearCache.putList(sessionId, key, list, stamp);
+        }
+        return list;
+    }
+
+    @Override
+    public List<BatchLoadResult<?>> loadBatch(List<? extends LoadContext<?>> contexts) {
+        return dataService.loadBatch(contexts);
     }
 
     @Override
@@ -93,7 +136,21 @@ public class DataManagerClientImpl implements DataManager {
 
     @Override
     public Set<Entity> commit(CommitContext context) {
-        return dataService.commit(context);
+        Set<Entity> result = dataService.commit(context);
+
+        EntityNearCache nearCache = getEntityNearCache();
+        if (nearCache != null) {
+            // do not wait for the middleware to report the changes made by this client
+            Set<String> entityNames = new HashSet<>();
+            for (Entity entity : context.getCommitInstances()) {
+                addWithAncestors(entity.getMetaClass(), entityNames);
+            }
+            for (Entity entity : context.getRemoveInstances()) {
+                addWithAncestors(entity.getMetaClass(), entityNames);
+            }
+            nearCache.invalidate(entityNames);
+        }
+        return result;
     }
 
     @Override
@@ -141,4 +198,18 @@ public class DataManagerClientImpl implements DataManager {
     public DataManager secure() {
         return this;
     }
+
+    @Nullable
+    protected EntityNearCache getEntityNearCache() {
+        if (!clientConfig.getEntityNearCacheEnabled())
+            return null;
+        return clientCacheManager.getCached(EntityCacheStrategy.NAME);
+    }
+
+    protected void addWithAncestors(MetaClass metaClass, Set<String> entityNames) {
+        entityNames.add(metaClass.getName());
+        for (MetaClass ancestor : metaClass.getAncestors()) {
+            entityNames.add(ancestor.getName());
+        }
+    }
 }
\ No newline at end of file
@@ -17,6 +17,9 @@
 
 package com.haulmont.cuba.client.sys;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.haulmont.cuba.client.ClientConfig;
 import com.haulmont.cuba.core.app.LocalizedMessageService;
 import com.haulmont.cuba.core.global.Configuration;
@@ -35,6 +38,9 @@ import javax.inject.Inject;
 import java.net.SocketException;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Component(Messages.NAME)
 public class MessagesClientImpl extends AbstractMessages {
@@ -49,6 +55,13 @@ public class MessagesClientImpl extends AbstractMessages {
 
     protected ClientConfig clientConfig;
 
+    // whole message packs loaded from the middleware, by pack and locale
+    protected Cache<String, Map<String, String>> remotePacksCache = CacheBuilder.newBuilder().build();
+
+    protected volatile long remoteMessagesVersion = -1;
+
+    protected AtomicLong lastRevalidationTs = new AtomicLong();
+
     private Logger log = LoggerFactory.getLogger(MessagesClientImpl.class);
 
     @Inject
@@ -66,6 +79,19 @@ public class MessagesClientImpl extends AbstractMessages {
                 messageTools.getDefaultLocale();
     }
 
+    @Override
+    protected String internalGetMessage(String packs, String key, Locale locale, String defaultValue,
+                                        boolean searchMainIfNotFound) {
+        revalidateRemoteMessages();
+        return super.internalGetMessage(packs, key, locale, defaultValue, searchMainIfNotFound);
+    }
+
+    @Override
+    public void clearCache() {
+        super.clearCache();
+        remotePacksCache.invalidateAll();
+    }
+
     @Override
     protected String searchRemotely(String pack, String key, Locale locale) {
         if (!remoteSearch || !AppContext.isStarted())
@@ -74,25 +100,64 @@ public class MessagesClientImpl extends AbstractMessages {
         if (log.isTraceEnabled())
             log.trace("searchRemotely: " + pack + "/" + locale + "/" + key);
 
-        StopWatch stopWatch = new Log4JStopWatch("Messages.searchRemotely");
-        try {
-            String message = localizedMessageService.getMessage(pack, key, locale);
-            if (key.equals(message))
-                return null;
-            else
-                return message;
-        } catch (Exception e) {
-            List list = ExceptionUtils.getThrowableList(e);
-            for (Object throwable : list) {
-                if (throwable instanceof SocketException) {
-                    log.trace("searchRemotely: " + throwable);
+        String packKey = pack + "/" + locale;
+        Map<String, String> messages = remotePacksCache.getIfPresent(packKey);
+        if (messages == null) {
+            StopWatch stopWatch = new Log4JStopWatch("Messages.searchRemotely");
+            try {
+                messages = remotePacksCache.get(packKey, () -> localizedMessageService.getMessages(pack, locale));
+            } catch (ExecutionException | UncheckedExecutionException e) {
+                if (isNetworkError(e.getCause())) {
                     return null; // silently ignore network errors
                 }
+                throw e.getCause() instanceof RuntimeException ?
+                        (RuntimeException) e.getCause() : new RuntimeException(e.getCause());
+            } finally {
+                stopWatch.stop();
+            }
+        }
+        return messages.get(key);
+    }
+
+    /**
+     * Clears the cache if messages on the middleware have changed. The middleware is asked for the version of
+     * messages not more often than {@link ClientConfig#getRemoteMessagesRevalidationIntervalSec()}.
+     */
+    protected void revalidateRemoteMessages() {
+        if (!remoteSearch || !AppContext.isStarted())
+            return;
+
+        long lastTs = lastRevalidationTs.get();
+        long now = System.currentTimeMillis();
+        if (now - lastTs < clientConfig.getRemoteMessagesRevalidationIntervalSec() * 1000L
+                || !lastRevalidationTs.compareAndSet(lastTs, now))
+            return;
+
+        long version;
+        try {
+            version = localizedMessageService.getMessagesVersion();
+        } catch (RuntimeException e) {
+            if (isNetworkError(e))
+                return;
+            throw e;
+        }
+
+        if (remoteMessagesVersion != -1 && remoteMessagesVersion != version) {
+            log.debug("Messages version on the middleware has changed, clearing cache");
+            clearCache();
+        }
+        remoteMessagesVersion = version;
+    }
+
+    protected boolean isNetworkError(Throwable e) {
+        List list = ExceptionUtils.getThrowableList(e);
+        for (Object throwable : list) {
+            if (throwable instanceof SocketException) {
+                log.trace("searchRemotely: " + throwable);
+                return true;
             }
-            throw (RuntimeException) e;
-        } finally {
-            stopWatch.stop();
         }
+        return false;
     }
 
     public boolean isRemoteSearch() {
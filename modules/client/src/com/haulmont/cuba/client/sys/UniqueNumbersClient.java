@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2008-2016 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.haulmont.cuba.client.sys;
+
+import com.haulmont.cuba.client.ClientConfig;
+import com.haulmont.cuba.core.app.UniqueNumbersLease;
+import com.haulmont.cuba.core.app.UniqueNumbersService;
+import com.haulmont.cuba.core.sys.LeasedNumbersCache;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+/**
+ * Provides unique numbers on the client tier.
+ * <p>
+ * For domains listed in {@link ClientConfig#getUniqueNumbersClientLeasedDomains()} reserves ranges of numbers on the
+ * middleware and hands them out from memory, avoiding a remote call per number. Such domains must work in leased
+ * mode on the middleware as well. Numbers of other domains are requested from {@link UniqueNumbersService}.
+ * Leases are discarded when the sequence is changed on the middleware only if
+ * {@link ClientConfig#getCacheInvalidationPushEnabled()} is true.
+ * </p>
+ * Use this bean instead of {@link UniqueNumbersService} to benefit from client-side leases.
+ */
+@Component(UniqueNumbersClient.NAME)
+public class UniqueNumbersClient {
+
+    public static final String NAME = "cuba_UniqueNumbersClient";
+
+    @Inject
+    @Named(UniqueNumbersService.NAME)
+    protected UniqueNumbersService service;
+
+    @Inject
+    protected ClientConfig clientConfig;
+
+    protected LeasedNumbersCache leasedNumbers = new LeasedNumbersCache();
+
+    /**
+     * Returns the next sequence value.
+     *
+     * @param domain sequence identifier
+     * @return next value
+     */
+    public long getNextNumber(String domain) {
+        if (clientConfig.getUniqueNumbersClientLeasedDomains().contains(domain)) {
+            return leasedNumbers.getNextNumber(domain, service::leaseNumbers);
+        }
+        return service.getNextNumber(domain);
+    }
+
+    /**
+     * Reserves a range of numbers on the middleware, see {@link UniqueNumbersService#leaseNumbers(String)}.
+     */
+    public UniqueNumbersLease leaseNumbers(String domain) {
+        return service.leaseNumbers(domain);
+    }
+
+    /**
+     * Discards the current lease of the domain, e.g. after its sequence has been changed on the middleware.
+     */
+    public void invalidateLeases(String domain) {
+        leasedNumbers.invalidate(domain);
+    }
+
+    /**
+     * Discards current leases of all domains.
+     */
+    public void invalidateLeases() {
+        leasedNumbers.invalidateAll();
+    }
+}
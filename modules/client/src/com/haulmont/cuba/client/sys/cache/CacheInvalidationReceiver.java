@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2008-2016 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.haulmont.cuba.client.sys.cache;
+
+import com.haulmont.cuba.client.ClientConfig;
+import com.haulmont.cuba.client.sys.UniqueNumbersClient;
+import com.haulmont.cuba.core.app.CacheInvalidationService;
+import com.haulmont.cuba.core.app.CacheInvalidations;
+import com.haulmont.cuba.core.global.Configuration;
+import com.haulmont.cuba.core.sys.AppContext;
+import com.haulmont.cuba.core.sys.SecurityContext;
+import com.haulmont.cuba.security.global.NoUserSessionException;
+import com.haulmont.cuba.security.global.UserSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+
+/**
+ * Receives changes of config properties, dynamic attribute categories, cacheable entities and leased unique numbers
+ * domains from the middleware
+ * through long-polling requests to {@link CacheInvalidationService} and refreshes the client caches accordingly.
+ * <p>Started by {@link ClientCacheManager} if {@link ClientConfig#getCacheInvalidationPushEnabled()} is true.
+ * In this case the caching strategies do not check the middleware for changes periodically.
+ */
+@Component(CacheInvalidationReceiver.NAME)
+public class CacheInvalidationReceiver {
+
+    public static final String NAME = "cuba_CacheInvalidationReceiver";
+
+    private static final Logger log = LoggerFactory.getLogger(CacheInvalidationReceiver.class);
+
+    protected static final long MIN_RETRY_DELAY_MS = 1000;
+    protected static final long MAX_RETRY_DELAY_MS = 60 * 1000;
+
+    @Inject
+    protected CacheInvalidationService cacheInvalidationService;
+    @Inject
+    protected CacheUserSessionProvider cacheUserSessionProvider;
+    @Inject
+    protected ClientCacheManager clientCacheManager;
+    @Inject
+    protected ConfigCacheStrategy configCacheStrategy;
+    @Inject
+    protected EntityCacheStrategy entityCacheStrategy;
+    @Inject
+    protected Configuration configuration;
+    @Inject
+    protected UniqueNumbersClient uniqueNumbersClient;
+
+    protected volatile boolean running;
+    protected volatile Thread thread;
+
+    protected String nodeId;
+    protected long sequence;
+
+    public synchronized void start() {
+        if (running)
+            return;
+        running = true;
+        thread = new Thread(this::run, "CacheInvalidationReceiver");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        running = false;
+        Thread t = thread;
+        if (t != null) {
+            t.interrupt();
+            thread = null;
+        }
+    }
+
+    protected void run() {
+        long timeoutMs = configuration.getConfig(ClientConfig.class).getCacheInvalidationPollTimeoutSec() * 1000L;
+        long retryDelayMs = MIN_RETRY_DELAY_MS;
+        while (running) {
+            UserSession userSession = cacheUserSessionProvider.getUserSession();
+            if (userSession == null) {
+                // cache user session unavailable
+                sleep(MIN_RETRY_DELAY_MS);
+                continue;
+            }
+            try {
+                AppContext.setSecurityContext(new SecurityContext(userSession));
+
+                CacheInvalidations invalidations = cacheInvalidationService.awaitInvalidations(nodeId, sequence, timeoutMs);
+                // the first response is a reset: caches could be loaded before it, and changes made since then
+                // would be lost otherwise
+                apply(invalidations);
+                nodeId = invalidations.getNodeId();
+                sequence = invalidations.getSequence();
+                retryDelayMs = MIN_RETRY_DELAY_MS;
+            } catch (NoUserSessionException e) {
+                log.warn("Cache user session expired", e);
+                sleep(MIN_RETRY_DELAY_MS);
+            } catch (Exception e) {
+                if (!running)
+                    break;
+                log.error("Unable to receive cache invalidations, retrying in {} ms", retryDelayMs, e);
+                sleep(retryDelayMs);
+                retryDelayMs = Math.min(retryDelayMs * 2, MAX_RETRY_DELAY_MS);
+            } finally {
+                AppContext.setSecurityContext(null);
+            }
+        }
+    }
+
+    protected void apply(CacheInvalidations invalidations) {
+        if (invalidations.isReset()) {
+            log.debug("Middleware requested reset of client caches: {}", invalidations);
+        } else {
+            log.trace("Applying {}", invalidations);
+        }
+
+        if (invalidations.isConfigChanged()) {
+            configCacheStrategy.applyChanges(invalidations.isReset() ? null : invalidations.getConfigNames());
+        }
+
+        if (invalidations.isCategoriesChanged()) {
+            clientCacheManager.refreshCached(DynamicAttributesCacheStrategy.NAME);
+        }
+
+        EntityNearCache entityNearCache = (EntityNearCache) entityCacheStrategy.getObject();
+        if (entityNearCache != null) {
+            if (invalidations.isReset()) {
+                entityNearCache.invalidateAll();
+            } else {
+                entityNearCache.invalidate(invalidations.getEntityNames());
+            }
+        }
+
+        if (invalidations.isReset()) {
+            uniqueNumbersClient.invalidateLeases();
+        } else {
+            invalidations.getUniqueNumbersDomains().forEach(uniqueNumbersClient::invalidateLeases);
+        }
+    }
+
+    protected void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
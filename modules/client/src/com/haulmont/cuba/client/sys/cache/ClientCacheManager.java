@@ -17,7 +17,9 @@
 
 package com.haulmont.cuba.client.sys.cache;
 
+import com.haulmont.cuba.client.ClientConfig;
 import com.haulmont.cuba.core.global.AppBeans;
+import com.haulmont.cuba.core.global.Configuration;
 import com.haulmont.cuba.core.sys.AppContext;
 
 import org.slf4j.Logger;
@@ -47,6 +49,8 @@ public class ClientCacheManager implements AppContext.Listener, Ordered {
     protected final Object initializationLock = new Object();
     protected volatile boolean initialized = false;
 
+    protected CacheInvalidationReceiver cacheInvalidationReceiver;
+
     protected ConcurrentHashMap<String, CachingStrategy> cache = new ConcurrentHashMap<>();
     protected ScheduledExecutorService executorService = Executors.newScheduledThreadPool(1, new ThreadFactory() {
         final ThreadFactory defaultFactory = Executors.defaultThreadFactory();
@@ -73,6 +77,12 @@ public class ClientCacheManager implements AppContext.Listener, Ordered {
                 for (Map.Entry<String, CachingStrategy> entry : cachingStrategyMap.entrySet()) {
                     addCachedObject(entry.getKey(), entry.getValue());
                 }
+
+                ClientConfig clientConfig = AppBeans.get(Configuration.class).getConfig(ClientConfig.class);
+                if (clientConfig.getCacheInvalidationPushEnabled() && cacheInvalidationReceiver == null) {
+                    cacheInvalidationReceiver = AppBeans.get(CacheInvalidationReceiver.NAME);
+                    cacheInvalidationReceiver.start();
+                }
             }
             initialized = true;
         }
@@ -152,6 +162,9 @@ public class ClientCacheManager implements AppContext.Listener, Ordered {
 
     @Override
     public void applicationStopped() {
+        if (cacheInvalidationReceiver != null) {
+            cacheInvalidationReceiver.stop();
+        }
         try {
             executorService.shutdownNow();
         } catch (Exception e) {
@@ -16,7 +16,10 @@
 
 package com.haulmont.cuba.client.sys.cache;
 
+import com.haulmont.cuba.client.ClientConfig;
 import com.haulmont.cuba.core.app.ConfigStorageService;
+import com.haulmont.cuba.core.config.ConfigGetter;
+import com.haulmont.cuba.core.global.Configuration;
 import com.haulmont.cuba.core.sys.AppContext;
 import com.haulmont.cuba.core.sys.SecurityContext;
 import com.haulmont.cuba.security.global.NoUserSessionException;
@@ -25,9 +28,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -48,6 +54,8 @@ public class ConfigCacheStrategy implements CachingStrategy {
     protected ClientCacheManager clientCacheManager;
     @Inject
     protected CacheUserSessionProvider cacheUserSessionProvider;
+    @Inject
+    protected Configuration configuration;
 
     protected volatile long updateIntervalMs = 60 * 1000;
     protected volatile boolean updateSynchronously = false;
@@ -56,8 +64,16 @@ public class ConfigCacheStrategy implements CachingStrategy {
 
     protected volatile boolean backgroundUpdateTriggered = false;
 
+    // changes are received by CacheInvalidationReceiver, so the cache does not expire
+    protected volatile boolean pushEnabled = false;
+
     protected ReadWriteLock readWriteLock = new ReentrantReadWriteLock();
 
+    @Override
+    public void init() {
+        pushEnabled = configuration.getConfig(ClientConfig.class).getCacheInvalidationPushEnabled();
+    }
+
     @Override
     public Object getObject() {
         return cachedProperties;
@@ -114,6 +130,40 @@ public class ConfigCacheStrategy implements CachingStrategy {
         }
     }
 
+    /**
+     * Applies changes of properties pushed by the middleware. Does nothing if the properties have not been loaded yet.
+     * @param names names of changed properties, or null if all properties must be reloaded
+     */
+    public void applyChanges(@Nullable Set<String> names) {
+        Map<String, String> currentProperties = cachedProperties;
+        if (currentProperties == null)
+            return;
+
+        Map<String, String> properties;
+        if (names == null) {
+            properties = configStorageService.getDbProperties();
+        } else {
+            properties = new HashMap<>(currentProperties);
+            for (String name : names) {
+                String value = configStorageService.getDbProperty(name);
+                if (value != null) {
+                    properties.put(name, value);
+                } else {
+                    properties.remove(name);
+                }
+            }
+        }
+
+        readWriteLock.writeLock().lock();
+        try {
+            cachedProperties = Collections.unmodifiableMap(properties);
+            lastUsedTs = System.currentTimeMillis();
+        } finally {
+            readWriteLock.writeLock().unlock();
+        }
+        ConfigGetter.invalidateCachedValues();
+    }
+
     @Override
     public ReadWriteLock lock() {
         return readWriteLock;
@@ -121,6 +171,9 @@ public class ConfigCacheStrategy implements CachingStrategy {
 
     @Override
     public boolean needToReload() {
+        if (pushEnabled) {
+            return cachedProperties == null;
+        }
         return System.currentTimeMillis() - lastUsedTs > updateIntervalMs;
     }
 
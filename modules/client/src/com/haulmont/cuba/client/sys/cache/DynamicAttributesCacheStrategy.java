@@ -17,6 +17,7 @@
 
 package com.haulmont.cuba.client.sys.cache;
 
+import com.haulmont.cuba.client.ClientConfig;
 import com.haulmont.cuba.core.app.dynamicattributes.DynamicAttributesCache;
 import com.haulmont.cuba.core.app.dynamicattributes.DynamicAttributesCacheService;
 import com.haulmont.cuba.core.global.AppBeans;
@@ -39,6 +40,8 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
  * Each time dynamic attributes cache is used, the strategy initiate check of cache validity
  * The check is performed in separate thread
  * So applied changes in dynamic attributes structure will be visible after 10 seconds
+ * <p>If {@link ClientConfig#getCacheInvalidationPushEnabled()} is true, the cache is refreshed by
+ * {@link CacheInvalidationReceiver} when categories are changed, and the periodic check is not performed.
  */
 @Component(DynamicAttributesCacheStrategy.NAME)
 public class DynamicAttributesCacheStrategy implements CachingStrategy {
@@ -63,6 +66,9 @@ public class DynamicAttributesCacheStrategy implements CachingStrategy {
 
     @Override
     public void init() {
+        if (configuration.getConfig(ClientConfig.class).getCacheInvalidationPushEnabled())
+            return;
+
         clientCacheManager.getExecutorService().scheduleWithFixedDelay(() -> {
             if (needToValidateCache) {
                 UserSession userSession = cacheUserSessionProvider.getUserSession();
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2008-2016 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.haulmont.cuba.client.sys.cache;
+
+import com.haulmont.cuba.client.ClientConfig;
+import com.haulmont.cuba.core.app.EntityChangesService;
+import com.haulmont.cuba.core.global.AppBeans;
+import com.haulmont.cuba.core.global.Configuration;
+import com.haulmont.cuba.core.global.Metadata;
+import com.haulmont.cuba.core.sys.AppContext;
+import com.haulmont.cuba.core.sys.SecurityContext;
+import com.haulmont.cuba.security.global.NoUserSessionException;
+import com.haulmont.cuba.security.global.UserSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Maintains {@link EntityNearCache} if it is enabled by {@link ClientConfig#getEntityNearCacheEnabled()}.
+ * The strategy periodically requests timestamps of entity changes from the middleware in a separate thread
+ * and invalidates the instances of changed entities. If {@link ClientConfig#getCacheInvalidationPushEnabled()}
+ * is true, changes are received by {@link CacheInvalidationReceiver} instead.
+ */
+@Component(EntityCacheStrategy.NAME)
+public class EntityCacheStrategy implements CachingStrategy {
+    public static final String NAME = "cuba_EntityCacheStrategy";
+
+    private final Logger log = LoggerFactory.getLogger(EntityCacheStrategy.class);
+
+    @Inject
+    protected ClientCacheManager clientCacheManager;
+    @Inject
+    protected Configuration configuration;
+    @Inject
+    protected Metadata metadata;
+    @Inject
+    protected CacheUserSessionProvider cacheUserSessionProvider;
+
+    protected ReadWriteLock readWriteLock = new ReentrantReadWriteLock();
+    protected volatile EntityNearCache entityNearCache;
+
+    @Override
+    public void init() {
+        ClientConfig clientConfig = configuration.getConfig(ClientConfig.class);
+        if (!clientConfig.getEntityNearCacheEnabled() || clientConfig.getCacheInvalidationPushEnabled())
+            return;
+
+        int interval = clientConfig.getEntityNearCacheCheckIntervalSec();
+        clientCacheManager.getExecutorService().scheduleWithFixedDelay(() -> {
+            EntityNearCache cache = entityNearCache;
+            if (cache != null) {
+                UserSession userSession = cacheUserSessionProvider.getUserSession();
+                if (userSession == null) {
+                    // cache user session unavailable
+                    return;
+                }
+
+                try {
+                    AppContext.setSecurityContext(new SecurityContext(userSession));
+
+                    cache.applyChangeTimestamps(getEntityChangesService().getChangeTimestamps());
+                } catch (NoUserSessionException e) {
+                    log.warn("Cache user session expired", e);
+                } catch (Exception e) {
+                    log.error("Unable to check entity changes", e);
+                }
+            }
+        }, interval, interval, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public Object getObject() {
+        return entityNearCache;
+    }
+
+    @Override
+    public Object loadObject() {
+        ClientConfig clientConfig = configuration.getConfig(ClientConfig.class);
+        EntityChangesService entityChangesService = getEntityChangesService();
+        entityNearCache = new EntityNearCache(metadata,
+                entityChangesService.getCacheableEntities(),
+                entityChangesService.getChangeTimestamps(),
+                clientConfig.getEntityNearCacheMaxSize(),
+                clientConfig.getEntityNearCacheQueriesEnabled());
+        return entityNearCache;
+    }
+
+    @Override
+    public boolean needToReload() {
+        return entityNearCache == null;
+    }
+
+    @Override
+    public ReadWriteLock lock() {
+        return readWriteLock;
+    }
+
+    protected EntityChangesService getEntityChangesService() {
+        return AppBeans.get(EntityChangesService.NAME, EntityChangesService.class);
+    }
+}
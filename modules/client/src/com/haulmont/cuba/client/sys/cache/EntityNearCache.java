@@ -0,0 +1,489 @@
+/*
+ * Copyright (c) 2008-2016 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.haulmont.cuba.client.sys.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.haulmont.chile.core.model.MetaClass;
+import com.haulmont.chile.core.model.MetaProperty;
+import com.haulmont.cuba.core.entity.Entity;
+import com.haulmont.cuba.core.global.*;
+import com.haulmont.cuba.core.sys.serialization.SerializationSupport;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Client-side cache of entity instances loaded by id. Only entities marked as cacheable on the middleware are cached,
+ * and only if all entities referenced by the view are cacheable too. A change of any entity in the view graph discards
+ * the cached instance.
+ * <p>The cache also keeps results of queries marked as cacheable by {@link LoadContext.Query#setCacheable(boolean)}
+ * if it is enabled by {@code cuba.entityNearCacheQueriesEnabled}. A query result is discarded on a change of any
+ * entity used in the query or in the view graph.
+ * <p>Instances are stored separately for each user session, because the result of loading depends on the session
+ * permissions and constraints. The number of instances for a session is limited, least recently used instances are
+ * evicted first. Instances are kept in the serialized form and each call of {@link #get(UUID, Key)} returns a new copy,
+ * so callers can modify the returned instances the same way as if they were loaded from the middleware.
+ * <p>The cache is maintained by {@link EntityCacheStrategy}.
+ */
+public class EntityNearCache {
+
+    private static final Logger log = LoggerFactory.getLogger(EntityNearCache.class);
+
+    /**
+     * Caches of inactive sessions are discarded after this period.
+     */
+    protected static final int SESSION_EXPIRATION_MINUTES = 30;
+
+    /**
+     * Max number of query strings for which the used entities are kept.
+     */
+    protected static final int MAX_PARSED_QUERIES = 1000;
+
+    protected final Metadata metadata;
+    protected final Set<String> cacheableEntities;
+    protected final int maxSize;
+    protected final boolean queriesEnabled;
+
+    protected final Cache<UUID, Cache<Object, Item>> sessionCaches;
+
+    // entity name to the cached items depending on the entity
+    protected final Map<String, Set<IndexEntry>> typeIndex = new ConcurrentHashMap<>();
+
+    // entity name and view name to the names of entities in the view graph
+    protected final Map<String, Set<String>> viewEntities = new ConcurrentHashMap<>();
+
+    // query string to the names of entities used in the query, or to an empty set if the query is not cacheable
+    protected final Cache<String, Set<String>> queryEntities = CacheBuilder.newBuilder()
+            .maximumSize(MAX_PARSED_QUERIES)
+            .build();
+
+    protected final Map<String, Long> changeTimestamps = new ConcurrentHashMap<>();
+
+    // incremented on each invalidation to prevent caching of instances loaded before the invalidation
+    protected final AtomicLong invalidationCount = new AtomicLong();
+
+    public EntityNearCache(Metadata metadata, Set<String> cacheableEntities, Map<String, Long> changeTimestamps,
+                           int maxSize) {
+        this(metadata, cacheableEntities, changeTimestamps, maxSize, false);
+    }
+
+    public EntityNearCache(Metadata metadata, Set<String> cacheableEntities, Map<String, Long> changeTimestamps,
+                           int maxSize, boolean queriesEnabled) {
+        this.metadata = metadata;
+        this.cacheableEntities = Collections.unmodifiableSet(new HashSet<>(cacheableEntities));
+        this.changeTimestamps.putAll(changeTimestamps);
+        this.maxSize = maxSize;
+        this.queriesEnabled = queriesEnabled;
+        this.sessionCaches = CacheBuilder.newBuilder()
+                .expireAfterAccess(SESSION_EXPIRATION_MINUTES, TimeUnit.MINUTES)
+                .<UUID, Cache<Object, Item>>removalListener(notification -> notification.getValue().invalidateAll())
+                .build();
+    }
+
+    /**
+     * @return true if the result of loading by the given context can be cached
+     */
+    public boolean isCacheable(LoadContext<?> context) {
+        View view = context.getView();
+        return context.getId() != null
+                && context.getQuery() == null
+                && context.getDbHints().isEmpty()
+                && view != null && view.isSealed() && !StringUtils.isEmpty(view.getName())
+                && cacheableEntities.contains(context.getMetaClass())
+                && cacheableEntities.containsAll(getViewEntities(metadata.getClassNN(context.getMetaClass()), view));
+    }
+
+    /**
+     * @return true if the list loaded by the given query context can be cached
+     */
+    public boolean isQueryCacheable(LoadContext<?> context) {
+        View view = context.getView();
+        LoadContext.Query query = context.getQuery();
+        return queriesEnabled
+                && query != null && query.isCacheable() && context.getId() == null
+                && context.getPrevQueries().isEmpty()
+                && context.getDbHints().isEmpty()
+                && view != null && view.isSealed() && !StringUtils.isEmpty(view.getName())
+                && cacheableEntities.contains(context.getMetaClass())
+                && cacheableEntities.containsAll(getViewEntities(metadata.getClassNN(context.getMetaClass()), view))
+                && !getQueryEntities(query.getQueryString()).isEmpty();
+    }
+
+    public Key createKey(LoadContext<?> context) {
+        return new Key(context.getMetaClass(), context.getId(), context.getView().getName(),
+                context.isSoftDeletion(), context.isLoadDynamicAttributes(), context.getDynamicAttributeCodes(),
+                context.isLoadPartialEntities());
+    }
+
+    /**
+     * Creates a key for a context accepted by {@link #isQueryCacheable(LoadContext)}.
+     */
+    public QueryKey createQueryKey(LoadContext<?> context) {
+        return new QueryKey(context.getMetaClass(), context.getQuery().copy(), context.getView().getName(),
+                context.isSoftDeletion(), context.isLoadDynamicAttributes(), context.getDynamicAttributeCodes(),
+                context.isLoadPartialEntities());
+    }
+
+    /**
+     * @return a value which must be passed to {@link #put(UUID, Key, Entity, long)} when the loaded instance
+     * is put to the cache
+     */
+    public long getStamp() {
+        return invalidationCount.get();
+    }
+
+    /**
+     * @return a copy of the cached instance or null if the instance is not in the cache
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public <E extends Entity> E get(UUID sessionId, Key key) {
+        Item item = getItem(sessionId, key);
+        if (item == null)
+            return null;
+        log.trace("Found in near cache: {}", key);
+        return (E) SerializationSupport.deserialize(item.bytes);
+    }
+
+    /**
+     * @return a copy of the cached query result or null if the result is not in the cache
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public <E extends Entity> List<E> getList(UUID sessionId, QueryKey key) {
+        Item item = getItem(sessionId, key);
+        if (item == null)
+            return null;
+        log.trace("Found in near cache: {}", key);
+        return (List<E>) SerializationSupport.deserialize(item.bytes);
+    }
+
+    /**
+     * Puts the loaded instance to the cache, unless the cache has been invalidated since {@code stamp} was obtained.
+     * The key must be created for a context accepted by {@link #isCacheable(LoadContext)}.
+     */
+    public void put(UUID sessionId, Key key, Entity entity, long stamp) {
+        // view entities are collected when checking the context in isCacheable()
+        Set<String> entityNames = viewEntities.get(key.entityName + "/" + key.viewName);
+        if (entityNames == null)
+            return;
+        putItem(sessionId, key, new Item(SerializationSupport.serialize(entity), entityNames), stamp);
+    }
+
+    /**
+     * Puts the loaded list to the cache, unless the cache has been invalidated since {@code stamp} was obtained.
+     * The key must be created for a context accepted by {@link #isQueryCacheable(LoadContext)}.
+     */
+    public void putList(UUID sessionId, QueryKey key, List<? extends Entity> entities, long stamp) {
+        // view and query entities are collected when checking the context in isQueryCacheable()
+        Set<String> viewEntityNames = viewEntities.get(key.entityName + "/" + key.viewName);
+        Set<String> queryEntityNames = queryEntities.getIfPresent(key.query.getQueryString());
+        if (viewEntityNames == null || queryEntityNames == null)
+            return;
+        Set<String> entityNames = new HashSet<>(viewEntityNames);
+        entityNames.addAll(queryEntityNames);
+        putItem(sessionId, key, new Item(SerializationSupport.serialize(new ArrayList<>(entities)), entityNames), stamp);
+    }
+
+    @Nullable
+    protected Item getItem(UUID sessionId, Object key) {
+        Cache<Object, Item> cache = sessionCaches.getIfPresent(sessionId);
+        if (cache == null)
+            return null;
+        return cache.getIfPresent(key);
+    }
+
+    protected void putItem(UUID sessionId, Object key, Item item, long stamp) {
+        if (invalidationCount.get() != stamp)
+            return;
+        Cache<Object, Item> cache = sessionCaches.asMap().computeIfAbsent(sessionId, id ->
+                CacheBuilder.newBuilder()
+                        .maximumSize(maxSize)
+                        .<Object, Item>removalListener(notification -> {
+                            if (notification.getCause() != RemovalCause.REPLACED) {
+                                unindex(new IndexEntry(id, notification.getKey()), notification.getValue());
+                            }
+                        })
+                        .build());
+        cache.put(key, item);
+
+        IndexEntry indexEntry = new IndexEntry(sessionId, key);
+        for (String entityName : item.entityNames) {
+            typeIndex.computeIfAbsent(entityName, name -> ConcurrentHashMap.newKeySet()).add(indexEntry);
+        }
+        // an invalidation could miss the item while it was being indexed
+        if (invalidationCount.get() != stamp) {
+            cache.invalidate(key);
+        }
+    }
+
+    protected void unindex(IndexEntry indexEntry, Item item) {
+        for (String entityName : item.entityNames) {
+            Set<IndexEntry> entries = typeIndex.get(entityName);
+            if (entries != null) {
+                entries.remove(indexEntry);
+            }
+        }
+    }
+
+    /**
+     * Discards cached instances and query results depending on the given entities.
+     */
+    public void invalidate(Collection<String> entityNames) {
+        if (entityNames.isEmpty())
+            return;
+        invalidationCount.incrementAndGet();
+        log.debug("Invalidating near cache for {}", entityNames);
+        for (String entityName : entityNames) {
+            Set<IndexEntry> entries = typeIndex.get(entityName);
+            if (entries == null)
+                continue;
+            for (IndexEntry entry : entries.toArray(new IndexEntry[0])) {
+                Cache<Object, Item> cache = sessionCaches.getIfPresent(entry.sessionId);
+                if (cache != null) {
+                    cache.invalidate(entry.key);
+                }
+                entries.remove(entry);
+            }
+        }
+    }
+
+    /**
+     * Discards all cached instances and query results.
+     */
+    public void invalidateAll() {
+        invalidationCount.incrementAndGet();
+        log.debug("Invalidating near cache");
+        sessionCaches.invalidateAll();
+        typeIndex.clear();
+    }
+
+    /**
+     * Discards cached instances of entities whose change timestamps differ from the previously received ones.
+     * @param timestamps entity name to the time of the last change, as returned by the middleware
+     */
+    public void applyChangeTimestamps(Map<String, Long> timestamps) {
+        Set<String> changed = new HashSet<>();
+        for (Map.Entry<String, Long> entry : timestamps.entrySet()) {
+            if (!entry.getValue().equals(changeTimestamps.get(entry.getKey()))) {
+                changed.add(entry.getKey());
+            }
+        }
+        // the middleware has been restarted or the request went to another node
+        for (String entityName : changeTimestamps.keySet()) {
+            if (!timestamps.containsKey(entityName)) {
+                changed.add(entityName);
+            }
+        }
+        invalidate(changed);
+        changeTimestamps.keySet().retainAll(timestamps.keySet());
+        changeTimestamps.putAll(timestamps);
+    }
+
+    protected Set<String> getViewEntities(MetaClass metaClass, View view) {
+        return viewEntities.computeIfAbsent(metaClass.getName() + "/" + view.getName(), k -> {
+            Set<String> entityNames = new HashSet<>();
+            entityNames.add(metaClass.getName());
+            collectViewEntities(metaClass, view, entityNames, Collections.newSetFromMap(new IdentityHashMap<>()));
+            return entityNames;
+        });
+    }
+
+    protected void collectViewEntities(MetaClass metaClass, View view, Set<String> entityNames, Set<View> visited) {
+        if (!visited.add(view))
+            return;
+        for (ViewProperty viewProperty : view.getProperties()) {
+            MetaProperty metaProperty = metaClass.getProperty(viewProperty.getName());
+            if (metaProperty == null || !metaProperty.getRange().isClass())
+                continue;
+            MetaClass propertyClass = metaProperty.getRange().asClass();
+            // embedded instances are stored and changed together with the owner
+            if (!metadata.getTools().isEmbedded(metaProperty)) {
+                entityNames.add(propertyClass.getName());
+            }
+            if (viewProperty.getView() != null) {
+                collectViewEntities(propertyClass, viewProperty.getView(), entityNames, visited);
+            }
+        }
+    }
+
+    /**
+     * @return names of entities used in the query, or empty set if the query result can not be cached
+     */
+    protected Set<String> getQueryEntities(String queryString) {
+        return queryEntities.asMap().computeIfAbsent(queryString, k -> {
+            // results of queries with macros and date functions depend on the current time
+            if (queryString.contains("@") || queryString.toLowerCase().contains("current_")) {
+                return Collections.emptySet();
+            }
+            Set<String> entityNames;
+            try {
+                entityNames = QueryTransformerFactory.createParser(queryString).getAllEntityNames();
+            } catch (RuntimeException e) {
+                log.debug("Unable to parse query, its result will not be cached: {}", e.toString());
+                return Collections.emptySet();
+            }
+            if (!cacheableEntities.containsAll(entityNames)) {
+                return Collections.emptySet();
+            }
+            return new HashSet<>(entityNames);
+        });
+    }
+
+    protected static class Item {
+
+        protected final byte[] bytes;
+        protected final Set<String> entityNames;
+
+        public Item(byte[] bytes, Set<String> entityNames) {
+            this.bytes = bytes;
+            this.entityNames = entityNames;
+        }
+    }
+
+    protected static class IndexEntry {
+
+        protected final UUID sessionId;
+        protected final Object key;
+
+        public IndexEntry(UUID sessionId, Object key) {
+            this.sessionId = sessionId;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            IndexEntry that = (IndexEntry) o;
+            return sessionId.equals(that.sessionId) && key.equals(that.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * sessionId.hashCode() + key.hashCode();
+        }
+    }
+
+    public static class Key {
+
+        protected final String entityName;
+        protected final Object id;
+        protected final String viewName;
+        protected final boolean softDeletion;
+        protected final boolean loadDynamicAttributes;
+        protected final Set<String> dynamicAttributeCodes;
+        protected final boolean loadPartialEntities;
+
+        public Key(String entityName, Object id, String viewName, boolean softDeletion,
+                   boolean loadDynamicAttributes, @Nullable Set<String> dynamicAttributeCodes,
+                   boolean loadPartialEntities) {
+            this.entityName = entityName;
+            this.id = id;
+            this.viewName = viewName;
+            this.softDeletion = softDeletion;
+            this.loadDynamicAttributes = loadDynamicAttributes;
+            this.dynamicAttributeCodes = dynamicAttributeCodes != null ? new HashSet<>(dynamicAttributeCodes) : null;
+            this.loadPartialEntities = loadPartialEntities;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            Key key = (Key) o;
+            return softDeletion == key.softDeletion
+                    && loadDynamicAttributes == key.loadDynamicAttributes
+                    && loadPartialEntities == key.loadPartialEntities
+                    && entityName.equals(key.entityName)
+                    && id.equals(key.id)
+                    && viewName.equals(key.viewName)
+                    && Objects.equals(dynamicAttributeCodes, key.dynamicAttributeCodes);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(entityName, id, viewName, softDeletion, loadDynamicAttributes, dynamicAttributeCodes,
+                    loadPartialEntities);
+        }
+
+        @Override
+        public String toString() {
+            return entityName + "-" + id + "/" + viewName;
+        }
+    }
+
+    public static class QueryKey {
+
+        protected final String entityName;
+        protected final LoadContext.Query query;
+        protected final String viewName;
+        protected final boolean softDeletion;
+        protected final boolean loadDynamicAttributes;
+        protected final Set<String> dynamicAttributeCodes;
+        protected final boolean loadPartialEntities;
+
+        public QueryKey(String entityName, LoadContext.Query query, String viewName, boolean softDeletion,
+                        boolean loadDynamicAttributes, @Nullable Set<String> dynamicAttributeCodes,
+                        boolean loadPartialEntities) {
+            this.entityName = entityName;
+            this.query = query;
+            this.viewName = viewName;
+            this.softDeletion = softDeletion;
+            this.loadDynamicAttributes = loadDynamicAttributes;
+            this.dynamicAttributeCodes = dynamicAttributeCodes != null ? new HashSet<>(dynamicAttributeCodes) : null;
+            this.loadPartialEntities = loadPartialEntities;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            QueryKey key = (QueryKey) o;
+            return softDeletion == key.softDeletion
+                    && loadDynamicAttributes == key.loadDynamicAttributes
+                    && loadPartialEntities == key.loadPartialEntities
+                    && entityName.equals(key.entityName)
+                    && query.equals(key.query)
+                    && viewName.equals(key.viewName)
+                    && Objects.equals(dynamicAttributeCodes, key.dynamicAttributeCodes);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(entityName, query, viewName, softDeletion, loadDynamicAttributes, dynamicAttributeCodes,
+                    loadPartialEntities);
+        }
+
+        @Override
+        public String toString() {
+            return entityName + "-" + query + "/" + viewName;
+        }
+    }
+}
\ No newline at end of file
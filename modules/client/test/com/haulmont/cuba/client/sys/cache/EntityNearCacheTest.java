@@ -0,0 +1,299 @@
+/*
+ * Copyright (c) 2008-2016 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.haulmont.cuba.client.sys.cache;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Sets;
+import com.haulmont.cuba.client.testsupport.CubaClientTestCase;
+import com.haulmont.cuba.core.global.LoadContext;
+import com.haulmont.cuba.core.global.QueryParser;
+import com.haulmont.cuba.core.global.QueryTransformerFactory;
+import com.haulmont.cuba.core.global.View;
+import com.haulmont.cuba.security.entity.Group;
+import com.haulmont.cuba.security.entity.User;
+import com.haulmont.cuba.security.entity.UserRole;
+import mockit.Mock;
+import mockit.MockUp;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class EntityNearCacheTest extends CubaClientTestCase {
+
+    private static final String GROUP_QUERY = "select g from sec$Group g where g.name = :name";
+    private static final String GROUP_BY_USER_QUERY =
+            "select g from sec$Group g where exists (select u from sec$User u where u.group.id = g.id and u.login = :login)";
+    private static final String USER_QUERY = "select u from sec$User u where u.login = :login";
+    private static final String ROLE_QUERY =
+            "select g from sec$Group g where exists (select r from sec$Role r where r.name = g.name)";
+
+    private EntityNearCache cache;
+    private UUID sessionId = UUID.randomUUID();
+    private View groupView;
+    private View userView;
+
+    @Before
+    public void setUp() throws Exception {
+        addEntityPackage("com.haulmont.cuba");
+        setupInfrastructure();
+
+        Map<String, Set<String>> queryEntities = new HashMap<>();
+        queryEntities.put(GROUP_QUERY, Sets.newHashSet("sec$Group"));
+        queryEntities.put(GROUP_BY_USER_QUERY, Sets.newHashSet("sec$Group", "sec$User"));
+        queryEntities.put(USER_QUERY, Sets.newHashSet("sec$User"));
+        queryEntities.put(ROLE_QUERY, Sets.newHashSet("sec$Group", "sec$Role"));
+
+        new MockUp<QueryTransformerFactory>() {
+            @Mock
+            public QueryParser createParser(String query) {
+                return new MockUp<QueryParser>() {
+                    @Mock
+                    public Set<String> getAllEntityNames() {
+                        return queryEntities.get(query);
+                    }
+                }.getMockInstance();
+            }
+        };
+
+        cache = new EntityNearCache(metadata, Sets.newHashSet("sec$Group", "sec$User"),
+                ImmutableMap.of("sec$Group", 1L), 10, true);
+
+        groupView = new View(Group.class, "test")
+                .addProperty("name")
+                .seal();
+        userView = new View(User.class, "test")
+                .addProperty("login")
+                .addProperty("group", groupView)
+                .seal();
+    }
+
+    @Test
+    public void testGetPut() throws Exception {
+        Group group = createGroup();
+        LoadContext<Group> context = LoadContext.create(Group.class).setId(group.getId()).setView(groupView);
+        assertTrue(cache.isCacheable(context));
+
+        EntityNearCache.Key key = cache.createKey(context);
+        assertNull(cache.get(sessionId, key));
+
+        cache.put(sessionId, key, group, cache.getStamp());
+
+        Group cached = cache.get(sessionId, key);
+        assertNotNull(cached);
+        assertNotSame(group, cached);
+        assertEquals(group.getName(), cached.getName());
+
+        // caches of different sessions are separated
+        assertNull(cache.get(UUID.randomUUID(), key));
+    }
+
+    @Test
+    public void testNotCacheable() throws Exception {
+        LoadContext<Group> context = LoadContext.create(Group.class).setId(UUID.randomUUID()).setView(groupView);
+        context.getDbHints().put("hint", "value");
+        assertFalse(cache.isCacheable(context));
+
+        View notSealed = new View(Group.class, "test").addProperty("name");
+        assertFalse(cache.isCacheable(LoadContext.create(Group.class).setId(UUID.randomUUID()).setView(notSealed)));
+
+        // the view references a not cacheable entity
+        View withRoles = new View(User.class, "withRoles")
+                .addProperty("userRoles", new View(UserRole.class))
+                .seal();
+        assertFalse(cache.isCacheable(LoadContext.create(User.class).setId(UUID.randomUUID()).setView(withRoles)));
+    }
+
+    @Test
+    public void testDynamicAttributeCodes() throws Exception {
+        Group group = createGroup();
+        LoadContext<Group> partialContext = LoadContext.create(Group.class).setId(group.getId()).setView(groupView)
+                .setLoadDynamicAttributes(true)
+                .setDynamicAttributeCodes(Collections.singleton("attr1"));
+        assertTrue(cache.isCacheable(partialContext));
+        cache.put(sessionId, cache.createKey(partialContext), group, cache.getStamp());
+
+        // the instance with a part of dynamic attributes is not returned for a load of all of them
+        LoadContext<Group> fullContext = LoadContext.create(Group.class).setId(group.getId()).setView(groupView)
+                .setLoadDynamicAttributes(true);
+        assertNull(cache.get(sessionId, cache.createKey(fullContext)));
+        assertNotNull(cache.get(sessionId, cache.createKey(partialContext)));
+    }
+
+    @Test
+    public void testStaleStamp() throws Exception {
+        Group group = createGroup();
+        LoadContext<Group> context = LoadContext.create(Group.class).setId(group.getId()).setView(groupView);
+        assertTrue(cache.isCacheable(context));
+        EntityNearCache.Key key = cache.createKey(context);
+
+        // the instance was loaded before an invalidation and can be stale
+        long stamp = cache.getStamp();
+        cache.invalidate(Collections.singleton("sec$Group"));
+        cache.put(sessionId, key, group, stamp);
+
+        assertNull(cache.get(sessionId, key));
+    }
+
+    @Test
+    public void testInvalidateByViewEntities() throws Exception {
+        User user = new User();
+        user.setLogin("test");
+        user.setGroup(createGroup());
+        LoadContext<User> context = LoadContext.create(User.class).setId(user.getId()).setView(userView);
+        assertTrue(cache.isCacheable(context));
+        EntityNearCache.Key key = cache.createKey(context);
+
+        cache.put(sessionId, key, user, cache.getStamp());
+        cache.invalidate(Collections.singleton("sec$Role"));
+        assertNotNull(cache.get(sessionId, key));
+
+        // the user is discarded on a change of the group referenced by the view
+        cache.invalidate(Collections.singleton("sec$Group"));
+        assertNull(cache.get(sessionId, key));
+    }
+
+    @Test
+    public void testApplyChangeTimestamps() throws Exception {
+        Group group = createGroup();
+        LoadContext<Group> context = LoadContext.create(Group.class).setId(group.getId()).setView(groupView);
+        assertTrue(cache.isCacheable(context));
+        EntityNearCache.Key key = cache.createKey(context);
+        cache.put(sessionId, key, group, cache.getStamp());
+
+        cache.applyChangeTimestamps(ImmutableMap.of("sec$Group", 1L, "sec$User", 5L));
+        assertNotNull(cache.get(sessionId, key));
+
+        cache.applyChangeTimestamps(ImmutableMap.of("sec$Group", 2L, "sec$User", 5L));
+        assertNull(cache.get(sessionId, key));
+
+        cache.put(sessionId, key, group, cache.getStamp());
+        assertNotNull(cache.get(sessionId, key));
+
+        // the middleware has been restarted and knows nothing about previous changes
+        cache.applyChangeTimestamps(Collections.emptyMap());
+        assertNull(cache.get(sessionId, key));
+    }
+
+    @Test
+    public void testQueryHit() throws Exception {
+        LoadContext<Group> context = createGroupQueryContext(GROUP_QUERY, "name", "group");
+        assertTrue(cache.isQueryCacheable(context));
+
+        EntityNearCache.QueryKey key = cache.createQueryKey(context);
+        assertNull(cache.getList(sessionId, key));
+
+        cache.putList(sessionId, key, Collections.singletonList(createGroup()), cache.getStamp());
+
+        List<Group> cached = cache.getList(sessionId, key);
+        assertNotNull(cached);
+        assertEquals(1, cached.size());
+        assertNotSame(cached, cache.getList(sessionId, key));
+
+        // the same query with other parameter values is a different key
+        LoadContext<Group> otherContext = createGroupQueryContext(GROUP_QUERY, "name", "other");
+        assertTrue(cache.isQueryCacheable(otherContext));
+        assertNull(cache.getList(sessionId, cache.createQueryKey(otherContext)));
+    }
+
+    @Test
+    public void testQueryNotCacheable() throws Exception {
+        LoadContext<Group> context = createGroupQueryContext(GROUP_QUERY, "name", "group");
+        context.getQuery().setCacheable(false);
+        assertFalse(cache.isQueryCacheable(context));
+
+        // the query uses a not cacheable entity
+        assertFalse(cache.isQueryCacheable(createGroupQueryContext(ROLE_QUERY, null, null)));
+
+        // the result depends on the current time
+        assertFalse(cache.isQueryCacheable(createGroupQueryContext(
+                "select g from sec$Group g where @between(g.createTs, now-1, now, day)", null, null)));
+
+        EntityNearCache disabled = new EntityNearCache(metadata, Sets.newHashSet("sec$Group", "sec$User"),
+                Collections.emptyMap(), 10, false);
+        assertFalse(disabled.isQueryCacheable(createGroupQueryContext(GROUP_QUERY, "name", "group")));
+    }
+
+    @Test
+    public void testQueryInvalidationByQueryEntities() throws Exception {
+        LoadContext<Group> context = createGroupQueryContext(GROUP_BY_USER_QUERY, "login", "user");
+        assertTrue(cache.isQueryCacheable(context));
+        EntityNearCache.QueryKey key = cache.createQueryKey(context);
+
+        cache.putList(sessionId, key, Collections.singletonList(createGroup()), cache.getStamp());
+        cache.invalidate(Collections.singleton("sec$Role"));
+        assertNotNull(cache.getList(sessionId, key));
+
+        // users are not in the view, but the result depends on them through the query
+        cache.invalidate(Collections.singleton("sec$User"));
+        assertNull(cache.getList(sessionId, key));
+    }
+
+    @Test
+    public void testQueryInvalidationByViewEntities() throws Exception {
+        LoadContext<User> context = LoadContext.create(User.class)
+                .setQuery(LoadContext.createQuery(USER_QUERY).setParameter("login", "user").setCacheable(true))
+                .setView(userView);
+        assertTrue(cache.isQueryCacheable(context));
+        EntityNearCache.QueryKey key = cache.createQueryKey(context);
+
+        User user = new User();
+        user.setLogin("user");
+        user.setGroup(createGroup());
+        cache.putList(sessionId, key, Collections.singletonList(user), cache.getStamp());
+        assertNotNull(cache.getList(sessionId, key));
+
+        // groups are not in the query, but the loaded users contain them according to the view
+        cache.invalidate(Collections.singleton("sec$Group"));
+        assertNull(cache.getList(sessionId, key));
+    }
+
+    @Test
+    public void testQueryStaleStamp() throws Exception {
+        LoadContext<Group> context = createGroupQueryContext(GROUP_QUERY, "name", "group");
+        assertTrue(cache.isQueryCacheable(context));
+        EntityNearCache.QueryKey key = cache.createQueryKey(context);
+
+        // the list was loaded while an entity was being changed
+        long stamp = cache.getStamp();
+        cache.invalidate(Collections.singleton("sec$Group"));
+        cache.putList(sessionId, key, Collections.singletonList(createGroup()), stamp);
+
+        assertNull(cache.getList(sessionId, key));
+
+        // a later load is cached
+        cache.putList(sessionId, key, Collections.singletonList(createGroup()), cache.getStamp());
+        assertNotNull(cache.getList(sessionId, key));
+    }
+
+    private LoadContext<Group> createGroupQueryContext(String queryString, String paramName, Object paramValue) {
+        LoadContext.Query query = LoadContext.createQuery(queryString).setCacheable(true);
+        if (paramName != null) {
+            query.setParameter(paramName, paramValue);
+        }
+        return LoadContext.create(Group.class).setQuery(query).setView(groupView);
+    }
+
+    private Group createGroup() {
+        Group group = new Group();
+        group.setName("group-" + group.getId());
+        return group;
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2008-2016 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.haulmont.cuba.core.app;
+
+import com.haulmont.cuba.core.global.UuidProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import java.util.*;
+
+/**
+ * Keeps a bounded sequence of recent changes of config properties, dynamic attribute categories, cacheable
+ * entities and leased unique numbers domains, and hands them out to clients waiting in {@link CacheInvalidationService}.
+ * <p>Changes received from other middleware blocks of the cluster are registered too, so a client can wait on any
+ * block. Sequence numbers are local to the block, which is identified by a random node id generated on startup.
+ */
+@Component(CacheInvalidationsTracker.NAME)
+public class CacheInvalidationsTracker {
+
+    public static final String NAME = "cuba_CacheInvalidationsTracker";
+
+    private static final Logger log = LoggerFactory.getLogger(CacheInvalidationsTracker.class);
+
+    @Inject
+    protected ServerConfig serverConfig;
+
+    protected final String nodeId = UuidProvider.createUuid().toString();
+
+    protected final Deque<Change> changes = new ArrayDeque<>();
+
+    protected long sequence;
+
+    /**
+     * Registers changes of config properties stored in the database.
+     * @param names names of changed properties, or null if all of them could have changed
+     */
+    public void registerConfigChanges(@Nullable Collection<String> names) {
+        if (names != null && names.isEmpty())
+            return;
+        register(new Change(names == null ? null : new HashSet<>(names), Collections.emptySet(), Collections.emptySet(),
+                Collections.emptySet()));
+    }
+
+    /**
+     * Registers changes of dynamic attribute categories.
+     * @param categoryIds ids of changed categories, or null if all of them could have changed
+     */
+    public void registerCategoryChanges(@Nullable Collection<UUID> categoryIds) {
+        if (categoryIds != null && categoryIds.isEmpty())
+            return;
+        register(new Change(Collections.emptySet(), categoryIds == null ? null : new HashSet<>(categoryIds),
+                Collections.emptySet(), Collections.emptySet()));
+    }
+
+    /**
+     * Registers committed changes of cacheable entities.
+     * @param entityNames names of changed entities
+     */
+    public void registerEntityChanges(Collection<String> entityNames) {
+        if (entityNames.isEmpty())
+            return;
+        register(new Change(Collections.emptySet(), Collections.emptySet(), new HashSet<>(entityNames),
+                Collections.emptySet()));
+    }
+
+    /**
+     * Registers changes of sequences of unique numbers domains working in leased mode.
+     * @param domains domains whose leases must be discarded
+     */
+    public void registerUniqueNumbersChanges(Collection<String> domains) {
+        if (domains.isEmpty())
+            return;
+        register(new Change(Collections.emptySet(), Collections.emptySet(), Collections.emptySet(),
+                new HashSet<>(domains)));
+    }
+
+    protected synchronized void register(Change change) {
+        change.sequence = ++sequence;
+        changes.addLast(change);
+        int bufferSize = Math.max(serverConfig.getCacheInvalidationsBufferSize(), 1);
+        while (changes.size() > bufferSize) {
+            changes.removeFirst();
+        }
+        log.trace("Registered cache changes #{}", change.sequence);
+        notifyAll();
+    }
+
+    /**
+     * Returns changes registered after the given sequence number, waiting for them if there are none.
+     * See {@link CacheInvalidationService#awaitInvalidations(String, long, long)}.
+     */
+    public synchronized CacheInvalidations awaitInvalidations(@Nullable String nodeId, long lastSequence,
+                                                              long timeoutMs) {
+        if (!this.nodeId.equals(nodeId) || lastSequence > sequence) {
+            return CacheInvalidations.reset(this.nodeId, sequence);
+        }
+
+        long maxWaitMs = serverConfig.getCacheInvalidationsMaxWaitSec() * 1000L;
+        long deadline = System.currentTimeMillis() + Math.max(0, Math.min(timeoutMs, maxWaitMs));
+        try {
+            long remaining;
+            while (sequence == lastSequence && (remaining = deadline - System.currentTimeMillis()) > 0) {
+                wait(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (sequence == lastSequence) {
+            return new CacheInvalidations(this.nodeId, sequence, false,
+                    Collections.emptySet(), Collections.emptySet(), Collections.emptySet(), Collections.emptySet());
+        }
+        if (changes.isEmpty() || changes.getFirst().sequence > lastSequence + 1) {
+            return CacheInvalidations.reset(this.nodeId, sequence);
+        }
+
+        Set<String> configNames = new HashSet<>();
+        Set<UUID> categoryIds = new HashSet<>();
+        Set<String> entityNames = new HashSet<>();
+        Set<String> uniqueNumbersDomains = new HashSet<>();
+        for (Iterator<Change> it = changes.descendingIterator(); it.hasNext(); ) {
+            Change change = it.next();
+            if (change.sequence <= lastSequence)
+                break;
+            if (configNames != null) {
+                if (change.configNames == null)
+                    configNames = null;
+                else
+                    configNames.addAll(change.configNames);
+            }
+            if (categoryIds != null) {
+                if (change.categoryIds == null)
+                    categoryIds = null;
+                else
+                    categoryIds.addAll(change.categoryIds);
+            }
+            entityNames.addAll(change.entityNames);
+            uniqueNumbersDomains.addAll(change.uniqueNumbersDomains);
+        }
+        return new CacheInvalidations(this.nodeId, sequence, false, configNames, categoryIds, entityNames,
+                uniqueNumbersDomains);
+    }
+
+    protected static class Change {
+        protected long sequence;
+        protected final Set<String> configNames;
+        protected final Set<UUID> categoryIds;
+        protected final Set<String> entityNames;
+        protected final Set<String> uniqueNumbersDomains;
+
+        protected Change(Set<String> configNames, Set<UUID> categoryIds, Set<String> entityNames,
+                         Set<String> uniqueNumbersDomains) {
+            this.configNames = configNames;
+            this.categoryIds = categoryIds;
+            this.entityNames = entityNames;
+            this.uniqueNumbersDomains = uniqueNumbersDomains;
+        }
+    }
+}
@@ -20,6 +20,7 @@ import com.haulmont.bali.db.QueryRunner;
 import com.haulmont.bali.db.ResultSetHandler;
 import com.haulmont.bali.util.Preconditions;
 import com.haulmont.cuba.core.*;
+import com.haulmont.cuba.core.config.ConfigGetter;
 import com.haulmont.cuba.core.entity.Config;
 import com.haulmont.cuba.core.global.AppBeans;
 import com.haulmont.cuba.core.global.Metadata;
@@ -27,13 +28,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.springframework.stereotype.Component;
+
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 import java.io.Serializable;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -48,6 +49,9 @@ public class ConfigStorage implements ConfigStorageAPI {
     @Inject
     protected Persistence persistence;
 
+    @Inject
+    protected CacheInvalidationsTracker cacheInvalidationsTracker;
+
     protected ClusterManagerAPI clusterManager;
 
     protected Map<String, String> cache;
@@ -60,6 +64,13 @@ public class ConfigStorage implements ConfigStorageAPI {
 
     private static class InvalidateCacheMsg implements Serializable {
         private static final long serialVersionUID = -3116358584797500962L;
+
+        // null means all properties
+        private Set<String> names;
+
+        private InvalidateCacheMsg(@Nullable Set<String> names) {
+            this.names = names;
+        }
     }
     
     @Inject
@@ -69,14 +80,20 @@ public class ConfigStorage implements ConfigStorageAPI {
             @Override
             public void receive(InvalidateCacheMsg message) {
                 internalClearCache();
+                cacheInvalidationsTracker.registerConfigChanges(message.names);
             }
         });
     }
     
     @Override
     public void clearCache() {
+        clearCache(null);
+    }
+
+    private void clearCache(@Nullable Set<String> names) {
         internalClearCache();
-        clusterManager.send(new InvalidateCacheMsg());
+        cacheInvalidationsTracker.registerConfigChanges(names);
+        clusterManager.send(new InvalidateCacheMsg(names));
     }
 
     private void internalClearCache() {
@@ -86,6 +103,7 @@ public class ConfigStorage implements ConfigStorageAPI {
         } finally {
             writeLock.unlock();
         }
+        ConfigGetter.invalidateCachedValues();
     }
 
     @Override
@@ -168,7 +186,7 @@ public class ConfigStorage implements ConfigStorageAPI {
         } finally {
             tx.end();
         }
-        clearCache();
+        clearCache(Collections.singleton(name.trim()));
     }
 
     private Config getConfigInstance(String name) {
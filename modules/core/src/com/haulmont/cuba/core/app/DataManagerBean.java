@@ -86,6 +86,21 @@ public class DataManagerBean implements DataManager {
         return entities;
     }
 
+    @Override
+    public List<BatchLoadResult<?>> loadBatch(List<? extends LoadContext<?>> contexts) {
+        List<BatchLoadResult<?>> results = new ArrayList<>(contexts.size());
+        for (LoadContext<?> context : contexts) {
+            try {
+                results.add(BatchLoadResult.of(loadList(context)));
+            } catch (RuntimeException e) {
+                // the exception is passed to the caller in the result and is not logged by the service interceptor
+                log.warn("Error loading {} in batch: {}", context, e.toString());
+                results.add(BatchLoadResult.failed(e));
+            }
+        }
+        return results;
+    }
+
     @Override
     public long getCount(LoadContext<? extends Entity> context) {
         MetaClass metaClass = metadata.getClassNN(context.getMetaClass());
@@ -18,6 +18,7 @@ package com.haulmont.cuba.core.app;
 
 import com.haulmont.cuba.core.entity.Entity;
 import com.haulmont.cuba.core.entity.KeyValueEntity;
+import com.haulmont.cuba.core.global.BatchLoadResult;
 import com.haulmont.cuba.core.global.CommitContext;
 import com.haulmont.cuba.core.global.DataManager;
 import com.haulmont.cuba.core.global.LoadContext;
@@ -51,6 +52,11 @@ public class DataServiceBean implements DataService {
         return dataManager.secure().loadList(context);
     }
 
+    @Override
+    public List<BatchLoadResult<?>> loadBatch(List<? extends LoadContext<?>> contexts) {
+        return dataManager.secure().loadBatch(contexts);
+    }
+
     @Override
     public long getCount(LoadContext<? extends Entity> context) {
         return dataManager.secure().getCount(context);
@@ -17,8 +17,10 @@
 
 package com.haulmont.cuba.core.app;
 
+import com.google.common.util.concurrent.RateLimiter;
 import com.haulmont.cuba.core.entity.SendingAttachment;
 import com.haulmont.cuba.core.entity.SendingMessage;
+import com.haulmont.cuba.core.global.Configuration;
 import com.haulmont.cuba.core.global.EmailHeader;
 import com.haulmont.cuba.core.global.FileTypesHelper;
 import com.haulmont.cuba.core.global.TimeSource;
@@ -30,11 +32,14 @@ import org.perf4j.StopWatch;
 import org.perf4j.log4j.Log4JStopWatch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 
 import javax.activation.DataHandler;
 import javax.activation.DataSource;
 import org.springframework.stereotype.Component;
+import javax.annotation.Nullable;
 import javax.annotation.Resource;
 import javax.inject.Inject;
 import javax.mail.Message;
@@ -43,6 +48,8 @@ import javax.mail.Part;
 import javax.mail.internet.*;
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component(EmailSenderAPI.NAME)
 public class EmailSender implements EmailSenderAPI {
@@ -54,15 +61,26 @@ public class EmailSender implements EmailSenderAPI {
     @Inject
     protected TimeSource timeSource;
 
+    protected EmailerConfig config;
+
+    protected Map<String, RateLimiter> domainRateLimiters = new ConcurrentHashMap<>();
+
     @Resource(name = CubaMailSender.NAME)
     public void setMailSender(JavaMailSender mailSender) {
         this.mailSender = mailSender;
     }
 
+    @Inject
+    public void setConfig(Configuration configuration) {
+        this.config = configuration.getConfig(EmailerConfig.class);
+    }
+
     @Override
     public void sendEmail(SendingMessage sendingMessage) throws MessagingException {
         MimeMessage msg = createMimeMessage(sendingMessage);
 
+        acquireSendingPermit(sendingMessage);
+
         StopWatch sw = new Log4JStopWatch("EmailSender.send");
         mailSender.send(msg);
         sw.stop();
@@ -70,6 +88,97 @@ public class EmailSender implements EmailSenderAPI {
         log.info("Email '" + msg.getSubject() + "' to '" + sendingMessage.getAddress() + "' has been sent successfully");
     }
 
+    @Override
+    public Map<SendingMessage, Exception> sendEmails(List<SendingMessage> sendingMessages) {
+        Map<SendingMessage, Exception> failedMessages = new LinkedHashMap<>();
+        Map<MimeMessage, SendingMessage> mimeMessages = new LinkedHashMap<>();
+        for (SendingMessage sendingMessage : sendingMessages) {
+            MimeMessage mimeMessage;
+            try {
+                mimeMessage = createMimeMessage(sendingMessage);
+            } catch (Exception e) {
+                failedMessages.put(sendingMessage, e);
+                continue;
+            }
+            if (!tryAcquireSendingPermit(sendingMessage)) {
+                // send the messages allowed so far and wait until the domain of this one is allowed again
+                sendMimeMessages(mimeMessages, failedMessages);
+                mimeMessages.clear();
+                acquireSendingPermit(sendingMessage);
+            }
+            mimeMessages.put(mimeMessage, sendingMessage);
+        }
+        sendMimeMessages(mimeMessages, failedMessages);
+        return failedMessages;
+    }
+
+    protected void sendMimeMessages(Map<MimeMessage, SendingMessage> mimeMessages,
+                                    Map<SendingMessage, Exception> failedMessages) {
+        if (mimeMessages.isEmpty()) {
+            return;
+        }
+
+        StopWatch sw = new Log4JStopWatch("EmailSender.sendBatch");
+        try {
+            mailSender.send(mimeMessages.keySet().toArray(new MimeMessage[mimeMessages.size()]));
+        } catch (MailSendException e) {
+            if (e.getFailedMessages().isEmpty()) {
+                // messages have been sent, but closing the connection failed
+                log.warn("Error after sending a batch of emails", e);
+            }
+            for (Map.Entry<Object, Exception> entry : e.getFailedMessages().entrySet()) {
+                SendingMessage sendingMessage = mimeMessages.get(entry.getKey());
+                if (sendingMessage != null) {
+                    failedMessages.put(sendingMessage, new MailSendException("Failed to send email", entry.getValue()));
+                }
+            }
+        } catch (MailException e) {
+            for (SendingMessage sendingMessage : mimeMessages.values()) {
+                failedMessages.put(sendingMessage, e);
+            }
+        }
+        sw.stop();
+
+        for (SendingMessage sendingMessage : mimeMessages.values()) {
+            if (!failedMessages.containsKey(sendingMessage)) {
+                log.info("Email '" + sendingMessage.getCaption() + "' to '" + sendingMessage.getAddress() + "' has been sent successfully");
+            }
+        }
+    }
+
+    /**
+     * Blocks until the message can be sent without exceeding the sending rate for the domain of its recipient.
+     */
+    protected void acquireSendingPermit(SendingMessage sendingMessage) {
+        RateLimiter rateLimiter = getRateLimiter(sendingMessage);
+        if (rateLimiter != null) {
+            rateLimiter.acquire();
+        }
+    }
+
+    /**
+     * @return true if the message can be sent right now without exceeding the sending rate for the domain
+     * of its recipient
+     */
+    protected boolean tryAcquireSendingPermit(SendingMessage sendingMessage) {
+        RateLimiter rateLimiter = getRateLimiter(sendingMessage);
+        return rateLimiter == null || rateLimiter.tryAcquire();
+    }
+
+    @Nullable
+    protected RateLimiter getRateLimiter(SendingMessage sendingMessage) {
+        int rate = config.getSendingRatePerDomain();
+        if (rate <= 0) {
+            return null;
+        }
+        String domain = StringUtils.substringAfterLast(sendingMessage.getAddress(), "@").trim().toLowerCase();
+        RateLimiter rateLimiter = domainRateLimiters.computeIfAbsent(domain, d -> RateLimiter.create(rate));
+        if (rateLimiter.getRate() != rate) {
+            rateLimiter.setRate(rate);
+        }
+        return rateLimiter;
+    }
+
     protected MimeMessage createMimeMessage(SendingMessage sendingMessage) throws MessagingException {
         MimeMessage msg = mailSender.createMimeMessage();
         assignRecipient(sendingMessage, msg);
@@ -20,6 +20,8 @@ package com.haulmont.cuba.core.app;
 import com.haulmont.cuba.core.entity.SendingMessage;
 
 import javax.mail.MessagingException;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Adapter to javax.mail email sending API.
@@ -38,4 +40,13 @@ public interface EmailSenderAPI {
      * @throws MessagingException if delivery fails
      */
     void sendEmail(SendingMessage sendingMessage) throws MessagingException;
+
+    /**
+     * Sends emails through a single connection to the SMTP server.
+     * If the sending rate per domain is limited, the messages are sent in several parts, waiting between them.
+     * Message bodies and attachments' content must be loaded from file storage.
+     *
+     * @return messages that have not been sent, with the reasons of failures. Empty map if all messages have been sent.
+     */
+    Map<SendingMessage, Exception> sendEmails(List<SendingMessage> sendingMessages);
 }
\ No newline at end of file
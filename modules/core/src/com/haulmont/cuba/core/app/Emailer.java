@@ -16,8 +16,10 @@
  */
 package com.haulmont.cuba.core.app;
 
+import com.google.common.collect.Lists;
 import com.haulmont.cuba.core.EntityManager;
 import com.haulmont.cuba.core.Persistence;
+import com.haulmont.cuba.core.Query;
 import com.haulmont.cuba.core.Transaction;
 import com.haulmont.cuba.core.TypedQuery;
 import com.haulmont.cuba.core.entity.FileDescriptor;
@@ -51,6 +53,11 @@ public class Emailer implements EmailerAPI {
 
     protected static final String BODY_FILE_EXTENSION = "txt";
 
+    /**
+     * Max number of ids in a single query that updates statuses of sent messages.
+     */
+    protected static final int STATUS_UPDATE_BATCH_SIZE = 100;
+
     private Logger log = LoggerFactory.getLogger(Emailer.class);
 
     protected EmailerConfig config;
@@ -183,6 +190,77 @@ public class Emailer implements EmailerAPI {
         }
     }
 
+    protected void sendSendingMessages(List<SendingMessage> sendingMessages) {
+        Map<SendingMessage, Exception> failedMessages;
+        try {
+            failedMessages = emailSender.sendEmails(sendingMessages);
+        } catch (Exception e) {
+            failedMessages = new HashMap<>();
+            for (SendingMessage sendingMessage : sendingMessages) {
+                failedMessages.put(sendingMessage, e);
+            }
+        }
+
+        Map<SendingStatus, List<SendingMessage>> messagesByStatus = new EnumMap<>(SendingStatus.class);
+        for (SendingMessage sendingMessage : sendingMessages) {
+            Exception e = failedMessages.get(sendingMessage);
+            SendingStatus status;
+            if (e == null) {
+                status = SendingStatus.SENT;
+            } else {
+                log.warn("Unable to send email to '" + sendingMessage.getAddress() + "'", e);
+                status = isNeedToRetry(e) ? SendingStatus.QUEUE : SendingStatus.NOTSENT;
+            }
+            messagesByStatus.computeIfAbsent(status, s -> new ArrayList<>()).add(sendingMessage);
+        }
+
+        updateSendingStatus(messagesByStatus);
+    }
+
+    protected void updateSendingStatus(List<SendingMessage> sendingMessages, SendingStatus status) {
+        updateSendingStatus(Collections.singletonMap(status, sendingMessages));
+    }
+
+    /**
+     * Sets the status of messages after a sending attempt with a few bulk updates in one transaction.
+     */
+    protected void updateSendingStatus(Map<SendingStatus, List<SendingMessage>> messagesByStatus) {
+        int count = 0;
+        for (List<SendingMessage> sendingMessages : messagesByStatus.values()) {
+            count += sendingMessages.size();
+        }
+        if (count == 0) {
+            return;
+        }
+        try (Transaction tx = persistence.createTransaction()) {
+            EntityManager em = persistence.getEntityManager();
+            Date now = timeSource.currentTimestamp();
+            String userLogin = userSessionSource.getUserSession().getUser().getLogin();
+            for (Map.Entry<SendingStatus, List<SendingMessage>> entry : messagesByStatus.entrySet()) {
+                SendingStatus status = entry.getKey();
+                for (List<SendingMessage> batch : Lists.partition(entry.getValue(), STATUS_UPDATE_BATCH_SIZE)) {
+                    List<UUID> ids = new ArrayList<>(batch.size());
+                    for (SendingMessage sendingMessage : batch) {
+                        ids.add(sendingMessage.getId());
+                    }
+                    Query query = em.createQuery(
+                            "update sys$SendingMessage sm set sm.status = :status, sm.attemptsMade = sm.attemptsMade + 1," +
+                                    (status == SendingStatus.SENT ? " sm.dateSent = :updateTs," : "") +
+                                    " sm.updateTs = :updateTs, sm.updatedBy = :updatedBy, sm.version = sm.version + 1" +
+                                    " where sm.id in :ids");
+                    query.setParameter("status", status.getId());
+                    query.setParameter("updateTs", now);
+                    query.setParameter("updatedBy", userLogin);
+                    query.setParameter("ids", ids);
+                    query.executeUpdate();
+                }
+            }
+            tx.commit();
+        } catch (Exception e) {
+            log.error("Error updating status of {} emails", count, e);
+        }
+    }
+
     protected void persistAndSendEmail(EmailInfo emailInfo) throws EmailException {
         Objects.requireNonNull(emailInfo.getAddresses(), "addresses are null");
         Objects.requireNonNull(emailInfo.getCaption(), "caption is null");
@@ -282,8 +360,15 @@ public class Emailer implements EmailerAPI {
     protected String sendQueuedEmails() {
         List<SendingMessage> messagesToSend = loadEmailsToSend();
 
-        for (SendingMessage msg : messagesToSend) {
-            submitExecutorTask(msg);
+        int batchSize = config.getSendingBatchSize();
+        if (batchSize > 1) {
+            for (List<SendingMessage> batch : Lists.partition(messagesToSend, batchSize)) {
+                submitExecutorTask(new ArrayList<>(batch));
+            }
+        } else {
+            for (SendingMessage msg : messagesToSend) {
+                submitExecutorTask(msg);
+            }
         }
 
         if (messagesToSend.isEmpty()) {
@@ -323,6 +408,18 @@ public class Emailer implements EmailerAPI {
         }
     }
 
+    protected void submitExecutorTask(List<SendingMessage> messages) {
+        try {
+            Runnable mailSendTask = new EmailBatchSendTask(messages);
+            mailSendTaskExecutor.execute(mailSendTask);
+        } catch (RejectedExecutionException e) {
+            updateSendingStatus(messages, SendingStatus.QUEUE);
+        } catch (Exception e) {
+            log.error("Exception while sending emails: ", e);
+            updateSendingStatus(messages, isNeedToRetry(e) ? SendingStatus.QUEUE : SendingStatus.NOTSENT);
+        }
+    }
+
     protected List<SendingMessage> loadEmailsToSend() {
         Date sendTimeoutTime = DateUtils.addSeconds(timeSource.currentTimestamp(), -config.getSendingTimeoutSec());
 
@@ -340,7 +437,7 @@ public class Emailer implements EmailerAPI {
             query.setParameter("time", sendTimeoutTime);
             query.setParameter("statusSending", SendingStatus.SENDING.getId());
 
-            View view = metadata.getViewRepository().getView(SendingMessage.class, "sendingMessage.loadFromQueue");
+            View view = View.copy(metadata.getViewRepository().getView(SendingMessage.class, "sendingMessage.loadFromQueue"));
             view.setLoadPartialEntities(true); // because SendingAttachment.content has FetchType.LAZY
             query.setView(view);
 
@@ -359,8 +456,10 @@ public class Emailer implements EmailerAPI {
             tx.commit();
         }
 
+        // attachments of messages sent to many recipients share the same file
+        Map<UUID, byte[]> loadedFiles = new HashMap<>();
         for (SendingMessage message : emailsToSend) {
-            loadBodyAndAttachments(message);
+            loadBodyAndAttachments(message, loadedFiles);
         }
         return emailsToSend;
     }
@@ -390,6 +489,10 @@ public class Emailer implements EmailerAPI {
     }
 
     protected void loadBodyAndAttachments(SendingMessage message) {
+        loadBodyAndAttachments(message, new HashMap<>());
+    }
+
+    protected void loadBodyAndAttachments(SendingMessage message, Map<UUID, byte[]> loadedFiles) {
         try {
             if (message.getContentTextFile() != null) {
                 byte[] bodyContent = fileStorage.loadFile(message.getContentTextFile());
@@ -398,8 +501,13 @@ public class Emailer implements EmailerAPI {
             }
 
             for (SendingAttachment attachment : message.getAttachments()) {
-                if (attachment.getContentFile() != null) {
-                    byte[] content = fileStorage.loadFile(attachment.getContentFile());
+                FileDescriptor contentFile = attachment.getContentFile();
+                if (contentFile != null) {
+                    byte[] content = loadedFiles.get(contentFile.getId());
+                    if (content == null) {
+                        content = fileStorage.loadFile(contentFile);
+                        loadedFiles.put(contentFile.getId(), content);
+                    }
                     attachment.setContent(content);
                 }
             }
@@ -461,11 +569,16 @@ public class Emailer implements EmailerAPI {
 
         for (SendingAttachment attachment : message.getAttachments()) {
             if (useFileStorage) {
-                FileDescriptor contentFile = createAttachmentFileDescriptor(attachment);
-
-                fileStorage.saveFile(contentFile, attachment.getContent());
-                context.files.add(contentFile);
-                em.persist(contentFile);
+                // messages split from one EmailInfo share the content of attachments, store it once
+                FileDescriptor contentFile = context.attachmentFiles.get(attachment.getContent());
+                if (contentFile == null) {
+                    contentFile = createAttachmentFileDescriptor(attachment);
+
+                    fileStorage.saveFile(contentFile, attachment.getContent());
+                    context.files.add(contentFile);
+                    context.attachmentFiles.put(attachment.getContent(), contentFile);
+                    em.persist(contentFile);
+                }
 
                 attachment.setContentFile(contentFile);
                 attachment.setContent(null);
@@ -705,8 +818,36 @@ public class Emailer implements EmailerAPI {
         }
     }
 
+    protected static class EmailBatchSendTask implements Runnable {
+
+        private List<SendingMessage> sendingMessages;
+        private Logger log = LoggerFactory.getLogger(EmailBatchSendTask.class);
+
+        public EmailBatchSendTask(List<SendingMessage> messages) {
+            sendingMessages = messages;
+        }
+
+        @Override
+        public void run() {
+            try {
+                Authentication authentication = AppBeans.get(Authentication.NAME);
+                Emailer emailer = AppBeans.get(EmailerAPI.NAME);
+
+                authentication.begin(emailer.getEmailerLogin());
+                try {
+                    emailer.sendSendingMessages(sendingMessages);
+                } finally {
+                    authentication.end();
+                }
+            } catch (Exception e) {
+                log.error("Exception while sending emails: ", e);
+            }
+        }
+    }
+
     protected static class MessagePersistingContext {
         public final List<FileDescriptor> files = new ArrayList<>();
+        public final Map<byte[], FileDescriptor> attachmentFiles = new IdentityHashMap<>();
 
         public void finished() {
             files.clear();
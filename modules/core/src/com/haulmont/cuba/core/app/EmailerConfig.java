@@ -134,6 +134,25 @@ public interface EmailerConfig extends Config {
     @DefaultInt(240)
     int getSendingTimeoutSec();
 
+    /**
+     * Number of queued messages sent by one task through a single connection to the SMTP server.
+     * Statuses of the messages of a batch are updated in one transaction.
+     * With the default value of 1 each message is sent by a separate task.
+     */
+    @Property("cuba.email.sendingBatchSize")
+    @DefaultInt(1)
+    int getSendingBatchSize();
+
+    void setSendingBatchSize(int sendingBatchSize);
+
+    /**
+     * Max number of messages per second sent to recipients of the same mail domain. 0 means no limit.
+     * Applies both to messages sent one by one and to batches.
+     */
+    @Property("cuba.email.sendingRatePerDomain")
+    @DefaultInt(0)
+    int getSendingRatePerDomain();
+
     /**
      * All emails go to this address if {@link #getSendAllToAdmin()} is enabled, regardless of actual recipient.
      */
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2008-2016 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.haulmont.cuba.core.app;
+
+import com.haulmont.chile.core.model.MetaClass;
+import com.haulmont.cuba.core.global.Metadata;
+import com.haulmont.cuba.core.sys.entitycache.EntityChangesTracker;
+import org.springframework.stereotype.Service;
+
+import javax.inject.Inject;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+@Service(EntityChangesService.NAME)
+public class EntityChangesServiceBean implements EntityChangesService {
+
+    @Inject
+    protected Metadata metadata;
+
+    @Inject
+    protected EntityChangesTracker entityChangesTracker;
+
+    @Override
+    public Set<String> getCacheableEntities() {
+        Set<String> result = new HashSet<>();
+        for (MetaClass metaClass : metadata.getSession().getClasses()) {
+            if (metadata.getTools().isCacheable(metaClass)) {
+                result.add(metaClass.getName());
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Long> getChangeTimestamps() {
+        return entityChangesTracker.getChangeTimestamps();
+    }
+}
@@ -17,6 +17,13 @@
 
 package com.haulmont.cuba.core.app;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
 import com.haulmont.bali.util.Preconditions;
 import com.haulmont.chile.core.model.MetaClass;
 import com.haulmont.cuba.core.EntityManager;
@@ -34,12 +41,21 @@ import com.haulmont.cuba.security.entity.User;
 import com.thoughtworks.xstream.XStream;
 import com.thoughtworks.xstream.converters.reflection.ExternalizableConverter;
 import com.thoughtworks.xstream.mapper.MapperWrapper;
+import org.apache.commons.io.IOUtils;
 import org.dom4j.*;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.Nullable;
 import javax.inject.Inject;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static java.lang.String.format;
@@ -47,6 +63,28 @@ import static java.lang.String.format;
 @Component(EntitySnapshotAPI.NAME)
 public class EntitySnapshotManager implements EntitySnapshotAPI {
 
+    /**
+     * Prefix of a snapshot content in the compact format that contains the whole gzipped and Base64-encoded JSON.
+     */
+    protected static final String COMPACT_BASE_PREFIX = "gz-base:";
+
+    /**
+     * Prefix of a snapshot content in the compact format that contains gzipped and Base64-encoded differences from
+     * the base snapshot: {@code gz-delta:<number of the delta after base>:<base snapshot id>:<data>}.
+     * A delta depends on its base only, so other deltas can be removed freely. When a base is removed, its deltas
+     * are re-materialized by {@link EntitySnapshotListener}.
+     */
+    protected static final String COMPACT_DELTA_PREFIX = "gz-delta:";
+
+    protected static final String DELTA_SET_PROP = "set";
+    protected static final String DELTA_REMOVE_PROP = "remove";
+
+    /**
+     * Restored JSON of compact snapshots. Snapshot content is never changed after creation, and cached objects
+     * are not modified, so they can be shared.
+     */
+    protected Cache<UUID, JsonObject> compactSnapshots = CacheBuilder.newBuilder().maximumSize(500).build();
+
     @Inject
     protected Persistence persistence;
 
@@ -74,6 +112,9 @@ public class EntitySnapshotManager implements EntitySnapshotAPI {
     @Inject
     protected ReferenceToEntitySupport referenceToEntitySupport;
 
+    @Inject
+    protected ServerConfig serverConfig;
+
     @Override
     public List<EntitySnapshot> getSnapshots(Entity entity) {
         checkCompositePrimaryKey(entity);
@@ -172,14 +213,21 @@ public class EntitySnapshotManager implements EntitySnapshotAPI {
         EntitySnapshot snapshot = metadata.create(EntitySnapshot.class);
         snapshot.setObjectEntityId(referenceToEntitySupport.getReferenceId(entity));
         snapshot.setEntityMetaClass(metaClass.getName());
-        snapshot.setViewXml(viewSerializationAPI.toJson(view, ViewSerializationOption.COMPACT_FORMAT));
-        snapshot.setSnapshotXml(entitySerializationAPI.toJson(entity));
+        String viewJson = viewSerializationAPI.toJson(view, ViewSerializationOption.COMPACT_FORMAT);
+        String snapshotJson = entitySerializationAPI.toJson(entity);
+        boolean compact = serverConfig.getCompactEntitySnapshots();
+        snapshot.setViewXml(compact ? compactIfShorter(viewJson) : viewJson);
         snapshot.setSnapshotDate(snapshotDate);
         snapshot.setAuthor(author);
 
         Transaction tx = persistence.createTransaction();
         try {
             EntityManager em = persistence.getEntityManager();
+            if (compact) {
+                setCompactSnapshotContent(em, snapshot, metaClass, snapshotJson);
+            } else {
+                snapshot.setSnapshotXml(snapshotJson);
+            }
             em.persist(snapshot);
 
             tx.commit();
@@ -196,6 +244,9 @@ public class EntitySnapshotManager implements EntitySnapshotAPI {
         BaseGenericIdEntity entity;
         if (isXml(rawResult)) {
             entity = (BaseGenericIdEntity) fromXML(snapshot.getSnapshotXml());
+        } else if (isCompact(rawResult)) {
+            String json = getCompactSnapshotJson(snapshot).toString();
+            entity = entitySerializationAPI.entityFromJson(json, metadata.getClass(snapshot.getEntityMetaClass()));
         } else {
             entity = entitySerializationAPI.entityFromJson(rawResult, metadata.getClass(snapshot.getEntityMetaClass()));
         }
@@ -208,6 +259,8 @@ public class EntitySnapshotManager implements EntitySnapshotAPI {
         View view;
         if (isXml(rawResult)) {
             view = (View) fromXML(rawResult);
+        } else if (isCompact(rawResult)) {
+            view = viewSerializationAPI.fromJson(decompress(rawResult.substring(COMPACT_BASE_PREFIX.length())));
         } else {
             view = viewSerializationAPI.fromJson(rawResult);
         }
@@ -259,6 +312,199 @@ public class EntitySnapshotManager implements EntitySnapshotAPI {
         return value != null && value.trim().startsWith("<");
     }
 
+    protected boolean isCompact(String value) {
+        return value != null && (value.startsWith(COMPACT_BASE_PREFIX) || value.startsWith(COMPACT_DELTA_PREFIX));
+    }
+
+    /**
+     * Stores the snapshot as differences from the base of the last snapshot of the same entity if it is in the
+     * compact format and the number of deltas is not too large, otherwise stores it as a new base snapshot.
+     */
+    protected void setCompactSnapshotContent(EntityManager em, EntitySnapshot snapshot, MetaClass metaClass,
+                                             String snapshotJson) {
+        JsonObject jsonObject = new JsonParser().parse(snapshotJson).getAsJsonObject();
+
+        TypedQuery<EntitySnapshot> query = em.createQuery(format(
+                "select s from sys$EntitySnapshot s where s.entity.%s = :entityId and s.entityMetaClass = :metaClass " +
+                        "order by s.createTs desc", referenceToEntitySupport.getReferenceIdPropertyName(metaClass)), EntitySnapshot.class);
+        query.setParameter("entityId", snapshot.getEntity().getObjectEntityId());
+        query.setParameter("metaClass", metaClass.getName());
+        query.setMaxResults(1);
+        EntitySnapshot previous = query.getFirstResult();
+
+        String content = null;
+        if (previous != null && isCompact(previous.getSnapshotXml())) {
+            int deltas = getDeltasCount(previous.getSnapshotXml());
+            if (deltas < serverConfig.getCompactEntitySnapshotsMaxDeltas()) {
+                EntitySnapshot base = deltas == 0 ? previous
+                        : em.find(EntitySnapshot.class, getBaseSnapshotId(previous.getSnapshotXml()));
+                if (base != null) {
+                    content = createDeltaContent(deltas + 1, base.getId(), getCompactSnapshotJson(base), jsonObject);
+                }
+            }
+        }
+        if (content == null) {
+            content = COMPACT_BASE_PREFIX + compress(snapshotJson);
+        }
+        snapshot.setSnapshotXml(content);
+        compactSnapshots.put(snapshot.getId(), jsonObject);
+    }
+
+    /**
+     * Restores the JSON of a snapshot in the compact format by applying its delta to the base snapshot.
+     */
+    protected JsonObject getCompactSnapshotJson(EntitySnapshot snapshot) {
+        JsonObject result = compactSnapshots.getIfPresent(snapshot.getId());
+        if (result != null) {
+            return result;
+        }
+
+        String content = snapshot.getSnapshotXml();
+        if (content.startsWith(COMPACT_BASE_PREFIX)) {
+            result = new JsonParser().parse(decompress(content.substring(COMPACT_BASE_PREFIX.length()))).getAsJsonObject();
+        } else {
+            UUID baseId = getBaseSnapshotId(content);
+            EntitySnapshot base = persistence.callInTransaction(em -> em.find(EntitySnapshot.class, baseId));
+            if (base == null || !base.getSnapshotXml().startsWith(COMPACT_BASE_PREFIX)) {
+                throw new IllegalStateException(format("Snapshot %s is stored as a delta, but the base snapshot %s is not found",
+                        snapshot.getId(), baseId));
+            }
+            result = applyDelta(getCompactSnapshotJson(base), getDelta(content));
+        }
+        compactSnapshots.put(snapshot.getId(), result);
+        return result;
+    }
+
+    /**
+     * Re-materializes the deltas of a base snapshot that is being removed: the oldest of them becomes a new base,
+     * and the others are stored as deltas against it. Must be called inside the transaction that removes the base.
+     */
+    protected void rebaseDependentSnapshots(EntitySnapshot base, EntityManager em) {
+        if (base.getSnapshotXml() == null || !base.getSnapshotXml().startsWith(COMPACT_BASE_PREFIX)) {
+            return;
+        }
+        MetaClass metaClass = metadata.getClass(base.getEntityMetaClass());
+        if (metaClass == null) {
+            return;
+        }
+        TypedQuery<EntitySnapshot> query = em.createQuery(format(
+                "select s from sys$EntitySnapshot s where s.entity.%s = :entityId and s.entityMetaClass = :metaClass " +
+                        "order by s.createTs", referenceToEntitySupport.getReferenceIdPropertyName(metaClass)), EntitySnapshot.class);
+        query.setParameter("entityId", base.getEntity().getObjectEntityId());
+        query.setParameter("metaClass", base.getEntityMetaClass());
+
+        JsonObject baseJson = getCompactSnapshotJson(base);
+        EntitySnapshot newBase = null;
+        JsonObject newBaseJson = null;
+        int deltas = 0;
+        for (EntitySnapshot snapshot : query.getResultList()) {
+            String content = snapshot.getSnapshotXml();
+            if (content == null || !content.startsWith(COMPACT_DELTA_PREFIX)
+                    || !base.getId().equals(getBaseSnapshotId(content))) {
+                continue;
+            }
+            JsonObject jsonObject = applyDelta(baseJson, getDelta(content));
+            if (newBase == null) {
+                newBase = snapshot;
+                newBaseJson = jsonObject;
+                snapshot.setSnapshotXml(COMPACT_BASE_PREFIX + compress(jsonObject.toString()));
+            } else {
+                snapshot.setSnapshotXml(createDeltaContent(++deltas, newBase.getId(), newBaseJson, jsonObject));
+            }
+            compactSnapshots.put(snapshot.getId(), jsonObject);
+        }
+        compactSnapshots.invalidate(base.getId());
+    }
+
+    protected String createDeltaContent(int number, UUID baseId, JsonObject baseJson, JsonObject jsonObject) {
+        JsonObject delta = createDelta(baseJson, jsonObject);
+        return COMPACT_DELTA_PREFIX + number + ":" + baseId + ":" + compress(delta.toString());
+    }
+
+    protected UUID getBaseSnapshotId(String content) {
+        String[] parts = content.substring(COMPACT_DELTA_PREFIX.length()).split(":", 3);
+        return UUID.fromString(parts[1]);
+    }
+
+    protected JsonObject getDelta(String content) {
+        String[] parts = content.substring(COMPACT_DELTA_PREFIX.length()).split(":", 3);
+        return new JsonParser().parse(decompress(parts[2])).getAsJsonObject();
+    }
+
+    protected int getDeltasCount(String content) {
+        if (content.startsWith(COMPACT_BASE_PREFIX)) {
+            return 0;
+        }
+        String value = content.substring(COMPACT_DELTA_PREFIX.length(), content.indexOf(':', COMPACT_DELTA_PREFIX.length()));
+        return Integer.parseInt(value);
+    }
+
+    protected JsonObject createDelta(JsonObject previous, JsonObject current) {
+        JsonObject set = new JsonObject();
+        for (Map.Entry<String, JsonElement> entry : current.entrySet()) {
+            if (!entry.getValue().equals(previous.get(entry.getKey()))) {
+                set.add(entry.getKey(), entry.getValue());
+            }
+        }
+        JsonArray remove = new JsonArray();
+        for (Map.Entry<String, JsonElement> entry : previous.entrySet()) {
+            if (!current.has(entry.getKey())) {
+                remove.add(new JsonPrimitive(entry.getKey()));
+            }
+        }
+        JsonObject delta = new JsonObject();
+        delta.add(DELTA_SET_PROP, set);
+        delta.add(DELTA_REMOVE_PROP, remove);
+        return delta;
+    }
+
+    protected JsonObject applyDelta(JsonObject previous, JsonObject delta) {
+        Set<String> removed = new HashSet<>();
+        for (JsonElement element : delta.getAsJsonArray(DELTA_REMOVE_PROP)) {
+            removed.add(element.getAsString());
+        }
+        JsonObject set = delta.getAsJsonObject(DELTA_SET_PROP);
+
+        // values are replaced entirely, so the previous object can share them with the result
+        JsonObject result = new JsonObject();
+        for (Map.Entry<String, JsonElement> entry : previous.entrySet()) {
+            if (!removed.contains(entry.getKey())) {
+                JsonElement value = set.has(entry.getKey()) ? set.get(entry.getKey()) : entry.getValue();
+                result.add(entry.getKey(), value);
+            }
+        }
+        for (Map.Entry<String, JsonElement> entry : set.entrySet()) {
+            if (!previous.has(entry.getKey())) {
+                result.add(entry.getKey(), entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    protected String compactIfShorter(String value) {
+        String compacted = COMPACT_BASE_PREFIX + compress(value);
+        return compacted.length() < value.length() ? compacted : value;
+    }
+
+    protected String compress(String value) {
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        try (OutputStream outputStream = new GZIPOutputStream(byteArrayOutputStream)) {
+            outputStream.write(value.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to compress snapshot", e);
+        }
+        return Base64.getEncoder().encodeToString(byteArrayOutputStream.toByteArray());
+    }
+
+    protected String decompress(String value) {
+        byte[] bytes = Base64.getDecoder().decode(value);
+        try (InputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(IOUtils.toByteArray(inputStream), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to decompress snapshot", e);
+        }
+    }
+
     protected void checkCompositePrimaryKey(Entity entity) {
         if (metadata.getTools().hasCompositePrimaryKey(entity.getMetaClass()) && !(entity instanceof HasUuid)) {
             throw new UnsupportedOperationException(format("Entity %s has no persistent UUID attribute", entity));
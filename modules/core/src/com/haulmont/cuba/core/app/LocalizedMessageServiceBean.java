@@ -18,10 +18,12 @@
 package com.haulmont.cuba.core.app;
 
 import com.haulmont.cuba.core.global.Messages;
+import com.haulmont.cuba.core.sys.MessagesImpl;
 
 import org.springframework.stereotype.Component;
 import javax.inject.Inject;
 import java.util.Locale;
+import java.util.Map;
 
 @Component(LocalizedMessageService.NAME)
 public class LocalizedMessageServiceBean implements LocalizedMessageService {
@@ -33,4 +35,14 @@ public class LocalizedMessageServiceBean implements LocalizedMessageService {
     public String getMessage(String pack, String key, Locale locale) {
         return messages.getMessage(pack, key, locale);
     }
+
+    @Override
+    public Map<String, String> getMessages(String pack, Locale locale) {
+        return ((MessagesImpl) messages).getPackMessages(pack, locale);
+    }
+
+    @Override
+    public long getMessagesVersion() {
+        return ((MessagesImpl) messages).getCacheVersion();
+    }
 }
\ No newline at end of file
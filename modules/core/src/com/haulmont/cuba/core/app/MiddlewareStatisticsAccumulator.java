@@ -41,6 +41,7 @@ public class MiddlewareStatisticsAccumulator extends StatisticsAccumulator {
     protected AtomicLong rolledBackTransactionsCount = new AtomicLong();
     protected AtomicLong middlewareRequestsCount = new AtomicLong();
     protected AtomicLong cubaScheduledTasksCount = new AtomicLong();
+    protected AtomicLong dbStatementsCount = new AtomicLong();
 
     protected Parameter dbConnectionPoolNumActive = new Parameter();
     protected Parameter dbConnectionPoolNumIdle = new Parameter();
@@ -98,6 +99,10 @@ public class MiddlewareStatisticsAccumulator extends StatisticsAccumulator {
         cubaScheduledTasksCount.incrementAndGet();
     }
 
+    public void incDbStatementsCount() {
+        dbStatementsCount.incrementAndGet();
+    }
+
     public Long getActiveTransactionsCount() {
         return (startedTransactionsCount.get() - committedTransactionsCount.get() - rolledBackTransactionsCount.get());
     }
@@ -122,6 +127,14 @@ public class MiddlewareStatisticsAccumulator extends StatisticsAccumulator {
         return cubaScheduledTasksCount.get();
     }
 
+    public Long getDbStatementsCount() {
+        return dbStatementsCount.get();
+    }
+
+    public double getDbStatementsPerSecond() {
+        return getDbStatementsCount() / ((System.currentTimeMillis() - startTime) / 1000.0);
+    }
+
     public double getCubaScheduledTasksPerSecond() {
         return getCubaScheduledTasksCount() / ((System.currentTimeMillis() - startTime) / 1000.0);
     }
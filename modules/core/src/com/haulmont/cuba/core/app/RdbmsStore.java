@@ -139,7 +139,7 @@ public class RdbmsStore implements DataStore {
 
             if (result instanceof BaseGenericIdEntity && context.isLoadDynamicAttributes()) {
                 dynamicAttributesManagerAPI.fetchDynamicAttributes(Collections.singletonList((BaseGenericIdEntity) result),
-                        collectEntityClassesWithDynamicAttributes(context.getView()));
+                        collectEntityClassesWithDynamicAttributes(context.getView()), context.getDynamicAttributeCodes());
             }
 
             tx.commit();
@@ -197,7 +197,7 @@ public class RdbmsStore implements DataStore {
             // Fetch dynamic attributes
             if (!resultList.isEmpty() && resultList.get(0) instanceof BaseGenericIdEntity && context.isLoadDynamicAttributes()) {
                 dynamicAttributesManagerAPI.fetchDynamicAttributes((List<BaseGenericIdEntity>) resultList,
-                        collectEntityClassesWithDynamicAttributes(context.getView()));
+                        collectEntityClassesWithDynamicAttributes(context.getView()), context.getDynamicAttributeCodes());
             }
 
             tx.commit();
@@ -286,7 +286,7 @@ public class RdbmsStore implements DataStore {
                     + ", removeInstances=" + context.getRemoveInstances());
 
         Set<Entity> res = new HashSet<>();
-        List<Entity> persisted = new ArrayList<>();
+        Set<Entity> persisted = new HashSet<>();
 
         try (Transaction tx = persistence.createTransaction(storeName)) {
             EntityManager em = persistence.getEntityManager(storeName);
@@ -333,9 +333,7 @@ public class RdbmsStore implements DataStore {
                 }
             }
 
-            for (BaseGenericIdEntity entity : entitiesToStoreDynamicAttributes) {
-                dynamicAttributesManagerAPI.storeDynamicAttributes(entity);
-            }
+            dynamicAttributesManagerAPI.storeDynamicAttributes(entitiesToStoreDynamicAttributes);
 
             // remove
             for (Entity entity : context.getRemoveInstances()) {
@@ -365,10 +363,11 @@ public class RdbmsStore implements DataStore {
                         }
                     }
                 }
+            }
 
-                if (isAuthorizationRequired() && userSessionSource.getUserSession().hasConstraints()) {
-                    security.filterByConstraints(res);
-                }
+            if (!context.getRemoveInstances().isEmpty()
+                    && isAuthorizationRequired() && userSessionSource.getUserSession().hasConstraints()) {
+                security.filterByConstraints(res);
             }
 
             tx.commit();
@@ -519,10 +518,14 @@ public class RdbmsStore implements DataStore {
     protected View createRestrictedView(LoadContext context) {
         View view = context.getView() != null ? context.getView() :
                 viewRepository.getView(metadata.getClassNN(context.getMetaClass()), View.LOCAL);
-        View copy = View.copy(attributeSecurity.createRestrictedView(view));
-        if (context.isLoadPartialEntities() && !needToApplyInMemoryReadConstraints(context)) {
-            copy.setLoadPartialEntities(true);
-        }
+        View restrictedView = attributeSecurity.createRestrictedView(view);
+        boolean loadPartialEntities = context.isLoadPartialEntities() && !needToApplyInMemoryReadConstraints(context);
+        if (restrictedView.loadPartialEntities() == loadPartialEntities) {
+            // views are not modified further, so a shared sealed instance can be used as is
+            return restrictedView;
+        }
+        View copy = View.copy(restrictedView);
+        copy.setLoadPartialEntities(loadPartialEntities);
         return copy;
     }
 
@@ -757,36 +760,45 @@ public class RdbmsStore implements DataStore {
      * @param committed all committed entities
      */
     protected void updateReferences(Collection<Entity> persisted, Collection<Entity> committed) {
+        if (persisted.isEmpty())
+            return;
+
+        // index committed instances to avoid matching each persisted instance against each committed one
+        Map<MetaClass, Map<Object, Entity>> committedByMetaClass = new HashMap<>();
+        for (Entity entity : committed) {
+            committedByMetaClass.computeIfAbsent(entity.getMetaClass(), metaClass -> new HashMap<>())
+                    .put(entity.getId(), entity);
+        }
+
         for (Entity persistedEntity : persisted) {
-            for (Entity entity : committed) {
-                if (entity != persistedEntity) {
-                    updateReferences(persistedEntity, entity, new HashSet<>());
-                }
+            for (Map.Entry<MetaClass, Map<Object, Entity>> entry : committedByMetaClass.entrySet()) {
+                updateReferences(persistedEntity, persistedEntity, entry.getKey(), entry.getValue(), new HashSet<>());
             }
         }
     }
 
-    protected void updateReferences(Entity entity, Entity refEntity, Set<Entity> visited) {
-        if (entity == null || refEntity == null || visited.contains(entity))
+    protected void updateReferences(Entity entity, Entity persistedEntity,
+                                    MetaClass refMetaClass, Map<Object, Entity> refEntities, Set<Entity> visited) {
+        if (entity == null || visited.contains(entity))
             return;
         visited.add(entity);
 
-        MetaClass refEntityMetaClass = refEntity.getMetaClass();
         for (MetaProperty property : entity.getMetaClass().getProperties()) {
-            if (!property.getRange().isClass() || !property.getRange().asClass().equals(refEntityMetaClass))
+            if (!property.getRange().isClass() || !property.getRange().asClass().equals(refMetaClass))
                 continue;
             if (PersistenceHelper.isLoaded(entity, property.getName())) {
                 if (property.getRange().getCardinality().isMany()) {
                     Collection collection = entity.getValue(property.getName());
                     if (collection != null) {
                         for (Object obj : collection) {
-                            updateReferences((Entity) obj, refEntity, visited);
+                            updateReferences((Entity) obj, persistedEntity, refMetaClass, refEntities, visited);
                         }
                     }
                 } else {
                     Entity value = entity.getValue(property.getName());
                     if (value != null) {
-                        if (value.getId().equals(refEntity.getId())) {
+                        Entity refEntity = refEntities.get(value.getId());
+                        if (refEntity != null && refEntity != persistedEntity) {
                             if (entity instanceof AbstractInstance) {
                                 if (property.isReadOnly() && metadata.getTools().isTransient(property)) {
                                     continue;
@@ -794,7 +806,7 @@ public class RdbmsStore implements DataStore {
                                 ((AbstractInstance) entity).setValue(property.getName(), refEntity, false);
                             }
                         } else {
-                            updateReferences(value, refEntity, visited);
+                            updateReferences(value, persistedEntity, refMetaClass, refEntities, visited);
                         }
                     }
                 }
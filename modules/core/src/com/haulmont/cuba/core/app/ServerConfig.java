@@ -21,6 +21,10 @@ import com.haulmont.cuba.core.config.Property;
 import com.haulmont.cuba.core.config.Source;
 import com.haulmont.cuba.core.config.SourceType;
 import com.haulmont.cuba.core.config.defaults.*;
+import com.haulmont.cuba.core.config.type.CommaSeparatedStringListTypeFactory;
+import com.haulmont.cuba.core.config.type.Factory;
+
+import java.util.List;
 
 /**
  * Configuration parameters interface used by the CORE layer.
@@ -83,6 +87,18 @@ public interface ServerConfig extends Config {
     @Property("cuba.dbDir")
     String getDbDir();
 
+    /**
+     * @return maximum number of update scripts executed concurrently on separate connections.
+     * Scripts of one module are executed in order and after the scripts of preceding modules, unless a script
+     * declares its dependencies on other modules in a leading comment line, e.g.
+     * {@code -- dependsOn: 10-cuba, 50-app/update/postgres/17/170101-x.sql}.
+     * The actual number is limited by {@link com.haulmont.cuba.core.sys.persistence.DbmsFeatures#getMaxConcurrentUpdateScripts()}.
+     * Default is 1, which means sequential execution.
+     */
+    @Property("cuba.dbUpdateMaxConcurrency")
+    @DefaultInt(1)
+    int getDbUpdateMaxConcurrency();
+
     /**
      * @return Whether the server should try to init/update database on each startup.
      */
@@ -257,4 +273,85 @@ public interface ServerConfig extends Config {
     @DefaultBoolean(false)
     boolean getRestStoreTokensInDb();
 
+    /**
+     * @return domains of {@code UniqueNumbersAPI} working in leased mode: each node reserves a range of numbers
+     * and hands them out from memory. Numbers of such domains are unique but can have gaps.
+     * Other domains are gapless.
+     */
+    @Property("cuba.uniqueNumbersLeasedDomains")
+    @Factory(factory = CommaSeparatedStringListTypeFactory.class)
+    List<String> getUniqueNumbersLeasedDomains();
+
+    /**
+     * @return size of a range of numbers reserved for a domain working in leased mode. Must not be changed after
+     * the sequence of the domain is created.
+     */
+    @Property("cuba.uniqueNumbersLeaseSize")
+    @DefaultInt(100)
+    int getUniqueNumbersLeaseSize();
+
+    /**
+     * @return whether to store new entity snapshots in the compact format: a gzipped base snapshot followed by
+     * snapshots of the same entity stored as property-level deltas against the base. Snapshots stored in the other
+     * formats remain readable.
+     */
+    @Property("cuba.compactEntitySnapshots")
+    @DefaultBoolean(false)
+    boolean getCompactEntitySnapshots();
+
+    /**
+     * @return max number of delta snapshots stored after a base snapshot in the compact format. It limits the size
+     * of deltas and the number of snapshots to be rewritten when a base snapshot is removed.
+     */
+    @Property("cuba.compactEntitySnapshotsMaxDeltas")
+    @DefaultInt(20)
+    int getCompactEntitySnapshotsMaxDeltas();
+
+    /**
+     * @return max number of entities for which dynamic attribute values are loaded by a single query. Must not exceed
+     * the limit of the database on the number of elements in an IN list.
+     */
+    @Property("cuba.dynamicAttributesValuesBatchSize")
+    @DefaultInt(1000)
+    int getDynamicAttributesValuesBatchSize();
+
+    /**
+     * @return whether INSERT/UPDATE/DELETE statements of the same entity type are sent to the database in JDBC
+     * batches on commit. Speeds up commit of many instances, but affects all transactions and hides the failed
+     * statement in error messages. Applied when persistence.xml is generated, so a restart is required.
+     */
+    @Property("cuba.jdbcBatchWriting")
+    @DefaultBoolean(false)
+    boolean getJdbcBatchWriting();
+
+    /**
+     * @return max number of statements in a JDBC batch if {@link #getJdbcBatchWriting()} is enabled
+     */
+    @Property("cuba.jdbcBatchWritingSize")
+    @DefaultInt(100)
+    int getJdbcBatchWritingSize();
+
+    /**
+     * @return max number of cache changes kept for clients waiting for them in {@link CacheInvalidationService}.
+     * Clients which fall behind more than this number of changes refresh all their caches.
+     */
+    @Property("cuba.cacheInvalidationsBufferSize")
+    @DefaultInt(1000)
+    int getCacheInvalidationsBufferSize();
+
+    /**
+     * @return max time in seconds a client request to {@link CacheInvalidationService} waits for cache changes
+     */
+    @Property("cuba.cacheInvalidationsMaxWaitSec")
+    @DefaultInt(60)
+    int getCacheInvalidationsMaxWaitSec();
+
+    /**
+     * @return whether to collect latency histograms of service methods invoked by clients
+     * @see ServiceInvocationStatistics
+     */
+    @Property("cuba.serviceInvocationStatisticsEnabled")
+    @DefaultBoolean(true)
+    boolean getServiceInvocationStatisticsEnabled();
+
 }
\ No newline at end of file
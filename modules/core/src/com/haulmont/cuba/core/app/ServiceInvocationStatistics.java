@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2008-2016 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.haulmont.cuba.core.app;
+
+import com.haulmont.cuba.core.global.Configuration;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accumulates latency histograms of service methods invoked by clients. Invocations are registered by
+ * {@link com.haulmont.cuba.core.sys.ServiceInterceptor}, statistics are available through the
+ * {@code ServiceInvocationStatistics} JMX bean.
+ * <p>Counters are lock-free, so registering an invocation does not make concurrent requests wait for each other.
+ */
+@Component(ServiceInvocationStatistics.NAME)
+public class ServiceInvocationStatistics {
+
+    public static final String NAME = "cuba_ServiceInvocationStatistics";
+
+    /**
+     * Upper bounds of histogram buckets in milliseconds. The last bucket counts all longer invocations.
+     */
+    public static final long[] BUCKET_BOUNDS_MS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000, 30000};
+
+    @Inject
+    protected Configuration configuration;
+
+    protected volatile boolean enabled;
+
+    // key is a service method or its string representation
+    protected final Map<Object, Histogram> histograms = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        enabled = configuration.getConfig(ServerConfig.class).getServiceInvocationStatisticsEnabled();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Registers a completed invocation.
+     *
+     * @param methodKey     method identity, e.g. {@link java.lang.reflect.Method}
+     * @param methodName    method name used in reports
+     * @param durationNanos duration of the invocation
+     * @param failed        whether the invocation has thrown an exception
+     */
+    public void register(Object methodKey, String methodName, long durationNanos, boolean failed) {
+        Histogram histogram = histograms.get(methodKey);
+        if (histogram == null) {
+            histogram = histograms.computeIfAbsent(methodKey, k -> new Histogram(methodName));
+        }
+        histogram.register(durationNanos, failed);
+    }
+
+    /**
+     * @return method name to its histogram
+     */
+    public Map<String, Histogram> getHistograms() {
+        Map<String, Histogram> result = new HashMap<>();
+        for (Histogram histogram : histograms.values()) {
+            // overloaded methods can have the same name
+            result.merge(histogram.getMethodName(), histogram, Histogram::merge);
+        }
+        return result;
+    }
+
+    public void reset() {
+        histograms.clear();
+    }
+
+    /**
+     * Latency histogram of a single method.
+     */
+    public static class Histogram {
+
+        protected final String methodName;
+        protected final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS_MS.length + 1];
+        protected final LongAdder count = new LongAdder();
+        protected final LongAdder errors = new LongAdder();
+        protected final LongAdder totalNanos = new LongAdder();
+        protected final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        public Histogram(String methodName) {
+            this.methodName = methodName;
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        protected void register(long durationNanos, boolean failed) {
+            long durationMs = TimeUnit.NANOSECONDS.toMillis(durationNanos);
+            int i = 0;
+            while (i < BUCKET_BOUNDS_MS.length && durationMs >= BUCKET_BOUNDS_MS[i]) {
+                i++;
+            }
+            buckets[i].increment();
+            count.increment();
+            totalNanos.add(durationNanos);
+            maxNanos.accumulate(durationNanos);
+            if (failed) {
+                errors.increment();
+            }
+        }
+
+        protected Histogram merge(Histogram other) {
+            Histogram result = new Histogram(methodName);
+            for (Histogram histogram : new Histogram[]{this, other}) {
+                for (int i = 0; i < buckets.length; i++) {
+                    result.buckets[i].add(histogram.buckets[i].sum());
+                }
+                result.count.add(histogram.getCount());
+                result.errors.add(histogram.getErrors());
+                result.totalNanos.add(histogram.totalNanos.sum());
+                result.maxNanos.accumulate(histogram.maxNanos.get());
+            }
+            return result;
+        }
+
+        public String getMethodName() {
+            return methodName;
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        public double getTotalMs() {
+            return totalNanos.sum() / 1_000_000.0;
+        }
+
+        public double getAverageMs() {
+            long n = getCount();
+            return n == 0 ? 0 : getTotalMs() / n;
+        }
+
+        public double getMaxMs() {
+            return maxNanos.get() / 1_000_000.0;
+        }
+
+        /**
+         * @return counts of invocations in buckets defined by {@link #BUCKET_BOUNDS_MS}
+         */
+        public long[] getBucketCounts() {
+            long[] result = new long[buckets.length];
+            for (int i = 0; i < buckets.length; i++) {
+                result[i] = buckets[i].sum();
+            }
+            return result;
+        }
+
+        /**
+         * @param percentile percentile from 0 to 100
+         * @return upper bound in milliseconds of the bucket containing the given percentile, or -1 if it is in
+         * the last unbounded bucket
+         */
+        public long getPercentileUpperBoundMs(double percentile) {
+            long[] counts = getBucketCounts();
+            long total = 0;
+            for (long c : counts) {
+                total += c;
+            }
+            if (total == 0)
+                return 0;
+            long threshold = (long) Math.ceil(total * percentile / 100.0);
+            long accumulated = 0;
+            for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+                accumulated += counts[i];
+                if (accumulated >= threshold)
+                    return BUCKET_BOUNDS_MS[i];
+            }
+            return -1;
+        }
+    }
+}
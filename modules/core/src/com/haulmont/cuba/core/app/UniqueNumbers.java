@@ -21,24 +21,30 @@ import com.haulmont.cuba.core.EntityManager;
 import com.haulmont.cuba.core.Persistence;
 import com.haulmont.cuba.core.Query;
 import com.haulmont.cuba.core.Transaction;
+import com.haulmont.cuba.core.sys.LeasedNumbersCache;
 import com.haulmont.cuba.core.sys.persistence.DbmsSpecificFactory;
 import com.haulmont.cuba.core.sys.persistence.SequenceSupport;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.text.StrTokenizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import org.springframework.stereotype.Component;
 import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
+import java.io.Serializable;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collections;
 import java.util.HashSet;
-import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -49,9 +55,27 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
 @Component(UniqueNumbersAPI.NAME)
 public class UniqueNumbers implements UniqueNumbersAPI {
 
+    protected static final String SEQUENCE_PREFIX = "seq_un_";
+    protected static final String LEASED_SEQUENCE_PREFIX = "seq_unl_";
+
     @Inject
     protected Persistence persistence;
 
+    @Inject
+    protected ServerConfig serverConfig;
+
+    @Inject
+    protected CacheInvalidationsTracker cacheInvalidationsTracker;
+
+    protected ClusterManagerAPI clusterManager;
+
+    private static final Logger log = LoggerFactory.getLogger(UniqueNumbers.class);
+
+    protected LeasedNumbersCache leasedNumbers = new LeasedNumbersCache();
+
+    // leased sequence name to the value it is incremented by in the database
+    protected Map<String, Long> leaseSizes = new ConcurrentHashMap<>();
+
     protected ReadWriteLock lock = new ReentrantReadWriteLock();
 
     @GuardedBy("lock")
@@ -59,6 +83,27 @@ public class UniqueNumbers implements UniqueNumbersAPI {
 
     protected SequenceSupport sequenceSupport;
 
+    private static class ResetLeasesMsg implements Serializable {
+        private static final long serialVersionUID = 4620637526453364081L;
+
+        private String domain;
+
+        private ResetLeasesMsg(String domain) {
+            this.domain = domain;
+        }
+    }
+
+    @Inject
+    public void setClusterManager(ClusterManagerAPI clusterManager) {
+        this.clusterManager = clusterManager;
+        clusterManager.addListener(ResetLeasesMsg.class, new ClusterListenerAdapter<ResetLeasesMsg>() {
+            @Override
+            public void receive(ResetLeasesMsg message) {
+                internalResetLeases(message.domain);
+            }
+        });
+    }
+
     @PostConstruct
     public void init() {
         sequenceSupport = DbmsSpecificFactory.getSequenceSupport();
@@ -66,6 +111,10 @@ public class UniqueNumbers implements UniqueNumbersAPI {
 
     @Override
     public long getNextNumber(String domain) {
+        if (isLeased(domain)) {
+            return leasedNumbers.getNextNumber(domain, this::leaseNumbers);
+        }
+
         String seqName = getSequenceName(domain);
         String sqlScript = sequenceSupport.getNextValueSql(seqName);
 
@@ -77,6 +126,50 @@ public class UniqueNumbers implements UniqueNumbersAPI {
         }
     }
 
+    @Override
+    public UniqueNumbersLease leaseNumbers(String domain) {
+        if (!isLeased(domain)) {
+            throw new IllegalStateException("Domain " + domain + " does not work in leased mode");
+        }
+
+        String seqName = getSequenceName(domain);
+        String sqlScript = sequenceSupport.getNextValueSql(seqName);
+
+        try {
+            lock.readLock().lock();
+            long first = getResult(seqName, sqlScript);
+            long leaseSize = getLeaseSize(seqName);
+            return new UniqueNumbersLease(first, first + leaseSize - 1);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the actual increment of the leased sequence. It is set when the sequence is created and does not follow
+     * later changes of {@code cuba.uniqueNumbersLeaseSize}, so a lease must not be computed from the property.
+     */
+    protected long getLeaseSize(String seqName) {
+        Long leaseSize = leaseSizes.get(seqName);
+        if (leaseSize == null) {
+            leaseSize = getResult(seqName, sequenceSupport.getIncrementSql(seqName));
+            if (leaseSize < 1) {
+                throw new IllegalStateException("Unsupported increment of sequence " + seqName + ": " + leaseSize);
+            }
+            if (leaseSize != serverConfig.getUniqueNumbersLeaseSize()) {
+                log.info("Sequence {} is incremented by {}, cuba.uniqueNumbersLeaseSize applies only to new sequences",
+                        seqName, leaseSize);
+            }
+            leaseSizes.put(seqName, leaseSize);
+        }
+        return leaseSize;
+    }
+
+    @Override
+    public boolean isLeased(String domain) {
+        return serverConfig.getUniqueNumbersLeasedDomains().contains(domain);
+    }
+
     @Override
     public long getCurrentNumber(String domain) {
         String seqName = getSequenceName(domain);
@@ -84,7 +177,12 @@ public class UniqueNumbers implements UniqueNumbersAPI {
 
         try {
             lock.readLock().lock();
-            return getResult(seqName, sqlScript);
+            long value = getResult(seqName, sqlScript);
+            if (isLeased(domain)) {
+                // the sequence holds the first number of the last lease
+                value += getLeaseSize(seqName) - 1;
+            }
+            return value;
         } finally {
             lock.readLock().unlock();
         }
@@ -93,18 +191,26 @@ public class UniqueNumbers implements UniqueNumbersAPI {
     @Override
     public void setCurrentNumber(String domain, long value) {
         String seqName = getSequenceName(domain);
-        String sqlScript = sequenceSupport.modifySequenceSql(seqName, value);
+        boolean leased = isLeased(domain);
 
         Transaction tx = persistence.getTransaction();
         try {
             lock.readLock().lock();
             checkSequenceExists(seqName);
-            executeScript(sqlScript);
+            // the next lease must start after the value whether the database returns the new value of the sequence
+            // or the value incremented by the lease size
+            long sequenceValue = leased ? value + 1 : value;
+            executeScript(sequenceSupport.modifySequenceSql(seqName, sequenceValue));
             tx.commit();
         } finally {
             lock.readLock().unlock();
             tx.end();
         }
+        // some databases recreate the sequence when its value is changed
+        leaseSizes.remove(seqName);
+        if (leased) {
+            resetLeases(domain);
+        }
     }
 
     @Override
@@ -132,6 +238,24 @@ public class UniqueNumbers implements UniqueNumbersAPI {
             lock.writeLock().unlock();
             tx.end();
         }
+        leaseSizes.remove(seqName);
+        if (isLeased(domain)) {
+            resetLeases(domain);
+        }
+    }
+
+    /**
+     * Discards leases of the domain on all middleware nodes and on clients receiving cache invalidations, so
+     * numbers are taken from the new state of the sequence.
+     */
+    protected void resetLeases(String domain) {
+        internalResetLeases(domain);
+        clusterManager.send(new ResetLeasesMsg(domain));
+    }
+
+    protected void internalResetLeases(String domain) {
+        leasedNumbers.invalidate(domain);
+        cacheInvalidationsTracker.registerUniqueNumbersChanges(Collections.singleton(domain));
     }
 
     protected long getResult(String seqName, String sqlScript) {
@@ -141,23 +265,27 @@ public class UniqueNumbers implements UniqueNumbersAPI {
 
             Object value = executeScript(sqlScript);
             tx.commit();
-            if (value instanceof Long)
-                return (Long) value;
-            else if (value instanceof BigDecimal)
-                return ((BigDecimal) value).longValue();
-            else if (value instanceof BigInteger)
-                return ((BigInteger) value).longValue();
-            else if (value instanceof String)
-                return Long.parseLong((String) value);
-            else if (value == null)
-                throw new IllegalStateException("No value returned");
-            else
-                throw new IllegalStateException("Unsupported value type: " + value.getClass());
+            return toLong(value);
         } finally {
             tx.end();
         }
     }
 
+    protected long toLong(Object value) {
+        if (value instanceof Long)
+            return (Long) value;
+        else if (value instanceof BigDecimal)
+            return ((BigDecimal) value).longValue();
+        else if (value instanceof BigInteger)
+            return ((BigInteger) value).longValue();
+        else if (value instanceof String)
+            return Long.parseLong((String) value);
+        else if (value == null)
+            throw new IllegalStateException("No value returned");
+        else
+            throw new IllegalStateException("Unsupported value type: " + value.getClass());
+    }
+
     protected Object executeScript(String sqlScript) {
         EntityManager em = persistence.getEntityManager();
         StrTokenizer tokenizer = new StrTokenizer(sqlScript, SequenceSupport.SQL_DELIMITER);
@@ -195,14 +323,32 @@ public class UniqueNumbers implements UniqueNumbersAPI {
 
             EntityManager em = persistence.getEntityManager();
 
-            Query query = em.createNativeQuery(sequenceSupport.sequenceExistsSql(seqName));
-            List list = query.getResultList();
-            if (list.isEmpty()) {
-                query = em.createNativeQuery(sequenceSupport.createSequenceSql(seqName, 1, 1));
+            // numbers issued while the domain worked in the other mode must not be issued again; all of them are
+            // less than a fresh value of the other sequence
+            String otherSeqName = getOtherModeSequenceName(seqName);
+            Long otherNextValue = null;
+            if (sequenceExistsInDb(em, otherSeqName)) {
+                otherNextValue = toLong(executeScript(sequenceSupport.getNextValueSql(otherSeqName)));
+            }
+
+            if (!sequenceExistsInDb(em, seqName)) {
+                long increment = seqName.startsWith(LEASED_SEQUENCE_PREFIX) ? serverConfig.getUniqueNumbersLeaseSize() : 1;
+                long startValue = otherNextValue != null ? Math.max(otherNextValue, 1) : 1;
+                Query query = em.createNativeQuery(sequenceSupport.createSequenceSql(seqName, startValue, increment));
                 query.executeUpdate();
+            } else if (otherNextValue != null) {
+                long nextValue = toLong(executeScript(sequenceSupport.getNextValueSql(seqName)));
+                if (nextValue < otherNextValue) {
+                    log.info("Moving sequence {} to {} after numbers issued from {}", seqName, otherNextValue, otherSeqName);
+                    executeScript(sequenceSupport.modifySequenceSql(seqName, otherNextValue));
+                    leaseSizes.remove(seqName);
+                }
+                log.info("Sequences {} and {} both exist, delete the one not used anymore", seqName, otherSeqName);
             }
             tx.commit();
             existingSequences.add(seqName);
+            // the other sequence must be checked again if the domain switches back
+            existingSequences.remove(otherSeqName);
         } finally {
             lock.readLock().lock();
             lock.writeLock().unlock();
@@ -210,6 +356,16 @@ public class UniqueNumbers implements UniqueNumbersAPI {
         }
     }
 
+    protected boolean sequenceExistsInDb(EntityManager em, String seqName) {
+        return !em.createNativeQuery(sequenceSupport.sequenceExistsSql(seqName)).getResultList().isEmpty();
+    }
+
+    protected String getOtherModeSequenceName(String seqName) {
+        return seqName.startsWith(LEASED_SEQUENCE_PREFIX) ?
+                SEQUENCE_PREFIX + seqName.substring(LEASED_SEQUENCE_PREFIX.length()) :
+                LEASED_SEQUENCE_PREFIX + seqName.substring(SEQUENCE_PREFIX.length());
+    }
+
     protected boolean containsSequence(String name) {
         try {
             lock.readLock().lock();
@@ -223,6 +379,7 @@ public class UniqueNumbers implements UniqueNumbersAPI {
         if (StringUtils.isBlank(domain))
             throw new IllegalArgumentException("Sequence name can not be blank");
 
-        return "seq_un_" + domain;
+        // leased domains use a separate sequence incremented by the lease size
+        return (isLeased(domain) ? LEASED_SEQUENCE_PREFIX : SEQUENCE_PREFIX) + domain;
     }
 }
\ No newline at end of file
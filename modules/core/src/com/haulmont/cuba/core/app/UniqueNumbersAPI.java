@@ -18,7 +18,11 @@ package com.haulmont.cuba.core.app;
 
 /**
  * Provides sequences of unique numbers based on database sequences.
- *
+ * <p>
+ * Domains listed in {@link ServerConfig#getUniqueNumbersLeasedDomains()} work in leased mode: numbers are taken
+ * from a range reserved by the node in a separate database sequence, so they are unique but not gapless and not
+ * ordered between nodes. When a domain is switched to or from leased mode, its new sequence continues after the
+ * numbers issued from the old one.
  */
 public interface UniqueNumbersAPI {
 
@@ -35,6 +39,8 @@ public interface UniqueNumbersAPI {
     /**
      * Returns the current value of the sequence. For some implementations
      * {@link #getNextNumber(String)} must be called at least once beforehand.
+     * For a domain working in leased mode returns the last number of the most recently reserved range, so no node
+     * issues greater numbers.
      *
      * @param domain    sequence identifier
      * @return          current value
@@ -45,6 +51,9 @@ public interface UniqueNumbersAPI {
      * Set current value for the sequence.
      * Next {@link #getCurrentNumber(String)} invocation will return {@code value}
      * Next {@link #getNextNumber(String)} invocation will return {@code value + increment}
+     * <p>For a domain working in leased mode the next reserved range starts after {@code value}, possibly with a
+     * gap, and leases reserved before are discarded on all middleware nodes and on clients receiving cache
+     * invalidations.
      *
      * @param domain    sequence identifier
      * @param value     value
@@ -57,4 +66,19 @@ public interface UniqueNumbersAPI {
      * @throws java.lang.IllegalStateException if sequence does not exist
      */
     void deleteSequence(String domain);
+
+    /**
+     * Reserves a range of {@link ServerConfig#getUniqueNumbersLeaseSize()} numbers for a domain working in leased mode.
+     *
+     * @param domain    sequence identifier
+     * @return          reserved range of numbers
+     * @throws IllegalStateException if the domain is not configured to work in leased mode
+     */
+    UniqueNumbersLease leaseNumbers(String domain);
+
+    /**
+     * @param domain    sequence identifier
+     * @return          true if the domain works in leased mode
+     */
+    boolean isLeased(String domain);
 }
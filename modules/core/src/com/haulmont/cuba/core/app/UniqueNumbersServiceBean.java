@@ -32,4 +32,9 @@ public class UniqueNumbersServiceBean implements UniqueNumbersService {
     public long getNextNumber(String domain) {
         return uniqueNumbers.getNextNumber(domain);
     }
+
+    @Override
+    public UniqueNumbersLease leaseNumbers(String domain) {
+        return uniqueNumbers.leaseNumbers(domain);
+    }
 }
\ No newline at end of file
@@ -20,7 +20,9 @@ package com.haulmont.cuba.core.app.dynamicattributes;
 import org.springframework.stereotype.Service;
 
 import javax.inject.Inject;
+import java.util.Collection;
 import java.util.Date;
+import java.util.UUID;
 
 @Service(DynamicAttributesCacheService.NAME)
 public class DynamicAttributesCacheServiceBean implements DynamicAttributesCacheService {
@@ -32,6 +34,11 @@ public class DynamicAttributesCacheServiceBean implements DynamicAttributesCache
         dynamicAttributesManagerAPI.loadCache();
     }
 
+    @Override
+    public void reloadCategories(Collection<UUID> categoryIds) {
+        dynamicAttributesManagerAPI.reloadCategories(categoryIds);
+    }
+
     @Override
     public DynamicAttributesCache getCacheIfNewer(Date clientCacheDate) {
         return dynamicAttributesManagerAPI.getCacheIfNewer(clientCacheDate);
@@ -18,6 +18,7 @@
 package com.haulmont.cuba.core.app.dynamicattributes;
 
 import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Multimap;
 import com.haulmont.chile.core.model.MetaClass;
 import com.haulmont.chile.core.model.MetaProperty;
@@ -25,8 +26,10 @@ import com.haulmont.cuba.core.EntityManager;
 import com.haulmont.cuba.core.Persistence;
 import com.haulmont.cuba.core.Transaction;
 import com.haulmont.cuba.core.TypedQuery;
+import com.haulmont.cuba.core.app.CacheInvalidationsTracker;
 import com.haulmont.cuba.core.app.ClusterListenerAdapter;
 import com.haulmont.cuba.core.app.ClusterManagerAPI;
+import com.haulmont.cuba.core.app.ServerConfig;
 import com.haulmont.cuba.core.entity.*;
 import com.haulmont.cuba.core.global.*;
 import org.apache.commons.collections.CollectionUtils;
@@ -46,6 +49,10 @@ import static java.lang.String.format;
 
 @Component(DynamicAttributesManagerAPI.NAME)
 public class DynamicAttributesManager implements DynamicAttributesManagerAPI {
+    /**
+     * @deprecated the batch size is defined by {@link ServerConfig#getDynamicAttributesValuesBatchSize()}
+     */
+    @Deprecated
     public static final int MAX_ENTITIES_FOR_ATTRIBUTE_VALUES_BATCH = 100;
 
     protected Logger log = LoggerFactory.getLogger(DynamicAttributesManager.class);
@@ -65,6 +72,12 @@ public class DynamicAttributesManager implements DynamicAttributesManagerAPI {
     @Inject
     protected ReferenceToEntitySupport referenceToEntitySupport;
 
+    @Inject
+    protected ServerConfig serverConfig;
+
+    @Inject
+    protected CacheInvalidationsTracker cacheInvalidationsTracker;
+
     protected ClusterManagerAPI clusterManager;
 
     protected ReentrantLock loadCacheLock = new ReentrantLock();
@@ -80,6 +93,12 @@ public class DynamicAttributesManager implements DynamicAttributesManagerAPI {
                 doLoadCache(false, false);
             }
         });
+        clusterManager.addListener(ReloadCategoriesMsg.class, new ClusterListenerAdapter<ReloadCategoriesMsg>() {
+            @Override
+            public void receive(ReloadCategoriesMsg message) {
+                doReloadCategories(message.getCategoryIds(), false);
+            }
+        });
     }
 
     @Override
@@ -107,15 +126,7 @@ public class DynamicAttributesManager implements DynamicAttributesManagerAPI {
                 MetaClass metaClass = resolveTargetMetaClass(metadata.getSession().getClass(category.getEntityType()));
                 if (metaClass != null) {
                     categoriesCache.put(metaClass.getName(), category);
-                    Map<String, CategoryAttribute> attributes = attributesCache.get(metaClass.getName());
-                    if (attributes == null) {
-                        attributes = new LinkedHashMap<>();
-                        attributesCache.put(metaClass.getName(), attributes);
-                    }
-
-                    for (CategoryAttribute categoryAttribute : category.getCategoryAttrs()) {
-                        attributes.put(categoryAttribute.getCode(), categoryAttribute);
-                    }
+                    addAttributesToCache(metaClass.getName(), category, attributesCache);
                 } else {
                     log.warn(format("Could not resolve meta class name [%s] for the category [%s].",
                             category.getEntityType(), category.getName()));
@@ -124,6 +135,9 @@ public class DynamicAttributesManager implements DynamicAttributesManagerAPI {
             tx.commit();
 
             dynamicAttributesCache = new DynamicAttributesCache(categoriesCache, attributesCache, timeSource.currentTimestamp());
+            if (!stopIfNotNull) {
+                cacheInvalidationsTracker.registerCategoryChanges(null);
+            }
             if (sendClusterMessage) {
                 clusterManager.send(new ReloadCacheMsg());
             }
@@ -133,6 +147,105 @@ public class DynamicAttributesManager implements DynamicAttributesManagerAPI {
         }
     }
 
+    @Override
+    public void reloadCategories(Collection<UUID> categoryIds) {
+        doReloadCategories(categoryIds, true);
+    }
+
+    /**
+     * Reloads from the database all categories of the entities the given categories belong to. Changing a category
+     * can implicitly change other categories of the same entity, e.g. reset their default flag, so the whole entity
+     * is reloaded. Categories that do not exist anymore are removed from the cache. Categories of other entities
+     * are not reloaded.
+     */
+    protected void doReloadCategories(Collection<UUID> categoryIds, boolean sendClusterMessage) {
+        if (categoryIds.isEmpty())
+            return;
+
+        loadCacheLock.lock();
+        try {
+            DynamicAttributesCache currentCache = dynamicAttributesCache;
+            if (currentCache != null) {
+                Set<String> entityTypes = new HashSet<>();
+                for (Category category : currentCache.categoriesCache.values()) {
+                    if (categoryIds.contains(category.getId())) {
+                        entityTypes.add(category.getEntityType());
+                    }
+                }
+                List<Category> reloaded;
+                try (Transaction tx = persistence.createTransaction()) {
+                    EntityManager em = persistence.getEntityManager();
+                    entityTypes.addAll(em.createQuery(
+                            "select c.entityType from sys$Category c where c.id in :ids", String.class)
+                            .setParameter("ids", categoryIds)
+                            .getResultList());
+
+                    if (entityTypes.isEmpty()) {
+                        reloaded = Collections.emptyList();
+                    } else {
+                        TypedQuery<Category> query = em.createQuery(
+                                "select c from sys$Category c where c.entityType in :entityTypes", Category.class);
+                        query.setParameter("entityTypes", entityTypes);
+                        query.setViewName("for.cache");
+                        reloaded = query.getResultList();
+                    }
+                    tx.commit();
+                }
+
+                Set<String> changedEntityNames = new HashSet<>();
+                Multimap<String, Category> categoriesCache = HashMultimap.create();
+                for (Map.Entry<String, Category> entry : currentCache.categoriesCache.entries()) {
+                    if (entityTypes.contains(entry.getValue().getEntityType())) {
+                        changedEntityNames.add(entry.getKey());
+                    } else {
+                        categoriesCache.put(entry.getKey(), entry.getValue());
+                    }
+                }
+                for (Category category : reloaded) {
+                    MetaClass metaClass = resolveTargetMetaClass(metadata.getSession().getClass(category.getEntityType()));
+                    if (metaClass != null) {
+                        categoriesCache.put(metaClass.getName(), category);
+                        changedEntityNames.add(metaClass.getName());
+                    } else {
+                        log.warn(format("Could not resolve meta class name [%s] for the category [%s].",
+                                category.getEntityType(), category.getName()));
+                    }
+                }
+
+                Map<String, Map<String, CategoryAttribute>> attributesCache = new LinkedHashMap<>(currentCache.attributesCache);
+                for (String entityName : changedEntityNames) {
+                    attributesCache.remove(entityName);
+                    for (Category category : categoriesCache.get(entityName)) {
+                        addAttributesToCache(entityName, category, attributesCache);
+                    }
+                }
+
+                log.debug("Reloaded categories {} of entities {}", categoryIds, changedEntityNames);
+                dynamicAttributesCache = new DynamicAttributesCache(categoriesCache, attributesCache, timeSource.currentTimestamp());
+            }
+            cacheInvalidationsTracker.registerCategoryChanges(categoryIds);
+
+            if (sendClusterMessage) {
+                clusterManager.send(new ReloadCategoriesMsg(categoryIds));
+            }
+        } finally {
+            loadCacheLock.unlock();
+        }
+    }
+
+    protected void addAttributesToCache(String entityName, Category category,
+                                        Map<String, Map<String, CategoryAttribute>> attributesCache) {
+        Map<String, CategoryAttribute> attributes = attributesCache.get(entityName);
+        if (attributes == null) {
+            attributes = new LinkedHashMap<>();
+            attributesCache.put(entityName, attributes);
+        }
+
+        for (CategoryAttribute categoryAttribute : category.getCategoryAttrs()) {
+            attributes.put(categoryAttribute.getCode(), categoryAttribute);
+        }
+    }
+
     @Override
     public Collection<Category> getCategoriesForMetaClass(MetaClass metaClass) {
         return cache().getCategoriesForMetaClass(metaClass);
@@ -189,8 +302,66 @@ public class DynamicAttributesManager implements DynamicAttributesManagerAPI {
         }
     }
 
+    @Override
+    public void storeDynamicAttributes(Collection<? extends BaseGenericIdEntity> entities) {
+        if (entities.isEmpty())
+            return;
+        try (Transaction tx = persistence.getTransaction()) {
+            loadStoredAttributeValues(entities);
+            for (BaseGenericIdEntity entity : entities) {
+                doStoreDynamicAttributes(entity);
+            }
+            tx.commit();
+        }
+    }
+
+    /**
+     * Loads the existing attribute values of the entities into the persistence context with a few queries, so that
+     * merging and removing them doesn't select each value separately. New values are inserted on flush, in JDBC
+     * batches if {@code cuba.jdbcBatchWriting} is enabled.
+     */
+    protected void loadStoredAttributeValues(Collection<? extends BaseGenericIdEntity> entities) {
+        List<Object> ids = new ArrayList<>();
+        for (BaseGenericIdEntity entity : entities) {
+            Map<String, CategoryAttributeValue> dynamicAttributes = entity.getDynamicAttributes();
+            if (dynamicAttributes != null) {
+                for (CategoryAttributeValue categoryAttributeValue : dynamicAttributes.values()) {
+                    if (!PersistenceHelper.isNew(categoryAttributeValue)) {
+                        ids.add(categoryAttributeValue.getId());
+                    }
+                }
+            }
+        }
+        if (ids.isEmpty())
+            return;
+
+        EntityManager em = persistence.getEntityManager();
+        int batchSize = Math.max(serverConfig.getDynamicAttributesValuesBatchSize(), 1);
+        for (List<Object> currentIds : Iterables.partition(ids, batchSize)) {
+            em.createQuery("select cav from sys$CategoryAttributeValue cav where cav.id in :ids",
+                    CategoryAttributeValue.class)
+                    .setParameter("ids", currentIds)
+                    .getResultList();
+        }
+    }
+
     @Override
     public <E extends BaseGenericIdEntity> void fetchDynamicAttributes(List<E> entities, @Nonnull Set<Class> dependentClasses) {
+        fetchDynamicAttributes(entities, dependentClasses, null);
+    }
+
+    @Override
+    public <E extends BaseGenericIdEntity> void fetchDynamicAttributes(List<E> entities, @Nonnull Set<Class> dependentClasses,
+                                                                     @Nullable Collection<String> attributeCodes) {
+        Set<String> codes = null;
+        Set<String> rootEntityTypes = new HashSet<>();
+        if (attributeCodes != null) {
+            codes = attributeCodes.stream()
+                    .map(DynamicAttributesUtils::decodeAttributeCode)
+                    .collect(Collectors.toSet());
+            entities.forEach(entity -> rootEntityTypes.add(entity.getMetaClass().getName()));
+        }
+
         Set<BaseGenericIdEntity> toProcess = new HashSet<>();
         entities.forEach(entity -> {
             toProcess.add(entity);
@@ -216,10 +387,12 @@ public class DynamicAttributesManager implements DynamicAttributesManagerAPI {
         try (Transaction tx = persistence.getTransaction()) {
             Multimap<String, BaseGenericIdEntity> entitiesByType = HashMultimap.create();
             toProcess.forEach(e -> entitiesByType.put(e.getMetaClass().getName(), e));
-            entitiesByType.keySet().forEach(entityType -> {
+            for (String entityType : entitiesByType.keySet()) {
                 MetaClass metaClass = metadata.getExtendedEntities().getOriginalOrThisMetaClass(metadata.getClass(entityType));
-                doFetchDynamicAttributes(metaClass, entitiesByType.get(entityType));
-            });
+                // the codes are specified for the loaded entities, dependent entities get all their attributes
+                doFetchDynamicAttributes(metaClass, entitiesByType.get(entityType),
+                        rootEntityTypes.contains(entityType) ? codes : null);
+            }
             tx.commit();
         }
     }
@@ -241,7 +414,14 @@ public class DynamicAttributesManager implements DynamicAttributesManagerAPI {
 
                 //remove deleted and empty attributes
                 if (categoryAttributeValue.getDeleteTs() == null && categoryAttributeValue.getValue() != null) {
-                    CategoryAttributeValue mergedCategoryAttributeValue = em.merge(categoryAttributeValue);
+                    CategoryAttributeValue mergedCategoryAttributeValue;
+                    if (PersistenceHelper.isNew(categoryAttributeValue)) {
+                        // merge would try to load the new instance from database first
+                        em.persist(categoryAttributeValue);
+                        mergedCategoryAttributeValue = categoryAttributeValue;
+                    } else {
+                        mergedCategoryAttributeValue = em.merge(categoryAttributeValue);
+                    }
                     mergedCategoryAttributeValue.setCategoryAttribute(categoryAttributeValue.getCategoryAttribute());
 
                     //copy transient fields (for nested CAVs as well)
@@ -310,22 +490,20 @@ public class DynamicAttributesManager implements DynamicAttributesManagerAPI {
         });
     }
 
-    protected void doFetchDynamicAttributes(MetaClass metaClass, Collection<BaseGenericIdEntity> entities) {
-        List<Object> ids = entities.stream()
+    protected void doFetchDynamicAttributes(MetaClass metaClass, Collection<BaseGenericIdEntity> entities,
+                                            @Nullable Set<String> attributeCodes) {
+        Set<Object> ids = entities.stream()
                 .map(e -> referenceToEntitySupport.getReferenceId(e))
-                .collect(Collectors.toList());
+                .collect(Collectors.toCollection(LinkedHashSet::new));
 
         Multimap<Object, CategoryAttributeValue> allAttributeValues = HashMultimap.create();
 
-        List<Object> currentIds = new ArrayList<>();
-        for (Object id : ids) {
-            currentIds.add(id);
-            if (currentIds.size() >= MAX_ENTITIES_FOR_ATTRIBUTE_VALUES_BATCH) {
-                handleAttributeValuesForIds(metaClass, currentIds, allAttributeValues);
-                currentIds = new ArrayList<>();
+        if (attributeCodes == null || !attributeCodes.isEmpty()) {
+            int batchSize = Math.max(serverConfig.getDynamicAttributesValuesBatchSize(), 1);
+            for (List<Object> currentIds : Iterables.partition(ids, batchSize)) {
+                handleAttributeValuesForIds(metaClass, currentIds, attributeCodes, allAttributeValues);
             }
         }
-        handleAttributeValuesForIds(metaClass, currentIds, allAttributeValues);
 
         for (BaseGenericIdEntity entity : entities) {
             Collection<CategoryAttributeValue> entityAttributeValues = allAttributeValues.get(referenceToEntitySupport.getReferenceId(entity));
@@ -342,15 +520,17 @@ public class DynamicAttributesManager implements DynamicAttributesManagerAPI {
         }
     }
 
-    protected void handleAttributeValuesForIds(MetaClass metaClass, List<Object> currentIds, Multimap<Object, CategoryAttributeValue> attributeValuesForEntity) {
+    protected void handleAttributeValuesForIds(MetaClass metaClass, List<Object> currentIds, @Nullable Set<String> attributeCodes,
+                                               Multimap<Object, CategoryAttributeValue> attributeValuesForEntity) {
         if (CollectionUtils.isNotEmpty(currentIds)) {
-            for (CategoryAttributeValue attributeValue : loadAttributeValues(metaClass, currentIds)) {
+            for (CategoryAttributeValue attributeValue : loadAttributeValues(metaClass, currentIds, attributeCodes)) {
                 attributeValuesForEntity.put(attributeValue.getObjectEntityId(), attributeValue);
             }
         }
     }
 
-    protected List<CategoryAttributeValue> loadAttributeValues(MetaClass metaClass, List<Object> entityIds) {
+    protected List<CategoryAttributeValue> loadAttributeValues(MetaClass metaClass, List<Object> entityIds,
+                                                               @Nullable Set<String> attributeCodes) {
         List<CategoryAttributeValue> attributeValues = new ArrayList<>();
         try (Transaction tx = persistence.getTransaction()) {
             EntityManager em = persistence.getEntityManager();
@@ -360,19 +540,23 @@ public class DynamicAttributesManager implements DynamicAttributesManagerAPI {
                             .addProperty("category")
                             .addProperty("defaultEntity", viewRepository.getView(ReferenceToEntity.class, View.LOCAL)));
 
+            String codesCondition = attributeCodes != null ? " and cav.code in :codes" : "";
             TypedQuery<CategoryAttributeValue> query;
             if (HasUuid.class.isAssignableFrom(metaClass.getJavaClass())) {
-                query = em.createQuery(format("select cav from sys$CategoryAttributeValue cav where cav.entity.%s in :ids and cav.parent is null",
-                        referenceToEntitySupport.getReferenceIdPropertyName(metaClass)),
+                query = em.createQuery(format("select cav from sys$CategoryAttributeValue cav where cav.entity.%s in :ids and cav.parent is null%s",
+                        referenceToEntitySupport.getReferenceIdPropertyName(metaClass), codesCondition),
                         CategoryAttributeValue.class);
             } else {
                 query = em.createQuery(format("select cav from sys$CategoryAttributeValue cav where cav.entity.%s in :ids " +
-                                "and cav.categoryAttribute.categoryEntityType = :entityType and cav.parent is null",
-                        referenceToEntitySupport.getReferenceIdPropertyName(metaClass)),
+                                "and cav.categoryAttribute.categoryEntityType = :entityType and cav.parent is null%s",
+                        referenceToEntitySupport.getReferenceIdPropertyName(metaClass), codesCondition),
                         CategoryAttributeValue.class);
                 query.setParameter("entityType", metaClass.getName());
             }
             query.setParameter("ids", entityIds);
+            if (attributeCodes != null) {
+                query.setParameter("codes", attributeCodes);
+            }
             query.setView(view);
             List<CategoryAttributeValue> resultList = query.getResultList();
 
@@ -488,4 +672,18 @@ public class DynamicAttributesManager implements DynamicAttributesManagerAPI {
     private static class ReloadCacheMsg implements Serializable {
         private static final long serialVersionUID = -3116358584797500962L;
     }
+
+    private static class ReloadCategoriesMsg implements Serializable {
+        private static final long serialVersionUID = 2486361405563925218L;
+
+        private final ArrayList<UUID> categoryIds;
+
+        public ReloadCategoriesMsg(Collection<UUID> categoryIds) {
+            this.categoryIds = new ArrayList<>(categoryIds);
+        }
+
+        public List<UUID> getCategoryIds() {
+            return categoryIds;
+        }
+    }
 }
\ No newline at end of file
@@ -28,6 +28,7 @@ import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Set;
+import java.util.UUID;
 
 public interface DynamicAttributesManagerAPI {
     String NAME = "cuba_DynamicAttributesManager";
@@ -37,6 +38,12 @@ public interface DynamicAttributesManagerAPI {
      */
     void loadCache();
 
+    /**
+     * Reload only the given categories in the dynamic attributes cache. Removed categories are excluded from the cache.
+     * Other cluster nodes are notified to do the same.
+     */
+    void reloadCategories(Collection<UUID> categoryIds);
+
     /**
      * Get all categories linked with metaClass from cache
      */
@@ -61,8 +68,24 @@ public interface DynamicAttributesManagerAPI {
      */
     <E extends BaseGenericIdEntity> void fetchDynamicAttributes(List<E> entities, @Nonnull Set<Class> dependentClasses);
 
+    /**
+     * Fetch dynamic attributes from database for each entity.
+     *
+     * @param attributeCodes codes of attributes to fetch for the given entities, or null to fetch all attributes.
+     *                       Entities of dependent classes always get all their attributes.
+     */
+    <E extends BaseGenericIdEntity> void fetchDynamicAttributes(List<E> entities, @Nonnull Set<Class> dependentClasses,
+                                                              @Nullable Collection<String> attributeCodes);
+
     /**
      * Store dynamic attributes from the entity to database
      */
     void storeDynamicAttributes(BaseGenericIdEntity entity);
+
+    /**
+     * Store dynamic attributes from the entities to database in a single transaction.
+     * Existing attribute values are loaded by a few queries for all entities, new ones are persisted without loading
+     * them from database first.
+     */
+    void storeDynamicAttributes(Collection<? extends BaseGenericIdEntity> entities);
 }
\ No newline at end of file
@@ -18,32 +18,36 @@
 package com.haulmont.cuba.core.app.importexport;
 
 import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Multimap;
 import com.haulmont.chile.core.model.MetaClass;
 import com.haulmont.chile.core.model.MetaProperty;
 import com.haulmont.chile.core.model.Range;
 import com.haulmont.cuba.core.*;
+import com.haulmont.cuba.core.app.FileStorageAPI;
 import com.haulmont.cuba.core.app.dynamicattributes.DynamicAttributesManagerAPI;
 import com.haulmont.cuba.core.app.serialization.EntitySerializationAPI;
 import com.haulmont.cuba.core.app.serialization.EntitySerializationOption;
 import com.haulmont.cuba.core.entity.BaseEntityInternalAccess;
 import com.haulmont.cuba.core.entity.BaseGenericIdEntity;
 import com.haulmont.cuba.core.entity.Entity;
+import com.haulmont.cuba.core.entity.FileDescriptor;
+import com.haulmont.cuba.core.entity.IdProxy;
 import com.haulmont.cuba.core.entity.SoftDelete;
-import com.haulmont.cuba.core.global.Metadata;
-import com.haulmont.cuba.core.global.PersistenceHelper;
-import com.haulmont.cuba.core.global.View;
+import com.haulmont.cuba.core.global.*;
 import org.apache.commons.compress.archivers.ArchiveEntry;
 import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
 import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
 import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CloseShieldInputStream;
+import org.apache.commons.io.output.CloseShieldOutputStream;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.Nullable;
 import javax.inject.Inject;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
+import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -52,6 +56,16 @@ import java.util.zip.CRC32;
 @Component(EntityImportExportAPI.NAME)
 public class EntityImportExport implements EntityImportExportAPI {
 
+    /**
+     * Max number of ids passed to a single query when loading existing instances before import.
+     */
+    protected static final int PREFETCH_BATCH_SIZE = 500;
+
+    /**
+     * Number of entities reloaded and serialized at once by the streaming export.
+     */
+    protected static final int EXPORT_BATCH_SIZE = 100;
+
     @Inject
     protected EntitySerializationAPI entitySerialization;
 
@@ -67,6 +81,15 @@ public class EntityImportExport implements EntityImportExportAPI {
     @Inject
     protected PersistenceSecurity persistenceSecurity;
 
+    @Inject
+    protected FileStorageAPI fileStorage;
+
+    @Inject
+    protected TimeSource timeSource;
+
+    @Inject
+    protected GlobalConfig globalConfig;
+
     @Override
     public byte[] exportEntities(Collection<? extends Entity> entities, View view) {
         return exportEntities(reloadEntities(entities, view));
@@ -95,6 +118,62 @@ public class EntityImportExport implements EntityImportExportAPI {
         return byteArrayOutputStream.toByteArray();
     }
 
+    @Override
+    public void exportEntities(Collection<? extends Entity> entities, @Nullable View view, OutputStream outputStream) {
+        Iterable<? extends Entity> source = view != null ? reloadEntitiesInBatches(entities, view) : entities;
+
+        ZipArchiveOutputStream zipOutputStream = new ZipArchiveOutputStream(new CloseShieldOutputStream(outputStream));
+        zipOutputStream.setEncoding(StandardCharsets.UTF_8.name());
+        try {
+            zipOutputStream.putArchiveEntry(new ZipArchiveEntry("entities.json"));
+            Writer writer = new OutputStreamWriter(zipOutputStream, StandardCharsets.UTF_8);
+            entitySerialization.writeJson(source, null, writer, EntitySerializationOption.COMPLEX_ID_FORMAT,
+                    EntitySerializationOption.COMPACT_REPEATED_ENTITIES);
+            zipOutputStream.closeArchiveEntry();
+            zipOutputStream.finish();
+        } catch (IOException e) {
+            throw new RuntimeException("Error on creating zip archive during entities export", e);
+        } finally {
+            IOUtils.closeQuietly(zipOutputStream);
+        }
+    }
+
+    @Override
+    public FileDescriptor exportEntitiesToFile(Collection<? extends Entity> entities, @Nullable View view) {
+        File tempFile = null;
+        try {
+            tempFile = File.createTempFile("entities", ".zip", new File(globalConfig.getTempDir()));
+            try (OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(tempFile))) {
+                exportEntities(entities, view, outputStream);
+            }
+
+            FileDescriptor fileDescriptor = metadata.create(FileDescriptor.class);
+            fileDescriptor.setCreateDate(timeSource.currentTimestamp());
+            fileDescriptor.setName("entities.zip");
+            fileDescriptor.setExtension("zip");
+            fileDescriptor.setSize(tempFile.length());
+            try (InputStream inputStream = new BufferedInputStream(new FileInputStream(tempFile))) {
+                fileStorage.saveStream(fileDescriptor, inputStream);
+            }
+
+            try (Transaction tx = persistence.createTransaction()) {
+                persistence.getEntityManager().persist(fileDescriptor);
+                tx.commit();
+            }
+            return fileDescriptor;
+        } catch (IOException | FileStorageException e) {
+            throw new RuntimeException("Error on exporting entities to the file storage", e);
+        } finally {
+            FileUtils.deleteQuietly(tempFile);
+        }
+    }
+
+    protected Iterable<Entity> reloadEntitiesInBatches(Collection<? extends Entity> entities, View view) {
+        List<Entity> list = new ArrayList<>(entities);
+        return Iterables.concat(Iterables.transform(Iterables.partition(list, EXPORT_BATCH_SIZE),
+                batch -> reloadEntities(batch, view)));
+    }
+
     protected Collection<? extends Entity> reloadEntities(Collection<? extends Entity> entities, View view) {
         List<Object> ids = entities.stream()
                 .map(Entity::getId)
@@ -104,7 +183,8 @@ public class EntityImportExport implements EntityImportExportAPI {
         try (Transaction tx = persistence.createTransaction()) {
             EntityManager em = persistence.getEntityManager();
             MetaClass metaClass = metadata.getClassNN(view.getEntityClass());
-            Query query = em.createQuery("select e from " + metaClass.getName() + " e where e.id in :ids")
+            String primaryKeyName = metadata.getTools().getPrimaryKeyName(metaClass);
+            Query query = em.createQuery("select e from " + metaClass.getName() + " e where e." + primaryKeyName + " in :ids")
                     .setParameter("ids", ids)
                     .setView(view);
             result = query.getResultList();
@@ -147,12 +227,45 @@ public class EntityImportExport implements EntityImportExportAPI {
         return result;
     }
 
+    @Override
+    public int importEntities(InputStream inputStream, EntityImportView view, int batchSize) {
+        int count = 0;
+        ZipArchiveInputStream archiveReader = new ZipArchiveInputStream(new CloseShieldInputStream(inputStream));
+        try {
+            while (archiveReader.getNextZipEntry() != null) {
+                Reader reader = new InputStreamReader(archiveReader, StandardCharsets.UTF_8);
+                count += entitySerialization.readJson(reader, null, batchSize,
+                        batch -> importEntities(batch, view, batchSize),
+                        EntitySerializationOption.COMPLEX_ID_FORMAT, EntitySerializationOption.COMPACT_REPEATED_ENTITIES);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Exception occurred while importing entities", e);
+        } finally {
+            IOUtils.closeQuietly(archiveReader);
+        }
+        return count;
+    }
+
+    @Override
+    public int importEntities(FileDescriptor fileDescriptor, EntityImportView view, int batchSize) {
+        try (InputStream inputStream = fileStorage.openStream(fileDescriptor)) {
+            return importEntities(new BufferedInputStream(inputStream), view, batchSize);
+        } catch (IOException | FileStorageException e) {
+            throw new RuntimeException("Exception occurred while importing entities from the file storage", e);
+        }
+    }
+
     protected byte[] readBytesFromEntry(ZipArchiveInputStream archiveReader) throws IOException {
         return IOUtils.toByteArray(archiveReader);
     }
 
     @Override
     public Collection<Entity> importEntities(Collection<? extends Entity> entities, EntityImportView view) {
+        return importEntities(entities, view, 0);
+    }
+
+    @Override
+    public Collection<Entity> importEntities(Collection<? extends Entity> entities, EntityImportView view, int batchSize) {
         Collection<Entity> result = new ArrayList<>();
         Map<String, List<Entity>> entitiesByStore = new LinkedHashMap<>();
         for (Entity entity : entities) {
@@ -161,52 +274,222 @@ public class EntityImportExport implements EntityImportExportAPI {
             list.add(entity);
         }
 
-        for (String storeName : entitiesByStore.keySet()) {
-            Map<Object, Entity> entitiesToPersist = new HashMap<>();
-            Set<Entity> entitiesToRemove = new HashSet<>();
-            List<ReferenceInfo> referenceInfoList = new ArrayList<>();
-            Map<Object, Entity> loadedEntities = new HashMap<>();
+        for (Map.Entry<String, List<Entity>> entry : entitiesByStore.entrySet()) {
+            List<Entity> storeEntities = entry.getValue();
+            if (batchSize <= 0) {
+                result.addAll(importEntitiesInTransaction(storeEntities, view, entry.getKey(), false));
+            } else {
+                for (int i = 0; i < storeEntities.size(); i += batchSize) {
+                    List<Entity> batch = storeEntities.subList(i, Math.min(i + batchSize, storeEntities.size()));
+                    result.addAll(importEntitiesInTransaction(batch, view, entry.getKey(), true));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param newTransaction if true, the entities are committed in a separate transaction even if there is an
+     *                       active one, otherwise the active transaction is joined
+     */
+    protected Collection<Entity> importEntitiesInTransaction(Collection<? extends Entity> entities,
+                                                            EntityImportView view,
+                                                            String storeName,
+                                                            boolean newTransaction) {
+        Collection<Entity> result = new ArrayList<>();
+        Map<Object, Entity> entitiesToPersist = new HashMap<>();
+        Set<Entity> entitiesToRemove = new HashSet<>();
+        List<ReferenceInfo> referenceInfoList = new ArrayList<>();
+
+        try (Transaction tx = newTransaction
+                ? persistence.createTransaction(storeName) : persistence.getTransaction(storeName)) {
+            //existing instances of imported entities and of the references are loaded in bulk beforehand,
+            //so the steps below resolve them from this map instead of loading them one by one
+            Map<Object, Entity> loadedEntities = prefetchEntities(entities, view, storeName);
+
+            //import is performed in two steps. We have to do so, because imported entity may have a reference to
+            //the reference that is imported in the same batch.
+            //
+            //1. entities that should be created are processing first, fields that should be references to existing entities
+            //are stored in the referenceInfoList variable
+            for (Entity entity : entities) {
+                importEntity(entity, view, storeName, entitiesToPersist, entitiesToRemove, referenceInfoList, loadedEntities);
+            }
 
-            try (Transaction tx = persistence.getTransaction(storeName)) {
+            //2. references to existing entities are processed
+            for (ReferenceInfo referenceInfo : referenceInfoList) {
+                processReferenceInfo(referenceInfo, storeName, entitiesToPersist, loadedEntities);
+            }
 
-                //import is performed in two steps. We have to do so, because imported entity may have a reference to
-                //the reference that is imported in the same batch.
-                //
-                //1. entities that should be created are processing first, fields that should be references to existing entities
-                //are stored in the referenceInfoList variable
-                for (Entity entity : entities) {
-                    importEntity(entity, view, storeName, entitiesToPersist, entitiesToRemove, referenceInfoList);
+            EntityManager em = persistence.getEntityManager(storeName);
+            List<BaseGenericIdEntity> entitiesWithDynamicAttributes = new ArrayList<>();
+            for (Entity entity : entitiesToPersist.values()) {
+                if (PersistenceHelper.isNew(entity)) {
+                    em.persist(entity);
+                    result.add(entity);
+                } else {
+                    if (entity instanceof SoftDelete && ((SoftDelete) entity).isDeleted()) {
+                        ((SoftDelete) entity).setDeleteTs(null);
+                    }
+                    Entity merged = em.merge(entity);
+                    result.add(merged);
                 }
 
-                //2. references to existing entities are processed
-                for (ReferenceInfo referenceInfo : referenceInfoList) {
-                    processReferenceInfo(referenceInfo, storeName, entitiesToPersist, loadedEntities);
+                if (entityHasDynamicAttributes(entity)) {
+                    entitiesWithDynamicAttributes.add((BaseGenericIdEntity) entity);
                 }
+            }
 
-                EntityManager em = persistence.getEntityManager(storeName);
-                for (Entity entity : entitiesToPersist.values()) {
-                    if (PersistenceHelper.isNew(entity)) {
-                        em.persist(entity);
-                        result.add(entity);
-                    } else {
-                        if (entity instanceof SoftDelete && ((SoftDelete) entity).isDeleted()) {
-                            ((SoftDelete) entity).setDeleteTs(null);
-                        }
-                        Entity merged = em.merge(entity);
-                        result.add(merged);
-                    }
+            if (!entitiesWithDynamicAttributes.isEmpty()) {
+                dynamicAttributesManagerAPI.storeDynamicAttributes(entitiesWithDynamicAttributes);
+            }
 
-                    if (entityHasDynamicAttributes(entity)) {
-                        dynamicAttributesManagerAPI.storeDynamicAttributes((BaseGenericIdEntity) entity);
-                    }
+            entitiesToRemove.forEach(em::remove);
+
+            tx.commit();
+        }
+        return result;
+    }
+
+    /**
+     * Loads existing instances of the imported entities and of the entities referenced by id with a few queries
+     * instead of loading each instance separately.
+     *
+     * @return map of keys created by {@link #loadedEntityKey(MetaClass, Object)} to loaded instances. Ids that
+     * have been looked up but are absent in the database are mapped to null.
+     */
+    protected Map<Object, Entity> prefetchEntities(Collection<? extends Entity> entities,
+                                                   EntityImportView view,
+                                                   String storeName) {
+        Map<EntityImportView, Map<MetaClass, Set<Object>>> importedIds = new LinkedHashMap<>();
+        Map<MetaClass, Set<Object>> referenceIds = new LinkedHashMap<>();
+        Set<Entity> visited = new HashSet<>();
+        for (Entity entity : entities) {
+            collectIds(entity, view, false, importedIds, referenceIds, visited);
+        }
+
+        Map<Object, Entity> loadedEntities = new HashMap<>();
+        EntityManager em = persistence.getEntityManager(storeName);
+        //set softDeletion to false because we can import deleted entity, so we'll restore it and update
+        em.setSoftDeletion(false);
+        for (Map.Entry<EntityImportView, Map<MetaClass, Set<Object>>> entry : importedIds.entrySet()) {
+            for (Map.Entry<MetaClass, Set<Object>> idsEntry : entry.getValue().entrySet()) {
+                View prefetchView = createPrefetchView(idsEntry.getKey(), entry.getKey());
+                loadEntities(em, idsEntry.getKey(), prefetchView, idsEntry.getValue(), loadedEntities);
+            }
+        }
+        for (Map.Entry<MetaClass, Set<Object>> idsEntry : referenceIds.entrySet()) {
+            loadEntities(em, idsEntry.getKey(), null, idsEntry.getValue(), loadedEntities);
+        }
+        return loadedEntities;
+    }
+
+    protected void collectIds(Entity srcEntity,
+                              EntityImportView view,
+                              boolean embedded,
+                              Map<EntityImportView, Map<MetaClass, Set<Object>>> importedIds,
+                              Map<MetaClass, Set<Object>> referenceIds,
+                              Set<Entity> visited) {
+        if (!visited.add(srcEntity)) {
+            return;
+        }
+        MetaClass metaClass = srcEntity.getMetaClass();
+        if (!embedded && canBePrefetched(srcEntity)) {
+            importedIds.computeIfAbsent(view, k -> new LinkedHashMap<>())
+                    .computeIfAbsent(metaClass, k -> new LinkedHashSet<>())
+                    .add(srcEntity.getId());
+        }
+
+        for (EntityImportViewProperty viewProperty : view.getProperties()) {
+            MetaProperty metaProperty = metaClass.getPropertyNN(viewProperty.getName());
+            if (!metaProperty.getRange().isClass()) {
+                continue;
+            }
+            Object value = srcEntity.getValue(viewProperty.getName());
+            if (value == null) {
+                continue;
+            }
+            boolean embeddedProperty = metadata.getTools().isEmbedded(metaProperty);
+            if (embeddedProperty && viewProperty.getView() == null) {
+                continue;
+            }
+            Collection<?> values = value instanceof Collection ? (Collection<?>) value : Collections.singleton(value);
+            for (Object item : values) {
+                Entity itemEntity = (Entity) item;
+                if (viewProperty.getView() != null) {
+                    collectIds(itemEntity, viewProperty.getView(), embeddedProperty, importedIds, referenceIds, visited);
+                } else if (canBePrefetched(itemEntity)) {
+                    referenceIds.computeIfAbsent(itemEntity.getMetaClass(), k -> new LinkedHashSet<>())
+                            .add(itemEntity.getId());
                 }
+            }
+        }
+    }
+
+    protected boolean canBePrefetched(Entity entity) {
+        MetaClass metaClass = entity.getMetaClass();
+        return entity.getId() != null
+                && !(entity.getId() instanceof IdProxy)
+                && metadata.getTools().isPersistent(metaClass)
+                && !metadata.getTools().hasCompositePrimaryKey(metaClass)
+                && metadata.getTools().getPrimaryKeyName(metaClass) != null;
+    }
 
-                entitiesToRemove.forEach(em::remove);
+    @SuppressWarnings("unchecked")
+    protected void loadEntities(EntityManager em, MetaClass metaClass, @Nullable View view, Set<Object> ids,
+                                Map<Object, Entity> loadedEntities) {
+        List<Object> idList = ids.stream()
+                .filter(id -> !loadedEntities.containsKey(loadedEntityKey(metaClass, id)))
+                .collect(Collectors.toList());
+        String primaryKeyName = metadata.getTools().getPrimaryKeyName(metaClass);
+        for (int i = 0; i < idList.size(); i += PREFETCH_BATCH_SIZE) {
+            List<Object> chunk = idList.subList(i, Math.min(i + PREFETCH_BATCH_SIZE, idList.size()));
+            Query query = em.createQuery("select e from " + metaClass.getName() + " e where e." + primaryKeyName + " in :ids")
+                    .setParameter("ids", chunk);
+            if (view != null) {
+                query.setView(view);
+            }
+            List<Entity> list = query.getResultList();
+            for (Object id : chunk) {
+                loadedEntities.put(loadedEntityKey(metaClass, id), null);
+            }
+            for (Entity entity : list) {
+                loadedEntities.put(loadedEntityKey(metaClass, entity.getId()), entity);
+            }
+        }
+    }
 
-                tx.commit();
+    /**
+     * Entities of different classes can have equal ids, so loaded instances are identified by the entity name
+     * used to load them together with the id.
+     */
+    protected Object loadedEntityKey(MetaClass metaClass, Object id) {
+        return new LoadedEntityKey(metaClass.getName(), id);
+    }
+
+    /**
+     * Creates a view that fetches the attributes which are read from the existing instance during the import:
+     * local attributes, embedded attributes and collections.
+     */
+    protected View createPrefetchView(MetaClass metaClass, EntityImportView importView) {
+        View view = new View(metaClass.getJavaClass());
+        for (EntityImportViewProperty viewProperty : importView.getProperties()) {
+            MetaProperty metaProperty = metaClass.getPropertyNN(viewProperty.getName());
+            Range range = metaProperty.getRange();
+            if (range.isDatatype() || range.isEnum()) {
+                view.addProperty(viewProperty.getName());
+            } else if (range.isClass()) {
+                MetaClass propertyMetaClass = range.asClass();
+                if (viewProperty.getView() != null
+                        && (metadata.getTools().isEmbedded(metaProperty) || range.getCardinality().isMany())) {
+                    view.addProperty(viewProperty.getName(), createPrefetchView(propertyMetaClass, viewProperty.getView()));
+                } else if (range.getCardinality() == Range.Cardinality.MANY_TO_MANY) {
+                    view.addProperty(viewProperty.getName(),
+                            metadata.getViewRepository().getView(propertyMetaClass, View.MINIMAL));
+                }
             }
         }
-        return result;
+        return view;
     }
 
     protected Entity importEntity(Entity srcEntity,
@@ -214,11 +497,18 @@ public class EntityImportExport implements EntityImportExportAPI {
                                   String storeName,
                                   Map<Object, Entity> entitiesToCreate,
                                   Set<Entity> entitiesToRemove,
-                                  Collection<ReferenceInfo> referenceInfoList) {
-        EntityManager em = persistence.getEntityManager(storeName);
-        //set softDeletion to false because we can import deleted entity, so we'll restore it and update
-        em.setSoftDeletion(false);
-        Entity dstEntity = em.reload(srcEntity);
+                                  Collection<ReferenceInfo> referenceInfoList,
+                                  Map<Object, Entity> loadedEntities) {
+        Entity dstEntity;
+        Object loadedKey = loadedEntityKey(srcEntity.getMetaClass(), srcEntity.getId());
+        if (loadedEntities.containsKey(loadedKey)) {
+            dstEntity = loadedEntities.get(loadedKey);
+        } else {
+            EntityManager em = persistence.getEntityManager(storeName);
+            //set softDeletion to false because we can import deleted entity, so we'll restore it and update
+            em.setSoftDeletion(false);
+            dstEntity = em.reload(srcEntity);
+        }
         if (dstEntity instanceof BaseGenericIdEntity) {
             byte[] securityToken = BaseEntityInternalAccess.getSecurityToken((BaseGenericIdEntity) srcEntity);
             BaseEntityInternalAccess.setSecurityToken((BaseGenericIdEntity) dstEntity, securityToken);
@@ -238,19 +528,19 @@ public class EntityImportExport implements EntityImportExportAPI {
             } else if (metaProperty.getRange().isClass()) {
                 if (metadata.getTools().isEmbedded(metaProperty)) {
                     if (viewProperty.getView() != null) {
-                        Entity embeddedEntity = importEmbeddedAttribute(srcEntity, dstEntity, viewProperty, storeName, entitiesToCreate, entitiesToRemove, referenceInfoList);
+                        Entity embeddedEntity = importEmbeddedAttribute(srcEntity, dstEntity, viewProperty, storeName, entitiesToCreate, entitiesToRemove, referenceInfoList, loadedEntities);
                         dstEntity.setValue(viewProperty.getName(), embeddedEntity);
                     }
                 } else {
                     switch (metaProperty.getRange().getCardinality()) {
                         case MANY_TO_MANY:
-                            importManyToManyCollectionAttribute(srcEntity, dstEntity, viewProperty, storeName, entitiesToCreate, entitiesToRemove, referenceInfoList);
+                            importManyToManyCollectionAttribute(srcEntity, dstEntity, viewProperty, storeName, entitiesToCreate, entitiesToRemove, referenceInfoList, loadedEntities);
                             break;
                         case ONE_TO_MANY:
-                            importOneToManyCollectionAttribute(srcEntity, dstEntity, viewProperty, storeName, entitiesToCreate, entitiesToRemove, referenceInfoList);
+                            importOneToManyCollectionAttribute(srcEntity, dstEntity, viewProperty, storeName, entitiesToCreate, entitiesToRemove, referenceInfoList, loadedEntities);
                             break;
                         default:
-                            importReference(srcEntity, dstEntity, viewProperty, storeName, entitiesToCreate, entitiesToRemove, referenceInfoList);
+                            importReference(srcEntity, dstEntity, viewProperty, storeName, entitiesToCreate, entitiesToRemove, referenceInfoList, loadedEntities);
                     }
                 }
             }
@@ -272,13 +562,14 @@ public class EntityImportExport implements EntityImportExportAPI {
                                    EntityImportViewProperty viewProperty,
                                    String storeName,
                                    Map<Object, Entity> entitiesToCreate,
-                                   Set<Entity> entitiesToRemove, Collection<ReferenceInfo> referenceInfoList) {
+                                   Set<Entity> entitiesToRemove, Collection<ReferenceInfo> referenceInfoList,
+                                   Map<Object, Entity> loadedEntities) {
         Entity srcPropertyValue = srcEntity.<Entity>getValue(viewProperty.getName());
         if (viewProperty.getView() == null) {
             ReferenceInfo referenceInfo = new ReferenceInfo(dstEntity, viewProperty, srcPropertyValue);
             referenceInfoList.add(referenceInfo);
         } else {
-            Entity dstPropertyValue = importEntity(srcPropertyValue, viewProperty.getView(), storeName, entitiesToCreate, entitiesToRemove, referenceInfoList);
+            Entity dstPropertyValue = importEntity(srcPropertyValue, viewProperty.getView(), storeName, entitiesToCreate, entitiesToRemove, referenceInfoList, loadedEntities);
             dstEntity.setValue(viewProperty.getName(), dstPropertyValue);
         }
     }
@@ -289,7 +580,8 @@ public class EntityImportExport implements EntityImportExportAPI {
                                                       String storeName,
                                                       Map<Object, Entity> entitiesToCreate,
                                                       Set<Entity> entitiesToRemove,
-                                                      Collection<ReferenceInfo> referenceInfoList) {
+                                                      Collection<ReferenceInfo> referenceInfoList,
+                                                      Map<Object, Entity> loadedEntities) {
         MetaProperty metaProperty = srcEntity.getMetaClass().getPropertyNN(viewProperty.getName());
         MetaProperty inverseMetaProperty = metaProperty.getInverse();
 
@@ -318,7 +610,7 @@ public class EntityImportExport implements EntityImportExportAPI {
             for (Entity srcChildEntity : srcPropertyValue) {
                 if (viewProperty.getView() != null) {
                     //create new referenced entity
-                    Entity dstChildEntity = importEntity(srcChildEntity, viewProperty.getView(), storeName, entitiesToCreate, entitiesToRemove, referenceInfoList);
+                    Entity dstChildEntity = importEntity(srcChildEntity, viewProperty.getView(), storeName, entitiesToCreate, entitiesToRemove, referenceInfoList, loadedEntities);
                     if (inverseMetaProperty != null) {
                         dstChildEntity.setValue(inverseMetaProperty.getName(), dstEntity);
                     }
@@ -348,7 +640,8 @@ public class EntityImportExport implements EntityImportExportAPI {
                                                        String storeName,
                                                        Map<Object, Entity> entitiesToCreate,
                                                        Set<Entity> entitiesToRemove,
-                                                       Collection<ReferenceInfo> referenceInfoList) {
+                                                       Collection<ReferenceInfo> referenceInfoList,
+                                                       Map<Object, Entity> loadedEntities) {
         Collection<Entity> srcPropertyValue = srcEntity.getValue(viewProperty.getName());
         if (viewProperty.getView() != null) {
             //create/update passed entities
@@ -361,7 +654,7 @@ public class EntityImportExport implements EntityImportExportAPI {
 
             for (Entity srcChildEntity : srcPropertyValue) {
                 //create new referenced entity
-                Entity dstChildEntity = importEntity(srcChildEntity, viewProperty.getView(), storeName, entitiesToCreate, entitiesToRemove, referenceInfoList);
+                Entity dstChildEntity = importEntity(srcChildEntity, viewProperty.getView(), storeName, entitiesToCreate, entitiesToRemove, referenceInfoList, loadedEntities);
                 collection.add(dstChildEntity);
             }
 
@@ -391,7 +684,8 @@ public class EntityImportExport implements EntityImportExportAPI {
                                              String storeName,
                                              Map<Object, Entity> entitiesToCreate,
                                              Set<Entity> entitiesToRemove,
-                                             Collection<ReferenceInfo> referenceInfoList) {
+                                             Collection<ReferenceInfo> referenceInfoList,
+                                             Map<Object, Entity> loadedEntities) {
         MetaProperty metaProperty = srcEntity.getMetaClass().getPropertyNN(viewProperty.getName());
         Entity srcEmbeddedEntity = srcEntity.getValue(viewProperty.getName());
         if (srcEmbeddedEntity == null) {
@@ -409,12 +703,12 @@ public class EntityImportExport implements EntityImportExportAPI {
                 dstEmbeddedEntity.setValue(vp.getName(), srcEmbeddedEntity.getValue(vp.getName()));
             } else if (mp.getRange().isClass()) {
                 if (metaProperty.getRange().getCardinality() == Range.Cardinality.ONE_TO_MANY) {
-                    importOneToManyCollectionAttribute(srcEmbeddedEntity, dstEmbeddedEntity, vp, storeName, entitiesToCreate, entitiesToRemove, referenceInfoList);
+                    importOneToManyCollectionAttribute(srcEmbeddedEntity, dstEmbeddedEntity, vp, storeName, entitiesToCreate, entitiesToRemove, referenceInfoList, loadedEntities);
                 } else if (metaProperty.getRange().getCardinality() == Range.Cardinality.MANY_TO_MANY) {
-                    importManyToManyCollectionAttribute(srcEmbeddedEntity, dstEmbeddedEntity, vp, storeName, entitiesToCreate, entitiesToRemove, referenceInfoList);
+                    importManyToManyCollectionAttribute(srcEmbeddedEntity, dstEmbeddedEntity, vp, storeName, entitiesToCreate, entitiesToRemove, referenceInfoList, loadedEntities);
                 }
                 else {
-                    importReference(srcEmbeddedEntity, dstEmbeddedEntity, vp, storeName, entitiesToCreate, entitiesToRemove, referenceInfoList);
+                    importReference(srcEmbeddedEntity, dstEmbeddedEntity, vp, storeName, entitiesToCreate, entitiesToRemove, referenceInfoList, loadedEntities);
                 }
             }
         }
@@ -444,13 +738,17 @@ public class EntityImportExport implements EntityImportExportAPI {
             }
 
             for (Entity childEntity : propertyValue) {
-                if (loadedEntities.get(childEntity.getId()) != null) {
-                    collection.add(loadedEntities.get(childEntity.getId()));
-                } else if (entitiesToCreate.get(childEntity.getId()) != null) {
+                if (entitiesToCreate.get(childEntity.getId()) != null) {
                     collection.add(entitiesToCreate.get(childEntity.getId()));
                 } else {
-                    EntityManager em = persistence.getEntityManager(store);
-                    Entity loadedReference = em.reload(childEntity);
+                    Entity loadedReference;
+                    Object loadedKey = loadedEntityKey(childEntity.getMetaClass(), childEntity.getId());
+                    if (loadedEntities.containsKey(loadedKey)) {
+                        loadedReference = loadedEntities.get(loadedKey);
+                    } else {
+                        EntityManager em = persistence.getEntityManager(store);
+                        loadedReference = em.reload(childEntity);
+                    }
                     if (loadedReference == null) {
                         if (referenceInfo.getViewProperty().getReferenceImportBehaviour() == ReferenceImportBehaviour.ERROR_ON_MISSING) {
                             throw new EntityImportException("Referenced entity for property '" + propertyName + "' with id = " + entity.getId() + " is missing");
@@ -458,7 +756,7 @@ public class EntityImportExport implements EntityImportExportAPI {
                     } else {
                         collection.add(loadedReference);
                     }
-                    loadedEntities.put(entity.getId(), loadedReference);
+                    loadedEntities.put(loadedKey, loadedReference);
                 }
             }
 
@@ -482,13 +780,17 @@ public class EntityImportExport implements EntityImportExportAPI {
             Entity propertyValue = (Entity) referenceInfo.getPropertyValue();
             if (propertyValue == null) {
                 entity.setValue(propertyName, null);
-            } else if (loadedEntities.get(propertyValue.getId()) != null) {
-                entity.setValue(propertyName, loadedEntities.get(propertyValue.getId()));
             } else if (entitiesToCreate.get(propertyValue.getId()) != null) {
                 entity.setValue(propertyName, entitiesToCreate.get(propertyValue.getId()));
             } else {
-                EntityManager em = persistence.getEntityManager(store);
-                Entity loadedReference = em.find(propertyValue.getClass(), propertyValue.getId());
+                Entity loadedReference;
+                Object loadedKey = loadedEntityKey(propertyValue.getMetaClass(), propertyValue.getId());
+                if (loadedEntities.containsKey(loadedKey)) {
+                    loadedReference = loadedEntities.get(loadedKey);
+                } else {
+                    EntityManager em = persistence.getEntityManager(store);
+                    loadedReference = em.find(propertyValue.getClass(), propertyValue.getId());
+                }
                 if (loadedReference == null) {
                     if (referenceInfo.getViewProperty().getReferenceImportBehaviour() == ReferenceImportBehaviour.ERROR_ON_MISSING) {
                         throw new EntityImportException("Referenced entity for property '" + propertyName + "' with id = " + propertyValue.getId() + " is missing");
@@ -496,7 +798,7 @@ public class EntityImportExport implements EntityImportExportAPI {
                 } else {
                     entity.setValue(propertyName, loadedReference);
                 }
-                loadedEntities.put(propertyValue.getId(), loadedReference);
+                loadedEntities.put(loadedKey, loadedReference);
             }
         }
     }
@@ -535,4 +837,27 @@ public class EntityImportExport implements EntityImportExportAPI {
             return propertyValue;
         }
     }
+
+    protected static class LoadedEntityKey {
+        protected final String entityName;
+        protected final Object id;
+
+        public LoadedEntityKey(String entityName, Object id) {
+            this.entityName = entityName;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            LoadedEntityKey that = (LoadedEntityKey) o;
+            return entityName.equals(that.entityName) && Objects.equals(id, that.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * entityName.hashCode() + Objects.hashCode(id);
+        }
+    }
 }
\ No newline at end of file
@@ -18,8 +18,12 @@
 package com.haulmont.cuba.core.app.importexport;
 
 import com.haulmont.cuba.core.entity.Entity;
+import com.haulmont.cuba.core.entity.FileDescriptor;
 import com.haulmont.cuba.core.global.View;
 
+import javax.annotation.Nullable;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Collection;
 
 /**
@@ -40,6 +44,25 @@ public interface EntityImportExportAPI {
      */
     byte[] exportEntities(Collection<? extends Entity> entities, View view);
 
+    /**
+     * Works like {@link #exportEntities(Collection, View)}, but writes the ZIP archive directly to the output stream.
+     * Entities are reloaded and serialized in batches, so the memory consumption doesn't depend on the number of
+     * exported entities.
+     *
+     * @param entities     a collection of entities to export
+     * @param view         if not null, entities are reloaded with this view before serialization
+     * @param outputStream a stream to write the ZIP archive to. It is not closed by this method.
+     */
+    void exportEntities(Collection<? extends Entity> entities, @Nullable View view, OutputStream outputStream);
+
+    /**
+     * Works like {@link #exportEntities(Collection, View, OutputStream)}, but saves the ZIP archive to the file
+     * storage.
+     *
+     * @return a persisted descriptor of the created file
+     */
+    FileDescriptor exportEntitiesToFile(Collection<? extends Entity> entities, @Nullable View view);
+
     /**
      * See documentation for {@link EntityImportExportService#importEntities(byte[], EntityImportView)}
      */
@@ -49,4 +72,40 @@ public interface EntityImportExportAPI {
      * See documentation for {@link EntityImportExportService#importEntities(Collection, EntityImportView)}
      */
     Collection<Entity> importEntities(Collection<? extends Entity> entities, EntityImportView view);
+
+    /**
+     * Same as {@link #importEntities(Collection, EntityImportView)}, but commits the entities in separate
+     * transactions of at most {@code batchSize} root entities each, which keeps the transaction size bounded
+     * when importing large collections. Each batch is committed in a new transaction even if the method is invoked
+     * inside an active one.
+     * <p>
+     * References by id are resolved against the entities committed by the previous batches, so entities should
+     * be ordered so that the referenced ones come first.
+     *
+     * @param batchSize max number of root entities committed in one transaction. If 0, all entities are imported
+     *                  in a single transaction, joining the active one if it exists.
+     */
+    Collection<Entity> importEntities(Collection<? extends Entity> entities, EntityImportView view, int batchSize);
+
+    /**
+     * Imports entities from the ZIP archive created by {@link #exportEntities(Collection, View, OutputStream)} or by
+     * other export methods. The JSON is read from the stream and imported in batches of {@code batchSize} entities,
+     * each batch in its own transaction, so neither the archive nor the full entity list is kept in memory.
+     * An archive created by {@link #exportEntities(Collection)} may contain repeated entities compacted to
+     * the identifier across the whole list. If such an entity has been imported in a previous batch, its repeated
+     * occurrence contains only the identifier.
+     *
+     * @param inputStream a stream of the ZIP archive. It is not closed by this method.
+     * @param batchSize   max number of root entities committed in one transaction
+     * @return number of imported root entities
+     */
+    int importEntities(InputStream inputStream, EntityImportView view, int batchSize);
+
+    /**
+     * Works like {@link #importEntities(InputStream, EntityImportView, int)}, but reads the ZIP archive from the
+     * file storage.
+     *
+     * @return number of imported root entities
+     */
+    int importEntities(FileDescriptor fileDescriptor, EntityImportView view, int batchSize);
 }
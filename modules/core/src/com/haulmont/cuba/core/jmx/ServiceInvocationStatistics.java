@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2008-2016 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.haulmont.cuba.core.jmx;
+
+import com.google.common.base.Strings;
+import com.haulmont.cuba.core.app.ServiceInvocationStatistics.Histogram;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.haulmont.cuba.core.app.ServiceInvocationStatistics.BUCKET_BOUNDS_MS;
+
+@Component("cuba_ServiceInvocationStatisticsMBean")
+public class ServiceInvocationStatistics implements ServiceInvocationStatisticsMBean {
+
+    @Inject
+    protected com.haulmont.cuba.core.app.ServiceInvocationStatistics statistics;
+
+    @Override
+    public boolean isEnabled() {
+        return statistics.isEnabled();
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        statistics.setEnabled(enabled);
+    }
+
+    @Override
+    public int getMethodsCount() {
+        return statistics.getHistograms().size();
+    }
+
+    @Override
+    public String printStatistics() {
+        return printStatistics(null);
+    }
+
+    @Override
+    public String printStatistics(String filter) {
+        List<Histogram> histograms = statistics.getHistograms().values().stream()
+                .filter(h -> Strings.isNullOrEmpty(filter) || h.getMethodName().contains(filter))
+                .sorted(Comparator.comparingDouble(Histogram::getTotalMs).reversed())
+                .collect(Collectors.toList());
+        if (histograms.isEmpty()) {
+            return "No statistics";
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("method, count, errors, total ms, avg ms, max ms, p50 ms, p90 ms, p99 ms\n");
+        for (Histogram histogram : histograms) {
+            sb.append(histogram.getMethodName())
+                    .append(", ").append(histogram.getCount())
+                    .append(", ").append(histogram.getErrors())
+                    .append(", ").append(String.format("%.1f", histogram.getTotalMs()))
+                    .append(", ").append(String.format("%.2f", histogram.getAverageMs()))
+                    .append(", ").append(String.format("%.1f", histogram.getMaxMs()))
+                    .append(", ").append(formatBound(histogram.getPercentileUpperBoundMs(50)))
+                    .append(", ").append(formatBound(histogram.getPercentileUpperBoundMs(90)))
+                    .append(", ").append(formatBound(histogram.getPercentileUpperBoundMs(99)))
+                    .append("\n");
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String printHistogram(String method) {
+        if (Strings.isNullOrEmpty(method)) {
+            return "Please specify method name";
+        }
+        Histogram histogram = statistics.getHistograms().get(method);
+        if (histogram == null) {
+            return "No statistics for " + method;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(method).append(": count ").append(histogram.getCount())
+                .append(", errors ").append(histogram.getErrors()).append("\n");
+        long[] counts = histogram.getBucketCounts();
+        for (int i = 0; i < counts.length; i++) {
+            sb.append(i < BUCKET_BOUNDS_MS.length ? "< " + BUCKET_BOUNDS_MS[i] : ">= " + BUCKET_BOUNDS_MS[i - 1])
+                    .append(" ms: ").append(counts[i]).append("\n");
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String reset() {
+        statistics.reset();
+        return "Done";
+    }
+
+    protected String formatBound(long bound) {
+        return bound < 0 ? ">" + BUCKET_BOUNDS_MS[BUCKET_BOUNDS_MS.length - 1] : "<" + bound;
+    }
+}
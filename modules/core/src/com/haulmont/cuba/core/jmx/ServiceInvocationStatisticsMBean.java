@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2008-2016 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.haulmont.cuba.core.jmx;
+
+import org.springframework.jmx.export.annotation.*;
+
+@ManagedResource(description = "Provides latency histograms of service methods invoked by clients")
+public interface ServiceInvocationStatisticsMBean {
+
+    @ManagedAttribute(description = "Whether invocations of service methods are registered")
+    boolean isEnabled();
+
+    @ManagedAttribute(description = "Whether invocations of service methods are registered")
+    void setEnabled(boolean enabled);
+
+    @ManagedAttribute(description = "Number of registered service methods")
+    int getMethodsCount();
+
+    @ManagedOperation(description = "Print statistics of service methods ordered by total time")
+    String printStatistics();
+
+    @ManagedOperation(description = "Print statistics of service methods containing the given string")
+    @ManagedOperationParameters({
+            @ManagedOperationParameter(name = "filter", description = "Part of the method name, e.g. DataService")
+    })
+    String printStatistics(String filter);
+
+    @ManagedOperation(description = "Print latency histogram of the service method")
+    @ManagedOperationParameters({
+            @ManagedOperationParameter(name = "method", description = "Method name, e.g. DataServiceBean.loadList(..)")
+    })
+    String printHistogram(String method);
+
+    @ManagedOperation(description = "Discard all collected statistics")
+    String reset();
+}
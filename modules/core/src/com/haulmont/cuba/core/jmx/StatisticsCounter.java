@@ -110,6 +110,16 @@ public class StatisticsCounter implements StatisticsCounterMBean {
         return accumulator.getSpringScheduledTasksPerSecond();
     }
 
+    @Override
+    public double getDbStatementsCount() {
+        return accumulator.getDbStatementsCount();
+    }
+
+    @Override
+    public double getDbStatementsPerSecond() {
+        return accumulator.getDbStatementsPerSecond();
+    }
+
     private int getDbConnectionPoolMBeanAttr(String attrName) {
         if (dbConnPoolNotFound)
             return 0;
@@ -45,6 +45,10 @@ public interface StatisticsCounterMBean {
 
     double getSpringScheduledTasksPerSecond();
 
+    double getDbStatementsCount();
+
+    double getDbStatementsPerSecond();
+
     int getDbConnectionPoolNumActive();
 
     int getDbConnectionPoolNumIdle();
@@ -67,6 +67,11 @@ public class ConfigPersisterImpl implements ConfigPersister {
         }
     }
 
+    @Override
+    public boolean isCacheable(SourceType sourceType) {
+        return sourceType == SourceType.APP || sourceType == SourceType.DATABASE;
+    }
+
     private ConfigStorageAPI getConfigStorageAPI() {
         return AppBeans.get(ConfigStorageAPI.NAME);
     }
@@ -22,7 +22,11 @@ import com.haulmont.cuba.core.global.UserSessionSource;
 
 import org.springframework.stereotype.Component;
 import javax.inject.Inject;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Component(Messages.NAME)
 public class MessagesImpl extends AbstractMessages {
@@ -30,6 +34,9 @@ public class MessagesImpl extends AbstractMessages {
     @Inject
     private UserSessionSource userSessionSource;
 
+    // start from the current time to make versions differ between server restarts
+    private final AtomicLong cacheVersion = new AtomicLong(System.currentTimeMillis());
+
     @Override
     protected Locale getUserLocale() {
         return userSessionSource.checkCurrentUserSession() ?
@@ -41,4 +48,31 @@ public class MessagesImpl extends AbstractMessages {
     protected String searchRemotely(String pack, String key, Locale locale) {
         return null;
     }
+
+    @Override
+    public void clearCache() {
+        super.clearCache();
+        cacheVersion.incrementAndGet();
+    }
+
+    /**
+     * @return version of messages which is changed each time the cache is cleared
+     */
+    public long getCacheVersion() {
+        return cacheVersion.get();
+    }
+
+    /**
+     * Returns all messages of the given packs with their hierarchy and includes, resolved for the locale.
+     *
+     * @param packs     space-separated list of message packs
+     * @param locale    locale
+     * @return map of message keys to messages
+     */
+    public Map<String, String> getPackMessages(String packs, Locale locale) {
+        locale = messageTools.trimLocale(locale);
+        Map<String, String> result = new HashMap<>();
+        collectMessages(packs, locale, locale, new HashSet<>(), result);
+        return result;
+    }
 }
@@ -118,9 +118,10 @@ public class PersistenceSecurityImpl extends SecurityImpl implements Persistence
     @Override
     public boolean filterByConstraints(Collection<Entity> entities) {
         boolean filtered = false;
+        Map<MetaClass, List<ConstraintEvaluator>> evaluators = new HashMap<>();
         for (Iterator<Entity> iterator = entities.iterator(); iterator.hasNext(); ) {
             Entity entity = iterator.next();
-            if (entity instanceof HasUuid && !isPermittedInMemory(entity)) {
+            if (entity instanceof HasUuid && !isPermittedInMemory(entity, evaluators)) {
                 //we ignore situations when the collection is immutable
                 iterator.remove();
                 filtered = true;
@@ -137,15 +138,16 @@ public class PersistenceSecurityImpl extends SecurityImpl implements Persistence
     @Override
     public void applyConstraints(Collection<Entity> entities) {
         Set<UUID> handled = new LinkedHashSet<>();
+        Map<MetaClass, List<ConstraintEvaluator>> evaluators = new HashMap<>();
         entities.stream().filter(entity -> entity instanceof HasUuid).forEach(entity -> {
-            internalApplyConstraints(entity, handled, false);
+            internalApplyConstraints(entity, handled, false, evaluators);
         });
     }
 
     @Override
     public void applyConstraints(Entity entity) {
         if (entity instanceof HasUuid) {
-            internalApplyConstraints(entity, new HashSet<>(), false);
+            internalApplyConstraints(entity, new HashSet<>(), false, new HashMap<>());
         }
     }
 
@@ -230,11 +232,12 @@ public class PersistenceSecurityImpl extends SecurityImpl implements Persistence
         }
     }
 
-    protected Set<UUID> internalApplyConstraints(Collection<Entity> entities, Set<UUID> handled) {
+    protected Set<UUID> internalApplyConstraints(Collection<Entity> entities, Set<UUID> handled,
+                                                 Map<MetaClass, List<ConstraintEvaluator>> evaluators) {
         Set<UUID> filtered = new LinkedHashSet<>();
         for (Iterator<Entity> iterator = entities.iterator(); iterator.hasNext(); ) {
             Entity next = iterator.next();
-            if (internalApplyConstraints(next, handled, true)) {
+            if (internalApplyConstraints(next, handled, true, evaluators)) {
                 filtered.add(((HasUuid) next).getUuid());
                 //we ignore situations when the collection is immutable
                 iterator.remove();
@@ -245,10 +248,11 @@ public class PersistenceSecurityImpl extends SecurityImpl implements Persistence
     }
 
     @SuppressWarnings("unchecked")
-    protected boolean internalApplyConstraints(Entity entity, Set<UUID> handled, boolean checkPermitted) {
+    protected boolean internalApplyConstraints(Entity entity, Set<UUID> handled, boolean checkPermitted,
+                                               Map<MetaClass, List<ConstraintEvaluator>> evaluators) {
         MetaClass metaClass = entity.getMetaClass();
 
-        if (!isPermittedInMemory(entity) && checkPermitted) {
+        if (checkPermitted && !isPermittedInMemory(entity, evaluators)) {
             return true;
         }
 
@@ -262,13 +266,13 @@ public class PersistenceSecurityImpl extends SecurityImpl implements Persistence
             if (metadataTools.isPersistent(property) && PersistenceHelper.isLoaded(entity, property.getName())) {
                 Object value = entity.getValue(property.getName());
                 if (value instanceof Collection) {
-                    Set<UUID> filtered = internalApplyConstraints((Collection<Entity>) value, handled);
+                    Set<UUID> filtered = internalApplyConstraints((Collection<Entity>) value, handled, evaluators);
                     if (entity instanceof BaseGenericIdEntity) {
                         securityTokenManager.addFiltered((BaseGenericIdEntity) entity, property.getName(), filtered);
                     }
                 } else if (value instanceof Entity && value instanceof HasUuid) {
                     Entity valueEntity = (Entity) value;
-                    if (internalApplyConstraints(valueEntity, handled, true)) {
+                    if (internalApplyConstraints(valueEntity, handled, true, evaluators)) {
                         //we ignore the situation when the field is read-only
                         entity.setValue(property.getName(), null);
                         if (entity instanceof BaseGenericIdEntity) {
@@ -287,9 +291,13 @@ public class PersistenceSecurityImpl extends SecurityImpl implements Persistence
     }
 
     protected boolean isPermittedInMemory(Entity entity) {
+        return isPermittedInMemory(entity, new HashMap<>());
+    }
+
+    protected boolean isPermittedInMemory(Entity entity, Map<MetaClass, List<ConstraintEvaluator>> evaluators) {
         return isPermitted(entity, constraint ->
                 constraint.getCheckType().memory()
                         && (constraint.getOperationType() == ConstraintOperationType.READ
-                        || constraint.getOperationType() == ConstraintOperationType.ALL));
+                        || constraint.getOperationType() == ConstraintOperationType.ALL), evaluators);
     }
 }
\ No newline at end of file
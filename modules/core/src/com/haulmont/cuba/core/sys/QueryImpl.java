@@ -44,6 +44,7 @@ import javax.annotation.Nullable;
 import javax.persistence.*;
 import java.util.*;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 /**
  * Implementation of {@link TypedQuery} interface based on EclipseLink.
@@ -389,6 +390,14 @@ public class QueryImpl<T> implements TypedQuery<T> {
             cache.evictAll();
             queryCacheMgr.invalidateAll(true);
         }
+        // bulk updates bypass entity listeners, so the changes are registered explicitly for client near caches
+        if (referenceClass != null) {
+            support.registerChangedTypes(entityManager, Collections.singleton(metadata.getClassNN(referenceClass).getName()));
+        } else {
+            support.registerChangedTypes(entityManager, metadata.getTools().getAllPersistentMetaClasses().stream()
+                    .map(MetaClass::getName)
+                    .collect(Collectors.toList()));
+        }
         preExecute(jpaQuery);
         return jpaQuery.executeUpdate();
     }
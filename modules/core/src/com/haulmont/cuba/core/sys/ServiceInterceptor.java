@@ -19,6 +19,7 @@ package com.haulmont.cuba.core.sys;
 import com.haulmont.cuba.core.Persistence;
 import com.haulmont.cuba.core.app.MiddlewareStatisticsAccumulator;
 import com.haulmont.cuba.core.app.ServerConfig;
+import com.haulmont.cuba.core.app.ServiceInvocationStatistics;
 import com.haulmont.cuba.core.global.*;
 import com.haulmont.cuba.core.global.validation.MethodParametersValidationException;
 import com.haulmont.cuba.core.global.validation.MethodResultValidationException;
@@ -29,6 +30,7 @@ import com.haulmont.cuba.security.app.UserSessionsAPI;
 import com.haulmont.cuba.security.global.NoUserSessionException;
 import com.haulmont.cuba.security.global.UserSession;
 import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -59,6 +61,8 @@ public class ServiceInterceptor {
 
     private MiddlewareStatisticsAccumulator statisticsAccumulator;
 
+    private ServiceInvocationStatistics invocationStatistics;
+
     boolean logInternalServiceInvocation;
 
     public void setUserSessions(UserSessionsAPI userSessions) {
@@ -77,6 +81,10 @@ public class ServiceInterceptor {
         this.statisticsAccumulator = statisticsAccumulator;
     }
 
+    public void setInvocationStatistics(ServiceInvocationStatistics invocationStatistics) {
+        this.invocationStatistics = invocationStatistics;
+    }
+
     public void setConfiguration(Configuration configuration) {
         logInternalServiceInvocation = configuration.getConfig(ServerConfig.class).getLogInternalServiceInvocation();
     }
@@ -100,6 +108,9 @@ public class ServiceInterceptor {
                 return res;
             } else {
                 statisticsAccumulator.incMiddlewareRequestsCount();
+                boolean measure = invocationStatistics.isEnabled();
+                long start = measure ? System.nanoTime() : 0;
+                boolean failed = true;
                 try {
                     // Using UserSessionsAPI directly to make sure the session's "last used" timestamp is propagated to the cluster
                     UserSession userSession = userSessions.get(securityContext.getSessionId(), true);
@@ -120,11 +131,16 @@ public class ServiceInterceptor {
                         log.warn("Open transaction left in {}", ctx.getSignature().toShortString());
                     }
 
+                    failed = false;
                     return res;
                 } catch (Throwable e) {
                     logException(e, ctx);
                     // Propagate the special exception to avoid serialization errors on remote clients
                     throw new RemoteException(e);
+                } finally {
+                    if (measure) {
+                        registerInvocation(ctx, System.nanoTime() - start, failed);
+                    }
                 }
             }
         } finally {
@@ -132,6 +148,13 @@ public class ServiceInterceptor {
         }
     }
 
+    protected void registerInvocation(ProceedingJoinPoint ctx, long durationNanos, boolean failed) {
+        Signature signature = ctx.getSignature();
+        Object methodKey = signature instanceof MethodSignature
+                ? ((MethodSignature) signature).getMethod() : signature.toLongString();
+        invocationStatistics.register(methodKey, signature.toShortString(), durationNanos, failed);
+    }
+
     @Nullable
     protected ValidateServiceMethodContext getValidateServiceMethodContext(ProceedingJoinPoint ctx) {
         ValidateServiceMethodContext validatedContext = null;
@@ -17,6 +17,7 @@
 
 package com.haulmont.cuba.core.sys.dbupdate;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.haulmont.bali.db.DbUtils;
 import com.haulmont.bali.db.QueryRunner;
 import com.haulmont.cuba.core.sys.DBNotInitializedException;
@@ -38,6 +39,8 @@ import javax.sql.DataSource;
 import java.io.IOException;
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -49,6 +52,9 @@ public class DbUpdaterEngine implements DbUpdater {
     private static final String GROOVY_EXTENSION = "groovy";
     protected static final String UPGRADE_GROOVY_EXTENSION = "upgrade.groovy";
 
+    // leading comment line of a script declaring modules or scripts it depends on
+    protected static final Pattern DEPENDS_ON_PATTERN = Pattern.compile("\\s*(?:--|//)\\s*dependsOn\\s*:(.*)");
+
     private static final Logger log = LoggerFactory.getLogger(DbUpdaterEngine.class);
 
     protected DataSource dataSource;
@@ -59,6 +65,13 @@ public class DbUpdaterEngine implements DbUpdater {
 
     protected boolean changelogTableExists = false;
 
+    protected boolean changelogExecTimeColumnExists = false;
+
+    /**
+     * Maximum number of update scripts executed concurrently, 1 means sequential execution.
+     */
+    protected int maxConcurrency = 1;
+
     // register handlers for script files
     protected final Map<String, FileHandler> extensionHandlers = new HashMap<>();
 
@@ -129,12 +142,34 @@ public class DbUpdaterEngine implements DbUpdater {
             runner.update("create table SYS_DB_CHANGELOG(" +
                     "SCRIPT_NAME varchar(" + pkLength + ") not null primary key, " +
                     "CREATE_TS " + timeStampType + " default current_timestamp, " +
-                    "IS_INIT integer default 0)");
+                    "IS_INIT integer default 0, " +
+                    "EXEC_TIME integer)");
+            changelogExecTimeColumnExists = true;
         } catch (SQLException e) {
             throw new RuntimeException("An error occurred while creating changelog table", e);
         }
     }
 
+    /**
+     * Adds the column storing execution time of scripts to the changelog table created by a previous version.
+     */
+    protected void checkChangelogExecTimeColumn() {
+        QueryRunner runner = new QueryRunner(getDataSource());
+        try {
+            runner.query("select EXEC_TIME from SYS_DB_CHANGELOG where 1 = 0", rs -> null);
+            changelogExecTimeColumnExists = true;
+        } catch (SQLException e) {
+            log.trace("Adding EXEC_TIME column to SYS_DB_CHANGELOG table");
+            try {
+                runner.update("alter table SYS_DB_CHANGELOG add EXEC_TIME integer");
+                changelogExecTimeColumnExists = true;
+            } catch (SQLException e1) {
+                log.warn("Unable to add EXEC_TIME column to SYS_DB_CHANGELOG table, execution time of scripts " +
+                        "will not be saved: " + e1.getMessage());
+            }
+        }
+    }
+
     protected String getScriptName(ScriptResource resource) {
         String path = resource.getPath();
         return getScriptName(path);
@@ -187,8 +222,9 @@ public class DbUpdaterEngine implements DbUpdater {
         List<ScriptResource> initFiles = getInitScripts();
         try {
             for (ScriptResource file : initFiles) {
+                long startTime = System.currentTimeMillis();
                 executeScript(file);
-                markScript(getScriptName(file), true);
+                markScript(getScriptName(file), true, System.currentTimeMillis() - startTime);
             }
         } finally {
             prepareScripts();
@@ -217,20 +253,200 @@ public class DbUpdaterEngine implements DbUpdater {
             return;
         }
 
+        checkChangelogExecTimeColumn();
+
         runRequiredInitScripts();
 
         log.trace("Checking existing and executed update scripts");
         List<ScriptResource> files = getUpdateScripts();
         Set<String> scripts = getExecutedScripts();
+        List<ScriptResource> pendingFiles = files.stream()
+                .filter(file -> !scripts.contains(getScriptName(file)))
+                .collect(Collectors.toList());
+
+        int concurrency = getMaxConcurrency();
+        if (concurrency > 1 && pendingFiles.size() > 1) {
+            executeUpdateScriptsConcurrently(pendingFiles, concurrency);
+        } else {
+            for (ScriptResource file : pendingFiles) {
+                executeUpdateScript(file);
+            }
+        }
+        log.info("Database is up-to-date");
+    }
+
+    protected int getMaxConcurrency() {
+        if (maxConcurrency <= 1) {
+            return 1;
+        }
+        return Math.min(maxConcurrency, DbmsSpecificFactory.getDbmsFeatures().getMaxConcurrentUpdateScripts());
+    }
+
+    protected void executeUpdateScript(ScriptResource file) {
+        long startTime = System.currentTimeMillis();
+        if (executeScript(file)) {
+            markScript(getScriptName(file), false, System.currentTimeMillis() - startTime);
+        }
+    }
+
+    /**
+     * Executes update scripts in a thread pool. A script is started when all scripts it depends on are completed,
+     * see {@link #getDependencies(List)}. If a script fails, scripts being executed are completed and the rest
+     * are not started.
+     */
+    protected void executeUpdateScriptsConcurrently(List<ScriptResource> files, int concurrency) {
+        log.info("Executing {} update scripts in {} threads", files.size(), concurrency);
+
+        Map<ScriptResource, Set<ScriptResource>> dependencies = getDependencies(files);
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency,
+                new ThreadFactoryBuilder().setNameFormat("DbUpdater-%d").build());
+        CompletionService<ScriptResource> completionService = new ExecutorCompletionService<>(executor);
+        Set<ScriptResource> remaining = new LinkedHashSet<>(files);
+        Set<ScriptResource> completed = new HashSet<>();
+        int running = 0;
+        try {
+            while (!remaining.isEmpty() || running > 0) {
+                for (Iterator<ScriptResource> it = remaining.iterator(); it.hasNext(); ) {
+                    ScriptResource file = it.next();
+                    if (completed.containsAll(dependencies.get(file))) {
+                        it.remove();
+                        completionService.submit(() -> {
+                            executeUpdateScript(file);
+                            return file;
+                        });
+                        running++;
+                    }
+                }
+                if (running == 0) {
+                    throw new IllegalStateException("Circular dependencies between update scripts: " + remaining);
+                }
+
+                Future<ScriptResource> future = completionService.take();
+                running--;
+                try {
+                    completed.add(future.get());
+                } catch (ExecutionException e) {
+                    executor.shutdown();
+                    executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+                    if (e.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) e.getCause();
+                    }
+                    throw new RuntimeException("An error occurred while executing update scripts", e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Database update interrupted", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Scripts of a module depend on the previous script of the same module. By default, they also depend on the
+     * pending scripts of all preceding modules, so scripts are executed in the same order as sequentially.
+     * A script can replace the dependencies on other modules by declaring them in its leading comment lines:
+     * <pre>
+     * -- dependsOn: 10-cuba, 20-reports/update/postgres/17/170101-addColumn.sql
+     * </pre>
+     * An empty declaration means that the script does not depend on other modules.
+     *
+     * @return map of scripts to sets of scripts that must be executed before
+     * @throws IllegalStateException if a declared dependency matches neither a module nor an update script
+     */
+    protected Map<ScriptResource, Set<ScriptResource>> getDependencies(List<ScriptResource> files) {
+        Map<ScriptResource, Set<ScriptResource>> dependencies = new HashMap<>();
+        // the last script of each module processed so far, in the order of modules
+        Map<String, ScriptResource> lastOfModule = new LinkedHashMap<>();
+        Set<String> knownNames = null;
         for (ScriptResource file : files) {
-            String name = getScriptName(file);
-            if (!scripts.contains(name)) {
-                if (executeScript(file)) {
-                    markScript(name, false);
+            String moduleName = getModuleName(file);
+            Set<ScriptResource> fileDependencies = new HashSet<>();
+
+            ScriptResource previous = lastOfModule.get(moduleName);
+            if (previous != null) {
+                fileDependencies.add(previous);
+            }
+
+            List<String> declaredDependencies = getDeclaredDependencies(file);
+            if (declaredDependencies == null) {
+                fileDependencies.addAll(lastOfModule.values());
+            } else {
+                for (String dependency : declaredDependencies) {
+                    boolean resolved = false;
+                    for (ScriptResource other : files) {
+                        String otherModuleName = getModuleName(other);
+                        if (other != file && (getScriptName(other).endsWith(dependency)
+                                || (otherModuleName.equals(dependency) && !otherModuleName.equals(moduleName)))) {
+                            fileDependencies.add(other);
+                            resolved = true;
+                        }
+                    }
+                    if (!resolved) {
+                        // the dependency can be already executed, but it must exist
+                        if (knownNames == null) {
+                            knownNames = getModulesAndUpdateScriptNames();
+                        }
+                        if (!knownNames.contains(dependency)
+                                && knownNames.stream().noneMatch(name -> name.endsWith(dependency))) {
+                            throw new IllegalStateException("Update script " + getScriptName(file)
+                                    + " depends on unknown module or script: " + dependency);
+                        }
+                    }
                 }
             }
+            lastOfModule.put(moduleName, file);
+            dependencies.put(file, fileDependencies);
         }
-        log.info("Database is up-to-date");
+        return dependencies;
+    }
+
+    protected Set<String> getModulesAndUpdateScriptNames() {
+        Set<String> names = new HashSet<>(getModuleDirs());
+        for (ScriptResource script : getUpdateScripts()) {
+            names.add(getScriptName(script));
+        }
+        return names;
+    }
+
+    protected String getModuleName(ScriptResource file) {
+        return StringUtils.substringBefore(getScriptName(file), "/");
+    }
+
+    /**
+     * @return modules and scripts declared in the leading comment lines of the script, or null if the script
+     * does not declare dependencies
+     */
+    @Nullable
+    protected List<String> getDeclaredDependencies(ScriptResource file) {
+        String content;
+        try {
+            content = file.getContent();
+        } catch (IOException e) {
+            throw new RuntimeException("An error occurred while reading script " + file.getName(), e);
+        }
+        List<String> dependencies = null;
+        for (String line : content.split("\\r?\\n")) {
+            String trimmedLine = line.trim();
+            if (trimmedLine.isEmpty()) {
+                continue;
+            }
+            if (!trimmedLine.startsWith(SQL_COMMENT_PREFIX) && !trimmedLine.startsWith("//")) {
+                break;
+            }
+            Matcher matcher = DEPENDS_ON_PATTERN.matcher(trimmedLine);
+            if (matcher.matches()) {
+                if (dependencies == null) {
+                    dependencies = new ArrayList<>();
+                }
+                for (String dependency : matcher.group(1).split(",")) {
+                    if (StringUtils.isNotBlank(dependency)) {
+                        dependencies.add(dependency.trim());
+                    }
+                }
+            }
+        }
+        return dependencies;
     }
 
     protected void runRequiredInitScripts() {
@@ -302,12 +518,25 @@ public class DbUpdaterEngine implements DbUpdater {
     }
 
     protected void markScript(String name, boolean init) {
+        markScript(name, init, null);
+    }
+
+    /**
+     * @param execTime  script execution time in milliseconds, or null if the script has not been executed
+     */
+    protected void markScript(String name, boolean init, @Nullable Long execTime) {
         log.trace("Marking script as executed: {}", name);
         QueryRunner runner = new QueryRunner(getDataSource());
         try {
-            runner.update("insert into SYS_DB_CHANGELOG (SCRIPT_NAME, IS_INIT) values (?, ?)",
-                    new Object[]{name, init ? 1 : 0}
-            );
+            if (execTime != null && changelogExecTimeColumnExists) {
+                runner.update("insert into SYS_DB_CHANGELOG (SCRIPT_NAME, IS_INIT, EXEC_TIME) values (?, ?, ?)",
+                        new Object[]{name, init ? 1 : 0, execTime.intValue()}
+                );
+            } else {
+                runner.update("insert into SYS_DB_CHANGELOG (SCRIPT_NAME, IS_INIT) values (?, ?)",
+                        new Object[]{name, init ? 1 : 0}
+                );
+            }
         } catch (SQLException e) {
             throw new RuntimeException("An error occurred while updating SYS_DB_CHANGELOG", e);
         }
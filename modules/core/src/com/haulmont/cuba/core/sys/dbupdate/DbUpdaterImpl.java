@@ -32,6 +32,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 import javax.inject.Inject;
 import javax.sql.DataSource;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -47,15 +48,17 @@ public class DbUpdaterImpl extends DbUpdaterEngine {
 
     protected PostUpdateScripts postUpdate;
 
-    protected Map<Closure, ScriptResource> postUpdateScripts = new HashMap<>();
+    protected Map<Closure, ScriptResource> postUpdateScripts = Collections.synchronizedMap(new HashMap<>());
 
     private static final Logger log = LoggerFactory.getLogger(DbUpdaterImpl.class);
 
     @Inject
     public void setConfigProvider(Configuration configuration) {
-        String dbDirName = configuration.getConfig(ServerConfig.class).getDbDir();
+        ServerConfig serverConfig = configuration.getConfig(ServerConfig.class);
+        String dbDirName = serverConfig.getDbDir();
         if (dbDirName != null)
             this.dbScriptsDirectory = dbDirName;
+        maxConcurrency = serverConfig.getDbUpdateMaxConcurrency();
 
         dbmsType = DbmsType.getType();
         dbmsVersion = DbmsType.getVersion();
@@ -75,9 +78,12 @@ public class DbUpdaterImpl extends DbUpdaterEngine {
             bind.setProperty("postUpdate", new PostUpdateScripts() {
                 @Override
                 public void add(Closure closure) {
-                    postUpdateScripts.put(closure, file);
+                    // update scripts can be executed concurrently
+                    synchronized (postUpdateScripts) {
+                        postUpdateScripts.put(closure, file);
 
-                    postUpdate.add(closure);
+                        postUpdate.add(closure);
+                    }
                 }
 
                 @Override
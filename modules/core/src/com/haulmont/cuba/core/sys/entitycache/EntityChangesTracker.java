@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2008-2016 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.haulmont.cuba.core.sys.entitycache;
+
+import com.haulmont.chile.core.model.MetaClass;
+import com.haulmont.cuba.core.app.CacheInvalidationsTracker;
+import com.haulmont.cuba.core.app.ClusterListenerAdapter;
+import com.haulmont.cuba.core.app.ClusterManagerAPI;
+import com.haulmont.cuba.core.global.Metadata;
+import com.haulmont.cuba.core.global.TimeSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps a change stamp of each entity type. The information is used by clients to invalidate their near caches of
+ * entities, see {@link com.haulmont.cuba.core.app.EntityChangesService}.
+ * <p>A stamp is the time of the last committed change, but it is incremented on each change even if the clock
+ * has not moved, so two changes made within the same millisecond produce different stamps.
+ * <p>Only cacheable entities are tracked. Changes of a type are also registered for all its ancestors, because loading
+ * an instance of the ancestor can return an instance of the changed type.
+ */
+@Component(EntityChangesTracker.NAME)
+public class EntityChangesTracker {
+
+    public static final String NAME = "cuba_EntityChangesTracker";
+
+    private static final Logger log = LoggerFactory.getLogger(EntityChangesTracker.class);
+
+    @Inject
+    protected ClusterManagerAPI clusterManager;
+    @Inject
+    protected Metadata metadata;
+    @Inject
+    protected TimeSource timeSource;
+    @Inject
+    protected CacheInvalidationsTracker cacheInvalidationsTracker;
+
+    protected Map<String, Long> changeTimestamps = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        clusterManager.addListener(EntityChangesMsg.class, new ClusterListenerAdapter<EntityChangesMsg>() {
+            @Override
+            public void receive(EntityChangesMsg message) {
+                registerChanges(message.typeNames, false);
+            }
+        });
+    }
+
+    /**
+     * Registers committed changes of the given entity types.
+     * @param typeNames     names of changed entities
+     * @param sendInCluster if true - register the changes on all middleware blocks in cluster
+     */
+    public void registerChanges(Set<String> typeNames, boolean sendInCluster) {
+        if (typeNames == null || typeNames.isEmpty())
+            return;
+
+        Set<String> cacheableTypeNames = getCacheableWithAncestors(typeNames);
+        if (cacheableTypeNames.isEmpty())
+            return;
+
+        long timestamp = timeSource.currentTimeMillis();
+        for (String typeName : cacheableTypeNames) {
+            changeTimestamps.merge(typeName, timestamp, (prev, current) -> Math.max(prev + 1, current));
+        }
+        log.trace("Registered changes of {}", cacheableTypeNames);
+        cacheInvalidationsTracker.registerEntityChanges(cacheableTypeNames);
+
+        if (sendInCluster) {
+            clusterManager.send(new EntityChangesMsg(cacheableTypeNames));
+        }
+    }
+
+    /**
+     * @return snapshot of entity name to the stamp of its last change
+     */
+    public Map<String, Long> getChangeTimestamps() {
+        return new HashMap<>(changeTimestamps);
+    }
+
+    protected Set<String> getCacheableWithAncestors(Set<String> typeNames) {
+        Set<String> result = new HashSet<>();
+        for (String typeName : typeNames) {
+            MetaClass metaClass = metadata.getClass(typeName);
+            if (metaClass == null)
+                continue;
+            if (metadata.getTools().isCacheable(metaClass)) {
+                result.add(typeName);
+            }
+            for (MetaClass ancestor : metaClass.getAncestors()) {
+                if (metadata.getTools().isCacheable(ancestor)) {
+                    result.add(ancestor.getName());
+                }
+            }
+        }
+        return result;
+    }
+
+    protected static class EntityChangesMsg implements Serializable {
+        private static final long serialVersionUID = 3410825487915624377L;
+
+        protected Set<String> typeNames;
+
+        public EntityChangesMsg(Set<String> typeNames) {
+            this.typeNames = new HashSet<>(typeNames);
+        }
+    }
+}
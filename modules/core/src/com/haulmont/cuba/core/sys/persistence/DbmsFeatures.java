@@ -71,4 +71,12 @@ public interface DbmsFeatures {
      * @return default sort order of null values
      */
     boolean isNullsLastSorting();
+
+    /**
+     * @return maximum number of update scripts that can be executed concurrently when the parallel database update
+     * is enabled by {@code cuba.dbUpdateMaxConcurrency} app property
+     */
+    default int getMaxConcurrentUpdateScripts() {
+        return 1;
+    }
 }
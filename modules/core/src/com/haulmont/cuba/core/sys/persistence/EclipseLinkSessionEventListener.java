@@ -20,6 +20,7 @@ package com.haulmont.cuba.core.sys.persistence;
 import com.google.common.base.Strings;
 import com.haulmont.chile.core.model.MetaClass;
 import com.haulmont.chile.core.model.MetaProperty;
+import com.haulmont.cuba.core.app.MiddlewareStatisticsAccumulator;
 import com.haulmont.cuba.core.entity.Entity;
 import com.haulmont.cuba.core.entity.SoftDelete;
 import com.haulmont.cuba.core.entity.annotation.EmbeddedParameters;
@@ -54,6 +55,13 @@ public class EclipseLinkSessionEventListener extends SessionEventAdapter {
 
     private DescriptorEventListener descriptorEventListener = AppBeans.get(EclipseLinkDescriptorEventListener.NAME);
 
+    private MiddlewareStatisticsAccumulator statisticsAccumulator = AppBeans.get(MiddlewareStatisticsAccumulator.NAME);
+
+    @Override
+    public void postExecuteCall(SessionEvent event) {
+        statisticsAccumulator.incDbStatementsCount();
+    }
+
     @Override
     public void preLogin(SessionEvent event) {
 
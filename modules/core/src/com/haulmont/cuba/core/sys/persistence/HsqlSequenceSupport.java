@@ -51,4 +51,10 @@ public class HsqlSequenceSupport implements SequenceSupport {
         return "select START_WITH from INFORMATION_SCHEMA.SYSTEM_SEQUENCES where SEQUENCE_NAME = '"
                 + sequenceName.toUpperCase() + "'";
     }
+
+    @Override
+    public String getIncrementSql(String sequenceName) {
+        return "select INCREMENT from INFORMATION_SCHEMA.SYSTEM_SEQUENCES where SEQUENCE_NAME = '"
+                + sequenceName.toUpperCase() + "'";
+    }
 }
\ No newline at end of file
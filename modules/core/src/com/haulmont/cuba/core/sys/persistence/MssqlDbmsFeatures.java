@@ -67,4 +67,9 @@ public class MssqlDbmsFeatures implements DbmsFeatures {
     public boolean isNullsLastSorting() {
         return false;
     }
+
+    @Override
+    public int getMaxConcurrentUpdateScripts() {
+        return 4;
+    }
 }
\ No newline at end of file
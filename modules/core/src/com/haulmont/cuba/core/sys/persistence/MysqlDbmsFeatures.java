@@ -66,4 +66,9 @@ public class MysqlDbmsFeatures implements DbmsFeatures {
     public boolean isNullsLastSorting() {
         return false;
     }
+
+    @Override
+    public int getMaxConcurrentUpdateScripts() {
+        return 2;
+    }
 }
\ No newline at end of file
@@ -53,4 +53,10 @@ public class MysqlSequenceSupport implements SequenceSupport {
         Preconditions.checkNotNullArgument(sequenceName, "sequenceName is null");
         return "select CURR_VALUE from SYS_SEQUENCE where NAME = '" + sequenceName.toLowerCase() + "'";
     }
+
+    @Override
+    public String getIncrementSql(String sequenceName) {
+        Preconditions.checkNotNullArgument(sequenceName, "sequenceName is null");
+        return "select INCREMENT from SYS_SEQUENCE where NAME = '" + sequenceName.toLowerCase() + "'";
+    }
 }
\ No newline at end of file
@@ -72,4 +72,9 @@ public class OracleDbmsFeatures implements DbmsFeatures {
     public boolean isNullsLastSorting() {
         return true;
     }
+
+    @Override
+    public int getMaxConcurrentUpdateScripts() {
+        return 4;
+    }
 }
\ No newline at end of file
@@ -17,11 +17,14 @@
 
 package com.haulmont.cuba.core.sys.persistence;
 
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import com.haulmont.bali.util.Dom4j;
 import com.haulmont.bali.util.ReflectionHelper;
 import com.haulmont.cuba.core.global.Stores;
 import com.haulmont.cuba.core.sys.AppContext;
 import com.haulmont.cuba.core.sys.ConfigurationResourceLoader;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.dom4j.Document;
@@ -32,11 +35,14 @@ import org.springframework.core.io.Resource;
 
 import javax.persistence.Entity;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 /**
  * Generates a working persistence.xml file combining classes and properties from a set of given persistence.xml files,
  * defined in <code>cuba.persistenceConfig</code> app property.
+ * <p>If <code>cuba.startupSnapshotsEnabled</code> app property is true, the generated files are reused on the next
+ * start while source files, properties and entity class files stay the same.</p>
  *
  */
 public class PersistenceConfigProcessor {
@@ -75,6 +81,21 @@ public class PersistenceConfigProcessor {
 
         properties.putAll(DbmsSpecificFactory.getDbmsFeatures(storeName).getJpaParameters());
 
+        if (Boolean.parseBoolean(AppContext.getProperty("cuba.jdbcBatchWriting"))) {
+            properties.put("eclipselink.jdbc.batch-writing", "JDBC");
+            properties.put("eclipselink.jdbc.batch-writing.size",
+                    StringUtils.defaultIfBlank(AppContext.getProperty("cuba.jdbcBatchWritingSize"), "100"));
+        }
+
+        String fingerprint = null;
+        if (Boolean.parseBoolean(AppContext.getProperty("cuba.startupSnapshotsEnabled"))) {
+            fingerprint = createFingerprint(properties);
+            if (isUpToDate(fingerprint)) {
+                log.info("Using existing file " + outFileName);
+                return;
+            }
+        }
+
         for (String fileName : sourceFileNames) {
             Document doc = getDocument(fileName);
             Element puElem = findPersistenceUnitElement(doc.getRootElement());
@@ -160,6 +181,95 @@ public class PersistenceConfigProcessor {
         } finally {
             IOUtils.closeQuietly(os);
         }
+
+        if (fingerprint != null) {
+            saveFingerprint(fingerprint);
+        }
+    }
+
+    /**
+     * Creates a hash of everything the generated files depend on: source files, properties and entity class files.
+     */
+    private String createFingerprint(Map<String, String> dbmsProperties) {
+        Hasher hasher = Hashing.sha1().newHasher();
+        hasher.putString(String.valueOf(storeName), StandardCharsets.UTF_8);
+        for (Map.Entry<String, String> entry : new TreeMap<>(dbmsProperties).entrySet()) {
+            hasher.putString(entry.getKey() + "=" + entry.getValue() + "\n", StandardCharsets.UTF_8);
+        }
+        List<String> propertyNames = new ArrayList<>(Arrays.asList(AppContext.getPropertyNames()));
+        Collections.sort(propertyNames);
+        for (String name : propertyNames) {
+            if (name.startsWith("eclipselink.")
+                    || name.equals("cuba.persistenceUnitName") || name.equals("cuba.disableOrmXmlGeneration")) {
+                hasher.putString(name + "=" + AppContext.getProperty(name) + "\n", StandardCharsets.UTF_8);
+            }
+        }
+        ClassLoader classLoader = PersistenceConfigProcessor.class.getClassLoader();
+        for (String fileName : sourceFileNames) {
+            Document doc = getDocument(fileName);
+            hasher.putString(doc.asXML(), StandardCharsets.UTF_8);
+            Element puElem = findPersistenceUnitElement(doc.getRootElement());
+            if (puElem != null) {
+                for (Element element : Dom4j.elements(puElem, "class")) {
+                    InputStream stream = classLoader.getResourceAsStream(element.getText().replace('.', '/') + ".class");
+                    try {
+                        if (stream != null) {
+                            hasher.putBytes(IOUtils.toByteArray(stream));
+                        }
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    } finally {
+                        IOUtils.closeQuietly(stream);
+                    }
+                }
+            }
+        }
+        return hasher.hash().toString();
+    }
+
+    private File getFingerprintFile() {
+        return new File(outFileName + ".fingerprint");
+    }
+
+    /**
+     * Creates a hash of generated files, to detect that they were changed after saving the fingerprint. For example,
+     * orm.xml is shared by all stores and is overwritten when any of them is regenerated.
+     */
+    private String hashOutputFiles() {
+        Hasher hasher = Hashing.sha1().newHasher();
+        File outFile = new File(outFileName);
+        for (File file : new File[]{outFile, new File(outFile.getParentFile(), "orm.xml")}) {
+            if (file.exists()) {
+                try {
+                    hasher.putBytes(FileUtils.readFileToByteArray(file));
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }
+        return hasher.hash().toString();
+    }
+
+    private boolean isUpToDate(String fingerprint) {
+        File fingerprintFile = getFingerprintFile();
+        if (!fingerprintFile.exists() || !new File(outFileName).exists())
+            return false;
+        try {
+            List<String> lines = FileUtils.readLines(fingerprintFile, StandardCharsets.UTF_8);
+            return lines.size() == 2 && lines.get(0).equals(fingerprint) && lines.get(1).equals(hashOutputFiles());
+        } catch (IOException e) {
+            log.warn("Unable to read " + fingerprintFile, e);
+            return false;
+        }
+    }
+
+    private void saveFingerprint(String fingerprint) {
+        File fingerprintFile = getFingerprintFile();
+        try {
+            FileUtils.writeLines(fingerprintFile, StandardCharsets.UTF_8.name(), Arrays.asList(fingerprint, hashOutputFiles()));
+        } catch (IOException e) {
+            log.warn("Unable to write " + fingerprintFile, e);
+        }
     }
 
     private void addClasses(Element puElem, Map<String, String> classes) {
@@ -28,6 +28,7 @@ import com.haulmont.cuba.core.global.AppBeans;
 import com.haulmont.cuba.core.global.FtsConfigHelper;
 import com.haulmont.cuba.core.global.PersistenceHelper;
 import com.haulmont.cuba.core.global.Stores;
+import com.haulmont.cuba.core.sys.entitycache.EntityChangesTracker;
 import com.haulmont.cuba.core.sys.entitycache.QueryCacheManager;
 import com.haulmont.cuba.core.sys.listener.EntityListenerManager;
 import com.haulmont.cuba.core.sys.listener.EntityListenerType;
@@ -75,6 +76,9 @@ public class PersistenceImplSupport implements ApplicationContextAware {
     @Inject
     protected QueryCacheManager queryCacheManager;
 
+    @Inject
+    protected EntityChangesTracker entityChangesTracker;
+
     @Inject
     protected EntityLogAPI entityLog;
 
@@ -123,6 +127,18 @@ public class PersistenceImplSupport implements ApplicationContextAware {
         getInstanceContainerResourceHolder(getStorageName(session)).registerInstanceForUnitOfWork(entity, (UnitOfWork) session);
     }
 
+    /**
+     * Registers changes of the given entity types made in the current transaction without entity instances, e.g. by
+     * bulk update statements. The changes are passed to {@link EntityChangesTracker} after commit.
+     */
+    public void registerChangedTypes(EntityManager entityManager, Collection<String> typeNames) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive())
+            throw new RuntimeException("No transaction");
+
+        UnitOfWork unitOfWork = entityManager.getDelegate().unwrap(UnitOfWork.class);
+        getInstanceContainerResourceHolder(getStorageName(unitOfWork)).changedTypeNames.addAll(typeNames);
+    }
+
     public Collection<Entity> getInstances(EntityManager entityManager) {
         if (!TransactionSynchronizationManager.isActualTransactionActive())
             throw new RuntimeException("No transaction");
@@ -224,6 +240,8 @@ public class PersistenceImplSupport implements ApplicationContextAware {
 
         protected Map<UnitOfWork, Set<Entity>> unitOfWorkMap = new HashMap<>();
 
+        protected Set<String> changedTypeNames = new HashSet<>();
+
         protected String storeName;
 
         public ContainerResourceHolder(String storeName) {
@@ -269,6 +287,8 @@ public class PersistenceImplSupport implements ApplicationContextAware {
 
         protected final ContainerResourceHolder container;
 
+        protected final Set<String> changedTypeNames = new HashSet<>();
+
         public ContainerResourceSynchronization(ContainerResourceHolder resourceHolder, String resourceKey) {
             super(resourceHolder, resourceKey);
             this.container = resourceHolder;
@@ -277,6 +297,7 @@ public class PersistenceImplSupport implements ApplicationContextAware {
         @Override
         protected void cleanupResource(ContainerResourceHolder resourceHolder, String resourceKey, boolean committed) {
             resourceHolder.unitOfWorkMap.clear();
+            resourceHolder.changedTypeNames.clear();
         }
 
         @Override
@@ -285,7 +306,9 @@ public class PersistenceImplSupport implements ApplicationContextAware {
                 log.trace("ContainerResourceSynchronization.beforeCommit: instances=" + container.getAllInstances() + ", readOnly=" + readOnly);
 
             if (!readOnly) {
-                traverseEntities(container, new OnCommitEntityVisitor(container.getStorageName()));
+                OnCommitEntityVisitor visitor = new OnCommitEntityVisitor(container.getStorageName());
+                traverseEntities(container, visitor);
+                changedTypeNames.addAll(visitor.getChangedTypeNames());
             }
 
             Collection<Entity> instances = container.getAllInstances();
@@ -346,6 +369,12 @@ public class PersistenceImplSupport implements ApplicationContextAware {
                 listener.afterComplete(status == TransactionSynchronization.STATUS_COMMITTED, instances);
             }
 
+            if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                changedTypeNames.addAll(container.changedTypeNames);
+                entityChangesTracker.registerChanges(changedTypeNames, true);
+            }
+            changedTypeNames.clear();
+
             super.afterCompletion(status);
         }
 
@@ -359,10 +388,16 @@ public class PersistenceImplSupport implements ApplicationContextAware {
 
         private String storeName;
 
+        private Set<String> changedTypeNames = new HashSet<>();
+
         public OnCommitEntityVisitor(String storeName) {
             this.storeName = storeName;
         }
 
+        public Set<String> getChangedTypeNames() {
+            return changedTypeNames;
+        }
+
         @Override
         public boolean visit(BaseGenericIdEntity entity) {
             if (BaseEntityInternalAccess.isNew(entity)) {
@@ -370,6 +405,7 @@ public class PersistenceImplSupport implements ApplicationContextAware {
                 entityLog.registerCreate(entity, true);
                 enqueueForFts(entity, FtsChangeType.INSERT);
                 ormCacheSupport.evictMasterEntity(entity, null);
+                changedTypeNames.add(entity.getMetaClass().getName());
                 return true;
             }
 
@@ -385,6 +421,7 @@ public class PersistenceImplSupport implements ApplicationContextAware {
                     processDeletePolicy(entity);
                 enqueueForFts(entity, FtsChangeType.DELETE);
                 ormCacheSupport.evictMasterEntity(entity, null);
+                changedTypeNames.add(entity.getMetaClass().getName());
                 return true;
 
             } else if (changeListener.hasChanges()) {
@@ -399,6 +436,7 @@ public class PersistenceImplSupport implements ApplicationContextAware {
                 entityLog.registerModify(entity, true, changes);
                 enqueueForFts(entity, FtsChangeType.UPDATE);
                 ormCacheSupport.evictMasterEntity(entity, changes);
+                changedTypeNames.add(entity.getMetaClass().getName());
                 return true;
             }
 
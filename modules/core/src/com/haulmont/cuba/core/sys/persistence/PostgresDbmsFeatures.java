@@ -67,4 +67,9 @@ public class PostgresDbmsFeatures implements DbmsFeatures {
     public boolean isNullsLastSorting() {
         return true;
     }
+
+    @Override
+    public int getMaxConcurrentUpdateScripts() {
+        return 4;
+    }
 }
\ No newline at end of file
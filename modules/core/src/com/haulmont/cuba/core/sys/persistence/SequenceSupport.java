@@ -41,4 +41,9 @@ public interface SequenceSupport {
     String getNextValueSql(String sequenceName);
 
     String getCurrentValueSql(String sequenceName);
+
+    /**
+     * @return SQL returning the value the sequence is incremented by
+     */
+    String getIncrementSql(String sequenceName);
 }
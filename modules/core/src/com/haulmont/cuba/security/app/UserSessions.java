@@ -50,6 +50,8 @@ public class UserSessions implements UserSessionsAPI {
         protected final long since;
         protected volatile long lastUsedTs; // set to 0 when propagating removal to cluster
         protected volatile long lastSentTs;
+        // set by request threads, the "last used" timestamp is sent to the cluster by propagateTouches()
+        protected transient volatile boolean propagationPending;
 
         public UserSessionInfo(UserSession session, long now) {
             this.session = session;
@@ -83,6 +85,12 @@ public class UserSessions implements UserSessionsAPI {
 
     private Logger log = LoggerFactory.getLogger(UserSessions.class);
 
+    /**
+     * The "last used" timestamp of a session is updated only if it is older than this value, so concurrent requests
+     * of the same session mostly read the shared timestamp instead of writing it.
+     */
+    protected static final long TOUCH_RESOLUTION_MS = 1000;
+
     protected Map<UUID, UserSessionInfo> cache = new ConcurrentHashMap<>();
 
     protected volatile int expirationTimeout = 1800;
@@ -213,11 +221,10 @@ public class UserSessions implements UserSessionsAPI {
         UserSessionInfo usi = cache.get(id);
         if (usi != null) {
             long now = timeSource.currentTimeMillis();
-            usi.lastUsedTs = now;
-            if (propagate && !usi.session.isSystem()) {
+            touch(usi, now);
+            if (propagate && !usi.session.isSystem() && !usi.propagationPending) {
                 if (now > (usi.lastSentTs + sendTimeout * 1000)) {
-                    usi.lastSentTs = now;
-                    clusterManager.send(usi);
+                    usi.propagationPending = true;
                 }
             }
             return usi.session;
@@ -225,6 +232,31 @@ public class UserSessions implements UserSessionsAPI {
         return null;
     }
 
+    protected void touch(UserSessionInfo usi, long now) {
+        long lastUsedTs = usi.lastUsedTs;
+        // zero means the session is being removed
+        if (lastUsedTs != 0 && now - lastUsedTs >= TOUCH_RESOLUTION_MS) {
+            usi.lastUsedTs = now;
+        }
+    }
+
+    @Override
+    public void propagateTouches() {
+        if (!AppContext.isStarted())
+            return;
+
+        long now = timeSource.currentTimeMillis();
+        for (UserSessionInfo usi : cache.values()) {
+            if (usi.propagationPending) {
+                usi.propagationPending = false;
+                if (usi.lastUsedTs != 0) {
+                    usi.lastSentTs = now;
+                    clusterManager.send(usi);
+                }
+            }
+        }
+    }
+
     @Override
     public void propagate(UUID id) {
         UserSessionInfo usi = cache.get(id);
@@ -232,6 +264,7 @@ public class UserSessions implements UserSessionsAPI {
             long now = timeSource.currentTimeMillis();
             usi.lastUsedTs = now;
             usi.lastSentTs = now;
+            usi.propagationPending = false;
             clusterManager.send(usi);
         }
     }
@@ -38,7 +38,9 @@ public interface UserSessionsAPI {
      * Get user session from cache, updating its "last used" timestamp.
      *
      * @param id        session id
-     * @param propagate whether to propagate the new "last used" timestamp to the cluster
+     * @param propagate whether to propagate the new "last used" timestamp to the cluster. The timestamp is sent
+     *                  not earlier than {@link #getSendTimeoutSec()} after the previous sending, by
+     *                  {@link #propagateTouches()} invoked in background.
      * @return user session instance or null if not found
      */
     UserSession get(UUID id, boolean propagate);
@@ -98,4 +100,9 @@ public interface UserSessionsAPI {
      * Evict timed out sessions from the cache.
      */
     void processEviction();
+
+    /**
+     * Send "last used" timestamps of sessions requested by {@link #get(UUID, boolean)} to the cluster.
+     */
+    void propagateTouches();
 }
\ No newline at end of file
@@ -28,6 +28,7 @@ import org.springframework.stereotype.Service;
 
 import javax.annotation.Nullable;
 import javax.inject.Inject;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -99,6 +100,56 @@ public class UserSettingServiceBean implements UserSettingService {
         }
     }
 
+    @Override
+    public Map<String, String> loadSettings(ClientType clientType, Collection<String> names) {
+        Map<String, String> result = new HashMap<>();
+        if (names.isEmpty()) {
+            return result;
+        }
+        try (Transaction tx = persistence.createTransaction(new TransactionParams().setReadOnly(true))) {
+            for (UserSetting us : findUserSettings(clientType, names)) {
+                result.put(us.getName(), us.getValue());
+            }
+            tx.commit();
+        }
+        return result;
+    }
+
+    @Override
+    public void saveSettings(ClientType clientType, Map<String, String> settings) {
+        if (settings.isEmpty()) {
+            return;
+        }
+        try (Transaction tx = persistence.createTransaction()) {
+            EntityManager em = persistence.getEntityManager();
+
+            Map<String, UserSetting> existing = new HashMap<>();
+            for (UserSetting us : findUserSettings(clientType, settings.keySet())) {
+                existing.put(us.getName(), us);
+            }
+
+            for (Map.Entry<String, String> entry : settings.entrySet()) {
+                UserSetting us = existing.get(entry.getKey());
+                if (entry.getValue() == null) {
+                    if (us != null) {
+                        em.remove(us);
+                    }
+                } else if (us == null) {
+                    us = metadata.create(UserSetting.class);
+                    us.setUser(em.getReference(User.class, userSessionSource.getUserSession().getUser().getId()));
+                    us.setName(entry.getKey());
+                    us.setClientType(clientType);
+                    us.setValue(entry.getValue());
+
+                    em.persist(us);
+                } else {
+                    us.setValue(entry.getValue());
+                }
+            }
+            tx.commit();
+        }
+    }
+
     @Override
     public void copySettings(User fromUser, User toUser) {
         MetaClass metaClass = metadata.getClassNN(UserSetting.class);
@@ -182,6 +233,19 @@ public class UserSettingServiceBean implements UserSettingService {
         return q.getFirstResult();
     }
 
+    protected List<UserSetting> findUserSettings(ClientType clientType, Collection<String> names) {
+        EntityManager em = persistence.getEntityManager();
+
+        TypedQuery<UserSetting> q = em.createQuery(
+                "select s from sec$UserSetting s where s.user.id = :userId and s.name in :names and s.clientType = :clientType",
+                UserSetting.class);
+        q.setParameter("userId", userSessionSource.getUserSession().getUser().getId());
+        q.setParameter("names", names);
+        q.setParameter("clientType", clientType == null ? null : clientType.getId());
+
+        return q.getResultList();
+    }
+
     protected Map<UUID, Presentation> copyPresentations(User fromUser, User toUser) {
         Map<UUID, Presentation> presentationMap = new HashMap<>();
         try (Transaction tx = persistence.createTransaction()) {
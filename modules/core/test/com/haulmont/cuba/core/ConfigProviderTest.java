@@ -216,6 +216,22 @@ public class ConfigProviderTest {
         assertEquals("new_value", value);
     }
 
+    @Test
+    public void testCachedValueInvalidation() throws Exception {
+        TestConfig config = AppBeans.get(Configuration.class).getConfig(TestConfig.class);
+
+        assertNull(config.getIntegerProp());
+
+        AppContext.setProperty("cuba.test.integerProp", "10");
+        assertEquals(Integer.valueOf(10), config.getIntegerProp());
+
+        AppContext.setProperty("cuba.test.integerProp", "20");
+        assertEquals(Integer.valueOf(20), config.getIntegerProp());
+
+        AppContext.setProperty("cuba.test.integerProp", null);
+        assertNull(config.getIntegerProp());
+    }
+
     @Test
     public void testNotFoundGetterForProperty() {
         try {
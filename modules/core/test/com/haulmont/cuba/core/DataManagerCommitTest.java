@@ -17,6 +17,8 @@
 
 package com.haulmont.cuba.core;
 
+import com.haulmont.cuba.core.app.MiddlewareStatisticsAccumulator;
+import com.haulmont.cuba.core.entity.Entity;
 import com.haulmont.cuba.core.global.*;
 import com.haulmont.cuba.security.entity.Group;
 import com.haulmont.cuba.security.entity.Role;
@@ -29,6 +31,9 @@ import org.junit.Before;
 import org.junit.ClassRule;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.Assert.*;
@@ -127,4 +132,68 @@ public class DataManagerCommitTest {
         //do second check to make sure isLoaded did not affect attribute fetch status
         assertTrue(!PersistenceHelper.isLoaded(user, "substitutions"));
     }
+
+    @Test
+    public void testCommitManyNewInstances() throws Exception {
+        MiddlewareStatisticsAccumulator statistics = AppBeans.get(MiddlewareStatisticsAccumulator.NAME);
+        Group group = dataManager.load(LoadContext.create(Group.class).setId(groupId).setView(View.MINIMAL));
+
+        CommitContext commitContext = new CommitContext();
+        List<UUID> userIds = new ArrayList<>();
+        List<UUID> userRoleIds = new ArrayList<>();
+
+        Role role = new Role();
+        role.setName("testRole-" + role.getId());
+        commitContext.addInstanceToCommit(role);
+        for (int i = 0; i < 50; i++) {
+            User user = new User();
+            user.setLogin("login" + user.getId());
+            user.setGroup(group);
+            commitContext.addInstanceToCommit(user);
+            userIds.add(user.getId());
+
+            UserRole userRole = new UserRole();
+            userRole.setUser(user);
+            userRole.setRole(role);
+            commitContext.addInstanceToCommit(userRole);
+            userRoleIds.add(userRole.getId());
+        }
+
+        long statementsBefore = statistics.getDbStatementsCount();
+        try {
+            Set<Entity> committed = dataManager.commit(commitContext);
+            assertEquals(101, committed.size());
+            assertTrue(statistics.getDbStatementsCount() > statementsBefore);
+
+            // references between new instances point to the committed instances
+            for (Entity entity : committed) {
+                if (entity instanceof UserRole) {
+                    UserRole userRole = (UserRole) entity;
+                    assertTrue(committed.stream().anyMatch(e -> e == userRole.getUser()));
+                    assertTrue(committed.stream().anyMatch(e -> e == userRole.getRole()));
+                }
+            }
+
+            // the stored data is correct
+            try (Transaction tx = cont.persistence().createTransaction()) {
+                EntityManager em = cont.persistence().getEntityManager();
+                for (int i = 0; i < userIds.size(); i++) {
+                    User user = em.find(User.class, userIds.get(i));
+                    assertNotNull(user);
+                    assertEquals("login" + user.getId(), user.getLogin());
+                    assertEquals(groupId, user.getGroup().getId());
+
+                    UserRole userRole = em.find(UserRole.class, userRoleIds.get(i));
+                    assertNotNull(userRole);
+                    assertEquals(user, userRole.getUser());
+                    assertEquals(role, userRole.getRole());
+                }
+                tx.commit();
+            }
+        } finally {
+            cont.deleteRecord("SEC_USER_ROLE", userRoleIds.toArray());
+            cont.deleteRecord("SEC_USER", userIds.toArray());
+            cont.deleteRecord("SEC_ROLE", role.getId());
+        }
+    }
 }
\ No newline at end of file
@@ -29,6 +29,7 @@ import org.junit.ClassRule;
 import org.junit.Test;
 
 import javax.persistence.TemporalType;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
@@ -99,6 +100,42 @@ public class DataManagerTest {
         assertTrue(list.size() > 0);
     }
 
+    @Test
+    public void testLoadBatch() {
+        Server server = new Server();
+        server.setName("localhost");
+        server.setRunning(true);
+
+        dataManager.commit(new CommitContext(Collections.<Entity>singleton(server)));
+
+        LoadContext<Server> serversContext = LoadContext.create(Server.class);
+        serversContext.setQueryString("select s from " + PersistenceHelper.getEntityName(Server.class) + " s");
+
+        LoadContext<Server> invalidContext = LoadContext.create(Server.class);
+        invalidContext.setQueryString("select s from " + PersistenceHelper.getEntityName(Server.class) + " s where s.unknownProperty = 1");
+
+        LoadContext<User> usersContext = LoadContext.create(User.class);
+        usersContext.setQueryString("select u from sec$User u where u.login = :login").setParameter("login", "admin");
+
+        List<BatchLoadResult<?>> results = dataManager.loadBatch(Arrays.asList(serversContext, invalidContext, usersContext));
+        assertEquals(3, results.size());
+
+        assertTrue(results.get(0).isSuccessful());
+        assertEquals(1, results.get(0).getEntities().size());
+
+        assertFalse(results.get(1).isSuccessful());
+        assertNotNull(results.get(1).getError());
+        try {
+            results.get(1).getEntities();
+            fail();
+        } catch (RuntimeException e) {
+            // expected
+        }
+
+        assertTrue(results.get(2).isSuccessful());
+        assertEquals(1, results.get(2).getEntities().size());
+    }
+
     @Test
     public void testLoadListById() {
         Server server = new Server();
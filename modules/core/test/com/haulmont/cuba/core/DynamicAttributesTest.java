@@ -18,6 +18,7 @@ package com.haulmont.cuba.core;
 
 import com.google.common.collect.Lists;
 import com.haulmont.bali.db.QueryRunner;
+import com.haulmont.chile.core.model.MetaClass;
 import com.haulmont.cuba.core.app.dynamicattributes.DynamicAttributesManagerAPI;
 import com.haulmont.cuba.core.app.dynamicattributes.PropertyType;
 import com.haulmont.cuba.core.entity.Category;
@@ -30,10 +31,10 @@ import com.haulmont.cuba.security.entity.UserRole;
 import com.haulmont.cuba.testsupport.TestContainer;
 import org.junit.*;
 
+import java.util.Collections;
 import java.util.List;
 
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.*;
 
 public class DynamicAttributesTest {
 
@@ -180,6 +181,73 @@ public class DynamicAttributesTest {
         assertEquals("userName", loadedUser.getValue("+userAttribute"));
     }
 
+    @Test
+    public void testLoadSelectedAttributes() {
+        User loadedUser = dataManager.load(LoadContext.create(User.class).setId(user.getId())
+                .setLoadDynamicAttributes(true)
+                .setDynamicAttributeCodes(Collections.singletonList("+userAttribute")));
+        assertEquals("userName", loadedUser.getValue("+userAttribute"));
+        assertEquals(1, loadedUser.getDynamicAttributes().size());
+    }
+
+    @Test
+    public void testReloadCategories() throws Exception {
+        MetaClass userMetaClass = metadata.getClassNN(User.class);
+        assertNotNull(dynamicAttributesManagerAPI.getAttributeForMetaClass(userMetaClass, "userAttribute"));
+
+        try (Transaction tx = cont.persistence().createTransaction()) {
+            CategoryAttribute attribute = cont.entityManager().find(CategoryAttribute.class, userAttribute.getId());
+            attribute.setCode("userAttributeRenamed");
+            tx.commit();
+        }
+
+        dynamicAttributesManagerAPI.reloadCategories(Collections.singletonList(userCategory.getId()));
+
+        assertNull(dynamicAttributesManagerAPI.getAttributeForMetaClass(userMetaClass, "userAttribute"));
+        assertNotNull(dynamicAttributesManagerAPI.getAttributeForMetaClass(userMetaClass, "userAttributeRenamed"));
+        assertNotNull(dynamicAttributesManagerAPI.getAttributeForMetaClass(userMetaClass, "userGroupAttribute"));
+        assertNotNull(dynamicAttributesManagerAPI.getAttributeForMetaClass(metadata.getClassNN(UserRole.class), "userRoleAttribute"));
+
+        dynamicAttributesManagerAPI.loadCache();
+    }
+
+    @Test
+    public void testReloadCategoriesOfSameEntity() throws Exception {
+        MetaClass userMetaClass = metadata.getClassNN(User.class);
+        Category userCategory2 = metadata.create(Category.class);
+        try {
+            try (Transaction tx = cont.persistence().createTransaction()) {
+                Category category = cont.entityManager().find(Category.class, userCategory.getId());
+                category.setIsDefault(true);
+                tx.commit();
+            }
+            dynamicAttributesManagerAPI.loadCache();
+
+            // the category editor resets the default flag of other categories of the entity directly
+            try (Transaction tx = cont.persistence().createTransaction()) {
+                EntityManager em = cont.entityManager();
+                userCategory2.setName("user2");
+                userCategory2.setEntityType("sec$User");
+                userCategory2.setIsDefault(true);
+                em.persist(userCategory2);
+
+                em.find(Category.class, userCategory.getId()).setIsDefault(false);
+                tx.commit();
+            }
+
+            dynamicAttributesManagerAPI.reloadCategories(Collections.singletonList(userCategory2.getId()));
+
+            long defaultCount = dynamicAttributesManagerAPI.getCategoriesForMetaClass(userMetaClass).stream()
+                    .filter(category -> Boolean.TRUE.equals(category.getIsDefault()))
+                    .count();
+            assertEquals(1, defaultCount);
+            assertEquals(2, dynamicAttributesManagerAPI.getCategoriesForMetaClass(userMetaClass).size());
+        } finally {
+            cont.deleteRecord(userCategory2);
+            dynamicAttributesManagerAPI.loadCache();
+        }
+    }
+
     @Test
     public void testDynamicAttributesWithLocalView() {
         User loadedUser = dataManager.load(LoadContext.create(User.class).setId(user.getId()).setLoadDynamicAttributes(true).setView(View.LOCAL));
@@ -21,6 +21,7 @@ import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.LoggerContext;
 import com.google.common.base.Predicate;
 import com.google.common.collect.Iterables;
+import com.haulmont.cuba.core.app.LocalizedMessageService;
 import com.haulmont.cuba.core.global.*;
 import com.haulmont.cuba.core.mp_test.MpTestObj;
 import com.haulmont.cuba.core.mp_test.nested.MpTestNestedEnum;
@@ -282,6 +283,33 @@ public class MessagesTest {
         assertEquals("Country Message fr CA", msg);
     }
 
+    @Test
+    public void testPackMessages() throws Exception {
+        LocalizedMessageService service = AppBeans.get(LocalizedMessageService.NAME);
+
+        Map<String, String> map = service.getMessages("com.haulmont.cuba.core.mp_test.nested", Locale.forLanguageTag("fr"));
+        assertEquals("Message0 in French", map.get("key0"));
+        assertEquals("Message1", map.get("key1"));
+        assertEquals("Message inclus", map.get("includedMsg"));
+
+        map = service.getMessages("com.haulmont.cuba.core.mp_test", Locale.forLanguageTag("fr-CA"));
+        assertEquals("Common Message", map.get("commonMsg"));
+        assertEquals("Language Message fr", map.get("languageMsg"));
+        assertEquals("Country Message fr CA", map.get("countryMsg"));
+        assertTrue(map.containsKey("includedMsgToOverride"));
+        assertFalse(map.containsKey("@include"));
+
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            assertEquals(entry.getValue(),
+                    service.getMessage("com.haulmont.cuba.core.mp_test", entry.getKey(), Locale.forLanguageTag("fr-CA")));
+        }
+
+        Messages messages = AppBeans.get(Messages.class);
+        long version = service.getMessagesVersion();
+        messages.clearCache();
+        assertNotEquals(version, service.getMessagesVersion());
+    }
+
     private int getSearchMessagesCount() {
         return Iterables.size(Iterables.filter(appender.getMessages(), new Predicate<String>() {
             @Override
@@ -18,6 +18,7 @@
 package com.haulmont.cuba.core;
 
 import com.haulmont.cuba.core.global.AppBeans;
+import com.haulmont.cuba.core.global.CompiledGroovyScript;
 import com.haulmont.cuba.core.global.Scripting;
 import com.haulmont.cuba.security.entity.User;
 import com.haulmont.cuba.testsupport.TestContainer;
@@ -26,6 +27,9 @@ import org.junit.Before;
 import org.junit.ClassRule;
 import org.junit.Test;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import static org.junit.Assert.*;
 
 public class ScriptingTest {
@@ -74,4 +78,19 @@ public class ScriptingTest {
                                        "return PersistenceHelper.isNew(instance)", binding);
         assertTrue(result);
     }
+
+    @Test
+    public void testCompiledEvaluate() {
+        CompiledGroovyScript<Long> script = scripting.compileGroovy("a + b", Long.class);
+        assertSame(script.createScript(new Binding()).getClass(),
+                scripting.compileGroovy("a + b", Long.class).createScript(new Binding()).getClass());
+
+        Map<String, Object> params = new HashMap<>();
+        params.put("a", 2);
+        params.put("b", 3);
+        assertEquals(Long.valueOf(5), script.evaluate(params));
+
+        params.put("b", 40);
+        assertEquals(Long.valueOf(42), script.evaluate(params));
+    }
 }
\ No newline at end of file
@@ -19,12 +19,16 @@ package com.haulmont.cuba.core;
 
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.haulmont.cuba.core.app.UniqueNumbersAPI;
+import com.haulmont.cuba.core.app.UniqueNumbersLease;
 import com.haulmont.cuba.core.global.AppBeans;
+import com.haulmont.cuba.core.sys.AppContext;
 import com.haulmont.cuba.testsupport.TestContainer;
 import org.apache.commons.lang.StringUtils;
 import org.junit.ClassRule;
 import org.junit.Test;
 
+import java.util.HashSet;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadLocalRandom;
@@ -59,6 +63,111 @@ public class UniqueNumbersTest {
         uniqueNumbersAPI.getCurrentNumber("s1");
     }
 
+    @Test
+    public void testLeasedNumbers() throws Exception {
+        UniqueNumbersAPI uniqueNumbersAPI = AppBeans.get(UniqueNumbersAPI.NAME);
+
+        AppContext.setProperty("cuba.uniqueNumbersLeasedDomains", "leased1");
+        AppContext.setProperty("cuba.uniqueNumbersLeaseSize", "10");
+        try {
+            assertTrue(uniqueNumbersAPI.isLeased("leased1"));
+
+            Set<Long> numbers = new HashSet<>();
+            long prev = uniqueNumbersAPI.getNextNumber("leased1");
+            numbers.add(prev);
+            for (int i = 0; i < 25; i++) {
+                long n = uniqueNumbersAPI.getNextNumber("leased1");
+                assertTrue(n > prev);
+                numbers.add(n);
+                prev = n;
+            }
+            assertEquals(26, numbers.size());
+
+            uniqueNumbersAPI.deleteSequence("leased1");
+        } finally {
+            AppContext.setProperty("cuba.uniqueNumbersLeasedDomains", null);
+            AppContext.setProperty("cuba.uniqueNumbersLeaseSize", null);
+        }
+    }
+
+    @Test
+    public void testLeaseSizeChange() throws Exception {
+        UniqueNumbersAPI uniqueNumbersAPI = AppBeans.get(UniqueNumbersAPI.NAME);
+
+        AppContext.setProperty("cuba.uniqueNumbersLeasedDomains", "leased2");
+        AppContext.setProperty("cuba.uniqueNumbersLeaseSize", "10");
+        try {
+            UniqueNumbersLease first = uniqueNumbersAPI.leaseNumbers("leased2");
+            assertEquals(10, first.getLast() - first.getFirst() + 1);
+
+            // the sequence is already incremented by 10, so leases must keep this size
+            AppContext.setProperty("cuba.uniqueNumbersLeaseSize", "100");
+            UniqueNumbersLease second = uniqueNumbersAPI.leaseNumbers("leased2");
+            UniqueNumbersLease third = uniqueNumbersAPI.leaseNumbers("leased2");
+            assertEquals(10, second.getLast() - second.getFirst() + 1);
+            assertTrue(second.getFirst() > first.getLast());
+            assertTrue(third.getFirst() > second.getLast());
+
+            uniqueNumbersAPI.deleteSequence("leased2");
+        } finally {
+            AppContext.setProperty("cuba.uniqueNumbersLeasedDomains", null);
+            AppContext.setProperty("cuba.uniqueNumbersLeaseSize", null);
+        }
+    }
+
+    @Test
+    public void testSwitchToLeasedMode() throws Exception {
+        UniqueNumbersAPI uniqueNumbersAPI = AppBeans.get(UniqueNumbersAPI.NAME);
+
+        long issued = 0;
+        for (int i = 0; i < 5; i++) {
+            issued = uniqueNumbersAPI.getNextNumber("switched1");
+        }
+
+        AppContext.setProperty("cuba.uniqueNumbersLeasedDomains", "switched1");
+        AppContext.setProperty("cuba.uniqueNumbersLeaseSize", "10");
+        try {
+            long leased = uniqueNumbersAPI.getNextNumber("switched1");
+            assertTrue(leased > issued);
+            for (int i = 0; i < 15; i++) {
+                leased = uniqueNumbersAPI.getNextNumber("switched1");
+            }
+
+            AppContext.setProperty("cuba.uniqueNumbersLeasedDomains", null);
+            // the sequence used before leased mode continues after the leased numbers
+            assertTrue(uniqueNumbersAPI.getNextNumber("switched1") > leased);
+            uniqueNumbersAPI.deleteSequence("switched1");
+
+            AppContext.setProperty("cuba.uniqueNumbersLeasedDomains", "switched1");
+            uniqueNumbersAPI.getCurrentNumber("switched1");
+            uniqueNumbersAPI.deleteSequence("switched1");
+        } finally {
+            AppContext.setProperty("cuba.uniqueNumbersLeasedDomains", null);
+            AppContext.setProperty("cuba.uniqueNumbersLeaseSize", null);
+        }
+    }
+
+    @Test
+    public void testCurrentNumberOfLeasedDomain() throws Exception {
+        UniqueNumbersAPI uniqueNumbersAPI = AppBeans.get(UniqueNumbersAPI.NAME);
+
+        AppContext.setProperty("cuba.uniqueNumbersLeasedDomains", "leased3");
+        AppContext.setProperty("cuba.uniqueNumbersLeaseSize", "10");
+        try {
+            UniqueNumbersLease lease = uniqueNumbersAPI.leaseNumbers("leased3");
+            assertEquals(lease.getLast(), uniqueNumbersAPI.getCurrentNumber("leased3"));
+
+            uniqueNumbersAPI.getNextNumber("leased3");
+            uniqueNumbersAPI.setCurrentNumber("leased3", 1000);
+            assertTrue(uniqueNumbersAPI.getNextNumber("leased3") > 1000);
+
+            uniqueNumbersAPI.deleteSequence("leased3");
+        } finally {
+            AppContext.setProperty("cuba.uniqueNumbersLeasedDomains", null);
+            AppContext.setProperty("cuba.uniqueNumbersLeaseSize", null);
+        }
+    }
+
     @Test
     public void testConcurrentModification() throws Exception {
         int threadCnt = 8;
@@ -302,7 +302,7 @@ public class ViewTest {
             long ts = timeSource.currentTimeMillis();
             Thread.sleep(1000);
 
-            View minimalView = cont.metadata().getViewRepository().getView(User.class, View.MINIMAL);
+            View minimalView = View.copy(cont.metadata().getViewRepository().getView(User.class, View.MINIMAL));
             minimalView.setLoadPartialEntities(true);
 
             EntityManager em = cont.persistence().getEntityManager();
@@ -452,7 +452,7 @@ public class ViewTest {
     @Test
     public void testViewCopy() throws Exception {
         ViewRepository viewRepository = cont.metadata().getViewRepository();
-        View view = viewRepository.getView(User.class, View.LOCAL);
+        View view = View.copy(viewRepository.getView(User.class, View.LOCAL));
         view.addProperty("group", viewRepository.getView(Group.class, View.MINIMAL));
 
         assertNotNull(view.getProperty("group"));
@@ -462,7 +462,7 @@ public class ViewTest {
     @Test
     public void testFetchGroupIsAbsentIfViewIsFull() throws Exception {
         ViewRepository viewRepository = cont.metadata().getViewRepository();
-        View view = viewRepository.getView(User.class, View.LOCAL);
+        View view = View.copy(viewRepository.getView(User.class, View.LOCAL));
         view.addProperty("group", new View(Group.class)
                 .addProperty("name"))
             .addProperty("userRoles", new View(UserRole.class)
@@ -493,7 +493,7 @@ public class ViewTest {
     @Test
     public void testSelfReferenceInView() {
         ViewRepository viewRepository = cont.metadata().getViewRepository();
-        View view = viewRepository.getView(RootEntity.class, View.LOCAL);
+        View view = View.copy(viewRepository.getView(RootEntity.class, View.LOCAL));
         view.addProperty("entity", new View(ChildEntity.class)
                 .addProperty("name").addProperty("description"), FetchMode.AUTO);
         RootEntity e;
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2008-2016 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.haulmont.cuba.core.app;
+
+import com.haulmont.cuba.core.global.AppBeans;
+import com.haulmont.cuba.core.sys.AppContext;
+import com.haulmont.cuba.testsupport.TestContainer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class CacheInvalidationsTrackerTest {
+
+    @ClassRule
+    public static TestContainer cont = TestContainer.Common.INSTANCE;
+
+    private CacheInvalidationsTracker tracker;
+
+    @Before
+    public void setUp() throws Exception {
+        tracker = AppBeans.get(CacheInvalidationsTracker.NAME);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        AppContext.setProperty("cuba.cacheInvalidationsBufferSize", null);
+    }
+
+    @Test
+    public void testAwaitInvalidations() throws Exception {
+        CacheInvalidations initial = tracker.awaitInvalidations(null, 0, 0);
+        assertTrue(initial.isReset());
+        String nodeId = initial.getNodeId();
+
+        CacheInvalidations empty = tracker.awaitInvalidations(nodeId, initial.getSequence(), 10);
+        assertFalse(empty.isReset());
+        assertFalse(empty.isConfigChanged());
+        assertFalse(empty.isCategoriesChanged());
+        assertTrue(empty.getEntityNames().isEmpty());
+        assertTrue(empty.getUniqueNumbersDomains().isEmpty());
+        assertEquals(initial.getSequence(), empty.getSequence());
+
+        UUID categoryId = UUID.randomUUID();
+        tracker.registerConfigChanges(Collections.singleton("cuba.testProperty"));
+        tracker.registerCategoryChanges(Collections.singleton(categoryId));
+        tracker.registerEntityChanges(Collections.singleton("sec$User"));
+        tracker.registerUniqueNumbersChanges(Collections.singleton("leased"));
+
+        CacheInvalidations changes = tracker.awaitInvalidations(nodeId, initial.getSequence(), 0);
+        assertFalse(changes.isReset());
+        assertEquals(Collections.singleton("cuba.testProperty"), changes.getConfigNames());
+        assertEquals(Collections.singleton(categoryId), changes.getCategoryIds());
+        assertEquals(Collections.singleton("sec$User"), changes.getEntityNames());
+        assertEquals(Collections.singleton("leased"), changes.getUniqueNumbersDomains());
+        assertEquals(initial.getSequence() + 4, changes.getSequence());
+
+        tracker.registerConfigChanges(null);
+        CacheInvalidations allConfig = tracker.awaitInvalidations(nodeId, changes.getSequence(), 0);
+        assertNull(allConfig.getConfigNames());
+        assertFalse(allConfig.isCategoriesChanged());
+    }
+
+    @Test
+    public void testWakeUpOnChange() throws Exception {
+        CacheInvalidations initial = tracker.awaitInvalidations(null, 0, 0);
+
+        Thread thread = new Thread(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                return;
+            }
+            tracker.registerEntityChanges(Collections.singleton("sec$Role"));
+        });
+        thread.start();
+
+        long start = System.currentTimeMillis();
+        CacheInvalidations changes = tracker.awaitInvalidations(initial.getNodeId(), initial.getSequence(), 10000);
+        assertTrue(System.currentTimeMillis() - start < 10000);
+        assertTrue(changes.getEntityNames().contains("sec$Role"));
+        thread.join();
+    }
+
+    @Test
+    public void testResetWhenChangesAreLost() throws Exception {
+        AppContext.setProperty("cuba.cacheInvalidationsBufferSize", "2");
+
+        CacheInvalidations initial = tracker.awaitInvalidations(null, 0, 0);
+        for (int i = 0; i < 3; i++) {
+            tracker.registerEntityChanges(Collections.singleton("sec$Role"));
+        }
+
+        CacheInvalidations changes = tracker.awaitInvalidations(initial.getNodeId(), initial.getSequence(), 0);
+        assertTrue(changes.isReset());
+
+        CacheInvalidations otherNode = tracker.awaitInvalidations("other", changes.getSequence(), 0);
+        assertTrue(otherNode.isReset());
+    }
+}
@@ -18,6 +18,7 @@
 package com.haulmont.cuba.core.app;
 
 import com.google.common.collect.Lists;
+import com.haulmont.cuba.core.entity.FileDescriptor;
 import com.haulmont.cuba.core.entity.SendingAttachment;
 import com.haulmont.cuba.core.entity.SendingMessage;
 import com.haulmont.cuba.core.global.*;
@@ -355,6 +356,38 @@ public class EmailerTest {
         assertTrue(recipientSet.contains("tanya@example.com"));
     }
 
+    @Test
+    public void testSeveralRecipientsBatched() throws Exception {
+        emailerConfig.setFileStorageUsed(true);
+        emailerConfig.setSendingBatchSize(2);
+        try {
+            testMailSender.clearBuffer();
+
+            EmailAttachment textAttach = EmailAttachment.createTextAttachment("Test Attachment Text", "UTF-8", "test.txt");
+            EmailInfo myInfo = new EmailInfo("misha@example.com,kolya@example.com;tanya@example.com", "Test", null,
+                    "Test Email Body", textAttach);
+            List<SendingMessage> messages = emailer.sendEmailAsync(myInfo);
+            assertEquals(3, messages.size());
+
+            emailer.processQueuedEmails();
+
+            assertEquals(3, testMailSender.getBufferSize());
+            FileDescriptor contentFile = reload(messages.get(0), "sendingMessage.loadFromQueue")
+                    .getAttachments().get(0).getContentFile();
+            assertNotNull(contentFile);
+            for (SendingMessage message : messages) {
+                SendingMessage sendingMsg = reload(message, "sendingMessage.loadFromQueue");
+                assertEquals(SendingStatus.SENT, sendingMsg.getStatus());
+                assertEquals(1, sendingMsg.getAttemptsMade().intValue());
+                assertNotNull(sendingMsg.getDateSent());
+                // attachment content is stored once for all recipients
+                assertEquals(contentFile, sendingMsg.getAttachments().get(0).getContentFile());
+            }
+        } finally {
+            emailerConfig.setSendingBatchSize(1);
+        }
+    }
+
     @Test
     public void testSendAllToAdmin() throws Exception {
         emailerConfig.setSendAllToAdmin(true);
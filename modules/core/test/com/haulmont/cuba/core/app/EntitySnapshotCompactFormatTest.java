@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2008-2016 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.haulmont.cuba.core.app;
+
+import com.haulmont.cuba.core.EntityManager;
+import com.haulmont.cuba.core.Transaction;
+import com.haulmont.cuba.core.entity.EntitySnapshot;
+import com.haulmont.cuba.core.entity.diff.EntityDiff;
+import com.haulmont.cuba.core.entity.diff.EntityPropertyDiff;
+import com.haulmont.cuba.core.global.AppBeans;
+import com.haulmont.cuba.core.global.View;
+import com.haulmont.cuba.core.sys.AppContext;
+import com.haulmont.cuba.security.entity.Role;
+import com.haulmont.cuba.security.entity.User;
+import com.haulmont.cuba.testsupport.TestContainer;
+import com.haulmont.cuba.testsupport.TestSupport;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class EntitySnapshotCompactFormatTest {
+
+    @ClassRule
+    public static TestContainer cont = TestContainer.Common.INSTANCE;
+
+    private EntitySnapshotManager snapshotManager;
+    private Role role;
+    private User user;
+    private View view;
+    private List<EntitySnapshot> snapshots = new ArrayList<>();
+
+    @Before
+    public void setUp() throws Exception {
+        AppContext.setProperty("cuba.compactEntitySnapshots", "true");
+        AppContext.setProperty("cuba.compactEntitySnapshotsMaxDeltas", "2");
+
+        snapshotManager = AppBeans.get(EntitySnapshotAPI.NAME);
+        view = cont.metadata().getViewRepository().getView(Role.class, View.LOCAL);
+
+        try (Transaction tx = cont.persistence().createTransaction()) {
+            EntityManager em = cont.persistence().getEntityManager();
+            user = em.find(User.class, TestSupport.ADMIN_USER_ID);
+
+            role = cont.metadata().create(Role.class);
+            role.setName("testSnapshotRole");
+            role.setDescription("description 0");
+            em.persist(role);
+            tx.commit();
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        AppContext.setProperty("cuba.compactEntitySnapshots", null);
+        AppContext.setProperty("cuba.compactEntitySnapshotsMaxDeltas", null);
+
+        for (EntitySnapshot snapshot : snapshots) {
+            cont.deleteRecord(snapshot);
+        }
+        cont.deleteRecord(role);
+    }
+
+    @Test
+    public void testDeltas() throws Exception {
+        for (int i = 1; i <= 4; i++) {
+            role.setDescription("description " + i);
+            snapshots.add(snapshotManager.createSnapshot(role, view, new Date(), user));
+            // the previous snapshot is determined by creation time
+            Thread.sleep(10);
+        }
+
+        assertTrue(snapshots.get(0).getSnapshotXml().startsWith(EntitySnapshotManager.COMPACT_BASE_PREFIX));
+        assertTrue(snapshots.get(1).getSnapshotXml().startsWith(EntitySnapshotManager.COMPACT_DELTA_PREFIX + "1:"));
+        assertTrue(snapshots.get(2).getSnapshotXml().startsWith(EntitySnapshotManager.COMPACT_DELTA_PREFIX + "2:"));
+        assertTrue(snapshots.get(3).getSnapshotXml().startsWith(EntitySnapshotManager.COMPACT_BASE_PREFIX));
+
+        // restore from the stored content rather than from the cache
+        snapshotManager.compactSnapshots.invalidateAll();
+
+        for (int i = 0; i < snapshots.size(); i++) {
+            Role restored = (Role) snapshotManager.extractEntity(snapshots.get(i));
+            assertEquals("description " + (i + 1), restored.getDescription());
+            assertEquals("testSnapshotRole", restored.getName());
+        }
+
+        assertEquals(view.getProperties().size(), snapshotManager.extractView(snapshots.get(2)).getProperties().size());
+
+        EntityDiff diff = snapshotManager.getDifference(snapshots.get(0), snapshots.get(2));
+        EntityPropertyDiff descriptionDiff = diff.getPropertyDiffs().stream()
+                .filter(propertyDiff -> "description".equals(propertyDiff.getName()))
+                .findFirst()
+                .orElse(null);
+        assertNotNull(descriptionDiff);
+        assertEquals("description 1", descriptionDiff.getBeforeValue());
+        assertEquals("description 3", descriptionDiff.getAfterValue());
+    }
+
+    @Test
+    public void testRemoveDelta() throws Exception {
+        createSnapshots(3);
+
+        remove(snapshots.get(1));
+        snapshotManager.compactSnapshots.invalidateAll();
+
+        Role restored = (Role) snapshotManager.extractEntity(reload(snapshots.get(2)));
+        assertEquals("description 3", restored.getDescription());
+    }
+
+    @Test
+    public void testRemoveBase() throws Exception {
+        createSnapshots(3);
+
+        remove(snapshots.get(0));
+        snapshotManager.compactSnapshots.invalidateAll();
+
+        EntitySnapshot newBase = reload(snapshots.get(1));
+        EntitySnapshot delta = reload(snapshots.get(2));
+        assertTrue(newBase.getSnapshotXml().startsWith(EntitySnapshotManager.COMPACT_BASE_PREFIX));
+        assertTrue(delta.getSnapshotXml().startsWith(EntitySnapshotManager.COMPACT_DELTA_PREFIX + "1:" + newBase.getId() + ":"));
+
+        assertEquals("description 2", ((Role) snapshotManager.extractEntity(newBase)).getDescription());
+        assertEquals("description 3", ((Role) snapshotManager.extractEntity(delta)).getDescription());
+    }
+
+    private void createSnapshots(int count) throws InterruptedException {
+        for (int i = 1; i <= count; i++) {
+            role.setDescription("description " + i);
+            snapshots.add(snapshotManager.createSnapshot(role, view, new Date(), user));
+            // the previous snapshot is determined by creation time
+            Thread.sleep(10);
+        }
+    }
+
+    private void remove(EntitySnapshot snapshot) {
+        try (Transaction tx = cont.persistence().createTransaction()) {
+            EntityManager em = cont.persistence().getEntityManager();
+            em.remove(em.find(EntitySnapshot.class, snapshot.getId()));
+            tx.commit();
+        }
+    }
+
+    private EntitySnapshot reload(EntitySnapshot snapshot) {
+        return cont.persistence().callInTransaction(em -> em.find(EntitySnapshot.class, snapshot.getId()));
+    }
+}
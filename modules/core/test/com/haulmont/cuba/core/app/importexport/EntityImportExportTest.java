@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2008-2016 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.haulmont.cuba.core.app.importexport;
+
+import com.haulmont.cuba.core.EntityManager;
+import com.haulmont.cuba.core.Transaction;
+import com.haulmont.cuba.core.entity.Entity;
+import com.haulmont.cuba.core.global.AppBeans;
+import com.haulmont.cuba.core.global.View;
+import com.haulmont.cuba.security.entity.Group;
+import com.haulmont.cuba.security.entity.User;
+import com.haulmont.cuba.testmodel.primary_keys.StringKeyEntity;
+import com.haulmont.cuba.testsupport.TestContainer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class EntityImportExportTest {
+
+    @ClassRule
+    public static TestContainer cont = TestContainer.Common.INSTANCE;
+
+    private EntityImportExportAPI entityImportExport;
+
+    private List<UUID> groupIds = new ArrayList<>();
+    private List<UUID> userIds = new ArrayList<>();
+    private List<String> stringKeys = new ArrayList<>();
+
+    @Before
+    public void setUp() throws Exception {
+        entityImportExport = AppBeans.get(EntityImportExportAPI.NAME);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        cont.deleteRecord("SEC_USER", userIds.toArray());
+        for (UUID groupId : groupIds) {
+            cont.deleteRecord("SEC_GROUP_HIERARCHY", "GROUP_ID", groupId);
+        }
+        Collections.reverse(groupIds);
+        cont.deleteRecord("SEC_GROUP", groupIds.toArray());
+        cont.deleteRecord("TEST_STRING_KEY", "CODE", stringKeys.toArray());
+    }
+
+    @Test
+    public void testEqualIdsOfDifferentEntities() throws Exception {
+        UUID id = UUID.randomUUID();
+        Group group = createGroup(id, null);
+        try (Transaction tx = cont.persistence().createTransaction()) {
+            cont.entityManager().persist(group);
+            tx.commit();
+        }
+
+        // new user has the same id as the existing group it refers to
+        User user = cont.metadata().create(User.class);
+        user.setId(id);
+        user.setLogin("importTestUser");
+        user.setGroup(group);
+        userIds.add(id);
+
+        EntityImportView view = new EntityImportView(User.class)
+                .addLocalProperties()
+                .addManyToOneProperty("group", ReferenceImportBehaviour.ERROR_ON_MISSING);
+        Collection<Entity> imported = entityImportExport.importEntities(Collections.singletonList(user), view);
+        assertEquals(1, imported.size());
+
+        try (Transaction tx = cont.persistence().createTransaction()) {
+            EntityManager em = cont.entityManager();
+            User loadedUser = em.find(User.class, id);
+            assertNotNull(loadedUser);
+            assertEquals("importTestUser", loadedUser.getLogin());
+            assertEquals(group, loadedUser.getGroup());
+
+            Group loadedGroup = em.find(Group.class, id);
+            assertNotNull(loadedGroup);
+            assertEquals(group.getName(), loadedGroup.getName());
+            tx.commit();
+        }
+    }
+
+    @Test
+    public void testBatchesAreCommittedSeparately() throws Exception {
+        List<Group> groups = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            groups.add(createGroup(UUID.randomUUID(), null));
+        }
+        EntityImportView view = new EntityImportView(Group.class).addLocalProperties();
+
+        // the outer transaction is rolled back, but the batches are committed in their own transactions
+        try (Transaction outerTx = cont.persistence().createTransaction()) {
+            Collection<Entity> imported = entityImportExport.importEntities(groups, view, 2);
+            assertEquals(3, imported.size());
+        }
+
+        try (Transaction tx = cont.persistence().createTransaction()) {
+            for (Group group : groups) {
+                assertNotNull(cont.entityManager().find(Group.class, group.getId()));
+            }
+            tx.commit();
+        }
+    }
+
+    @Test
+    public void testReferencesAcrossBatches() throws Exception {
+        Group parent = createGroup(UUID.randomUUID(), null);
+        Group child = createGroup(UUID.randomUUID(), parent);
+
+        EntityImportView view = new EntityImportView(Group.class)
+                .addLocalProperties()
+                .addManyToOneProperty("parent", ReferenceImportBehaviour.ERROR_ON_MISSING);
+        entityImportExport.importEntities(Arrays.asList(parent, child), view, 1);
+
+        try (Transaction tx = cont.persistence().createTransaction()) {
+            Group loadedChild = cont.entityManager().find(Group.class, child.getId(),
+                    new View(Group.class).addProperty("name").addProperty("parent", new View(Group.class).addProperty("name")));
+            assertNotNull(loadedChild);
+            assertEquals(parent, loadedChild.getParent());
+            assertEquals(parent.getName(), loadedChild.getParent().getName());
+            tx.commit();
+        }
+    }
+
+    @Test
+    public void testPrimaryKeyNotNamedId() throws Exception {
+        StringKeyEntity existing = cont.metadata().create(StringKeyEntity.class);
+        existing.setCode("importTestExisting");
+        existing.setName("old name");
+        stringKeys.add(existing.getCode());
+        try (Transaction tx = cont.persistence().createTransaction()) {
+            cont.entityManager().persist(existing);
+            tx.commit();
+        }
+
+        StringKeyEntity updated = cont.metadata().create(StringKeyEntity.class);
+        updated.setCode("importTestExisting");
+        updated.setName("new name");
+        StringKeyEntity created = cont.metadata().create(StringKeyEntity.class);
+        created.setCode("importTestCreated");
+        created.setName("created");
+        stringKeys.add(created.getCode());
+
+        EntityImportView view = new EntityImportView(StringKeyEntity.class).addLocalProperties();
+        Collection<Entity> imported = entityImportExport.importEntities(Arrays.asList(updated, created), view);
+        assertEquals(2, imported.size());
+
+        try (Transaction tx = cont.persistence().createTransaction()) {
+            assertEquals("new name", cont.entityManager().find(StringKeyEntity.class, "importTestExisting").getName());
+            assertEquals("created", cont.entityManager().find(StringKeyEntity.class, "importTestCreated").getName());
+            tx.commit();
+        }
+    }
+
+    private Group createGroup(UUID id, Group parent) {
+        Group group = cont.metadata().create(Group.class);
+        group.setId(id);
+        group.setName("importTestGroup-" + id);
+        group.setParent(parent);
+        groupIds.add(id);
+        return group;
+    }
+}
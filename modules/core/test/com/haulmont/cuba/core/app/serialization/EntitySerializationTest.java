@@ -0,0 +1,302 @@
+/*
+ * Copyright (c) 2008-2016 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.haulmont.cuba.core.app.serialization;
+
+import com.google.gson.*;
+import com.haulmont.chile.core.datatypes.Datatype;
+import com.haulmont.chile.core.datatypes.Datatypes;
+import com.haulmont.chile.core.model.MetaClass;
+import com.haulmont.chile.core.model.MetaProperty;
+import com.haulmont.chile.core.model.Range;
+import com.haulmont.cuba.core.app.dynamicattributes.DynamicAttributes;
+import com.haulmont.cuba.core.app.dynamicattributes.DynamicAttributesUtils;
+import com.haulmont.cuba.core.entity.*;
+import com.haulmont.cuba.core.global.*;
+import com.haulmont.cuba.security.entity.*;
+import com.haulmont.cuba.testsupport.TestContainer;
+import com.haulmont.cuba.testsupport.TestSupport;
+import org.apache.commons.lang.ArrayUtils;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import javax.annotation.Nullable;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.reflect.Type;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares the output of {@link EntitySerialization} with the tree-based serializer it replaced.
+ */
+public class EntitySerializationTest {
+
+    @ClassRule
+    public static TestContainer cont = TestContainer.Common.INSTANCE;
+
+    private EntitySerializationAPI entitySerialization;
+    private User newUser;
+    private User loadedUser;
+    private View userView;
+
+    @Before
+    public void setUp() throws Exception {
+        entitySerialization = AppBeans.get(EntitySerializationAPI.NAME);
+
+        Group group = cont.metadata().create(Group.class);
+        group.setName("Group <a & 'b'> \u00e9");
+
+        Role role = cont.metadata().create(Role.class);
+        role.setName("role");
+        role.setType(RoleType.STANDARD);
+
+        newUser = cont.metadata().create(User.class);
+        newUser.setLogin("login");
+        newUser.setName("\"quoted\" name");
+        newUser.setActive(true);
+        newUser.setGroup(group);
+        List<UserRole> userRoles = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            // the role is repeated and the user is referenced back
+            UserRole userRole = cont.metadata().create(UserRole.class);
+            userRole.setUser(newUser);
+            userRole.setRole(role);
+            userRoles.add(userRole);
+        }
+        newUser.setUserRoles(userRoles);
+
+        userView = cont.metadata().getViewRepository().getView(User.class, "user.edit");
+        loadedUser = AppBeans.get(DataManager.class).load(LoadContext.create(User.class)
+                .setId(TestSupport.ADMIN_USER_ID).setView(userView));
+    }
+
+    @Test
+    public void testSameOutputAsTreeSerializer() throws Exception {
+        for (EntitySerializationOption[] options : getOptionCombinations()) {
+            for (View view : Arrays.asList(null, userView)) {
+                String message = "options " + Arrays.toString(options) + ", view " + view;
+                for (User user : Arrays.asList(newUser, loadedUser)) {
+                    assertEquals(message, treeToJson(user, view, options),
+                            entitySerialization.toJson(user, view, options));
+                }
+
+                List<User> users = Arrays.asList(newUser, loadedUser, newUser);
+                String expected = treeToJson(users, view, options);
+                assertEquals(message, expected, entitySerialization.toJson(users, view, options));
+
+                // writeJson compacts repeated entities only within one root entity
+                String expectedStream = users.stream()
+                        .map(user -> treeToJson(user, view, options))
+                        .collect(Collectors.joining(",", "[", "]"));
+                StringWriter writer = new StringWriter();
+                entitySerialization.writeJson(users, view, writer, options);
+                assertEquals(message, expectedStream, writer.toString());
+            }
+        }
+    }
+
+    @Test
+    public void testReadJsonInBatches() throws Exception {
+        StringWriter writer = new StringWriter();
+        entitySerialization.writeJson(Arrays.asList(newUser, newUser, newUser), null, writer,
+                EntitySerializationOption.COMPACT_REPEATED_ENTITIES);
+
+        List<User> users = new ArrayList<>();
+        int count = entitySerialization.readJson(new StringReader(writer.toString()), null, 2,
+                batch -> batch.forEach(entity -> users.add((User) entity)),
+                EntitySerializationOption.COMPACT_REPEATED_ENTITIES);
+
+        assertEquals(3, count);
+        assertEquals(3, users.size());
+        // repeated root entities are resolved within a batch only
+        assertSame(users.get(0), users.get(1));
+        assertNotSame(users.get(1), users.get(2));
+        for (User user : users) {
+            assertEquals(newUser.getLogin(), user.getLogin());
+            assertEquals(newUser.getGroup().getName(), user.getGroup().getName());
+            assertEquals(2, user.getUserRoles().size());
+        }
+    }
+
+    private List<EntitySerializationOption[]> getOptionCombinations() {
+        EntitySerializationOption[] values = EntitySerializationOption.values();
+        List<EntitySerializationOption[]> result = new ArrayList<>();
+        for (int mask = 0; mask < (1 << values.length); mask++) {
+            List<EntitySerializationOption> options = new ArrayList<>();
+            for (int i = 0; i < values.length; i++) {
+                if ((mask & (1 << i)) != 0) {
+                    options.add(values[i]);
+                }
+            }
+            result.add(options.toArray(new EntitySerializationOption[0]));
+        }
+        return result;
+    }
+
+    private String treeToJson(Object object, @Nullable View view, EntitySerializationOption... options) {
+        GsonBuilder gsonBuilder = new GsonBuilder();
+        gsonBuilder.registerTypeHierarchyAdapter(Entity.class, new TreeEntitySerializer(view, options));
+        if (ArrayUtils.contains(options, EntitySerializationOption.SERIALIZE_NULLS)) {
+            gsonBuilder.serializeNulls();
+        }
+        return gsonBuilder.create().toJson(object);
+    }
+
+    /**
+     * The serializer used before the output was written to a stream, which builds a JSON tree for each entity.
+     */
+    private static class TreeEntitySerializer implements JsonSerializer<Entity> {
+
+        private MetadataTools metadataTools = AppBeans.get(MetadataTools.NAME);
+        private DynamicAttributes dynamicAttributes = AppBeans.get(DynamicAttributes.NAME);
+
+        private boolean complexIdFormat;
+        private boolean compactRepeatedEntities;
+        private boolean serializeInstanceName;
+        private View view;
+        private Set<Object> processedIds = new HashSet<>();
+
+        public TreeEntitySerializer(@Nullable View view, EntitySerializationOption... options) {
+            this.view = view;
+            complexIdFormat = ArrayUtils.contains(options, EntitySerializationOption.COMPLEX_ID_FORMAT);
+            compactRepeatedEntities = ArrayUtils.contains(options, EntitySerializationOption.COMPACT_REPEATED_ENTITIES);
+            serializeInstanceName = ArrayUtils.contains(options, EntitySerializationOption.SERIALIZE_INSTANCE_NAME);
+        }
+
+        @Override
+        public JsonElement serialize(Entity entity, Type typeOfSrc, JsonSerializationContext context) {
+            return serializeEntity(entity, view, new HashSet<>());
+        }
+
+        private JsonObject serializeEntity(Entity entity, @Nullable View view, Set<Entity> cyclicReferences) {
+            JsonObject jsonObject = new JsonObject();
+            MetaClass metaClass = entity.getMetaClass();
+            if (!metadataTools.isEmbeddable(metaClass)) {
+                if (!complexIdFormat) {
+                    jsonObject.addProperty("_entityName", metaClass.getName());
+                }
+                if (serializeInstanceName) {
+                    String instanceName = null;
+                    try {
+                        instanceName = entity.getInstanceName();
+                    } catch (Exception ignored) {}
+                    jsonObject.addProperty("_instanceName", instanceName);
+                }
+                writeIdField(entity, jsonObject);
+                if (compactRepeatedEntities) {
+                    if (processedIds.add(entity.getId())) {
+                        writeFields(entity, jsonObject, view, cyclicReferences);
+                    }
+                } else {
+                    if (!cyclicReferences.contains(entity)) {
+                        cyclicReferences.add(entity);
+                        writeFields(entity, jsonObject, view, cyclicReferences);
+                    }
+                }
+            } else {
+                writeFields(entity, jsonObject, view, cyclicReferences);
+            }
+
+            if (entity instanceof BaseGenericIdEntity) {
+                byte[] securityToken = BaseEntityInternalAccess.getSecurityToken((BaseGenericIdEntity) entity);
+                if (securityToken != null) {
+                    jsonObject.addProperty("__securityToken", Base64.getEncoder().encodeToString(securityToken));
+                }
+            }
+            return jsonObject;
+        }
+
+        private void writeIdField(Entity entity, JsonObject jsonObject) {
+            MetaProperty primaryKeyProperty = entity instanceof AbstractNotPersistentEntity ?
+                    entity.getMetaClass().getProperty("id") :
+                    metadataTools.getPrimaryKeyProperty(entity.getMetaClass());
+            Datatype idDatatype = Datatypes.getNN(primaryKeyProperty.getJavaType());
+            String idValue = complexIdFormat ? entity.getMetaClass().getName() + "-" + idDatatype.format(entity.getId())
+                    : idDatatype.format(entity.getId());
+            jsonObject.addProperty("id", idValue);
+        }
+
+        private boolean propertyWritingAllowed(MetaProperty metaProperty, Entity entity) {
+            return !"id".equals(metaProperty.getName()) &&
+                    (DynamicAttributesUtils.isDynamicAttribute(metaProperty) ||
+                            (entity instanceof AbstractNotPersistentEntity) ||
+                            !metadataTools.isPersistent(metaProperty) ||
+                            PersistenceHelper.isLoaded(entity, metaProperty.getName()));
+        }
+
+        private void writeFields(Entity entity, JsonObject jsonObject, @Nullable View view, Set<Entity> cyclicReferences) {
+            Collection<MetaProperty> properties = new ArrayList<>(entity.getMetaClass().getProperties());
+            if (entity instanceof BaseGenericIdEntity && ((BaseGenericIdEntity) entity).getDynamicAttributes() != null) {
+                properties.addAll(dynamicAttributes.getAttributesForMetaClass(entity.getMetaClass()).stream()
+                        .map(attribute -> DynamicAttributesUtils.getMetaPropertyPath(entity.getMetaClass(), attribute).getMetaProperty())
+                        .collect(Collectors.toList()));
+            }
+            for (MetaProperty metaProperty : properties) {
+                if (!propertyWritingAllowed(metaProperty, entity))
+                    continue;
+                ViewProperty viewProperty = null;
+                if (!DynamicAttributesUtils.isDynamicAttribute(metaProperty)) {
+                    if (view != null) {
+                        viewProperty = view.getProperty(metaProperty.getName());
+                        if (viewProperty == null) continue;
+                    }
+                    if (!PersistenceHelper.isNew(entity) && !PersistenceHelper.isLoaded(entity, metaProperty.getName())) {
+                        continue;
+                    }
+                }
+
+                Object fieldValue = entity.getValue(metaProperty.getName());
+                if (fieldValue == null) {
+                    jsonObject.add(metaProperty.getName(), null);
+                    continue;
+                }
+
+                Range propertyRange = metaProperty.getRange();
+                if (propertyRange.isDatatype()) {
+                    if (fieldValue instanceof Number) {
+                        jsonObject.addProperty(metaProperty.getName(), (Number) fieldValue);
+                    } else if (fieldValue instanceof Boolean) {
+                        jsonObject.addProperty(metaProperty.getName(), (Boolean) fieldValue);
+                    } else {
+                        jsonObject.addProperty(metaProperty.getName(), propertyRange.asDatatype().format(fieldValue));
+                    }
+                } else if (propertyRange.isEnum()) {
+                    jsonObject.addProperty(metaProperty.getName(), fieldValue.toString());
+                } else if (propertyRange.isClass()) {
+                    View propertyView = viewProperty != null ? viewProperty.getView() : null;
+                    if (fieldValue instanceof Entity) {
+                        jsonObject.add(metaProperty.getName(),
+                                serializeEntity((Entity) fieldValue, propertyView, new HashSet<>(cyclicReferences)));
+                    } else if (fieldValue instanceof Collection) {
+                        JsonArray jsonArray = new JsonArray();
+                        Set<Entity> collectionReferences = new HashSet<>(cyclicReferences);
+                        for (Object item : (Collection) fieldValue) {
+                            if (item instanceof Entity) {
+                                jsonArray.add(serializeEntity((Entity) item, propertyView, collectionReferences));
+                            }
+                        }
+                        jsonObject.add(metaProperty.getName(), jsonArray);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -17,16 +17,22 @@
 package com.haulmont.cuba.core.global;
 
 import com.haulmont.cuba.core.sys.AbstractViewRepository;
+import com.haulmont.cuba.core.sys.AppContext;
 import com.haulmont.cuba.security.entity.User;
 import com.haulmont.cuba.testsupport.TestContainer;
+import org.apache.commons.io.FileUtils;
 import org.junit.Before;
 import org.junit.ClassRule;
 import org.junit.Test;
 
+import java.io.File;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
 
-import static org.junit.Assert.assertNotNull;
-import static org.junit.Assert.assertNull;
+import static org.junit.Assert.*;
 
 public class ViewRepositoryTest {
 
@@ -60,6 +66,47 @@ public class ViewRepositoryTest {
         assertNotNull(roleView.getProperty("name"));
     }
 
+    @Test
+    public void testSnapshot() throws Exception {
+        AbstractViewRepository viewRepository = (AbstractViewRepository) repository;
+        File dir = Files.createTempDirectory("views").toFile();
+        AppContext.setProperty("cuba.startupSnapshotsEnabled", "true");
+        AppContext.setProperty("cuba.startupSnapshotsDir", dir.getAbsolutePath());
+        AppContext.setProperty("cuba.startupSnapshotsKey", "key1");
+        try {
+            viewRepository.reset();
+            View view = repository.getView(User.class, "user.edit");
+            File snapshotFile = new File(dir, "views-" + AppContext.getProperty("cuba.webContextName") + ".snapshot");
+            assertTrue(snapshotFile.exists());
+
+            viewRepository.reset();
+            View snapshotView = repository.getView(User.class, "user.edit");
+            assertNotSame(view, snapshotView);
+            assertEquals(getPropertyNames(view), getPropertyNames(snapshotView));
+
+            View userRolesView = snapshotView.getProperty("userRoles").getView();
+            assertNotNull(userRolesView);
+            assertEquals(getPropertyNames(view.getProperty("userRoles").getView()), getPropertyNames(userRolesView));
+
+            // a snapshot signed with another key is not used and is replaced
+            byte[] content = FileUtils.readFileToByteArray(snapshotFile);
+            AppContext.setProperty("cuba.startupSnapshotsKey", "key2");
+            viewRepository.reset();
+            assertNotNull(repository.getView(User.class, "user.edit"));
+            assertFalse(Arrays.equals(content, FileUtils.readFileToByteArray(snapshotFile)));
+        } finally {
+            AppContext.setProperty("cuba.startupSnapshotsEnabled", null);
+            AppContext.setProperty("cuba.startupSnapshotsDir", null);
+            AppContext.setProperty("cuba.startupSnapshotsKey", null);
+            viewRepository.reset();
+            FileUtils.deleteQuietly(dir);
+        }
+    }
+
+    private Set<String> getPropertyNames(View view) {
+        return view.getProperties().stream().map(ViewProperty::getName).collect(Collectors.toSet());
+    }
+
     @Test
     public void testDefaultViews() {
         View localView = repository.getView(User.class, View.LOCAL);
@@ -102,4 +149,26 @@ public class ViewRepositoryTest {
 
         assertNotNull(groupView.getProperty("constraints").getView());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testSealedView() {
+        View view = repository.getView(User.class, "test");
+        assertTrue(view.isSealed());
+        assertTrue(view.getProperty("userRoles").getView().isSealed());
+        assertSame(view, repository.getView(User.class, "test"));
+
+        try {
+            view.addProperty("email");
+            fail();
+        } catch (IllegalStateException e) {
+            // ok
+        }
+
+        View copy = View.copy(view);
+        assertFalse(copy.isSealed());
+        copy.addProperty("email");
+        copy.getProperty("userRoles").getView().addProperty("user");
+        assertNull(view.getProperty("email"));
+        assertNull(view.getProperty("userRoles").getView().getProperty("user"));
+    }
+}
@@ -20,6 +20,7 @@ package com.haulmont.cuba.core.sys;
 import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.LoggerContext;
 import com.haulmont.cuba.core.Transaction;
+import com.haulmont.cuba.core.app.ServiceInvocationStatistics;
 import com.haulmont.cuba.core.app.TestingService;
 import com.haulmont.cuba.core.global.AppBeans;
 import com.haulmont.cuba.core.global.RemoteException;
@@ -33,11 +34,12 @@ import org.junit.Test;
 import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.Field;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Locale;
+import java.util.Map;
 
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.*;
 
 public class ServiceInterceptorTest {
 
@@ -125,6 +127,45 @@ public class ServiceInterceptorTest {
         }
     }
 
+    @Test
+    public void testInvocationStatistics() throws Exception {
+        TestingService service = AppBeans.get(TestingService.class);
+        ServiceInvocationStatistics statistics = AppBeans.get(ServiceInvocationStatistics.class);
+        statistics.reset();
+
+        service.declarativeTransaction();
+        service.declarativeTransaction();
+        try {
+            service.executeWithException();
+        } catch (Exception e) {
+            // expected
+        }
+
+        Map<String, ServiceInvocationStatistics.Histogram> histograms = statistics.getHistograms();
+        ServiceInvocationStatistics.Histogram histogram = histograms.values().stream()
+                .filter(h -> h.getMethodName().contains("declarativeTransaction"))
+                .findFirst().orElse(null);
+        assertNotNull(histogram);
+        assertEquals(2, histogram.getCount());
+        assertEquals(0, histogram.getErrors());
+        assertEquals(2, Arrays.stream(histogram.getBucketCounts()).sum());
+
+        histogram = histograms.values().stream()
+                .filter(h -> h.getMethodName().contains("executeWithException"))
+                .findFirst().orElse(null);
+        assertNotNull(histogram);
+        assertEquals(1, histogram.getErrors());
+
+        statistics.setEnabled(false);
+        try {
+            statistics.reset();
+            service.declarativeTransaction();
+            assertTrue(statistics.getHistograms().isEmpty());
+        } finally {
+            statistics.setEnabled(true);
+        }
+    }
+
     @Test
     public void testNewThread() throws Exception {
         ServiceInterceptorTestService service = AppBeans.get(ServiceInterceptorTestService.class);
@@ -27,11 +27,12 @@ import org.junit.ClassRule;
 import org.junit.Test;
 
 import java.io.File;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class DbUpdaterEngineTest {
 
@@ -179,6 +180,55 @@ public class DbUpdaterEngineTest {
         assertEquals(mssql2012UpdateFiles, files);
     }
 
+    @Test
+    public void testGetDependencies() throws Exception {
+        FileUtils.writeStringToFile(new File(dbmsDir, "50-app/update/mssql/14/app-update-0.sql"),
+                "-- Test script\n-- dependsOn: 10-cuba\n\ncreate table TEST_TABLE (ID integer)^", "UTF-8");
+
+        DbUpdaterEngine engine = new DbUpdaterEngine();
+        engine.dbScriptsDirectory = dbmsDir.getAbsolutePath();
+        engine.dbmsType = "mssql";
+
+        List<ScriptResource> scripts = engine.getUpdateScripts();
+        Map<ScriptResource, Set<ScriptResource>> dependencies = engine.getDependencies(scripts);
+
+        assertTrue(dependencies.get(scripts.get(0)).isEmpty());
+        assertEquals(Collections.singleton(scripts.get(0)), dependencies.get(scripts.get(1)));
+        assertEquals(new HashSet<>(scripts.subList(0, 2)), dependencies.get(scripts.get(2)));
+        // scripts without declared dependencies are executed after the scripts of preceding modules
+        assertEquals(new HashSet<>(scripts.subList(1, 3)), dependencies.get(scripts.get(3)));
+
+        // without declaration
+        FileUtils.writeStringToFile(new File(dbmsDir, "50-app/update/mssql/14/app-update-0.sql"),
+                "create table TEST_TABLE (ID integer)^", "UTF-8");
+        dependencies = engine.getDependencies(scripts);
+        assertEquals(Collections.singleton(scripts.get(1)), dependencies.get(scripts.get(2)));
+
+        // independent of other modules
+        FileUtils.writeStringToFile(new File(dbmsDir, "50-app/update/mssql/14/app-update-0.sql"),
+                "-- dependsOn:\ncreate table TEST_TABLE (ID integer)^", "UTF-8");
+        dependencies = engine.getDependencies(scripts);
+        assertTrue(dependencies.get(scripts.get(2)).isEmpty());
+
+        // only pending scripts are passed, executed ones are resolved too
+        dependencies = engine.getDependencies(scripts.subList(2, 4));
+        assertTrue(dependencies.get(scripts.get(2)).isEmpty());
+
+        FileUtils.writeStringToFile(new File(dbmsDir, "50-app/update/mssql/14/app-update-0.sql"),
+                "-- dependsOn: 10-cuba/update/mssql/14/cuba-update-2.sql\ncreate table TEST_TABLE (ID integer)^", "UTF-8");
+        dependencies = engine.getDependencies(scripts.subList(2, 4));
+        assertTrue(dependencies.get(scripts.get(2)).isEmpty());
+
+        FileUtils.writeStringToFile(new File(dbmsDir, "50-app/update/mssql/14/app-update-0.sql"),
+                "-- dependsOn: 20-reports\ncreate table TEST_TABLE (ID integer)^", "UTF-8");
+        try {
+            engine.getDependencies(scripts);
+            fail();
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains("20-reports"));
+        }
+    }
+
     @Test
     public void testGetModules() throws Exception {
         DbUpdaterEngine engine = new DbUpdaterEngine();
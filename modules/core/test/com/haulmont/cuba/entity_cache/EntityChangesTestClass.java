@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2008-2016 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.haulmont.cuba.entity_cache;
+
+import com.haulmont.cuba.core.Transaction;
+import com.haulmont.cuba.core.app.EntityChangesService;
+import com.haulmont.cuba.core.global.AppBeans;
+import com.haulmont.cuba.security.entity.Group;
+import com.haulmont.cuba.testsupport.TestContainer;
+import org.junit.After;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class EntityChangesTestClass {
+
+    @ClassRule
+    public static TestContainer cont = EntityCacheTestSuite.cont;
+
+    private Group group;
+
+    @After
+    public void tearDown() throws Exception {
+        if (group != null)
+            cont.deleteRecord(group);
+    }
+
+    @Test
+    public void testChangeTimestamps() throws Exception {
+        EntityChangesService service = AppBeans.get(EntityChangesService.NAME);
+
+        Set<String> cacheableEntities = service.getCacheableEntities();
+        assertTrue(cacheableEntities.contains("sec$Group"));
+        assertFalse(cacheableEntities.contains("sec$UserSubstitution"));
+
+        Map<String, Long> before = service.getChangeTimestamps();
+
+        try (Transaction tx = cont.persistence().createTransaction()) {
+            group = cont.metadata().create(Group.class);
+            group.setName("group-" + group.getId());
+            cont.entityManager().persist(group);
+            tx.commit();
+        }
+
+        Map<String, Long> afterCreate = service.getChangeTimestamps();
+        assertNotNull(afterCreate.get("sec$Group"));
+        assertEquals(before.get("sec$UserSubstitution"), afterCreate.get("sec$UserSubstitution"));
+
+        // transaction without changes does not register anything
+        try (Transaction tx = cont.persistence().createTransaction()) {
+            cont.entityManager().find(Group.class, group.getId());
+            tx.commit();
+        }
+        assertEquals(afterCreate, service.getChangeTimestamps());
+
+        // changes committed within the same millisecond must produce different stamps
+        try (Transaction tx = cont.persistence().createTransaction()) {
+            Group g = cont.entityManager().find(Group.class, group.getId());
+            g.setName("changed-" + group.getId());
+            tx.commit();
+        }
+        assertNotEquals(afterCreate.get("sec$Group"), service.getChangeTimestamps().get("sec$Group"));
+        assertNull(service.getChangeTimestamps().get("sec$UserSubstitution"));
+    }
+
+    @Test
+    public void testBulkUpdate() throws Exception {
+        EntityChangesService service = AppBeans.get(EntityChangesService.NAME);
+
+        try (Transaction tx = cont.persistence().createTransaction()) {
+            group = cont.metadata().create(Group.class);
+            group.setName("group-" + group.getId());
+            cont.entityManager().persist(group);
+            tx.commit();
+        }
+        Map<String, Long> before = service.getChangeTimestamps();
+
+        try (Transaction tx = cont.persistence().createTransaction()) {
+            cont.entityManager().createQuery("update sec$Group g set g.name = :name where g.id = :id")
+                    .setParameter("name", "updated-" + group.getId())
+                    .setParameter("id", group.getId())
+                    .executeUpdate();
+            tx.commit();
+        }
+        Map<String, Long> afterJpql = service.getChangeTimestamps();
+        assertNotEquals(before.get("sec$Group"), afterJpql.get("sec$Group"));
+
+        // the changed tables of a native update are unknown, so all cacheable entities are considered changed
+        try (Transaction tx = cont.persistence().createTransaction()) {
+            cont.entityManager().createNativeQuery("update SEC_GROUP set NAME = ? where NAME = ?")
+                    .setParameter(1, "native-" + group.getId())
+                    .setParameter(2, "updated-" + group.getId())
+                    .executeUpdate();
+            tx.commit();
+        }
+        assertNotEquals(afterJpql.get("sec$Group"), service.getChangeTimestamps().get("sec$Group"));
+
+        // nothing is registered if the transaction is rolled back
+        Map<String, Long> afterNative = service.getChangeTimestamps();
+        try (Transaction tx = cont.persistence().createTransaction()) {
+            cont.entityManager().createQuery("update sec$Group g set g.name = :name where g.id = :id")
+                    .setParameter("name", "rolled-back-" + group.getId())
+                    .setParameter("id", group.getId())
+                    .executeUpdate();
+        }
+        assertEquals(afterNative, service.getChangeTimestamps());
+    }
+}
@@ -29,8 +29,14 @@ import org.junit.Before;
 import org.junit.ClassRule;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 public class UserSettingServiceTest {
 
@@ -79,4 +85,25 @@ public class UserSettingServiceTest {
         val = uss.loadSetting(ClientType.WEB, "test-setting");
         assertEquals("test-value", val);
     }
+
+    @Test
+    public void testBatch() {
+        uss.saveSetting(ClientType.WEB, "test-setting-1", "value-1");
+        uss.saveSetting(ClientType.WEB, "test-setting-2", "value-2");
+
+        Map<String, String> changes = new HashMap<>();
+        changes.put("test-setting-1", "value-1-changed");
+        changes.put("test-setting-2", null);
+        changes.put("test-setting-3", "value-3");
+        uss.saveSettings(ClientType.WEB, changes);
+
+        Map<String, String> settings = uss.loadSettings(ClientType.WEB,
+                Arrays.asList("test-setting-1", "test-setting-2", "test-setting-3", "test-setting-4"));
+        assertEquals(2, settings.size());
+        assertEquals("value-1-changed", settings.get("test-setting-1"));
+        assertEquals("value-3", settings.get("test-setting-3"));
+
+        assertNull(uss.loadSetting(ClientType.WEB, "test-setting-2"));
+        assertTrue(uss.loadSettings(ClientType.DESKTOP, Collections.singletonList("test-setting-1")).isEmpty());
+    }
 }
@@ -24,6 +24,7 @@ import org.springframework.mail.MailSendException;
 
 import javax.mail.internet.MimeMessage;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -57,6 +58,14 @@ public class TestMailSender extends CubaMailSender {
         myMessages.add(mimeMessage);
     }
 
+    @Override
+    public void send(MimeMessage... mimeMessages) throws MailException {
+        if (mustFail) {
+            throw new MailSendException("Smtp server not available");
+        }
+        Collections.addAll(myMessages, mimeMessages);
+    }
+
     public boolean isEmpty() {
         return myMessages.isEmpty();
     }
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2008-2016 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.haulmont.cuba.core.app;
+
+import javax.annotation.Nullable;
+
+/**
+ * Long-polling channel notifying client tiers about changes of config properties, dynamic attribute categories and
+ * cacheable entities, so client-side caches can be refreshed without periodic polling.
+ */
+public interface CacheInvalidationService {
+
+    String NAME = "cuba_CacheInvalidationService";
+
+    /**
+     * Returns changes registered after the given sequence number. If there are no such changes, waits for them
+     * up to the given timeout and returns an empty result if nothing has changed.
+     *
+     * @param nodeId    node identifier returned by the previous invocation, or null on the first invocation
+     * @param sequence  sequence number returned by the previous invocation
+     * @param timeoutMs maximum time to wait for changes. The middleware can limit it by its own maximum.
+     * @return changes after the given sequence number. The result requires clients to refresh all caches if
+     * the node id does not match or the changes are not available anymore.
+     */
+    CacheInvalidations awaitInvalidations(@Nullable String nodeId, long sequence, long timeoutMs);
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2008-2016 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.haulmont.cuba.core.app;
+
+import javax.annotation.Nullable;
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Changes of middleware caches to be applied by client-side caches, returned by {@link CacheInvalidationService}.
+ * <p>A null set of config names or categories means that all of them could have changed. If {@link #isReset()}
+ * is true, the middleware does not know what has changed since the previous request, so clients must refresh
+ * all their caches.
+ */
+public class CacheInvalidations implements Serializable {
+
+    private static final long serialVersionUID = 8375364290137553713L;
+
+    protected final String nodeId;
+    protected final long sequence;
+    protected final boolean reset;
+    protected final Set<String> configNames;
+    protected final Set<UUID> categoryIds;
+    protected final Set<String> entityNames;
+    protected final Set<String> uniqueNumbersDomains;
+
+    public CacheInvalidations(String nodeId, long sequence, boolean reset,
+                              @Nullable Set<String> configNames, @Nullable Set<UUID> categoryIds,
+                              Set<String> entityNames, Set<String> uniqueNumbersDomains) {
+        this.nodeId = nodeId;
+        this.sequence = sequence;
+        this.reset = reset;
+        this.configNames = configNames;
+        this.categoryIds = categoryIds;
+        this.entityNames = entityNames;
+        this.uniqueNumbersDomains = uniqueNumbersDomains;
+    }
+
+    /**
+     * @return identifier of the middleware block which returned the changes. Sequence numbers are valid only for
+     * the same block.
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * @return sequence number to be passed to the next request
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return true if clients must refresh all their caches
+     */
+    public boolean isReset() {
+        return reset;
+    }
+
+    /**
+     * @return names of changed config properties stored in the database, or null if all of them could have changed
+     */
+    @Nullable
+    public Set<String> getConfigNames() {
+        return configNames;
+    }
+
+    /**
+     * @return ids of changed dynamic attribute categories, or null if all of them could have changed
+     */
+    @Nullable
+    public Set<UUID> getCategoryIds() {
+        return categoryIds;
+    }
+
+    /**
+     * @return names of changed cacheable entities
+     */
+    public Set<String> getEntityNames() {
+        return entityNames;
+    }
+
+    /**
+     * @return domains of unique numbers whose leases must be discarded
+     */
+    public Set<String> getUniqueNumbersDomains() {
+        return uniqueNumbersDomains;
+    }
+
+    public boolean isConfigChanged() {
+        return reset || configNames == null || !configNames.isEmpty();
+    }
+
+    public boolean isCategoriesChanged() {
+        return reset || categoryIds == null || !categoryIds.isEmpty();
+    }
+
+    public static CacheInvalidations reset(String nodeId, long sequence) {
+        return new CacheInvalidations(nodeId, sequence, true, null, null, Collections.emptySet(),
+                Collections.emptySet());
+    }
+
+    @Override
+    public String toString() {
+        return "CacheInvalidations{node=" + nodeId + ", sequence=" + sequence + ", reset=" + reset
+                + ", config=" + (configNames == null ? "all" : configNames)
+                + ", categories=" + (categoryIds == null ? "all" : categoryIds)
+                + ", entities=" + entityNames + ", uniqueNumbers=" + uniqueNumbersDomains + "}";
+    }
+}
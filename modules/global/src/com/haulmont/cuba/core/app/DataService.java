@@ -18,6 +18,7 @@ package com.haulmont.cuba.core.app;
 
 import com.haulmont.cuba.core.entity.Entity;
 import com.haulmont.cuba.core.entity.KeyValueEntity;
+import com.haulmont.cuba.core.global.BatchLoadResult;
 import com.haulmont.cuba.core.global.CommitContext;
 import com.haulmont.cuba.core.global.LoadContext;
 import com.haulmont.cuba.core.global.ValueLoadContext;
@@ -61,6 +62,15 @@ public interface DataService {
      */
     <E extends Entity> List<E> loadList(LoadContext<E> context);
 
+    /**
+     * Loads collections of entity instances for several {@link LoadContext}s in a single invocation.
+     * <p>An exception thrown for one of the contexts does not affect others and is returned
+     * in the corresponding {@link BatchLoadResult}.</p>
+     * @param contexts  list of {@link LoadContext} objects, defining what and how to load
+     * @return          list of results in the order of the passed contexts
+     */
+    List<BatchLoadResult<?>> loadBatch(List<? extends LoadContext<?>> contexts);
+
     /**
      * Returns the number of entity instances for the given query passed in the {@link LoadContext}.
      * @param context   defines the query
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2008-2016 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.haulmont.cuba.core.app;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Provides information about committed changes of entities to client-side caches.
+ *
+ * @see com.haulmont.cuba.core.sys.entitycache.EntityChangesTracker
+ */
+public interface EntityChangesService {
+
+    String NAME = "cuba_EntityChangesService";
+
+    /**
+     * @return names of entities marked as cacheable on the middleware
+     */
+    Set<String> getCacheableEntities();
+
+    /**
+     * Returns a stamp of the last committed change for each entity that has been changed since the middleware started.
+     * A stamp is close to the time of the change and differs for each change. The values are valid only for comparison
+     * with results of the previous invocations of this method on the same middleware block.
+     *
+     * @return map of entity name to the stamp of the last change
+     */
+    Map<String, Long> getChangeTimestamps();
+}
@@ -18,6 +18,7 @@
 package com.haulmont.cuba.core.app;
 
 import java.util.Locale;
+import java.util.Map;
 
 /**
  * Service allowing clients to retrieve localized messages from the middleware.
@@ -28,4 +29,19 @@ public interface LocalizedMessageService {
     String NAME = "cuba_LocalizedMessageService";
 
     String getMessage(String pack, String key, Locale locale);
+
+    /**
+     * Returns all messages of a pack including messages inherited from parent packs and includes.
+     *
+     * @param pack      message pack
+     * @param locale    locale
+     * @return map of message keys to localized messages
+     */
+    Map<String, String> getMessages(String pack, Locale locale);
+
+    /**
+     * @return version of middleware messages. It changes when the messages cache is cleared, so clients can
+     * revalidate their caches by comparing versions.
+     */
+    long getMessagesVersion();
 }
\ No newline at end of file
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2008-2016 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.haulmont.cuba.core.app;
+
+import java.io.Serializable;
+
+/**
+ * Range of unique numbers reserved by a node or a client for a domain working in leased mode.
+ *
+ * @see UniqueNumbersService#leaseNumbers(String)
+ */
+public class UniqueNumbersLease implements Serializable {
+
+    private static final long serialVersionUID = -3218455392571394581L;
+
+    private final long first;
+
+    private final long last;
+
+    public UniqueNumbersLease(long first, long last) {
+        this.first = first;
+        this.last = last;
+    }
+
+    /**
+     * @return the first number of the range
+     */
+    public long getFirst() {
+        return first;
+    }
+
+    /**
+     * @return the last number of the range, inclusive
+     */
+    public long getLast() {
+        return last;
+    }
+
+    @Override
+    public String toString() {
+        return "UniqueNumbersLease{" + first + ".." + last + "}";
+    }
+}
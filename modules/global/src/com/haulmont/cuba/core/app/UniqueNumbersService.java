@@ -31,4 +31,14 @@ public interface UniqueNumbersService {
      * @return          next value
      */
     long getNextNumber(String domain);
+
+    /**
+     * Reserves a range of numbers for a domain working in leased mode on the middleware. The numbers can be handed out
+     * by the caller without further invocations of the service.
+     *
+     * @param domain    sequence identifier
+     * @return          reserved range of numbers
+     * @throws IllegalStateException if the domain is not configured to work in leased mode
+     */
+    UniqueNumbersLease leaseNumbers(String domain);
 }
@@ -18,7 +18,9 @@
 package com.haulmont.cuba.core.app.dynamicattributes;
 
 import javax.annotation.Nullable;
+import java.util.Collection;
 import java.util.Date;
+import java.util.UUID;
 
 public interface DynamicAttributesCacheService {
     String NAME = "cuba_DynamicAttributesCacheService";
@@ -28,6 +30,11 @@ public interface DynamicAttributesCacheService {
      */
     void loadCache();
 
+    /**
+     * Reload only the given categories in the dynamic attributes cache
+     */
+    void reloadCategories(Collection<UUID> categoryIds);
+
     @Nullable
     DynamicAttributesCache getCacheIfNewer(Date clientCacheDate);
 }
\ No newline at end of file
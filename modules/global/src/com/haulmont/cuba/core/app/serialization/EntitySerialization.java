@@ -17,8 +17,11 @@
 
 package com.haulmont.cuba.core.app.serialization;
 
+import com.haulmont.bali.util.Preconditions;
 import com.google.gson.*;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import com.haulmont.chile.core.datatypes.Datatype;
 import com.haulmont.chile.core.datatypes.Datatypes;
 import com.haulmont.chile.core.model.MetaClass;
@@ -38,12 +41,17 @@ import org.springframework.stereotype.Component;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.validation.constraints.NotNull;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Type;
 import java.text.ParseException;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 @Component(EntitySerializationAPI.NAME)
 public class EntitySerialization implements EntitySerializationAPI {
@@ -62,21 +70,39 @@ public class EntitySerialization implements EntitySerializationAPI {
     @Inject
     protected DynamicAttributes dynamicAttributes;
 
-    protected ThreadLocal<EntitySerializationContext> context = new ThreadLocal<EntitySerializationContext>() {
-        @Override
-        protected EntitySerializationContext initialValue() {
-            return new EntitySerializationContext();
-        }
-    };
+    protected Map<MetaClass, MetaClassInfo> metaClassInfos = new ConcurrentHashMap<>();
 
     /**
-     * Class is used for storing a collection of entities already processed during the serialization.
+     * Metadata of an entity class that is needed for serialization and deserialization. It is computed once per
+     * MetaClass and cached, so that properties and fields are not resolved for every serialized instance.
      */
-    protected class EntitySerializationContext {
-        protected Map<Object, Entity> processedEntities = new HashMap<>();
+    protected static class MetaClassInfo {
+        protected final boolean embeddable;
+        protected final MetaProperty primaryKeyProperty;
+        protected final List<PropertyInfo> properties;
+        protected final List<Field> fields;
+
+        public MetaClassInfo(boolean embeddable, @Nullable MetaProperty primaryKeyProperty,
+                             List<PropertyInfo> properties, List<Field> fields) {
+            this.embeddable = embeddable;
+            this.primaryKeyProperty = primaryKeyProperty;
+            this.properties = properties;
+            this.fields = fields;
+        }
+    }
 
-        protected Map<Object, Entity> getProcessedEntities() {
-            return processedEntities;
+    /**
+     * Property of an entity class with the attributes that are checked for each serialized value.
+     */
+    protected static class PropertyInfo {
+        protected final MetaProperty metaProperty;
+        protected final String name;
+        protected final boolean persistent;
+
+        public PropertyInfo(MetaProperty metaProperty, boolean persistent) {
+            this.metaProperty = metaProperty;
+            this.name = metaProperty.getName();
+            this.persistent = persistent;
         }
     }
 
@@ -89,8 +115,15 @@ public class EntitySerialization implements EntitySerializationAPI {
     public String toJson(Entity entity,
                          @Nullable View view,
                          EntitySerializationOption... options) {
-        context.remove();
-        return createGsonForSerialization(view, options).toJson(entity);
+        StringWriter writer = new StringWriter();
+        try {
+            JsonWriter jsonWriter = createJsonWriter(writer, options);
+            new EntitySerializer(view, options).write(jsonWriter, entity);
+            jsonWriter.flush();
+        } catch (IOException e) {
+            throw new EntitySerializationException("Error writing entity to JSON", e);
+        }
+        return writer.toString();
     }
 
     @Override
@@ -102,15 +135,47 @@ public class EntitySerialization implements EntitySerializationAPI {
     public String toJson(Collection<? extends Entity> entities,
                          @Nullable View view,
                          EntitySerializationOption... options) {
-        context.remove();
-        return createGsonForSerialization(view, options).toJson(entities);
+        StringWriter writer = new StringWriter();
+        try {
+            JsonWriter jsonWriter = createJsonWriter(writer, options);
+            if (entities == null) {
+                jsonWriter.nullValue();
+            } else {
+                new EntitySerializer(view, options).writeArray(jsonWriter, entities);
+            }
+            jsonWriter.flush();
+        } catch (IOException e) {
+            throw new EntitySerializationException("Error writing entities to JSON", e);
+        }
+        return writer.toString();
+    }
+
+    @Override
+    public void writeJson(Iterable<? extends Entity> entities,
+                          @Nullable View view,
+                          Writer writer,
+                          EntitySerializationOption... options) {
+        try {
+            JsonWriter jsonWriter = createJsonWriter(writer, options);
+            EntitySerializer serializer = new EntitySerializer(view, options);
+            jsonWriter.beginArray();
+            for (Entity entity : entities) {
+                serializer.write(jsonWriter, entity);
+                // repeated entities are compacted only within the graph of one root entity, so that a reader
+                // can resolve them without keeping the entities read before
+                serializer.serializedIds.clear();
+            }
+            jsonWriter.endArray();
+            jsonWriter.flush();
+        } catch (IOException e) {
+            throw new EntitySerializationException("Error writing entities to JSON", e);
+        }
     }
 
     @Override
     public Entity entityFromJson(String json,
                                  @Nullable MetaClass metaClass,
                                  EntitySerializationOption... options) {
-        context.remove();
         return createGsonForDeserialization(metaClass, options).fromJson(json, Entity.class);
     }
 
@@ -118,25 +183,65 @@ public class EntitySerialization implements EntitySerializationAPI {
     public <T extends Entity> Collection<T> entitiesCollectionFromJson(String json,
                                                                        @Nullable MetaClass metaClass,
                                                                        EntitySerializationOption... options) {
-        context.remove();
         Type collectionType = new TypeToken<Collection<Entity>>(){}.getType();
         return createGsonForDeserialization(metaClass, options).fromJson(json, collectionType);
     }
 
-    protected Gson createGsonForSerialization(@Nullable View view, EntitySerializationOption... options) {
-        GsonBuilder gsonBuilder = new GsonBuilder();
-        gsonBuilder
-                .registerTypeHierarchyAdapter(Entity.class, new EntitySerializer(view, options))
-                .create();
-        if (ArrayUtils.contains(options, EntitySerializationOption.SERIALIZE_NULLS)) {
-            gsonBuilder.serializeNulls();
+    @Override
+    public int readJson(Reader reader,
+                        @Nullable MetaClass metaClass,
+                        int batchSize,
+                        Consumer<List<Entity>> consumer,
+                        EntitySerializationOption... options) {
+        Preconditions.checkNotNullArgument(consumer, "consumer is null");
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive");
         }
-        return gsonBuilder.create();
+        try {
+            EntityDeserializer deserializer = new EntityDeserializer(metaClass, options);
+            Gson gson = createGsonForDeserialization(deserializer);
+            JsonReader jsonReader = new JsonReader(reader);
+            int count = 0;
+            List<Entity> batch = new ArrayList<>(batchSize);
+            jsonReader.beginArray();
+            while (jsonReader.hasNext()) {
+                Entity entity = gson.fromJson(jsonReader, Entity.class);
+                batch.add(entity);
+                count++;
+                if (batch.size() >= batchSize) {
+                    consumer.accept(batch);
+                    batch = new ArrayList<>(batchSize);
+                    deserializer.processedEntities.clear();
+                }
+            }
+            jsonReader.endArray();
+            if (!batch.isEmpty()) {
+                consumer.accept(batch);
+            }
+            return count;
+        } catch (IOException e) {
+            throw new EntitySerializationException("Error reading entities from JSON", e);
+        }
+    }
+
+    /**
+     * Creates a writer with the settings Gson applies by default, so the output is the same as of {@link Gson#toJson}.
+     */
+    protected JsonWriter createJsonWriter(Writer writer, EntitySerializationOption... options) {
+        JsonWriter jsonWriter = new JsonWriter(writer);
+        jsonWriter.setLenient(true);
+        jsonWriter.setHtmlSafe(true);
+        jsonWriter.setSerializeNulls(ArrayUtils.contains(options, EntitySerializationOption.SERIALIZE_NULLS));
+        return jsonWriter;
     }
 
     protected Gson createGsonForDeserialization(@Nullable MetaClass metaClass, EntitySerializationOption... options) {
+        return createGsonForDeserialization(new EntityDeserializer(metaClass, options));
+    }
+
+    protected Gson createGsonForDeserialization(EntityDeserializer deserializer) {
         return new GsonBuilder()
-                .registerTypeHierarchyAdapter(Entity.class, new EntityDeserializer(metaClass, options))
+                .registerTypeHierarchyAdapter(Entity.class, deserializer)
                 .create();
     }
 
@@ -158,12 +263,41 @@ public class EntitySerialization implements EntitySerializationAPI {
         }
     }
 
-    protected class EntitySerializer implements JsonSerializer<Entity> {
+    protected MetaClassInfo getMetaClassInfo(MetaClass metaClass) {
+        return metaClassInfos.computeIfAbsent(metaClass, this::createMetaClassInfo);
+    }
+
+    protected MetaClassInfo createMetaClassInfo(MetaClass metaClass) {
+        boolean embeddable = metadataTools.isEmbeddable(metaClass);
+        MetaProperty primaryKeyProperty = AbstractNotPersistentEntity.class.isAssignableFrom(metaClass.getJavaClass()) ?
+                metaClass.getProperty("id") :
+                metadataTools.getPrimaryKeyProperty(metaClass);
+
+        List<PropertyInfo> properties = new ArrayList<>();
+        List<Field> fields = new ArrayList<>();
+        for (MetaProperty metaProperty : metaClass.getProperties()) {
+            if ("id".equals(metaProperty.getName())) continue;
+            properties.add(new PropertyInfo(metaProperty, metadataTools.isPersistent(metaProperty)));
+            Field field = getField(metaClass.getJavaClass(), metaProperty.getName());
+            if (field != null) {
+                makeFieldAccessible(field);
+                fields.add(field);
+            }
+        }
+        return new MetaClassInfo(embeddable, primaryKeyProperty, properties, fields);
+    }
+
+    /**
+     * Writes entities directly to a {@link JsonWriter} without building an intermediate JSON tree.
+     * An instance is created for each serialization call and keeps the entities written in it.
+     */
+    protected class EntitySerializer {
 
         protected boolean complexIdFormat;
         protected boolean compactRepeatedEntities = false;
         protected boolean serializeInstanceName;
         protected View view;
+        protected Set<Object> serializedIds = new HashSet<>();
 
         public EntitySerializer(@Nullable View view, EntitySerializationOption... options) {
             this.view = view;
@@ -179,146 +313,158 @@ public class EntitySerialization implements EntitySerializationAPI {
             }
         }
 
-        @Override
-        public JsonElement serialize(Entity entity, Type typeOfSrc, JsonSerializationContext context) {
-            return serializeEntity(entity, view, new HashSet<>());
+        public void write(JsonWriter out, @Nullable Entity entity) throws IOException {
+            if (entity == null) {
+                out.nullValue();
+                return;
+            }
+            writeEntity(out, entity, view, new HashSet<>());
         }
 
-        protected JsonObject serializeEntity(Entity entity, @Nullable View view, Set<Entity> cyclicReferences) {
-            JsonObject jsonObject = new JsonObject();
+        public void writeArray(JsonWriter out, Iterable<? extends Entity> entities) throws IOException {
+            out.beginArray();
+            for (Entity entity : entities) {
+                write(out, entity);
+            }
+            out.endArray();
+        }
+
+        protected void writeEntity(JsonWriter out, Entity entity, @Nullable View view, Set<Entity> cyclicReferences)
+                throws IOException {
             MetaClass metaClass = entity.getMetaClass();
-            if (!metadataTools.isEmbeddable(metaClass)) {
+            MetaClassInfo metaClassInfo = getMetaClassInfo(metaClass);
+            out.beginObject();
+            if (!metaClassInfo.embeddable) {
                 if (!complexIdFormat) {
-                    jsonObject.addProperty(ENTITY_NAME_PROP, metaClass.getName());
+                    out.name(ENTITY_NAME_PROP).value(metaClass.getName());
                 }
                 if (serializeInstanceName) {
                     String instanceName = null;
                     try {
                         instanceName = entity.getInstanceName();
                     } catch (Exception ignored) {}
-                    jsonObject.addProperty(INSTANCE_NAME_PROP, instanceName);
+                    out.name(INSTANCE_NAME_PROP).value(instanceName);
                 }
-                writeIdField(entity, jsonObject);
+                writeIdField(out, entity, metaClassInfo);
                 if (compactRepeatedEntities) {
-                    Map<Object, Entity> processedObjects = context.get().getProcessedEntities();
-                    if (!processedObjects.containsKey(entity.getId())) {
-                        processedObjects.put(entity.getId(), entity);
-                        writeFields(entity, jsonObject, view, cyclicReferences);
+                    if (serializedIds.add(entity.getId())) {
+                        writeFields(out, entity, metaClassInfo, view, cyclicReferences);
                     }
                 } else {
                     if (!cyclicReferences.contains(entity)) {
                         cyclicReferences.add(entity);
-                        writeFields(entity, jsonObject, view, cyclicReferences);
+                        writeFields(out, entity, metaClassInfo, view, cyclicReferences);
                     }
                 }
             } else {
-                writeFields(entity, jsonObject, view, cyclicReferences);
+                writeFields(out, entity, metaClassInfo, view, cyclicReferences);
             }
 
             if (entity instanceof BaseGenericIdEntity) {
                 byte[] securityToken = BaseEntityInternalAccess.getSecurityToken((BaseGenericIdEntity) entity);
                 if (securityToken != null) {
-                    jsonObject.addProperty("__securityToken", Base64.getEncoder().encodeToString(securityToken));
+                    out.name("__securityToken").value(Base64.getEncoder().encodeToString(securityToken));
                 }
             }
-
-            return jsonObject;
+            out.endObject();
         }
 
-        protected void writeIdField(Entity entity, JsonObject jsonObject) {
-            MetaProperty primaryKeyProperty = entity instanceof AbstractNotPersistentEntity ?
-                    entity.getMetaClass().getProperty("id") :
-                    metadataTools.getPrimaryKeyProperty(entity.getMetaClass());
+        protected void writeIdField(JsonWriter out, Entity entity, MetaClassInfo metaClassInfo) throws IOException {
+            MetaProperty primaryKeyProperty = metaClassInfo.primaryKeyProperty;
             if (primaryKeyProperty == null)
                 throw new EntitySerializationException("Primary key property not found for entity " + entity.getMetaClass());
             Datatype idDatatype = Datatypes.getNN(primaryKeyProperty.getJavaType());
             String idValue = complexIdFormat ? entity.getMetaClass().getName() + "-" + idDatatype.format(entity.getId()) : idDatatype.format(entity.getId());
-            jsonObject.addProperty("id", idValue);
+            out.name("id").value(idValue);
         }
 
-        protected boolean propertyWritingAllowed(MetaProperty metaProperty, Entity entity) {
-            return !"id".equals(metaProperty.getName()) &&
-                    (DynamicAttributesUtils.isDynamicAttribute(metaProperty) ||
-                            (entity instanceof AbstractNotPersistentEntity) ||
-                            !metadataTools.isPersistent(metaProperty) ||
-                            (metadataTools.isPersistent(metaProperty) && PersistenceHelper.isLoaded(entity, metaProperty.getName())));
+        protected boolean propertyWritingAllowed(PropertyInfo propertyInfo, Entity entity) {
+            return (entity instanceof AbstractNotPersistentEntity) ||
+                    !propertyInfo.persistent ||
+                    PersistenceHelper.isLoaded(entity, propertyInfo.name);
         }
 
-        protected void writeFields(Entity entity, JsonObject jsonObject, @Nullable View view, Set<Entity> cyclicReferences) {
-            Collection<MetaProperty> properties = new ArrayList<>(entity.getMetaClass().getProperties());
-            if (entity instanceof BaseGenericIdEntity && ((BaseGenericIdEntity) entity).getDynamicAttributes() != null) {
-                List<MetaProperty> dynamicProperties = dynamicAttributes.getAttributesForMetaClass(entity.getMetaClass()).stream()
-                        .map(categoryAttribute -> DynamicAttributesUtils.getMetaPropertyPath(entity.getMetaClass(), categoryAttribute).getMetaProperty())
-                        .collect(Collectors.toList());
-                properties.addAll(dynamicProperties);
-            }
-            for (MetaProperty metaProperty : properties) {
-                if (propertyWritingAllowed(metaProperty, entity)) {
+        protected void writeFields(JsonWriter out, Entity entity, MetaClassInfo metaClassInfo, @Nullable View view,
+                                   Set<Entity> cyclicReferences) throws IOException {
+            for (PropertyInfo propertyInfo : metaClassInfo.properties) {
+                if (propertyWritingAllowed(propertyInfo, entity)) {
                     ViewProperty viewProperty = null;
-                    if (!DynamicAttributesUtils.isDynamicAttribute(metaProperty)) {
-                        if (view != null) {
-                            viewProperty = view.getProperty(metaProperty.getName());
-                            if (viewProperty == null) continue;
-                        }
-
-                        if (!PersistenceHelper.isNew(entity)
-                                && !PersistenceHelper.isLoaded(entity, metaProperty.getName())) {
-                            continue;
-                        }
+                    if (view != null) {
+                        viewProperty = view.getProperty(propertyInfo.name);
+                        if (viewProperty == null) continue;
                     }
 
-                    Object fieldValue = entity.getValue(metaProperty.getName());
-
-                    //always write nulls here. GSON will not serialize them to the result if
-                    //EntitySerializationOptions.SERIALIZE_NULLS was not set.
-                    if (fieldValue == null) {
-                        jsonObject.add(metaProperty.getName(), null);
+                    if (!PersistenceHelper.isNew(entity)
+                            && !PersistenceHelper.isLoaded(entity, propertyInfo.name)) {
                         continue;
                     }
 
-                    Range propertyRange = metaProperty.getRange();
-                    if (propertyRange.isDatatype()) {
-                        writeSimpleProperty(jsonObject, fieldValue, metaProperty);
-                    } else if (propertyRange.isEnum()) {
-                        jsonObject.addProperty(metaProperty.getName(), fieldValue.toString());
-                    } else if (propertyRange.isClass()) {
-                        if (fieldValue instanceof Entity) {
-                            JsonObject propertyJsonObject = serializeEntity((Entity) fieldValue,
-                                    viewProperty != null ? viewProperty.getView() : null,
-                                    new HashSet<>(cyclicReferences));
-                            jsonObject.add(metaProperty.getName(), propertyJsonObject);
-                        } else if (fieldValue instanceof Collection) {
-                            JsonArray jsonArray = serializeCollection((Collection) fieldValue,
-                                    viewProperty != null ? viewProperty.getView() : null,
-                                    new HashSet<>(cyclicReferences));
-                            jsonObject.add(metaProperty.getName(), jsonArray);
-                        }
+                    writeProperty(out, entity, propertyInfo.metaProperty, viewProperty, cyclicReferences);
+                }
+            }
+
+            if (entity instanceof BaseGenericIdEntity && ((BaseGenericIdEntity) entity).getDynamicAttributes() != null) {
+                for (CategoryAttribute categoryAttribute : dynamicAttributes.getAttributesForMetaClass(entity.getMetaClass())) {
+                    MetaProperty metaProperty = DynamicAttributesUtils.getMetaPropertyPath(entity.getMetaClass(), categoryAttribute).getMetaProperty();
+                    if (!"id".equals(metaProperty.getName())) {
+                        writeProperty(out, entity, metaProperty, null, cyclicReferences);
                     }
                 }
             }
         }
 
-        protected void writeSimpleProperty(JsonObject jsonObject, @NotNull Object fieldValue, MetaProperty property) {
-            String propertyName = property.getName();
+        protected void writeProperty(JsonWriter out, Entity entity, MetaProperty metaProperty,
+                                     @Nullable ViewProperty viewProperty, Set<Entity> cyclicReferences) throws IOException {
+            Object fieldValue = entity.getValue(metaProperty.getName());
+
+            //always write nulls here. JsonWriter will skip them if
+            //EntitySerializationOptions.SERIALIZE_NULLS was not set.
+            if (fieldValue == null) {
+                out.name(metaProperty.getName()).nullValue();
+                return;
+            }
+
+            Range propertyRange = metaProperty.getRange();
+            if (propertyRange.isDatatype()) {
+                writeSimpleProperty(out, fieldValue, metaProperty);
+            } else if (propertyRange.isEnum()) {
+                out.name(metaProperty.getName()).value(fieldValue.toString());
+            } else if (propertyRange.isClass()) {
+                if (fieldValue instanceof Entity) {
+                    out.name(metaProperty.getName());
+                    writeEntity(out, (Entity) fieldValue,
+                            viewProperty != null ? viewProperty.getView() : null,
+                            new HashSet<>(cyclicReferences));
+                } else if (fieldValue instanceof Collection) {
+                    out.name(metaProperty.getName());
+                    writeCollection(out, (Collection) fieldValue,
+                            viewProperty != null ? viewProperty.getView() : null,
+                            new HashSet<>(cyclicReferences));
+                }
+            }
+        }
+
+        protected void writeSimpleProperty(JsonWriter out, @NotNull Object fieldValue, MetaProperty property) throws IOException {
+            out.name(property.getName());
             if (fieldValue instanceof Number) {
-                jsonObject.addProperty(propertyName, (Number) fieldValue);
+                out.value((Number) fieldValue);
             } else if (fieldValue instanceof Boolean) {
-                jsonObject.addProperty(propertyName, (Boolean) fieldValue);
+                out.value(((Boolean) fieldValue).booleanValue());
             } else {
                 Datatype datatype = property.getRange().asDatatype();
-                jsonObject.addProperty(propertyName, datatype.format(fieldValue));
+                out.value(datatype.format(fieldValue));
             }
         }
 
-        protected JsonArray serializeCollection(Collection value, @Nullable View view, Set<Entity> cyclicReferences) {
-            JsonArray jsonArray = new JsonArray();
-            value.stream()
-                    .filter(e -> e instanceof Entity)
-                    .forEach(e -> {
-                        JsonObject jsonObject = serializeEntity((Entity) e, view, cyclicReferences);
-                        jsonArray.add(jsonObject);
-                    });
-            return jsonArray;
+        protected void writeCollection(JsonWriter out, Collection value, @Nullable View view, Set<Entity> cyclicReferences)
+                throws IOException {
+            out.beginArray();
+            for (Object item : value) {
+                if (item instanceof Entity) {
+                    writeEntity(out, (Entity) item, view, cyclicReferences);
+                }
+            }
+            out.endArray();
         }
     }
 
@@ -326,6 +472,7 @@ public class EntitySerialization implements EntitySerializationAPI {
 
         protected boolean complexIdFormat = false;
         protected MetaClass metaClass;
+        protected Map<Object, Entity> processedEntities = new HashMap<>();
 
         public EntityDeserializer(MetaClass metaClass, EntitySerializationOption... options) {
             this.metaClass = metaClass;
@@ -404,7 +551,6 @@ public class EntitySerialization implements EntitySerializationAPI {
                 }
             }
 
-            Map<Object, Entity> processedEntities = context.get().getProcessedEntities();
             Entity processedEntity = processedEntities.get(entity.getId());
             if (processedEntity != null) {
                 entity = processedEntity;
@@ -424,8 +570,11 @@ public class EntitySerialization implements EntitySerializationAPI {
                 String propertyName = entry.getKey();
                 if (!propertyReadRequired(propertyName)) continue;
                 JsonElement propertyValue = entry.getValue();
-                MetaPropertyPath metaPropertyPath = metadataTools.resolveMetaPropertyPath(entity.getMetaClass(), propertyName);
-                MetaProperty metaProperty = metaPropertyPath != null ? metaPropertyPath.getMetaProperty() : null;
+                MetaProperty metaProperty = entity.getMetaClass().getProperty(propertyName);
+                if (metaProperty == null) {
+                    MetaPropertyPath metaPropertyPath = metadataTools.resolveMetaPropertyPath(entity.getMetaClass(), propertyName);
+                    metaProperty = metaPropertyPath != null ? metaPropertyPath.getMetaProperty() : null;
+                }
                 if (metaProperty != null) {
                     if (propertyValue.isJsonNull()) {
                         entity.setValue(propertyName, null);
@@ -509,16 +658,11 @@ public class EntitySerialization implements EntitySerializationAPI {
         }
 
         protected void clearFields(Entity entity) {
-            for (MetaProperty metaProperty : entity.getMetaClass().getProperties()) {
-                if ("id".equals(metaProperty.getName())) continue;
-                Field field = getField(entity.getClass(), metaProperty.getName());
-                if (field != null) {
-                    makeFieldAccessible(field);
-                    try {
-                        field.set(entity, null);
-                    } catch (IllegalAccessException e) {
-                        throw new EntitySerializationException("Can't get access to field " + field.getName() + " of class " + entity.getClass().getName(), e);
-                    }
+            for (Field field : getMetaClassInfo(entity.getMetaClass()).fields) {
+                try {
+                    field.set(entity, null);
+                } catch (IllegalAccessException e) {
+                    throw new EntitySerializationException("Can't get access to field " + field.getName() + " of class " + entity.getClass().getName(), e);
                 }
             }
         }
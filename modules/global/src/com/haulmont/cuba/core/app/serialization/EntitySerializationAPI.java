@@ -22,7 +22,11 @@ import com.haulmont.cuba.core.entity.Entity;
 import com.haulmont.cuba.core.global.View;
 
 import javax.annotation.Nullable;
+import java.io.Reader;
+import java.io.Writer;
 import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Class that is used for serialization and deserialization of entities to JSON.
@@ -83,6 +87,24 @@ public interface EntitySerializationAPI {
      */
     String toJson(Collection<? extends Entity> entities);
 
+    /**
+     * Serializes entities to the JSON array and writes it to the {@code writer} entity by entity. Works like the
+     * {@link #toJson(Collection, View, EntitySerializationOption...)}, but doesn't build the whole result in memory,
+     * so the {@code entities} may be a lazy iterable that loads entities in batches.
+     * <p>
+     * With {@link EntitySerializationOption#COMPACT_REPEATED_ENTITIES} repeated entities are compacted only within
+     * the object graph of each root entity, so the serializer doesn't remember the entities written before.
+     *
+     * @param entities entities to be serialized
+     * @param view     a view that defines which entity properties should be added to the result JSON object
+     * @param writer   a writer to write the JSON array to. It is flushed but not closed by this method.
+     * @param options  options specifying how an entity should be serialized
+     */
+    void writeJson(Iterable<? extends Entity> entities,
+                   @Nullable View view,
+                   Writer writer,
+                   EntitySerializationOption... options);
+
 
     /**
      * Deserializes a JSON object to the entity.
@@ -113,4 +135,27 @@ public interface EntitySerializationAPI {
     <T extends Entity> Collection<T> entitiesCollectionFromJson(String json,
                                                                 @Nullable MetaClass metaClass,
                                                                 EntitySerializationOption... options);
+
+    /**
+     * Reads a JSON array of objects from the {@code reader} and passes deserialized entities to the {@code consumer}
+     * in batches, so that the whole array is never kept in memory as a JSON tree or a string.
+     * <p>
+     * Entities that are repeated in the JSON (see {@link EntitySerializationOption#COMPACT_REPEATED_ENTITIES}) are
+     * resolved to the instances read earlier within the same batch. The deserialized entities are not retained after
+     * the batch is passed to the consumer, so a repeated occurrence of an entity from a previous batch is deserialized
+     * as an instance containing only the identifier. The JSON written by
+     * {@link #writeJson(Iterable, View, Writer, EntitySerializationOption...)} never contains such references.
+     *
+     * @param reader    a reader of the JSON array. It is not closed by this method.
+     * @param metaClass a metaClass of the entities that will be created
+     * @param batchSize max number of entities passed to the consumer at once
+     * @param consumer  receives deserialized entities
+     * @param options   options specifying how a JSON object graph was serialized
+     * @return total number of deserialized root entities
+     */
+    int readJson(Reader reader,
+                 @Nullable MetaClass metaClass,
+                 int batchSize,
+                 Consumer<List<Entity>> consumer,
+                 EntitySerializationOption... options);
 }
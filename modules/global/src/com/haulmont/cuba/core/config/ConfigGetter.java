@@ -19,16 +19,33 @@
 
 package com.haulmont.cuba.core.config;
 
+import com.google.common.collect.ImmutableSet;
 import com.haulmont.cuba.core.config.type.TypeFactory;
 
 import java.lang.reflect.Method;
+import java.math.BigDecimal;
 import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Implementation of configuration getter methods.
+ * <p>Values of getters without arguments are cached if the {@link ConfigPersister} allows it for the source type.
+ * The cache is invalidated by {@link #invalidateCachedValues()} which must be called on any change of
+ * app properties or stored properties.</p>
  *
  */
 public class ConfigGetter extends ConfigAccessorMethod {
+
+    private static final Set<Class> IMMUTABLE_TYPES = ImmutableSet.<Class>of(
+            String.class, Boolean.class, Integer.class, Long.class, Short.class, Byte.class, Double.class, Float.class,
+            Character.class, BigDecimal.class, UUID.class, Class.class,
+            Boolean.TYPE, Integer.TYPE, Long.TYPE, Short.TYPE, Byte.TYPE, Double.TYPE, Float.TYPE, Character.TYPE);
+
+    private static final AtomicLong valuesVersion = new AtomicLong();
+
     /**
      * The default value.
      */
@@ -38,6 +55,13 @@ public class ConfigGetter extends ConfigAccessorMethod {
 
     private TypeFactory factory;
 
+    /**
+     * Whether the built value can be shared between callers.
+     */
+    private final boolean immutableValue;
+
+    private volatile CachedValue cachedValue;
+
     /**
      * Create a new ConfigGetter instance.
      *
@@ -51,6 +75,16 @@ public class ConfigGetter extends ConfigAccessorMethod {
         sourceType = ConfigUtil.getSourceType(configInterface, method);
 //        if (!String.class.equals(method.getReturnType()))
         factory = TypeFactory.getInstance(configInterface, method);
+
+        Class<?> returnType = method.getReturnType();
+        immutableValue = IMMUTABLE_TYPES.contains(returnType) || returnType.isEnum();
+    }
+
+    /**
+     * Invalidates cached values of all config getters.
+     */
+    public static void invalidateCachedValues() {
+        valuesVersion.incrementAndGet();
     }
 
     /**
@@ -64,6 +98,9 @@ public class ConfigGetter extends ConfigAccessorMethod {
         ConfigPersister configuration = handler.getPersister();
         String str;
         if ((args == null) || (args.length == 0)) {
+            if (configuration.isCacheable(sourceType)) {
+                return getCachedValue(configuration);
+            }
             str = getProperty(configuration);
         }
         else {
@@ -79,6 +116,27 @@ public class ConfigGetter extends ConfigAccessorMethod {
             }
             str = getProperty(configuration, defValue);
         }
+        return build(str);
+    }
+
+    protected Object getCachedValue(ConfigPersister persister) {
+        long version = valuesVersion.get();
+        // system properties override app properties and their changes are not tracked
+        String systemValue = System.getProperty(getPropertyName());
+
+        CachedValue cached = cachedValue;
+        if (cached != null && cached.version == version && cached.persister == persister
+                && Objects.equals(cached.systemValue, systemValue)) {
+            return immutableValue ? cached.value : build(cached.str);
+        }
+
+        String str = getProperty(persister);
+        Object value = build(str);
+        cachedValue = new CachedValue(persister, version, systemValue, str, immutableValue ? value : null);
+        return value;
+    }
+
+    protected Object build(String str) {
         if (factory == null)
             return str;
         else
@@ -118,6 +176,23 @@ public class ConfigGetter extends ConfigAccessorMethod {
         }
     }
 
+    private static class CachedValue {
+
+        private final ConfigPersister persister;
+        private final long version;
+        private final String systemValue;
+        private final String str;
+        private final Object value;
+
+        private CachedValue(ConfigPersister persister, long version, String systemValue, String str, Object value) {
+            this.persister = persister;
+            this.version = version;
+            this.systemValue = systemValue;
+            this.str = str;
+            this.value = value;
+        }
+    }
+
     /**
      * The ConfigGetter factory.
      */
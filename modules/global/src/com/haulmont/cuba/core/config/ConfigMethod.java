@@ -20,8 +20,10 @@
 package com.haulmont.cuba.core.config;
 
 import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
-import org.apache.commons.collections.map.MultiKeyMap;
+import org.apache.commons.collections.keyvalue.MultiKey;
 
 /**
  * Superclass for all configuration method implementations.
@@ -46,7 +48,7 @@ public abstract class ConfigMethod {
     /**
      * A cache of instantiated configuration method implementations.
      */
-    private static final MultiKeyMap configMethods = new MultiKeyMap();
+    private static final Map<MultiKey, ConfigMethod> configMethods = new ConcurrentHashMap<>();
 
     /**
      * Get a ConfigMethod implementation appropriate for handling a
@@ -57,13 +59,9 @@ public abstract class ConfigMethod {
      * @param method          The method.
      * @return The method implementation.
      */
-    public static synchronized ConfigMethod getInstance(Class<?> configInterface, Method method) {
-        ConfigMethod configMethod = (ConfigMethod) configMethods.get(configInterface, method);
-        if (configMethod == null) {
-            configMethod = newInstance(configInterface, method);
-            configMethods.put(configInterface, method, configMethod);
-        }
-        return configMethod;
+    public static ConfigMethod getInstance(Class<?> configInterface, Method method) {
+        return configMethods.computeIfAbsent(new MultiKey(configInterface, method),
+                key -> newInstance(configInterface, method));
     }
 
     /**
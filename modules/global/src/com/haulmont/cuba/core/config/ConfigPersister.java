@@ -20,4 +20,12 @@ public interface ConfigPersister {
     String getProperty(SourceType sourceType, String name);
 
     void setProperty(SourceType sourceType, String name, String value);
+
+    /**
+     * @return true if values of the given source type may be cached by config getters until
+     * {@link ConfigGetter#invalidateCachedValues()} is invoked
+     */
+    default boolean isCacheable(SourceType sourceType) {
+        return false;
+    }
 }
\ No newline at end of file
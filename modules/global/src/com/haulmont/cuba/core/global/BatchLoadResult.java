@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2008-2016 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.haulmont.cuba.core.global;
+
+import com.haulmont.cuba.core.entity.Entity;
+
+import javax.annotation.Nullable;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Result of execution of a single {@link LoadContext} passed to {@link DataManager#loadBatch(List)}.
+ * Contains either the loaded entities or the error occurred while loading them.
+ *
+ * @param <E> type of entity
+ */
+public class BatchLoadResult<E extends Entity> implements Serializable {
+
+    private static final long serialVersionUID = -3421739482745128856L;
+
+    protected List<E> entities;
+    protected RemoteException error;
+
+    protected BatchLoadResult(@Nullable List<E> entities, @Nullable RemoteException error) {
+        this.entities = entities;
+        this.error = error;
+    }
+
+    public static <E extends Entity> BatchLoadResult<E> of(List<E> entities) {
+        return new BatchLoadResult<>(entities, null);
+    }
+
+    public static <E extends Entity> BatchLoadResult<E> failed(Throwable error) {
+        RemoteException remoteException = error instanceof RemoteException ?
+                (RemoteException) error : new RemoteException(error);
+        return new BatchLoadResult<>(null, remoteException);
+    }
+
+    /**
+     * @return true if the entities have been loaded without errors
+     */
+    public boolean isSuccessful() {
+        return error == null;
+    }
+
+    /**
+     * @return loaded entities
+     * @throws RuntimeException the exception occurred while loading entities. Like for other middleware invocations,
+     * it is the original exception if it is supported by client, or {@link RemoteException} otherwise.
+     */
+    public List<E> getEntities() {
+        if (error != null) {
+            Exception exception = error.getFirstCauseException();
+            if (exception instanceof RuntimeException) {
+                throw (RuntimeException) exception;
+            }
+            throw error;
+        }
+        return entities;
+    }
+
+    /**
+     * @return the error occurred while loading entities or null if the loading was successful
+     */
+    @Nullable
+    public RemoteException getError() {
+        return error;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2008-2016 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.haulmont.cuba.core.global;
+
+import groovy.lang.Binding;
+import groovy.lang.Script;
+
+import java.util.Map;
+
+/**
+ * Groovy expression or script compiled once by {@link Scripting#compileGroovy(String, Class)} and evaluated
+ * any number of times. Implementations are thread-safe: each evaluation runs in its own {@link Script} instance.
+ *
+ * @param <T> result type
+ */
+public interface CompiledGroovyScript<T> {
+
+    /**
+     * @return source text of the script
+     */
+    String getText();
+
+    /**
+     * Evaluates the script.
+     * @param binding   Groovy binding
+     * @return          result of the script converted to the result type
+     */
+    T evaluate(Binding binding);
+
+    /**
+     * Evaluates the script.
+     * @param params    map of parameters to pass to the script, same as Binding
+     * @return          result of the script converted to the result type
+     */
+    T evaluate(Map<String, Object> params);
+
+    /**
+     * Creates a new instance of the script bound to the given binding. Use it to run the script many times in
+     * one thread, changing only some of binding variables between runs.
+     * @param binding   Groovy binding
+     * @return          script instance
+     */
+    Script createScript(Binding binding);
+}
@@ -22,6 +22,7 @@ import com.haulmont.cuba.core.entity.Entity;
 import com.haulmont.cuba.core.entity.KeyValueEntity;
 
 import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
@@ -59,6 +60,26 @@ public interface DataManager {
      */
     <E extends Entity> List<E> loadList(LoadContext<E> context);
 
+    /**
+     * Loads collections of entity instances for several {@link LoadContext}s at once. On a client tier, all contexts
+     * are sent to the middleware in a single invocation.
+     * <p>The contexts are executed independently: an exception thrown for one of them does not affect others and is
+     * returned in the corresponding {@link BatchLoadResult}.</p>
+     * @param contexts  list of {@link LoadContext} objects, defining what and how to load
+     * @return          list of results in the order of the passed contexts
+     */
+    default List<BatchLoadResult<?>> loadBatch(List<? extends LoadContext<?>> contexts) {
+        List<BatchLoadResult<?>> results = new ArrayList<>(contexts.size());
+        for (LoadContext<?> context : contexts) {
+            try {
+                results.add(BatchLoadResult.of(loadList(context)));
+            } catch (RuntimeException e) {
+                results.add(BatchLoadResult.failed(e));
+            }
+        }
+        return results;
+    }
+
     /**
      * Returns the number of entity instances for the given query passed in the {@link LoadContext}.
      * @param context   defines the query
@@ -175,15 +175,56 @@ public interface GlobalConfig extends Config {
     /**
      * @return the maximum number of idle instances of compiled groovy expressions in {@code Scripting.evaluateGroovy()}
      * @see GenericKeyedObjectPoolConfig#setMaxIdlePerKey(int)
+     * @deprecated expressions are not pooled anymore, see {@link #getGroovyCompiledScriptsCacheSize()}
      */
+    @Deprecated
     @Property("cuba.groovyEvaluationPoolMaxIdle")
     @DefaultInt(8)
     int getGroovyEvaluationPoolMaxIdle();
 
+    /**
+     * @return the maximum number of classes compiled from Groovy expressions kept by {@code Scripting}.
+     * Least recently used classes are unloaded when the limit is exceeded.
+     */
+    @Property("cuba.groovyCompiledScriptsCacheSize")
+    @DefaultInt(1000)
+    int getGroovyCompiledScriptsCacheSize();
+
+    /**
+     * @return whether the results of expensive startup steps (deployment of views, generation of persistence.xml and
+     * orm.xml) are saved and reused on the next start if their sources are not changed
+     */
+    @Property("cuba.startupSnapshotsEnabled")
+    @DefaultBoolean(false)
+    boolean getStartupSnapshotsEnabled();
+
+    /**
+     * @return directory to store startup snapshots. If not set, {@link #getDataDir()} is used.
+     * Can point to a directory prepared at build time or shared by the cluster nodes.
+     */
+    @Property("cuba.startupSnapshotsDir")
+    String getStartupSnapshotsDir();
+
+    /**
+     * @return secret key used to sign startup snapshots. Snapshots signed with another key are ignored.
+     * Set the same value on all nodes sharing {@link #getStartupSnapshotsDir()}. If not set, a random key
+     * is generated and stored in {@link #getDataDir()}, so the snapshots can be used only by the node that created them.
+     */
+    @Property("cuba.startupSnapshotsKey")
+    String getStartupSnapshotsKey();
+
     @Property("cuba.numberIdCacheSize")
     @DefaultInt(100)
     int getNumberIdCacheSize();
 
+    /**
+     * @return number of identifiers left in the current cached block of {@code NumberIdCache} at which the next block
+     * is requested in background. 0 disables prefetching.
+     */
+    @Property("cuba.numberIdCacheLowWaterMark")
+    @DefaultInt(20)
+    int getNumberIdCacheLowWaterMark();
+
     @Property("cuba.anonymousSessionId")
     @Factory(factory = UuidTypeFactory.class)
     UUID getAnonymousSessionId();
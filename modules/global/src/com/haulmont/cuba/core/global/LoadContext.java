@@ -20,6 +20,7 @@ import com.haulmont.bali.util.Preconditions;
 import com.haulmont.chile.core.model.MetaClass;
 import com.haulmont.cuba.core.entity.Entity;
 
+import javax.annotation.Nullable;
 import javax.persistence.TemporalType;
 import java.io.Serializable;
 import java.util.*;
@@ -50,6 +51,7 @@ public class LoadContext<E extends Entity> implements DataLoadContext, Serializa
     protected int queryKey;
 
     protected boolean loadDynamicAttributes = false;
+    protected Set<String> dynamicAttributeCodes;
     protected boolean loadPartialEntities = true;
 
     protected Map<String, Object> dbHints; // lazy initialized map
@@ -230,6 +232,27 @@ public class LoadContext<E extends Entity> implements DataLoadContext, Serializa
         return this;
     }
 
+    /**
+     * @return codes of dynamic attributes to load, or null if all attributes are loaded
+     */
+    @Nullable
+    public Set<String> getDynamicAttributeCodes() {
+        return dynamicAttributeCodes;
+    }
+
+    /**
+     * Restricts dynamic attributes loaded for the root entities, e.g. by attributes displayed in a table.
+     * Makes sense only if {@link #setLoadDynamicAttributes(boolean)} is set to true.
+     * <p>Standard datasources do not use it: instances loaded by them can be passed to editors, where attributes
+     * that are not loaded would look empty. Use it only for instances that are not edited.
+     *
+     * @param dynamicAttributeCodes codes of attributes with or without the {@code +} prefix, or null to load all
+     */
+    public LoadContext<E> setDynamicAttributeCodes(@Nullable Collection<String> dynamicAttributeCodes) {
+        this.dynamicAttributeCodes = dynamicAttributeCodes != null ? new HashSet<>(dynamicAttributeCodes) : null;
+        return this;
+    }
+
     /**
      * @return whether to load partial entities. When true (which is by default), some local attributes can be unfetched
      * according to {@link #setView(View)}.
@@ -270,6 +293,9 @@ public class LoadContext<E extends Entity> implements DataLoadContext, Serializa
             ctx.getDbHints().putAll(dbHints);
         }
         ctx.loadDynamicAttributes = loadDynamicAttributes;
+        if (dynamicAttributeCodes != null) {
+            ctx.dynamicAttributeCodes = new HashSet<>(dynamicAttributeCodes);
+        }
         return ctx;
     }
 
@@ -51,6 +51,19 @@ public interface Scripting {
      */
     <T> T evaluateGroovy(String text, Map<String, Object> context);
 
+    /**
+     * Compiles Groovy expression for subsequent evaluation.
+     * <p>Compiled classes are cached by the expression text, the number of cached classes is limited by
+     * {@link GlobalConfig#getGroovyCompiledScriptsCacheSize()}. Do not generate the text for each invocation,
+     * pass varying values as parameters instead.</p>
+     * @param text          expression text
+     * @param resultType    type of the expression result, the result is cast to it using Groovy rules
+     * @param <T>           result type
+     * @return              compiled expression
+     * @throws org.codehaus.groovy.control.CompilationFailedException if the expression cannot be compiled
+     */
+    <T> CompiledGroovyScript<T> compileGroovy(String text, Class<T> resultType);
+
     /**
      * Runs Groovy script.
      * The script must be located as file under <em>conf</em> directory, or as a classpath resource.
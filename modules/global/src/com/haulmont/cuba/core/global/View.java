@@ -94,6 +94,8 @@ public class View implements Serializable {
 
     private boolean loadPartialEntities;
 
+    private boolean sealed;
+
     public View(Class<? extends Entity> entityClass) {
         this(entityClass, "", true);
     }
@@ -141,6 +143,13 @@ public class View implements Serializable {
         }
     }
 
+    /**
+     * Creates a deep copy of the given view. The copy is always modifiable, even if the source view is
+     * {@link #isSealed() sealed}.
+     *
+     * @param view  source view
+     * @return      modifiable copy or null if the source view is null
+     */
     public static View copy(@Nullable View view) {
         if (view == null) {
             return null;
@@ -175,7 +184,7 @@ public class View implements Serializable {
      * @return collection of properties
      */
     public Collection<ViewProperty> getProperties() {
-        return properties.values();
+        return sealed ? Collections.unmodifiableCollection(properties.values()) : properties.values();
     }
 
     /**
@@ -186,12 +195,14 @@ public class View implements Serializable {
      * @return      this view instance for chaining
      */
     public View addProperty(String name, @Nullable View view, FetchMode fetchMode) {
+        checkNotSealed();
         properties.put(name, new ViewProperty(name, view, fetchMode));
         return this;
     }
 
     @Deprecated
     public View addProperty(String name, @Nullable View view, boolean lazy) {
+        checkNotSealed();
         properties.put(name, new ViewProperty(name, view, lazy));
         return this;
     }
@@ -203,6 +214,7 @@ public class View implements Serializable {
      * @return      this view instance for chaining
      */
     public View addProperty(String name, View view) {
+        checkNotSealed();
         properties.put(name, new ViewProperty(name, view));
         return this;
     }
@@ -213,6 +225,7 @@ public class View implements Serializable {
      * @return      this view instance for chaining
      */
     public View addProperty(String name) {
+        checkNotSealed();
         properties.put(name, new ViewProperty(name, null));
         return this;
     }
@@ -276,10 +289,46 @@ public class View implements Serializable {
      * @return this view instance for chaining
      */
     public View setLoadPartialEntities(boolean loadPartialEntities) {
+        checkNotSealed();
         this.loadPartialEntities = loadPartialEntities;
         return this;
     }
 
+    /**
+     * Makes this view and all its nested views immutable. A sealed view can be safely shared between threads,
+     * any attempt to modify it throws {@link IllegalStateException}. Use {@link #copy(View)} to obtain a modifiable
+     * copy of a sealed view.
+     *
+     * @return this view instance for chaining
+     */
+    public View seal() {
+        if (sealed) {
+            return this;
+        }
+        sealed = true;
+        for (ViewProperty property : properties.values()) {
+            if (property.getView() != null) {
+                property.getView().seal();
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @return true if the view is immutable
+     * @see #seal()
+     */
+    public boolean isSealed() {
+        return sealed;
+    }
+
+    protected void checkNotSealed() {
+        if (sealed) {
+            throw new IllegalStateException(String.format("View %s is sealed and cannot be modified, " +
+                    "use View.copy() to obtain a modifiable copy", this));
+        }
+    }
+
     /**
      * DEPRECATED since v.6
      */
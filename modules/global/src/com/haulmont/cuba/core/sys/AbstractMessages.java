@@ -361,6 +361,77 @@ public abstract class AbstractMessages implements Messages {
         return null;
     }
 
+    /**
+     * Collects all messages visible through the given packs, taking into account pack hierarchy, includes and
+     * locale fallbacks. For each key, the collected value is the one {@link #searchMessage} would return.
+     * Remote search is not performed.
+     */
+    protected void collectMessages(String packs, Locale locale, Locale truncatedLocale, Set<String> passedPacks,
+                                   Map<String, String> result) {
+        StrTokenizer tokenizer = new StrTokenizer(packs);
+        //noinspection unchecked
+        List<String> list = tokenizer.getTokenList();
+        Collections.reverse(list);
+        for (String pack : list) {
+            if (!enterPack(pack, locale, truncatedLocale, passedPacks))
+                continue;
+
+            collectOnePack(pack, locale, truncatedLocale, passedPacks, result);
+
+            Locale tmpLocale = truncatedLocale;
+            while (tmpLocale != null) {
+                tmpLocale = truncateLocale(tmpLocale);
+                collectOnePack(pack, locale, tmpLocale, passedPacks, result);
+            }
+        }
+    }
+
+    protected void collectOnePack(String pack, Locale locale, Locale truncatedLocale, Set<String> passedPacks,
+                                  Map<String, String> result) {
+        String packPath = confDir + "/" + pack.replaceAll("\\.", "/");
+        while (packPath != null && !packPath.equals(confDir)) {
+            Properties properties = loadPropertiesFromFile(packPath, locale, truncatedLocale);
+            if (properties != PROPERTIES_NOT_FOUND) {
+                collectFromProperties(properties, locale, truncatedLocale, passedPacks, result);
+            }
+            int pos = packPath.lastIndexOf("/");
+            packPath = pos < 0 ? null : packPath.substring(0, pos);
+        }
+
+        packPath = "/" + pack.replaceAll("\\.", "/");
+        while (packPath != null) {
+            Properties properties = loadPropertiesFromResource(packPath, locale, truncatedLocale);
+            if (properties != PROPERTIES_NOT_FOUND) {
+                collectFromProperties(properties, locale, truncatedLocale, passedPacks, result);
+            }
+            int pos = packPath.lastIndexOf("/");
+            packPath = pos < 0 ? null : packPath.substring(0, pos);
+        }
+    }
+
+    protected void collectFromProperties(Properties properties, Locale locale, Locale truncatedLocale,
+                                         Set<String> passedPacks, Map<String, String> result) {
+        for (String name : properties.stringPropertyNames()) {
+            if (!"@include".equals(name)) {
+                result.putIfAbsent(name, properties.getProperty(name));
+            }
+        }
+
+        String includesProperty = properties.getProperty("@include");
+        if (includesProperty != null) {
+            String[] includes = StringUtils.split(includesProperty, " ,");
+            if (includes != null && includes.length > 0) {
+                ArrayUtils.reverse(includes);
+                for (String includePath : includes) {
+                    includePath = StringUtils.trimToNull(includePath);
+                    if (includePath != null) {
+                        collectMessages(includePath, locale, truncatedLocale, passedPacks, result);
+                    }
+                }
+            }
+        }
+    }
+
     private Locale truncateLocale(Locale locale) {
         if (locale == null || StringUtils.isEmpty(locale.getCountry()))
             return null;
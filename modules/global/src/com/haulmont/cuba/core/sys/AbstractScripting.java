@@ -17,6 +17,11 @@
 
 package com.haulmont.cuba.core.sys;
 
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.haulmont.cuba.core.global.CompiledGroovyScript;
 import com.haulmont.cuba.core.global.Configuration;
 import com.haulmont.cuba.core.global.GlobalConfig;
 import com.haulmont.cuba.core.global.Scripting;
@@ -30,15 +35,10 @@ import groovy.util.ResourceConnector;
 import groovy.util.ResourceException;
 import groovy.util.ScriptException;
 import org.apache.commons.lang.StringUtils;
-import org.apache.commons.pool2.BaseKeyedPooledObjectFactory;
-import org.apache.commons.pool2.PooledObject;
-import org.apache.commons.pool2.impl.DefaultPooledObject;
-import org.apache.commons.pool2.impl.GenericKeyedObjectPool;
-import org.apache.commons.pool2.impl.GenericKeyedObjectPoolConfig;
 import org.codehaus.groovy.control.CompilationFailedException;
 import org.codehaus.groovy.control.CompilerConfiguration;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.codehaus.groovy.runtime.InvokerHelper;
+import org.codehaus.groovy.runtime.typehandling.DefaultTypeTransformation;
 
 import java.io.File;
 import java.io.IOException;
@@ -47,16 +47,16 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLConnection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public abstract class AbstractScripting implements Scripting {
 
-    private Logger log = LoggerFactory.getLogger(getClass());
-
     private static final Pattern IMPORT_PATTERN = Pattern.compile("\\bimport\\b\\s+");
     private static final Pattern PACKAGE_PATTERN = Pattern.compile("\\bpackage\\b\\s+.+");
     protected JavaClassLoader javaClassLoader;
@@ -67,7 +67,8 @@ public abstract class AbstractScripting implements Scripting {
 
     protected volatile GroovyScriptEngine gse;
     protected volatile CubaGroovyClassLoader gcl;
-    protected GenericKeyedObjectPool<String, Script> pool;
+    // expression text to the class compiled from it
+    protected volatile Cache<String, Class<? extends Script>> compiledScripts;
 
     protected GlobalConfig globalConfig;
 
@@ -122,55 +123,67 @@ public abstract class AbstractScripting implements Scripting {
         return gcl;
     }
 
-    private synchronized GenericKeyedObjectPool<String, Script> getPool() {
-        if (pool == null) {
-            GenericKeyedObjectPoolConfig poolConfig = new GenericKeyedObjectPoolConfig();
-            poolConfig.setMaxTotalPerKey(-1);
-            poolConfig.setMaxIdlePerKey(globalConfig.getGroovyEvaluationPoolMaxIdle());
-            pool = new GenericKeyedObjectPool<>(
-                    new BaseKeyedPooledObjectFactory<String, Script>() {
-                        @Override
-                        public Script create(String key) throws Exception {
-                            StringBuilder sb = new StringBuilder();
-                            for (String importItem : imports) {
-                                sb.append("import ").append(importItem).append("\n");
-                            }
-
-                            Matcher matcher = IMPORT_PATTERN.matcher(key);
-                            String result;
-                            if (matcher.find()) {
-                                StringBuffer s = new StringBuffer();
-                                matcher.appendReplacement(s, sb + "$0");
-                                result = matcher.appendTail(s).toString();
-                            } else {
-                                Matcher packageMatcher = PACKAGE_PATTERN.matcher(key);
-                                if (packageMatcher.find()) {
-                                    StringBuffer s = new StringBuffer();
-                                    packageMatcher.appendReplacement(s, "$0\n" + sb);
-                                    result = packageMatcher.appendTail(s).toString();
-                                } else {
-                                    result = sb.append(key).toString();
-                                }
-                            }
-
-                            CompilerConfiguration cc = new CompilerConfiguration();
-                            cc.setClasspath(groovyClassPath);
-                            cc.setRecompileGroovySource(true);
-                            GroovyShell shell = new GroovyShell(javaClassLoader, new Binding(), cc);
-                            //noinspection UnnecessaryLocalVariable
-                            Script script = shell.parse(result);
-                            return script;
-                        }
+    protected Cache<String, Class<? extends Script>> getCompiledScripts() {
+        if (compiledScripts == null) {
+            synchronized (this) {
+                if (compiledScripts == null) {
+                    RemovalListener<String, Class<? extends Script>> removalListener =
+                            notification -> InvokerHelper.removeClass(notification.getValue());
+                    compiledScripts = CacheBuilder.newBuilder()
+                            .maximumSize(globalConfig.getGroovyCompiledScriptsCacheSize())
+                            .removalListener(removalListener)
+                            .build();
+                }
+            }
+        }
+        return compiledScripts;
+    }
 
-                        @Override
-                        public PooledObject<Script> wrap(Script value) {
-                            return new DefaultPooledObject<>(value);
-                        }
-                    },
-                    poolConfig
-            );
+    protected Class<? extends Script> getScriptClass(String text) {
+        try {
+            return getCompiledScripts().get(text, () -> compileScript(text));
+        } catch (ExecutionException | RuntimeException | Error e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            Throwables.propagateIfPossible(cause);
+            throw new RuntimeException("Error compiling Groovy expression", cause);
         }
-        return pool;
+    }
+
+    /**
+     * Compiles the expression text in its own class loader, so the class can be unloaded after eviction from
+     * the cache of compiled scripts.
+     */
+    protected Class<? extends Script> compileScript(String text) {
+        CompilerConfiguration cc = new CompilerConfiguration();
+        cc.setClasspath(groovyClassPath);
+        cc.setRecompileGroovySource(true);
+        GroovyShell shell = new GroovyShell(javaClassLoader, new Binding(), cc);
+        return shell.parse(addImports(text)).getClass();
+    }
+
+    protected String addImports(String text) {
+        StringBuilder sb = new StringBuilder();
+        for (String importItem : imports) {
+            sb.append("import ").append(importItem).append("\n");
+        }
+
+        Matcher matcher = IMPORT_PATTERN.matcher(text);
+        String result;
+        if (matcher.find()) {
+            StringBuffer s = new StringBuffer();
+            matcher.appendReplacement(s, sb + "$0");
+            result = matcher.appendTail(s).toString();
+        } else {
+            Matcher packageMatcher = PACKAGE_PATTERN.matcher(text);
+            if (packageMatcher.find()) {
+                StringBuffer s = new StringBuffer();
+                packageMatcher.appendReplacement(s, "$0\n" + sb);
+                result = packageMatcher.appendTail(s).toString();
+            } else {
+                result = sb.append(text).toString();
+            }
+        }
+        return result;
     }
 
     protected Binding createBinding(Map<String, Object> map) {
@@ -184,32 +197,9 @@ public abstract class AbstractScripting implements Scripting {
 
     @Override
     public <T> T evaluateGroovy(String text, Binding binding) {
-        Script script = null;
-        boolean invalidated = false;
-        try {
-            script = getPool().borrowObject(text);
-            script.setBinding(binding);
-            return (T) script.run();
-        } catch (Exception e) {
-            try {
-                getPool().invalidateObject(text, script);
-                invalidated = true;
-            } catch (Exception e1) {
-                log.warn("Error invalidating object in the pool", e1);
-            }
-            if (e instanceof RuntimeException)
-                throw ((RuntimeException) e);
-            else
-                throw new RuntimeException("Error evaluating Groovy expression", e);
-        } finally {
-            if (script != null && !invalidated)
-                try {
-                    script.setBinding(null); // free memory
-                    getPool().returnObject(text, script);
-                } catch (Exception e) {
-                    log.warn("Error returning object into the pool", e);
-                }
-        }
+        Script script = InvokerHelper.createScript(getScriptClass(text), binding);
+        //noinspection unchecked
+        return (T) script.run();
     }
 
     @Override
@@ -218,6 +208,11 @@ public abstract class AbstractScripting implements Scripting {
         return (T) evaluateGroovy(text, binding);
     }
 
+    @Override
+    public <T> CompiledGroovyScript<T> compileGroovy(String text, Class<T> resultType) {
+        return new CompiledGroovyScriptImpl<>(text, getScriptClass(text), resultType);
+    }
+
     @Override
     public <T> T runGroovyScript(String name, Binding binding) {
         try {
@@ -286,7 +281,7 @@ public abstract class AbstractScripting implements Scripting {
     public void clearCache() {
         getGroovyClassLoader().clearCache();
         javaClassLoader.clearCache();
-        getPool().clear();
+        getCompiledScripts().invalidateAll();
         GroovyScriptEngine gse = getGroovyScriptEngine();
         try {
             Field scriptCacheField = gse.getClass().getDeclaredField("scriptCache");
@@ -298,6 +293,41 @@ public abstract class AbstractScripting implements Scripting {
         }
     }
 
+    protected static class CompiledGroovyScriptImpl<T> implements CompiledGroovyScript<T> {
+
+        protected final String text;
+        protected final Class<? extends Script> scriptClass;
+        protected final Class<T> resultType;
+
+        public CompiledGroovyScriptImpl(String text, Class<? extends Script> scriptClass, Class<T> resultType) {
+            this.text = text;
+            this.scriptClass = scriptClass;
+            this.resultType = resultType;
+        }
+
+        @Override
+        public String getText() {
+            return text;
+        }
+
+        @Override
+        public T evaluate(Binding binding) {
+            Object result = createScript(binding).run();
+            //noinspection unchecked
+            return (T) DefaultTypeTransformation.castToType(result, resultType);
+        }
+
+        @Override
+        public T evaluate(Map<String, Object> params) {
+            return evaluate(new Binding(new HashMap<>(params)));
+        }
+
+        @Override
+        public Script createScript(Binding binding) {
+            return InvokerHelper.createScript(scriptClass, binding);
+        }
+    }
+
     protected class CubaResourceConnector implements ResourceConnector {
 
         /**
@@ -16,6 +16,8 @@
  */
 package com.haulmont.cuba.core.sys;
 
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import com.haulmont.bali.util.Dom4j;
 import com.haulmont.bali.util.Preconditions;
 import com.haulmont.bali.util.ReflectionHelper;
@@ -24,6 +26,8 @@ import com.haulmont.chile.core.model.MetaProperty;
 import com.haulmont.chile.core.model.Range;
 import com.haulmont.cuba.core.entity.Entity;
 import com.haulmont.cuba.core.global.*;
+import com.haulmont.cuba.core.sys.serialization.StandardSerialization;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.text.StrTokenizer;
@@ -38,10 +42,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nullable;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
 import javax.inject.Inject;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.Reader;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReadWriteLock;
@@ -54,18 +62,29 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
  */
 public class AbstractViewRepository implements ViewRepository {
 
+    protected static final String SNAPSHOT_SIGNATURE_ALGORITHM = "HmacSHA256";
+
     protected final Logger log = LoggerFactory.getLogger(getClass());
 
     protected List<String> readFileNames = new LinkedList<>();
 
     protected Map<MetaClass, Map<String, View>> storage = new ConcurrentHashMap<>();
 
+    /**
+     * Sealed copies of deployed views handed out to callers. Filled on first request of a view and cleared
+     * when views are redeployed.
+     */
+    protected Map<MetaClass, Map<String, View>> sealedStorage = new ConcurrentHashMap<>();
+
     @Inject
     protected Metadata metadata;
 
     @Inject
     protected Resources resources;
 
+    @Inject
+    protected Configuration configuration;
+
     protected volatile boolean initialized;
 
     protected ReadWriteLock lock = new ReentrantReadWriteLock();
@@ -91,10 +110,17 @@ public class AbstractViewRepository implements ViewRepository {
         StopWatch initTiming = new Log4JStopWatch("ViewRepository.init." + getClass().getSimpleName());
 
         storage.clear();
+        sealedStorage.clear();
         readFileNames.clear();
 
         String configName = AppContext.getProperty("cuba.viewsConfig");
         if (!StringUtils.isBlank(configName)) {
+            boolean useSnapshot = configuration.getConfig(GlobalConfig.class).getStartupSnapshotsEnabled();
+            if (useSnapshot && loadSnapshot(configName)) {
+                initTiming.stop();
+                return;
+            }
+
             Element rootElem = DocumentHelper.createDocument().addElement("views");
 
             StrTokenizer tokenizer = new StrTokenizer(configName);
@@ -107,11 +133,186 @@ public class AbstractViewRepository implements ViewRepository {
             for (Element viewElem : Dom4j.elements(rootElem, "view")) {
                 deployView(rootElem, viewElem, new HashSet<>());
             }
+
+            if (useSnapshot) {
+                saveSnapshot(configName);
+            }
         }
 
         initTiming.stop();
     }
 
+    /**
+     * @return snapshot file of the current block. The name contains the web context name, because blocks may share
+     * the snapshots directory.
+     */
+    protected File getSnapshotFile() {
+        GlobalConfig globalConfig = configuration.getConfig(GlobalConfig.class);
+        String dir = StringUtils.isNotBlank(globalConfig.getStartupSnapshotsDir()) ?
+                globalConfig.getStartupSnapshotsDir() : globalConfig.getDataDir();
+        return new File(dir, "views-" + globalConfig.getWebContextName() + ".snapshot");
+    }
+
+    /**
+     * @return key for signing snapshots: {@code cuba.startupSnapshotsKey} or a random key stored in the data directory
+     */
+    protected byte[] getSnapshotKey() throws IOException {
+        GlobalConfig globalConfig = configuration.getConfig(GlobalConfig.class);
+        if (StringUtils.isNotBlank(globalConfig.getStartupSnapshotsKey())) {
+            return globalConfig.getStartupSnapshotsKey().getBytes(StandardCharsets.UTF_8);
+        }
+        File keyFile = new File(globalConfig.getDataDir(), "startup-snapshots.key");
+        if (!keyFile.exists()) {
+            byte[] key = new byte[32];
+            new SecureRandom().nextBytes(key);
+            FileUtils.writeByteArrayToFile(keyFile, key);
+        }
+        return FileUtils.readFileToByteArray(keyFile);
+    }
+
+    protected byte[] signSnapshot(byte[] data) throws IOException, GeneralSecurityException {
+        Mac mac = Mac.getInstance(SNAPSHOT_SIGNATURE_ALGORITHM);
+        mac.init(new SecretKeySpec(getSnapshotKey(), SNAPSHOT_SIGNATURE_ALGORITHM));
+        return mac.doFinal(data);
+    }
+
+    /**
+     * Creates a hash of everything deployed views depend on: the list of config files, their content, metadata and
+     * entity class files. Class files are included because default views also depend on annotations like
+     * {@code @NamePattern} and {@code @SystemLevel}, which are not reflected in the structure of metadata.
+     *
+     * @return hash or null if some of the files does not exist anymore
+     */
+    @Nullable
+    protected String createSnapshotFingerprint(String configName, List<String> fileNames) {
+        Hasher hasher = Hashing.sha1().newHasher();
+        hasher.putString(configName + "\n", StandardCharsets.UTF_8);
+        for (String fileName : fileNames) {
+            InputStream stream = resources.getResourceAsStream(fileName);
+            if (stream == null) {
+                return null;
+            }
+            try {
+                hasher.putString(fileName + "\n", StandardCharsets.UTF_8);
+                hasher.putBytes(IOUtils.toByteArray(stream));
+            } catch (IOException e) {
+                throw new RuntimeException("Unable to read view file " + fileName, e);
+            } finally {
+                IOUtils.closeQuietly(stream);
+            }
+        }
+
+        List<MetaClass> metaClasses = new ArrayList<>(metadata.getClasses());
+        metaClasses.sort(Comparator.comparing(MetaClass::getName));
+        for (MetaClass metaClass : metaClasses) {
+            hasher.putString(metaClass.getName() + ":" + metaClass.getJavaClass().getName() + "\n", StandardCharsets.UTF_8);
+            for (MetaProperty metaProperty : metaClass.getProperties()) {
+                Range range = metaProperty.getRange();
+                String rangeName = range.isClass() ? range.asClass().getName()
+                        : range.isDatatype() ? range.asDatatype().getName() : range.asEnumeration().getJavaClass().getName();
+                hasher.putString(metaProperty.getName() + ":" + metaProperty.getType() + ":" + rangeName
+                        + ":" + metadata.getTools().isPersistent(metaProperty) + "\n", StandardCharsets.UTF_8);
+            }
+        }
+
+        Set<Class> hashedClasses = new HashSet<>();
+        for (MetaClass metaClass : metaClasses) {
+            for (Class javaClass = metaClass.getJavaClass(); javaClass != null && javaClass != Object.class;
+                 javaClass = javaClass.getSuperclass()) {
+                if (hashedClasses.add(javaClass)) {
+                    hashClassFile(hasher, javaClass);
+                }
+            }
+        }
+        return hasher.hash().toString();
+    }
+
+    protected void hashClassFile(Hasher hasher, Class javaClass) {
+        ClassLoader classLoader = javaClass.getClassLoader();
+        if (classLoader == null)
+            return;
+        InputStream stream = classLoader.getResourceAsStream(javaClass.getName().replace('.', '/') + ".class");
+        try {
+            if (stream != null) {
+                hasher.putBytes(IOUtils.toByteArray(stream));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to read class file of " + javaClass.getName(), e);
+        } finally {
+            IOUtils.closeQuietly(stream);
+        }
+    }
+
+    /**
+     * Replaces deploying views from XML by reading them from the snapshot saved on a previous start, if the snapshot
+     * is up to date.
+     *
+     * @return true if views have been loaded from the snapshot
+     */
+    protected boolean loadSnapshot(String configName) {
+        File file = getSnapshotFile();
+        if (!file.exists()) {
+            return false;
+        }
+        try {
+            byte[] content = FileUtils.readFileToByteArray(file);
+            int signatureLength = Mac.getInstance(SNAPSHOT_SIGNATURE_ALGORITHM).getMacLength();
+            if (content.length <= signatureLength) {
+                log.warn("Views snapshot {} is corrupted", file);
+                return false;
+            }
+            byte[] signature = Arrays.copyOfRange(content, 0, signatureLength);
+            byte[] data = Arrays.copyOfRange(content, signatureLength, content.length);
+            // never deserialize a file that has not been written by a node knowing the key
+            if (!MessageDigest.isEqual(signature, signSnapshot(data))) {
+                log.warn("Views snapshot {} has invalid signature", file);
+                return false;
+            }
+            ViewsSnapshot snapshot = (ViewsSnapshot) new StandardSerialization().deserialize(data);
+            if (!Objects.equals(snapshot.fingerprint, createSnapshotFingerprint(configName, snapshot.fileNames))) {
+                log.info("Views snapshot {} is outdated", file);
+                return false;
+            }
+            for (Map.Entry<String, Map<String, View>> entry : snapshot.views.entrySet()) {
+                storage.put(metadata.getClassNN(entry.getKey()), new ConcurrentHashMap<>(entry.getValue()));
+            }
+            readFileNames.addAll(snapshot.fileNames);
+            log.info("Views loaded from snapshot {}", file);
+            return true;
+        } catch (Exception e) {
+            log.warn("Unable to load views snapshot {}", file, e);
+            storage.clear();
+            readFileNames.clear();
+            return false;
+        }
+    }
+
+    protected void saveSnapshot(String configName) {
+        File file = getSnapshotFile();
+        try {
+            ViewsSnapshot snapshot = new ViewsSnapshot();
+            snapshot.fingerprint = createSnapshotFingerprint(configName, readFileNames);
+            snapshot.fileNames = new ArrayList<>(readFileNames);
+            for (Map.Entry<MetaClass, Map<String, View>> entry : storage.entrySet()) {
+                snapshot.views.put(entry.getKey().getName(), new HashMap<>(entry.getValue()));
+            }
+            // write to a temporary file first, so other nodes sharing the directory never read a partial snapshot
+            File tempFile = new File(file.getParentFile(), file.getName() + "." + UUID.randomUUID() + ".tmp");
+            byte[] data = new StandardSerialization().serialize(snapshot);
+            try (OutputStream out = FileUtils.openOutputStream(tempFile)) {
+                out.write(signSnapshot(data));
+                out.write(data);
+            }
+            if (!tempFile.renameTo(file)) {
+                FileUtils.copyFile(tempFile, file);
+                FileUtils.deleteQuietly(tempFile);
+            }
+            log.debug("Views snapshot saved to {}", file);
+        } catch (Exception e) {
+            log.warn("Unable to save views snapshot {}", file, e);
+        }
+    }
+
     protected void checkDuplicates(Element rootElem) {
         Set<String> checked = new HashSet<>();
         for (Element viewElem : Dom4j.elements(rootElem, "view")) {
@@ -200,7 +401,10 @@ public class AbstractViewRepository implements ViewRepository {
     }
 
     /**
-     * Searches for a View for an entity
+     * Searches for a View for an entity.
+     * <p>
+     * Returns a shared {@link View#isSealed() sealed} instance, use {@link View#copy(View)} to obtain a modifiable
+     * copy. After the repository is initialized, lookup of a previously requested view does not acquire locks.
      *
      * @param metaClass entity class
      * @param name      view name
@@ -217,12 +421,26 @@ public class AbstractViewRepository implements ViewRepository {
             return null;
         }
 
+        if (initialized) {
+            Map<String, View> sealedViews = sealedStorage.get(metaClass);
+            View view = sealedViews == null ? null : sealedViews.get(name);
+            if (view != null) {
+                return view;
+            }
+        }
+
         lock.readLock().lock();
         try {
             checkInitialized();
 
             View view = retrieveView(metaClass, name, new HashSet<>());
-            return copyView(view);
+            if (view == null) {
+                return null;
+            }
+
+            View sealedView = copyView(view).seal();
+            sealedStorage.computeIfAbsent(metaClass, k -> new ConcurrentHashMap<>()).put(name, sealedView);
+            return sealedView;
         } finally {
             lock.readLock().unlock();
         }
@@ -449,6 +667,8 @@ public class AbstractViewRepository implements ViewRepository {
         visited.remove(info);
 
         storeView(metaClass, view);
+        // deployed view may replace views referenced from other ones, so drop all sealed copies
+        sealedStorage.clear();
 
         if (overwrite) {
             replaceOverridden(view);
@@ -689,6 +909,15 @@ public class AbstractViewRepository implements ViewRepository {
         }
     }
 
+    protected static class ViewsSnapshot implements Serializable {
+
+        private static final long serialVersionUID = 2316479285390147213L;
+
+        protected String fingerprint;
+        protected List<String> fileNames;
+        protected Map<String, Map<String, View>> views = new HashMap<>();
+    }
+
     protected static class ViewInfo {
         protected Class javaClass;
         protected String name;
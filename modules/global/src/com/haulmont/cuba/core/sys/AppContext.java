@@ -16,6 +16,7 @@
  */
 package com.haulmont.cuba.core.sys;
 
+import com.haulmont.cuba.core.config.ConfigGetter;
 import com.haulmont.cuba.core.sys.logging.LogMdc;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -262,6 +263,7 @@ public class AppContext {
         public static void setAppComponents(AppComponents appComponents) {
             AppContext.appComponents = appComponents;
             AppContext.appProperties = new AppProperties(appComponents);
+            ConfigGetter.invalidateCachedValues();
         }
 
         /**
@@ -20,6 +20,7 @@ import com.google.common.base.Joiner;
 import com.google.common.base.Splitter;
 import com.google.common.collect.Lists;
 import com.haulmont.bali.datastruct.Pair;
+import com.haulmont.cuba.core.config.ConfigGetter;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -256,5 +257,6 @@ public class AppProperties {
             properties.remove(key);
         else
             properties.put(key, value);
+        ConfigGetter.invalidateCachedValues();
     }
 }
\ No newline at end of file
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2008-2016 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.haulmont.cuba.core.sys;
+
+import com.haulmont.cuba.core.app.UniqueNumbersLease;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Hands out numbers from in-memory {@link UniqueNumbersLease}s. A new lease for a domain is requested only when the
+ * current one is exhausted, and only one thread requests it.
+ */
+public class LeasedNumbersCache {
+
+    protected static class Range {
+        protected final AtomicLong counter;
+        protected final long last;
+
+        protected Range(UniqueNumbersLease lease) {
+            counter = new AtomicLong(lease.getFirst() - 1);
+            last = lease.getLast();
+        }
+    }
+
+    protected static class Holder {
+        // initially empty, so the first call requests a lease
+        protected volatile Range range = new Range(new UniqueNumbersLease(0, -1));
+    }
+
+    protected ConcurrentMap<String, Holder> holders = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the next number of the current lease of the domain, requesting a new lease if needed.
+     *
+     * @param domain    sequence identifier
+     * @param leaser    function returning a new lease for the domain
+     * @return          next number
+     */
+    public long getNextNumber(String domain, Function<String, UniqueNumbersLease> leaser) {
+        Holder holder = holders.computeIfAbsent(domain, d -> new Holder());
+        while (true) {
+            Range range = holder.range;
+            long next = range.counter.incrementAndGet();
+            if (next <= range.last) {
+                return next;
+            }
+            synchronized (holder) {
+                if (holder.range == range) {
+                    holder.range = new Range(leaser.apply(domain));
+                }
+            }
+        }
+    }
+
+    /**
+     * Discards the current lease of the domain. Numbers left in it are not used.
+     */
+    public void invalidate(String domain) {
+        holders.remove(domain);
+    }
+
+    /**
+     * Discards current leases of all domains.
+     */
+    public void invalidateAll() {
+        holders.clear();
+    }
+}
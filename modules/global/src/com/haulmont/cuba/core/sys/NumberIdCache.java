@@ -14,57 +14,144 @@
  * limitations under the License.
  *
  */
-
 package com.haulmont.cuba.core.sys;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.haulmont.cuba.core.global.GlobalConfig;
-
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Caches blocks of identifiers obtained from {@link NumberIdSequence}.
+ * <p>
+ * Each entity has two blocks: the current one which is used to hand out identifiers, and the next one which is
+ * requested in background when the number of identifiers left in the current block falls to
+ * {@link GlobalConfig#getNumberIdCacheLowWaterMark()}. At most one refill per entity is in flight at any time.
+ */
 @Component(NumberIdCache.NAME)
 public class NumberIdCache {
 
     public static final String NAME = "cuba_NumberIdCache";
 
+    private final Logger log = LoggerFactory.getLogger(NumberIdCache.class);
+
+    protected static class Block {
+        protected final AtomicLong counter;
+        protected final long lastValue;
+        protected final long lowWaterMark;
+
+        protected Block(long sequenceValue, int size, int lowWaterMarkSize) {
+            counter = new AtomicLong(sequenceValue);
+            lastValue = sequenceValue + size;
+            lowWaterMark = lowWaterMarkSize > 0 ? Math.max(sequenceValue + 1, lastValue - lowWaterMarkSize) : -1;
+        }
+    }
+
     protected class Generator {
-        protected AtomicLong counter;
-        protected long sequenceValue;
+        protected final String entityName;
+        protected final NumberIdSequence sequence;
+
+        // initially empty, so the first call fetches a block
+        protected volatile Block block = new Block(0, 0, 0);
+
+        protected Future<Long> nextBlock;
 
         protected Generator(String entityName, NumberIdSequence sequence) {
-            sequenceValue = sequence.createLongId(entityName);
-            counter = new AtomicLong(sequenceValue);
+            this.entityName = entityName;
+            this.sequence = sequence;
         }
 
         protected long getNext() {
-            long next = counter.incrementAndGet();
-            if (next > sequenceValue + cacheSize)
-                return -1;
-            return next;
+            while (true) {
+                Block current = block;
+                long next = current.counter.incrementAndGet();
+                if (next <= current.lastValue) {
+                    if (next == current.lowWaterMark) {
+                        prefetch();
+                    }
+                    return next;
+                }
+                switchBlock(current);
+            }
+        }
+
+        protected synchronized void prefetch() {
+            if (nextBlock == null) {
+                try {
+                    nextBlock = executor.submit(new SecurityContextAwareCallable<Long>(this::fetch));
+                } catch (RejectedExecutionException e) {
+                    // the block will be obtained synchronously when the current one is exhausted
+                    log.debug("Unable to prefetch next ID block of {}: {}", entityName, e.toString());
+                }
+            }
+        }
+
+        protected synchronized void switchBlock(Block exhausted) {
+            if (block != exhausted) {
+                // another thread has already switched
+                return;
+            }
+
+            Future<Long> future = nextBlock;
+            nextBlock = null;
+
+            long sequenceValue;
+            if (future == null) {
+                blockingRefillCount.incrementAndGet();
+                sequenceValue = fetch();
+            } else {
+                if (!future.isDone()) {
+                    blockingRefillCount.incrementAndGet();
+                }
+                try {
+                    sequenceValue = future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted while waiting for next ID block of " + entityName, e);
+                } catch (ExecutionException e) {
+                    log.warn("Unable to prefetch next ID block of {}, trying synchronously", entityName, e.getCause());
+                    sequenceValue = fetch();
+                }
+            }
+            block = new Block(sequenceValue, cacheSize, lowWaterMarkSize);
+        }
+
+        protected long fetch() {
+            long start = System.currentTimeMillis();
+            Long sequenceValue = sequence.createLongId(entityName);
+            registerRefill(System.currentTimeMillis() - start);
+            return sequenceValue;
         }
     }
 
     protected ConcurrentMap<String, Generator> cache = new ConcurrentHashMap<>();
 
+    protected ExecutorService executor = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setNameFormat("NumberIdPrefetch-%d").setDaemon(true).build());
+
     protected int cacheSize;
 
+    protected int lowWaterMarkSize;
+
+    protected AtomicLong refillCount = new AtomicLong();
+    protected AtomicLong refillTimeTotal = new AtomicLong();
+    protected AtomicLong refillTimeMax = new AtomicLong();
+    protected AtomicLong blockingRefillCount = new AtomicLong();
+
     @Inject
     protected void setConfig(GlobalConfig config) {
         cacheSize = config.getNumberIdCacheSize();
+        lowWaterMarkSize = config.getNumberIdCacheLowWaterMark();
     }
 
     public Long createLongId(String entityName, NumberIdSequence sequence) {
-        Generator gen = getGenerator(entityName, sequence);
-        long next = gen.getNext();
-        if (next == -1) {
-            cache.remove(entityName);
-            gen = getGenerator(entityName, sequence);
-            next = gen.getNext();
-        }
-        return next;
+        return getGenerator(entityName, sequence).getNext();
     }
 
     protected Generator getGenerator(String entityName, NumberIdSequence sequence) {
@@ -78,4 +165,51 @@ public class NumberIdCache {
         }
         return gen;
     }
-}
\ No newline at end of file
+
+    protected void registerRefill(long time) {
+        refillCount.incrementAndGet();
+        refillTimeTotal.addAndGet(time);
+        refillTimeMax.accumulateAndGet(time, Math::max);
+    }
+
+    /**
+     * @return number of ID blocks obtained from the sequence
+     */
+    public long getRefillCount() {
+        return refillCount.get();
+    }
+
+    /**
+     * @return number of times a thread had to wait for an ID block to be obtained from the sequence
+     */
+    public long getBlockingRefillCount() {
+        return blockingRefillCount.get();
+    }
+
+    /**
+     * @return average time of obtaining an ID block from the sequence in milliseconds
+     */
+    public long getAverageRefillTime() {
+        long count = refillCount.get();
+        return count == 0 ? 0 : refillTimeTotal.get() / count;
+    }
+
+    /**
+     * @return maximum time of obtaining an ID block from the sequence in milliseconds
+     */
+    public long getMaxRefillTime() {
+        return refillTimeMax.get();
+    }
+
+    public void resetStatistics() {
+        refillCount.set(0);
+        refillTimeTotal.set(0);
+        refillTimeMax.set(0);
+        blockingRefillCount.set(0);
+    }
+
+    @PreDestroy
+    protected void stopExecutor() {
+        executor.shutdownNow();
+    }
+}
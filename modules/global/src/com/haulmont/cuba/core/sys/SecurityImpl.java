@@ -29,8 +29,23 @@ import com.haulmont.cuba.security.entity.EntityOp;
 import com.haulmont.cuba.security.entity.PermissionType;
 import com.haulmont.cuba.security.global.ConstraintData;
 import com.haulmont.cuba.security.global.UserSession;
+import groovy.lang.Binding;
+import groovy.lang.Script;
 import org.apache.commons.lang.StringUtils;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.CodeVisitorSupport;
+import org.codehaus.groovy.ast.ModuleNode;
+import org.codehaus.groovy.ast.expr.*;
+import org.codehaus.groovy.classgen.GeneratorContext;
+import org.codehaus.groovy.control.CompilationFailedException;
+import org.codehaus.groovy.control.CompilationUnit;
+import org.codehaus.groovy.control.CompilePhase;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.Phases;
+import org.codehaus.groovy.control.SourceUnit;
+import org.codehaus.groovy.control.customizers.CompilationCustomizer;
 import org.codehaus.groovy.runtime.MethodClosure;
+import org.codehaus.groovy.syntax.Types;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
@@ -38,7 +53,9 @@ import org.springframework.stereotype.Component;
 import javax.inject.Inject;
 import java.text.ParseException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 import static com.haulmont.cuba.security.entity.ConstraintOperationType.ALL;
 import static com.haulmont.cuba.security.entity.ConstraintOperationType.CUSTOM;
@@ -49,6 +66,8 @@ import static java.lang.String.format;
 public class SecurityImpl implements Security {
     private final Logger log = LoggerFactory.getLogger(SecurityImpl.class);
 
+    protected static final String ENTITY_VARIABLE = "__entity__";
+
     @Inject
     protected UserSessionSource userSessionSource;
 
@@ -64,6 +83,9 @@ public class SecurityImpl implements Security {
     @Inject
     protected Scripting scripting;
 
+    // constraint Groovy script text to the flag whether the script cannot modify the checked entity
+    protected Map<String, Boolean> readOnlyConstraints = new ConcurrentHashMap<>();
+
     @Override
     public boolean isScreenPermitted(String windowAlias) {
         return userSessionSource.getUserSession().isScreenPermitted(windowAlias);
@@ -194,9 +216,26 @@ public class SecurityImpl implements Security {
     }
 
     protected boolean isPermitted(Entity entity, Predicate<ConstraintData> predicate) {
-        List<ConstraintData> constraints = getConstraints(entity.getMetaClass(), predicate);
-        for (ConstraintData constraint : constraints) {
-            if (!isPermitted(entity, constraint)) {
+        return isPermitted(entity, predicate, new HashMap<>());
+    }
+
+    /**
+     * Checks the entity against in-memory constraints selected by the predicate.
+     * To check a number of entities, pass the same {@code evaluators} map and the same predicate for each entity:
+     * constraints of a meta-class are then looked up and prepared for evaluation only once.
+     *
+     * @param evaluators cache of constraint evaluators by meta-class, filled by this method
+     */
+    protected boolean isPermitted(Entity entity, Predicate<ConstraintData> predicate,
+                                  Map<MetaClass, List<ConstraintEvaluator>> evaluators) {
+        List<ConstraintEvaluator> metaClassEvaluators = evaluators.computeIfAbsent(entity.getMetaClass(),
+                metaClass -> getConstraints(metaClass, predicate).stream()
+                        .filter(constraint -> constraint.getCheckType().memory()
+                                && StringUtils.isNotBlank(constraint.getGroovyScript()))
+                        .map(ConstraintEvaluator::new)
+                        .collect(Collectors.toList()));
+        for (ConstraintEvaluator evaluator : metaClassEvaluators) {
+            if (!evaluator.isPermitted(entity)) {
                 return false;
             }
         }
@@ -204,30 +243,39 @@ public class SecurityImpl implements Security {
     }
 
     protected boolean isPermitted(Entity entity, ConstraintData constraint) {
-        String metaClassName = entity.getMetaClass().getName();
-        String groovyScript = constraint.getGroovyScript();
-        if (constraint.getCheckType().memory() && StringUtils.isNotBlank(groovyScript)) {
-            Map<String, Object> context = new HashMap<>();
-            context.put("__entity__", metadataTools.deepCopy(entity)); // copy to avoid implicit modification
-            context.put("parse", new MethodClosure(this, "parseValue"));
-            context.put("userSession", userSessionSource.getUserSession());
-            fillGroovyConstraintsContext(context);
-            try {
-                Object o = scripting.evaluateGroovy(groovyScript.replace("{E}", "__entity__"), context);
-                if (Boolean.FALSE.equals(o)) {
-                    log.trace("Entity does not match security constraint. Entity class [{}]. Entity [{}]. Constraint [{}].",
-                            metaClassName, entity.getId(), constraint.getCheckType());
-                    return false;
-                }
-            } catch (Exception e) {
-                log.error("An error occurred while applying constraint's Groovy script. The entity has been filtered out." +
-                          "Entity class [{}]. Entity [{}].", metaClassName, entity.getId(), e);
-                return false;
-            }
+        if (constraint.getCheckType().memory() && StringUtils.isNotBlank(constraint.getGroovyScript())) {
+            return new ConstraintEvaluator(constraint).isPermitted(entity);
         }
         return true;
     }
 
+    protected CompiledConstraint getCompiledConstraint(String groovyScript) {
+        String text = groovyScript.replace("{E}", ENTITY_VARIABLE);
+        // compiled classes are cached and evicted by Scripting, keep only the result of the script analysis here
+        CompiledGroovyScript<Object> script = scripting.compileGroovy(text, Object.class);
+        boolean readOnly = readOnlyConstraints.computeIfAbsent(text, this::isReadOnlyScript);
+        return new CompiledConstraint(script, readOnly);
+    }
+
+    protected boolean isReadOnlyScript(String text) {
+        ReadOnlyScriptChecker readOnlyChecker = new ReadOnlyScriptChecker();
+
+        CompilerConfiguration cc = new CompilerConfiguration();
+        cc.addCompilationCustomizers(readOnlyChecker);
+        CompilationUnit compilationUnit = new CompilationUnit(cc);
+        compilationUnit.addSource("Constraint.groovy", text);
+        compilationUnit.compile(Phases.CONVERSION);
+        return readOnlyChecker.isReadOnly();
+    }
+
+    protected Binding createGroovyConstraintsBinding() {
+        Map<String, Object> context = new HashMap<>();
+        context.put("parse", new MethodClosure(this, "parseValue"));
+        context.put("userSession", userSessionSource.getUserSession());
+        fillGroovyConstraintsContext(context);
+        return new Binding(context);
+    }
+
     /**
      * Override if you need specific context variables in Groovy constraints.
      *
@@ -247,4 +295,199 @@ public class SecurityImpl implements Security {
                     "See the log for details.", clazz, string), null);
         }
     }
+
+    /**
+     * Evaluates a constraint for a sequence of entities in the current thread, reusing the compiled script
+     * and its binding.
+     */
+    protected class ConstraintEvaluator {
+
+        protected final ConstraintData constraint;
+        protected Script script;
+        protected boolean readOnly;
+        protected boolean failed;
+
+        public ConstraintEvaluator(ConstraintData constraint) {
+            this.constraint = constraint;
+        }
+
+        public boolean isPermitted(Entity entity) {
+            String metaClassName = entity.getMetaClass().getName();
+            if (failed) {
+                return false;
+            }
+            try {
+                if (script == null) {
+                    CompiledConstraint compiledConstraint = getCompiledConstraint(constraint.getGroovyScript());
+                    script = compiledConstraint.createScript(createGroovyConstraintsBinding());
+                    readOnly = compiledConstraint.isReadOnly();
+                }
+                // copy to avoid implicit modification if the script can modify the entity
+                script.getBinding().setVariable(ENTITY_VARIABLE, readOnly ? entity : metadataTools.deepCopy(entity));
+                Object o = script.run();
+                if (Boolean.FALSE.equals(o)) {
+                    log.trace("Entity does not match security constraint. Entity class [{}]. Entity [{}]. Constraint [{}].",
+                            metaClassName, entity.getId(), constraint.getCheckType());
+                    return false;
+                }
+            } catch (CompilationFailedException e) {
+                failed = true;
+                log.error("Unable to compile constraint's Groovy script. The entities have been filtered out." +
+                          "Entity class [{}]. Entity [{}].", metaClassName, entity.getId(), e);
+                return false;
+            } catch (Exception e) {
+                log.error("An error occurred while applying constraint's Groovy script. The entity has been filtered out." +
+                          "Entity class [{}]. Entity [{}].", metaClassName, entity.getId(), e);
+                return false;
+            } finally {
+                if (script != null) {
+                    script.getBinding().getVariables().remove(ENTITY_VARIABLE);
+                }
+            }
+            return true;
+        }
+    }
+
+    protected static class CompiledConstraint {
+
+        protected final CompiledGroovyScript<Object> script;
+        protected final boolean readOnly;
+
+        public CompiledConstraint(CompiledGroovyScript<Object> script, boolean readOnly) {
+            this.script = script;
+            this.readOnly = readOnly;
+        }
+
+        public Script createScript(Binding binding) {
+            return script.createScript(binding);
+        }
+
+        /**
+         * @return true if the script cannot modify the checked entity, so the entity can be passed without copying
+         */
+        public boolean isReadOnly() {
+            return readOnly;
+        }
+    }
+
+    /**
+     * Conservatively detects whether a constraint script can modify objects it has access to. The script is considered
+     * read-only only if it consists of reading properties, invoking methods known to have no side effects, comparisons,
+     * arithmetic and logical operators, and assignments of local variables. Anything else, e.g. an unknown method,
+     * a constructor call or the {@code <<} operator, makes the script modifying.
+     */
+    protected static class ReadOnlyScriptChecker extends CompilationCustomizer {
+
+        /**
+         * Methods of entities, strings, numbers, dates, collections and Groovy extensions which do not modify
+         * the object they are invoked on. Accessors starting with {@code get} and {@code is} are allowed as well.
+         * Note that Groovy {@code sort()} and {@code unique()} modify lists, so they are not here.
+         */
+        protected static final Set<String> READ_ONLY_METHODS = new HashSet<>(Arrays.asList(
+                "equals", "hashCode", "toString", "compareTo", "compareToIgnoreCase", "equalsIgnoreCase",
+                "contains", "containsKey", "containsValue", "containsAll",
+                "startsWith", "endsWith", "toLowerCase", "toUpperCase", "trim", "length", "size", "matches",
+                "indexOf", "lastIndexOf", "substring", "charAt", "split", "replace", "format", "valueOf",
+                "before", "after", "abs", "intValue", "longValue", "doubleValue",
+                "any", "every", "find", "findAll", "findResult", "collect", "count", "grep", "inject", "sum", "max",
+                "min", "first", "last", "join", "each", "eachWithIndex", "asBoolean", "intersect",
+                "parse"));
+
+        protected static final Set<Integer> READ_ONLY_OPERATORS = new HashSet<>(Arrays.asList(
+                Types.COMPARE_EQUAL, Types.COMPARE_NOT_EQUAL, Types.COMPARE_IDENTICAL, Types.COMPARE_NOT_IDENTICAL,
+                Types.COMPARE_LESS_THAN, Types.COMPARE_LESS_THAN_EQUAL,
+                Types.COMPARE_GREATER_THAN, Types.COMPARE_GREATER_THAN_EQUAL, Types.COMPARE_TO,
+                Types.LOGICAL_AND, Types.LOGICAL_OR,
+                Types.PLUS, Types.MINUS, Types.MULTIPLY, Types.DIVIDE, Types.MOD,
+                Types.KEYWORD_IN, Types.KEYWORD_INSTANCEOF, Types.FIND_REGEX, Types.MATCH_REGEX,
+                Types.LEFT_SQUARE_BRACKET));
+
+        protected boolean readOnly = true;
+
+        public ReadOnlyScriptChecker() {
+            super(CompilePhase.CONVERSION);
+        }
+
+        public boolean isReadOnly() {
+            return readOnly;
+        }
+
+        @Override
+        public void call(SourceUnit source, GeneratorContext context, ClassNode classNode) {
+            ModuleNode module = source.getAST();
+            if (module.getClasses().size() > 1 || !module.getMethods().isEmpty()) {
+                readOnly = false;
+                return;
+            }
+            CodeVisitorSupport visitor = new CodeVisitorSupport() {
+                @Override
+                public void visitBinaryExpression(BinaryExpression expression) {
+                    int operation = expression.getOperation().getType();
+                    if (operation == Types.ASSIGN) {
+                        if (!(expression.getLeftExpression() instanceof VariableExpression)) {
+                            readOnly = false;
+                        }
+                    } else if (!READ_ONLY_OPERATORS.contains(operation)) {
+                        readOnly = false;
+                    }
+                    super.visitBinaryExpression(expression);
+                }
+
+                @Override
+                public void visitDeclarationExpression(DeclarationExpression expression) {
+                    expression.getRightExpression().visit(this);
+                }
+
+                @Override
+                public void visitPostfixExpression(PostfixExpression expression) {
+                    if (!(expression.getExpression() instanceof VariableExpression)) {
+                        readOnly = false;
+                    }
+                    super.visitPostfixExpression(expression);
+                }
+
+                @Override
+                public void visitPrefixExpression(PrefixExpression expression) {
+                    if (!(expression.getExpression() instanceof VariableExpression)) {
+                        readOnly = false;
+                    }
+                    super.visitPrefixExpression(expression);
+                }
+
+                @Override
+                public void visitMethodCallExpression(MethodCallExpression call) {
+                    String method = call.getMethodAsString();
+                    if (method == null || !isReadOnlyMethod(method)) {
+                        readOnly = false;
+                    }
+                    super.visitMethodCallExpression(call);
+                }
+
+                @Override
+                public void visitStaticMethodCallExpression(StaticMethodCallExpression call) {
+                    readOnly = false;
+                    super.visitStaticMethodCallExpression(call);
+                }
+
+                @Override
+                public void visitConstructorCallExpression(ConstructorCallExpression call) {
+                    readOnly = false;
+                    super.visitConstructorCallExpression(call);
+                }
+
+                @Override
+                public void visitMethodPointerExpression(MethodPointerExpression expression) {
+                    readOnly = false;
+                    super.visitMethodPointerExpression(expression);
+                }
+            };
+            module.getStatementBlock().visit(visitor);
+        }
+
+        protected static boolean isReadOnlyMethod(String method) {
+            return READ_ONLY_METHODS.contains(method)
+                    || (method.startsWith("get") && !method.startsWith("getAnd"))
+                    || method.startsWith("is");
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2008-2016 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.haulmont.cuba.core.sys.jmx;
+
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+@ManagedResource(description = "Provides statistics of NumberIdCache ID block refills")
+public interface JmxNumberIdCacheMBean {
+
+    @ManagedAttribute(description = "Number of ID blocks obtained from sequences")
+    long getRefillCount();
+
+    @ManagedAttribute(description = "Number of times a thread waited for an ID block")
+    long getBlockingRefillCount();
+
+    @ManagedAttribute(description = "Average time of obtaining an ID block, ms")
+    long getAverageRefillTime();
+
+    @ManagedAttribute(description = "Maximum time of obtaining an ID block, ms")
+    long getMaxRefillTime();
+
+    @ManagedOperation(description = "Reset statistics")
+    void resetStatistics();
+}
@@ -19,6 +19,9 @@ package com.haulmont.cuba.security.app;
 import com.haulmont.cuba.core.global.ClientType;
 import com.haulmont.cuba.security.entity.User;
 
+import java.util.Collection;
+import java.util.Map;
+
 /**
  * Service providing current user settings functionality:
  * an application can save/load some "setting" (plain or XML string) for current user.
@@ -44,6 +47,20 @@ public interface UserSettingService {
     /** Delete settings for the current user */
     void deleteSettings(ClientType clientType, String name);
 
+    /**
+     * Load several settings for the current user at once.
+     *
+     * @return map of setting names to values, contains only found settings
+     */
+    Map<String, String> loadSettings(ClientType clientType, Collection<String> names);
+
+    /**
+     * Save several settings for the current user in one transaction. A setting with null value is deleted.
+     *
+     * @param settings map of setting names to values
+     */
+    void saveSettings(ClientType clientType, Map<String, String> settings);
+
     /** Copy user settings to another user */
     void copySettings(User fromUser, User toUser);
 }
\ No newline at end of file
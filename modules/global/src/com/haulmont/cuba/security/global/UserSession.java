@@ -18,6 +18,7 @@ package com.haulmont.cuba.security.global;
 
 import com.google.common.collect.ArrayListMultimap;
 import com.haulmont.chile.core.model.MetaClass;
+import com.haulmont.chile.core.model.MetaProperty;
 import com.haulmont.cuba.core.sys.UserInvocationContext;
 import com.haulmont.cuba.security.entity.*;
 
@@ -27,6 +28,7 @@ import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -59,6 +61,10 @@ public class UserSession implements Serializable {
 
     protected transient Map<String, Object> localAttributes;
 
+    // lazily filled index of effective entity permissions, reset on each change of permissions;
+    // shared by copies of the session as they share the permissions
+    protected transient AtomicReference<Map<MetaClass, EntityPermissions>> entityPermissions = new AtomicReference<>();
+
     /**
      * INTERNAL
      */
@@ -113,11 +119,13 @@ public class UserSession implements Serializable {
         attributes = src.attributes;
         roleTypes = src.roleTypes;
         localAttributes = src.localAttributes;
+        entityPermissions = src.entityPermissions;
     }
 
     private void readObject(ObjectInputStream stream) throws IOException, ClassNotFoundException {
         stream.defaultReadObject();
         localAttributes = new ConcurrentHashMap<>();
+        entityPermissions = new AtomicReference<>();
     }
 
     /**
@@ -255,6 +263,7 @@ public class UserSession implements Serializable {
             permissions[type.ordinal()].put(target, value);
             if (extTarget != null)
                 permissions[type.ordinal()].put(extTarget, value);
+            entityPermissions.set(null);
         }
     }
 
@@ -263,6 +272,7 @@ public class UserSession implements Serializable {
      */
     public void removePermission(PermissionType type, String target) {
         permissions[type.ordinal()].remove(target);
+        entityPermissions.set(null);
     }
 
     /**
@@ -290,17 +300,39 @@ public class UserSession implements Serializable {
      * Check user permission for the entity operation
      */
     public boolean isEntityOpPermitted(MetaClass metaClass, EntityOp entityOp) {
-        return isPermitted(PermissionType.ENTITY_OP,
-                metaClass.getName() + Permission.TARGET_PATH_DELIMETER + entityOp.getId());
+        if (roleTypes.contains(RoleType.SUPER))
+            return true;
+        return getEntityPermissions(metaClass).isOpPermitted(entityOp);
     }
 
     /**
      * Check user permission for the entity attribute
      */
     public boolean isEntityAttrPermitted(MetaClass metaClass, String property, EntityAttrAccess access) {
-        return isPermitted(PermissionType.ENTITY_ATTR,
-                metaClass.getName() + Permission.TARGET_PATH_DELIMETER + property,
-                access.getId());
+        if (roleTypes.contains(RoleType.SUPER))
+            return true;
+        Integer value = getEntityPermissions(metaClass).getAttrValue(property);
+        if (value == null) {
+            // not a property of the meta-class, e.g. a dynamic attribute
+            return isPermitted(PermissionType.ENTITY_ATTR,
+                    metaClass.getName() + Permission.TARGET_PATH_DELIMETER + property,
+                    access.getId());
+        }
+        return value >= access.getId();
+    }
+
+    protected EntityPermissions getEntityPermissions(MetaClass metaClass) {
+        Map<MetaClass, EntityPermissions> index = entityPermissions.get();
+        if (index == null) {
+            index = new ConcurrentHashMap<>();
+            entityPermissions.set(index);
+        }
+        EntityPermissions result = index.get(metaClass);
+        if (result == null) {
+            result = new EntityPermissions(metaClass);
+            index.put(metaClass, result);
+        }
+        return result;
     }
 
     /**
@@ -347,6 +379,13 @@ public class UserSession implements Serializable {
         // If we have super-role no need to check anything
         if (roleTypes.contains(RoleType.SUPER))
             return true;
+        Integer v = getEffectivePermissionValue(type, target);
+        // Return true if no value set for this target, or if the value is more than requested
+        return v == null || v >= value;
+    }
+
+    @Nullable
+    protected Integer getEffectivePermissionValue(PermissionType type, String target) {
         // Get permission value assigned by the set of permissions
         Integer v = permissions[type.ordinal()].get(target);
         // Get permission value assigned by non-standard roles
@@ -356,8 +395,7 @@ public class UserSession implements Serializable {
                 v = v1;
             }
         }
-        // Return true if no value set for this target, or if the value is more than requested
-        return v == null || v >= value;
+        return v;
     }
 
     /**
@@ -513,4 +551,45 @@ public class UserSession implements Serializable {
                 + user.getLogin() + (substitutedUser == null ? "" : " / " + substitutedUser.getLogin())
                 + "]";
     }
+
+    /**
+     * Effective permissions for operations and attributes of a meta-class, computed once to avoid building
+     * permission target strings on each check.
+     */
+    protected class EntityPermissions {
+
+        // bit per EntityOp ordinal, set if the operation is permitted
+        protected final int permittedOps;
+        // property name to the maximum permitted EntityAttrAccess id
+        protected final Map<String, Integer> attrValues;
+
+        public EntityPermissions(MetaClass metaClass) {
+            String prefix = metaClass.getName() + Permission.TARGET_PATH_DELIMETER;
+
+            int ops = 0;
+            for (EntityOp entityOp : EntityOp.values()) {
+                Integer v = getEffectivePermissionValue(PermissionType.ENTITY_OP, prefix + entityOp.getId());
+                if (v == null || v >= 1) {
+                    ops |= 1 << entityOp.ordinal();
+                }
+            }
+            permittedOps = ops;
+
+            Collection<MetaProperty> properties = metaClass.getProperties();
+            attrValues = new HashMap<>(properties.size() * 4 / 3 + 1);
+            for (MetaProperty property : properties) {
+                Integer v = getEffectivePermissionValue(PermissionType.ENTITY_ATTR, prefix + property.getName());
+                attrValues.put(property.getName(), v == null ? EntityAttrAccess.MODIFY.getId() : v);
+            }
+        }
+
+        public boolean isOpPermitted(EntityOp entityOp) {
+            return (permittedOps & (1 << entityOp.ordinal())) != 0;
+        }
+
+        @Nullable
+        public Integer getAttrValue(String property) {
+            return attrValues.get(property);
+        }
+    }
 }
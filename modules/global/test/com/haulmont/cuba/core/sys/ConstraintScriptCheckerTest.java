@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2008-2016 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.haulmont.cuba.core.sys;
+
+import groovy.lang.GroovyShell;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ConstraintScriptCheckerTest {
+
+    @Test
+    public void testReadOnlyScripts() throws Exception {
+        assertTrue(isReadOnly("__entity__.login.startsWith('user3')"));
+        assertTrue(isReadOnly("__entity__.group == userSession.user.group"));
+        assertTrue(isReadOnly("def login = __entity__.login; login = login.toLowerCase(); login.length() > 3"));
+        assertTrue(isReadOnly("__entity__.userRoles.any { it.role.name == 'Administrators' }"));
+        assertTrue(isReadOnly("int i = 0; i++; i < 10"));
+        assertTrue(isReadOnly("__entity__.getLogin() != null && !__entity__.userRoles.isEmpty()"));
+        assertTrue(isReadOnly("__entity__.userRoles.collect { it.role.name }.contains('Administrators')"));
+        assertTrue(isReadOnly("__entity__.createTs > parse(java.util.Date, '2017-01-01')"));
+    }
+
+    @Test
+    public void testModifyingScripts() throws Exception {
+        assertFalse(isReadOnly("__entity__.login = 'admin'"));
+        assertFalse(isReadOnly("__entity__['login'] = 'admin'"));
+        assertFalse(isReadOnly("__entity__.version++ > 0"));
+        assertFalse(isReadOnly("__entity__.setLogin('admin')"));
+        assertFalse(isReadOnly("__entity__.userRoles.clear()"));
+        assertFalse(isReadOnly("__entity__.userRoles.each { it.role = null }"));
+        assertFalse(isReadOnly("__entity__.with { login = 'admin' }"));
+        assertFalse(isReadOnly("__entity__.\"${'set' + 'Login'}\"('admin')"));
+        assertFalse(isReadOnly("__entity__.userRoles.sort()"));
+        assertFalse(isReadOnly("__entity__.userRoles.unique()"));
+        assertFalse(isReadOnly("__entity__.userRoles.retainAll([])"));
+        assertFalse(isReadOnly("__entity__.userRoles.push(null)"));
+        assertFalse(isReadOnly("__entity__.userRoles.pop()"));
+        assertFalse(isReadOnly("__entity__.userRoles << null"));
+        assertFalse(isReadOnly("Collections.sort(__entity__.userRoles)"));
+        assertFalse(isReadOnly("new ArrayList(__entity__.userRoles)"));
+        assertFalse(isReadOnly("def f = __entity__.userRoles.&clear; f()"));
+        assertFalse(isReadOnly("def check(e) { e.login } ; check(__entity__)"));
+    }
+
+    private boolean isReadOnly(String script) {
+        SecurityImpl.ReadOnlyScriptChecker checker = new SecurityImpl.ReadOnlyScriptChecker();
+        CompilerConfiguration cc = new CompilerConfiguration();
+        cc.addCompilationCustomizers(checker);
+        new GroovyShell(cc).parse(script);
+        return checker.isReadOnly();
+    }
+}
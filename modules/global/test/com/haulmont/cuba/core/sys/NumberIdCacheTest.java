@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2008-2016 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.haulmont.cuba.core.sys;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class NumberIdCacheTest {
+
+    private static final int CACHE_SIZE = 10;
+
+    private NumberIdCache cache;
+
+    private AtomicLong sequenceValue = new AtomicLong(-CACHE_SIZE);
+    private AtomicInteger sequenceCalls = new AtomicInteger();
+
+    private NumberIdSequence sequence = entityName -> {
+        sequenceCalls.incrementAndGet();
+        return sequenceValue.addAndGet(CACHE_SIZE);
+    };
+
+    @Before
+    public void setUp() throws Exception {
+        cache = new NumberIdCache();
+        cache.cacheSize = CACHE_SIZE;
+        cache.lowWaterMarkSize = 3;
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        cache.stopExecutor();
+    }
+
+    @Test
+    public void testSequentialIds() throws Exception {
+        for (long i = 1; i <= 1000; i++) {
+            assertEquals(i, (long) cache.createLongId("test$Entity", sequence));
+        }
+        // one block can be prefetched in advance
+        assertTrue(sequenceCalls.get() <= 1000 / CACHE_SIZE + 1);
+        // wait for the prefetch which may still be running
+        cache.executor.shutdown();
+        assertTrue(cache.executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(sequenceCalls.get(), cache.getRefillCount());
+    }
+
+    @Test
+    public void testConcurrentIds() throws Exception {
+        int threads = 8;
+        int idsPerThread = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<Long>>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    List<Long> ids = new ArrayList<>();
+                    for (int j = 0; j < idsPerThread; j++) {
+                        ids.add(cache.createLongId("test$Entity", sequence));
+                    }
+                    return ids;
+                }));
+            }
+            Set<Long> allIds = new HashSet<>();
+            for (Future<List<Long>> future : futures) {
+                allIds.addAll(future.get());
+            }
+            assertEquals(threads * idsPerThread, allIds.size());
+            assertTrue(sequenceCalls.get() <= threads * idsPerThread / CACHE_SIZE + 1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testWithoutPrefetch() throws Exception {
+        cache.lowWaterMarkSize = 0;
+        for (long i = 1; i <= 100; i++) {
+            assertEquals(i, (long) cache.createLongId("test$Entity", sequence));
+        }
+        assertEquals(100 / CACHE_SIZE, sequenceCalls.get());
+        assertEquals(100 / CACHE_SIZE, cache.getBlockingRefillCount());
+    }
+}
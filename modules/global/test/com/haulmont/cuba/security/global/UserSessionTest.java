@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2008-2016 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.haulmont.cuba.security.global;
+
+import com.haulmont.chile.core.model.MetaClass;
+import com.haulmont.chile.core.model.impl.MetaClassImpl;
+import com.haulmont.chile.core.model.impl.MetaModelImpl;
+import com.haulmont.chile.core.model.impl.MetaPropertyImpl;
+import com.haulmont.chile.core.model.impl.SessionImpl;
+import com.haulmont.cuba.core.sys.serialization.SerializationSupport;
+import com.haulmont.cuba.security.entity.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.UUID;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class UserSessionTest {
+
+    private MetaClass metaClass;
+    private UserSession session;
+
+    @Before
+    public void setUp() throws Exception {
+        MetaModelImpl model = new MetaModelImpl(new SessionImpl(), "test");
+        metaClass = new MetaClassImpl(model, "test$Foo");
+        new MetaPropertyImpl(metaClass, "name");
+        new MetaPropertyImpl(metaClass, "secret");
+        new MetaPropertyImpl(metaClass, "readOnly");
+
+        User user = new User();
+        user.setLogin("user");
+        session = new UserSession(UUID.randomUUID(), user, Collections.emptyList(), Locale.ENGLISH, false);
+    }
+
+    @Test
+    public void testEntityPermissions() throws Exception {
+        session.addPermission(PermissionType.ENTITY_OP, "test$Foo:delete", null, 0);
+        session.addPermission(PermissionType.ENTITY_ATTR, "test$Foo:secret", null, EntityAttrAccess.DENY.getId());
+        session.addPermission(PermissionType.ENTITY_ATTR, "test$Foo:readOnly", null, EntityAttrAccess.VIEW.getId());
+
+        assertPermissions(session);
+    }
+
+    @Test
+    public void testChangeOfPermissions() throws Exception {
+        assertTrue(session.isEntityOpPermitted(metaClass, EntityOp.DELETE));
+        assertTrue(session.isEntityAttrPermitted(metaClass, "secret", EntityAttrAccess.VIEW));
+
+        session.addPermission(PermissionType.ENTITY_OP, "test$Foo:delete", null, 0);
+        session.addPermission(PermissionType.ENTITY_ATTR, "test$Foo:secret", null, EntityAttrAccess.DENY.getId());
+
+        assertFalse(session.isEntityOpPermitted(metaClass, EntityOp.DELETE));
+        assertFalse(session.isEntityAttrPermitted(metaClass, "secret", EntityAttrAccess.VIEW));
+
+        session.removePermission(PermissionType.ENTITY_OP, "test$Foo:delete");
+        assertTrue(session.isEntityOpPermitted(metaClass, EntityOp.DELETE));
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        session.addPermission(PermissionType.ENTITY_OP, "test$Foo:delete", null, 0);
+        session.addPermission(PermissionType.ENTITY_ATTR, "test$Foo:secret", null, EntityAttrAccess.DENY.getId());
+        session.addPermission(PermissionType.ENTITY_ATTR, "test$Foo:readOnly", null, EntityAttrAccess.VIEW.getId());
+        // build the index before serialization
+        assertPermissions(session);
+
+        assertPermissions((UserSession) SerializationSupport.deserialize(SerializationSupport.serialize(session)));
+        assertPermissions(new UserSession(session));
+    }
+
+    @Test
+    public void testChangeOfPermissionsInCopy() throws Exception {
+        UserSession copy = new UserSession(session);
+        // build the index in both sessions
+        assertTrue(session.isEntityOpPermitted(metaClass, EntityOp.DELETE));
+        assertTrue(copy.isEntityOpPermitted(metaClass, EntityOp.DELETE));
+
+        session.addPermission(PermissionType.ENTITY_OP, "test$Foo:delete", null, 0);
+        assertFalse(copy.isEntityOpPermitted(metaClass, EntityOp.DELETE));
+
+        copy.removePermission(PermissionType.ENTITY_OP, "test$Foo:delete");
+        assertTrue(session.isEntityOpPermitted(metaClass, EntityOp.DELETE));
+    }
+
+    private void assertPermissions(UserSession session) {
+        assertTrue(session.isEntityOpPermitted(metaClass, EntityOp.READ));
+        assertTrue(session.isEntityOpPermitted(metaClass, EntityOp.UPDATE));
+        assertFalse(session.isEntityOpPermitted(metaClass, EntityOp.DELETE));
+
+        assertTrue(session.isEntityAttrPermitted(metaClass, "name", EntityAttrAccess.MODIFY));
+        assertFalse(session.isEntityAttrPermitted(metaClass, "secret", EntityAttrAccess.VIEW));
+        assertTrue(session.isEntityAttrPermitted(metaClass, "readOnly", EntityAttrAccess.VIEW));
+        assertFalse(session.isEntityAttrPermitted(metaClass, "readOnly", EntityAttrAccess.MODIFY));
+        // not a property of the meta-class
+        assertTrue(session.isEntityAttrPermitted(metaClass, "+dynamicAttr", EntityAttrAccess.MODIFY));
+    }
+}
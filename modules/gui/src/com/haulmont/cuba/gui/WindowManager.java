@@ -39,6 +39,7 @@ import com.haulmont.cuba.gui.xml.data.DsContextLoader;
 import com.haulmont.cuba.gui.xml.layout.ComponentLoader;
 import com.haulmont.cuba.gui.xml.layout.LayoutLoader;
 import com.haulmont.cuba.gui.xml.layout.LayoutLoaderConfig;
+import com.haulmont.cuba.gui.xml.layout.ScreenBlueprint;
 import com.haulmont.cuba.gui.xml.layout.ScreenXmlDocumentCache;
 import com.haulmont.cuba.gui.xml.layout.loaders.ComponentLoaderContext;
 import com.haulmont.cuba.security.entity.PermissionType;
@@ -376,19 +377,17 @@ public abstract class WindowManager {
                 UIPerformanceLogger.LifeCycle.XML,
                 Logger.getLogger(UIPerformanceLogger.class));
 
-        Document document = screenXmlCache.get(template);
-        if (document == null) {
+        ScreenBlueprint blueprint = screenXmlCache.getBlueprint(template);
+        if (blueprint == null) {
             Document originalDocument = LayoutLoader.parseDescriptor(template);
 
             XmlInheritanceProcessor processor = new XmlInheritanceProcessor(originalDocument, params);
             Element resultRoot = processor.getResultRoot();
 
-            document = resultRoot.getDocument();
-
-            screenXmlCache.put(template, document);
+            blueprint = screenXmlCache.putBlueprint(template, resultRoot.getDocument());
         }
 
-        Element element = document.getRootElement();
+        Element element = blueprint.getRootElement();
 
         xmlLoadWatch.stop();
 
@@ -398,24 +397,42 @@ public abstract class WindowManager {
         componentLoaderContext.setFullFrameId(windowInfo.getId());
         componentLoaderContext.setCurrentFrameId(windowInfo.getId());
 
+        StopWatch createLayoutWatch = new Log4JStopWatch(windowInfo.getId() + "#" +
+                UIPerformanceLogger.LifeCycle.CREATE_LAYOUT,
+                Logger.getLogger(UIPerformanceLogger.class));
+
         ComponentLoader windowLoader = createLayout(windowInfo, element, componentLoaderContext, layoutConfig);
         Window clientSpecificWindow = (Window) windowLoader.getResultComponent();
         Window windowWrapper = wrapByCustomClass(clientSpecificWindow, element);
 
-        WindowCreationHelper.deployViews(element);
+        createLayoutWatch.stop();
+
+        StopWatch datasourcesWatch = new Log4JStopWatch(windowInfo.getId() + "#" +
+                UIPerformanceLogger.LifeCycle.DATASOURCES,
+                Logger.getLogger(UIPerformanceLogger.class));
+
+        blueprint.deployViews();
 
-        DsContext dsContext = loadDsContext(element);
+        DsContext dsContext = loadDsContext(blueprint);
         initDatasources(clientSpecificWindow, dsContext, params);
 
+        datasourcesWatch.stop();
+
         componentLoaderContext.setDsContext(dsContext);
 
         WindowContext windowContext = new WindowContextImpl(clientSpecificWindow, openType, params);
         clientSpecificWindow.setContext(windowContext);
         dsContext.setFrameContext(windowContext);
 
+        StopWatch loadComponentsWatch = new Log4JStopWatch(windowInfo.getId() + "#" +
+                UIPerformanceLogger.LifeCycle.LOAD_COMPONENTS,
+                Logger.getLogger(UIPerformanceLogger.class));
+
         //noinspection unchecked
         windowLoader.loadComponent();
 
+        loadComponentsWatch.stop();
+
         clientSpecificWindow.setWindowManager(this);
 
         loadDescriptorWatch.stop();
@@ -490,23 +507,22 @@ public abstract class WindowManager {
         return windowLoader;
     }
 
-    protected DsContext loadDsContext(Element element) {
+    protected DsContext loadDsContext(ScreenBlueprint blueprint) {
         DataSupplier dataSupplier;
 
-        String dataSupplierClass = element.attributeValue("dataSupplier");
-        if (StringUtils.isEmpty(dataSupplierClass)) {
+        Class<? extends DataSupplier> dataSupplierClass = blueprint.getDataSupplierClass();
+        if (dataSupplierClass == null) {
             dataSupplier = defaultDataSupplier;
         } else {
-            Class<Object> aClass = ReflectionHelper.getClass(dataSupplierClass);
             try {
-                dataSupplier = (DataSupplier) aClass.newInstance();
+                dataSupplier = dataSupplierClass.newInstance();
             } catch (InstantiationException | IllegalAccessException e) {
                 throw new RuntimeException("Unable to create data supplier for screen", e);
             }
         }
 
         //noinspection UnnecessaryLocalVariable
-        DsContext dsContext = new DsContextLoader(dataSupplier).loadDatasources(element.element("dsContext"), null);
+        DsContext dsContext = new DsContextLoader(dataSupplier).loadDatasources(blueprint.getDsContextDefinition(), null);
         return dsContext;
     }
 
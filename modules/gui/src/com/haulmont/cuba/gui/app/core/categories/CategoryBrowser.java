@@ -33,8 +33,11 @@ import com.haulmont.cuba.gui.config.PermissionConfig;
 import com.haulmont.cuba.gui.data.CollectionDatasource;
 
 import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 
 public class CategoryBrowser extends AbstractLookup {
 
@@ -59,16 +62,30 @@ public class CategoryBrowser extends AbstractLookup {
     @Inject
     protected ClientCacheManager clientCacheManager;
 
+    // categories created, edited or removed in this screen since the last applying of changes
+    protected Set<UUID> changedCategoryIds = new HashSet<>();
+
     @Override
     public void init(Map<String, Object> params) {
         categoriesDs = (CollectionDatasource) getDsContext().get("categoriesDs");
         categoryTable.addAction(new CreateAction());
         categoryTable.addAction(new EditAction());
-        categoryTable.addAction(new RemoveAction(categoryTable));
+        RemoveAction removeAction = new RemoveAction(categoryTable);
+        removeAction.setAfterRemoveHandler(removedItems -> {
+            for (Object item : removedItems) {
+                changedCategoryIds.add(((Category) item).getId());
+            }
+        });
+        categoryTable.addAction(removeAction);
         categoryTable.addAction(new AbstractAction("applyChanges") {
             @Override
             public void actionPerform(Component component) {
-                dynamicAttributesCacheService.loadCache();
+                if (changedCategoryIds.isEmpty()) {
+                    dynamicAttributesCacheService.loadCache();
+                } else {
+                    dynamicAttributesCacheService.reloadCategories(new ArrayList<>(changedCategoryIds));
+                    changedCategoryIds.clear();
+                }
                 clientCacheManager.refreshCached(DynamicAttributesCacheStrategy.NAME);
                 permissionConfig.clearConfigCache();
                 showNotification(getMessage("notification.changesApplied"), NotificationType.HUMANIZED);
@@ -105,6 +122,9 @@ public class CategoryBrowser extends AbstractLookup {
             Category category = metadata.create(Category.class);
             Editor editor = openEditor("sys$Category.edit", category, WindowManager.OpenType.THIS_TAB);
             editor.addCloseListener(actionId -> {
+                if (Window.COMMIT_ACTION_ID.equals(actionId)) {
+                    changedCategoryIds.add(category.getId());
+                }
                 categoriesDs.refresh();
                 categoryTable.requestFocus();
             });
@@ -129,6 +149,9 @@ public class CategoryBrowser extends AbstractLookup {
                 Category category = selected.iterator().next();
                 Editor editor = openEditor("sys$Category.edit", category, WindowManager.OpenType.THIS_TAB);
                 editor.addCloseListener(actionId -> {
+                    if (Window.COMMIT_ACTION_ID.equals(actionId)) {
+                        changedCategoryIds.add(category.getId());
+                    }
                     categoriesDs.refresh();
                     categoryTable.requestFocus();
                 });
@@ -16,6 +16,7 @@
  */
 package com.haulmont.cuba.gui.data.impl;
 
+import com.google.common.base.Throwables;
 import com.haulmont.bali.collections.ReadOnlyLinkedMapValuesView;
 import com.haulmont.chile.core.model.Instance;
 import com.haulmont.chile.core.model.MetaPropertyPath;
@@ -35,7 +36,10 @@ import org.apache.log4j.Logger;
 import org.perf4j.StopWatch;
 import org.perf4j.log4j.Log4JStopWatch;
 
+import javax.annotation.Nullable;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
  * Most commonly used {@link CollectionDatasource} implementation.
@@ -86,6 +90,9 @@ public class CollectionDatasourceImpl<T extends Entity<K>, K>
     protected LinkedList<LoadContext.Query> prevQueries = new LinkedList<>();
     protected Integer queryKey;
 
+    protected LoadContext prefetchedContext;
+    protected Future<List<T>> prefetchedData;
+
     @Override
     public void refreshIfNotSuspended() {
         if (suspended) {
@@ -584,7 +591,10 @@ public class CollectionDatasourceImpl<T extends Entity<K>, K>
                 return;
             }
             try {
-                final Collection<T> entities = dataSupplier.loadList(context);
+                Collection<T> entities = takePrefetchedData(context);
+                if (entities == null) {
+                    entities = dataSupplier.loadList(context);
+                }
 
                 afterLoadData(params, context, entities);
             } catch (Throwable e) {
@@ -595,6 +605,130 @@ public class CollectionDatasourceImpl<T extends Entity<K>, K>
         sw.stop();
     }
 
+    /**
+     * Starts loading of data in a background thread if the datasource is suspended and has to be refreshed on resume.
+     * The loaded entities are used by {@link #loadData(Map)} on resume if the datasource creates the same
+     * {@code LoadContext} by that time, otherwise they are discarded.
+     *
+     * @param loader    loader executing the request
+     * @return true if loading has been started
+     */
+    public boolean prefetchOnResume(ConcurrentDatasourceLoader loader) {
+        backgroundWorker.checkUIAccess();
+
+        if (!suspended || !refreshOnResumeRequired || !isPrefetchSupported()) {
+            return false;
+        }
+
+        Security security = AppBeans.get(Security.NAME);
+        if (!security.isEntityOpPermitted(metaClass, EntityOp.READ) || !needLoading()) {
+            return false;
+        }
+
+        Map<String, Object> params = savedParameters == null ? Collections.emptyMap() : savedParameters;
+        LoadContext context = beforeLoadData(params);
+        if (context == null) {
+            return false;
+        }
+
+        prefetchedContext = context;
+        //noinspection unchecked
+        prefetchedData = loader.loadList(dataSupplier, context);
+        return true;
+    }
+
+    /**
+     * Data can be loaded in advance only by the standard data supplier and only if neither loading nor creation
+     * of the {@code LoadContext} is overridden in a subclass, because the overridden methods would be invoked
+     * one more time.
+     */
+    protected boolean isPrefetchSupported() {
+        if (refreshMode == RefreshMode.NEVER || !(dataSupplier instanceof GenericDataSupplier)) {
+            return false;
+        }
+        for (Class c = getClass(); c != CollectionDatasourceImpl.class; c = c.getSuperclass()) {
+            if (declaresMethod(c, "loadData", Map.class)
+                    || declaresMethod(c, "beforeLoadData", Map.class)
+                    || declaresMethod(c, "createDataQuery", DataLoadContext.class, Map.class)
+                    || declaresMethod(c, "prepareLoadContext", LoadContext.class)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    protected boolean declaresMethod(Class c, String name, Class... parameterTypes) {
+        try {
+            c.getDeclaredMethod(name, parameterTypes);
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return entities loaded by {@link #prefetchOnResume(ConcurrentDatasourceLoader)} for the given context
+     * or null if there are no such entities
+     */
+    @Nullable
+    protected Collection<T> takePrefetchedData(LoadContext context) {
+        Future<List<T>> future = prefetchedData;
+        LoadContext prefetched = prefetchedContext;
+        prefetchedData = null;
+        prefetchedContext = null;
+
+        if (future == null) {
+            return null;
+        }
+        if (!isSameLoadContext(prefetched, context)) {
+            future.cancel(false);
+            return null;
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while loading data", e);
+        } catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
+    protected boolean isSameLoadContext(LoadContext context1, LoadContext context2) {
+        return isSameQuery(context1.getQuery(), context2.getQuery())
+                && Objects.equals(context1.getView(), context2.getView())
+                && context1.isSoftDeletion() == context2.isSoftDeletion()
+                && context1.getQueryKey() == context2.getQueryKey()
+                && context1.isLoadDynamicAttributes() == context2.isLoadDynamicAttributes()
+                && Objects.equals(context1.getDynamicAttributeCodes(), context2.getDynamicAttributeCodes())
+                && context1.isLoadPartialEntities() == context2.isLoadPartialEntities()
+                && Objects.equals(context1.getDbHints(), context2.getDbHints())
+                && isSameQueries(context1.getPrevQueries(), context2.getPrevQueries());
+    }
+
+    protected boolean isSameQueries(List<LoadContext.Query> queries1, List<LoadContext.Query> queries2) {
+        if (queries1.size() != queries2.size()) {
+            return false;
+        }
+        for (int i = 0; i < queries1.size(); i++) {
+            if (!isSameQuery(queries1.get(i), queries2.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    protected boolean isSameQuery(@Nullable LoadContext.Query query1, @Nullable LoadContext.Query query2) {
+        if (query1 == null || query2 == null) {
+            return query1 == query2;
+        }
+        return query1.equals(query2)
+                && query1.getFirstResult() == query2.getFirstResult()
+                && query1.getMaxResults() == query2.getMaxResults()
+                && query1.isCacheable() == query2.isCacheable();
+    }
+
     /**
      * This method is invoked by {@link #loadData(Map)} method immediately before loading entities from {@code DataSupplier}.
      * <br>If you override this method, be sure to call {@code super()}.
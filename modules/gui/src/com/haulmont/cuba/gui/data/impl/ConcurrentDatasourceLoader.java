@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2008-2016 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.haulmont.cuba.gui.data.impl;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.haulmont.cuba.client.ClientConfig;
+import com.haulmont.cuba.core.entity.Entity;
+import com.haulmont.cuba.core.global.Configuration;
+import com.haulmont.cuba.core.global.LoadContext;
+import com.haulmont.cuba.core.sys.AppContext;
+import com.haulmont.cuba.core.sys.SecurityContext;
+import com.haulmont.cuba.gui.data.DataSupplier;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Loads data for datasources in background threads, see {@link DsContextImpl#resumeSuspended()}.
+ * Threads do not access datasources, they only execute {@link DataSupplier#loadList(LoadContext)} with the security
+ * context of the calling thread.
+ */
+@Component(ConcurrentDatasourceLoader.NAME)
+public class ConcurrentDatasourceLoader {
+
+    public static final String NAME = "cuba_ConcurrentDatasourceLoader";
+
+    protected ExecutorService executorService;
+
+    @Inject
+    public void setConfiguration(Configuration configuration) {
+        int threads = configuration.getConfig(ClientConfig.class).getDatasourceLoadingThreads();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads, threads,
+                1L, TimeUnit.MINUTES,
+                new LinkedBlockingQueue<>(),
+                new ThreadFactoryBuilder()
+                        .setNameFormat("DatasourceLoader-%d")
+                        .setDaemon(true)
+                        .build()
+        );
+        executor.allowCoreThreadTimeOut(true);
+        executorService = executor;
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executorService.shutdownNow();
+    }
+
+    public <E extends Entity> Future<List<E>> loadList(DataSupplier dataSupplier, LoadContext<E> context) {
+        SecurityContext securityContext = AppContext.getSecurityContext();
+        return executorService.submit(() -> {
+            AppContext.setSecurityContext(securityContext);
+            try {
+                return dataSupplier.loadList(context);
+            } finally {
+                AppContext.setSecurityContext(null);
+            }
+        });
+    }
+}
\ No newline at end of file
@@ -20,6 +20,7 @@ import com.haulmont.bali.util.Preconditions;
 import com.haulmont.chile.core.model.MetaClass;
 import com.haulmont.chile.core.model.MetaProperty;
 import com.haulmont.chile.core.model.impl.AbstractInstance;
+import com.haulmont.cuba.client.ClientConfig;
 import com.haulmont.cuba.core.entity.Entity;
 import com.haulmont.cuba.core.global.*;
 import com.haulmont.cuba.gui.FrameContext;
@@ -79,11 +80,47 @@ public class DsContextImpl implements DsContextImplementation {
 
         addDsContextToResume(this, list);
 
+        prefetchSuspended(list);
+
         for (CollectionDatasource.Suspendable suspendable : list) {
             suspendable.setSuspended(false);
         }
     }
 
+    /**
+     * Starts concurrent loading of datasources that do not depend on other datasources. The list is resumed
+     * afterwards in the UI thread in the dependency order, and each datasource takes its loaded data on refresh.
+     */
+    protected void prefetchSuspended(List<CollectionDatasource.Suspendable> list) {
+        Configuration configuration = AppBeans.get(Configuration.NAME);
+        if (!configuration.getConfig(ClientConfig.class).getConcurrentDatasourceLoading()) {
+            return;
+        }
+
+        List<CollectionDatasourceImpl> independentDatasources = new ArrayList<>();
+        for (CollectionDatasource.Suspendable suspendable : list) {
+            if (suspendable instanceof CollectionDatasourceImpl && !isDependent(suspendable)) {
+                independentDatasources.add((CollectionDatasourceImpl) suspendable);
+            }
+        }
+        if (independentDatasources.size() < 2) {
+            return;
+        }
+
+        ConcurrentDatasourceLoader loader = AppBeans.get(ConcurrentDatasourceLoader.NAME);
+        for (CollectionDatasourceImpl datasource : independentDatasources) {
+            datasource.prefetchOnResume(loader);
+        }
+    }
+
+    protected boolean isDependent(Datasource datasource) {
+        DsContext dsContext = datasource.getDsContext();
+        if (dsContext instanceof DsContextImpl) {
+            return ((DsContextImpl) dsContext).dependencies.containsKey(datasource);
+        }
+        return dependencies.containsKey(datasource);
+    }
+
     protected void addDsContextToResume(DsContext dsContext, LinkedList<CollectionDatasource.Suspendable> list) {
         for (Datasource datasource : dsContext.getAll()) {
             if (datasource instanceof CollectionDatasource.Suspendable) {
@@ -27,6 +27,9 @@ public interface UIPerformanceLogger {
     enum LifeCycle {
         LOAD("load"),
         XML("xml"),
+        CREATE_LAYOUT("createLayout"),
+        DATASOURCES("datasources"),
+        LOAD_COMPONENTS("loadComponents"),
         INIT("init"),
         READY("ready"),
         SET_ITEM("setItem"),
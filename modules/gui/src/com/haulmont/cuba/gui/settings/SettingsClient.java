@@ -18,6 +18,7 @@
 package com.haulmont.cuba.gui.settings;
 
 import javax.annotation.Nullable;
+import java.util.Collection;
 
 /**
  * User settings provider for client application. May use caching for settings.
@@ -31,4 +32,18 @@ public interface SettingsClient {
     void setSetting(String name, @Nullable String value);
 
     void deleteSettings(String name);
+
+    /**
+     * Loads the given settings in advance if the implementation caches them.
+     *
+     * @param names names of settings which are going to be used, e.g. IDs of screens
+     */
+    default void prefetchSettings(Collection<String> names) {
+    }
+
+    /**
+     * Saves changed settings that are not saved yet if the implementation defers saving.
+     */
+    default void flush() {
+    }
 }
\ No newline at end of file
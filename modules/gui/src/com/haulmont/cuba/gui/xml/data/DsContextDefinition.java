@@ -0,0 +1,363 @@
+/*
+ * Copyright (c) 2008-2016 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.haulmont.cuba.gui.xml.data;
+
+import com.haulmont.bali.util.Dom4j;
+import com.haulmont.bali.util.ReflectionHelper;
+import com.haulmont.chile.core.datatypes.Datatype;
+import com.haulmont.chile.core.datatypes.Datatypes;
+import com.haulmont.chile.core.datatypes.impl.StringDatatype;
+import com.haulmont.chile.core.model.MetaClass;
+import com.haulmont.cuba.core.global.AppBeans;
+import com.haulmont.cuba.core.global.Metadata;
+import com.haulmont.cuba.gui.data.CollectionDatasource;
+import org.apache.commons.lang.StringUtils;
+import org.dom4j.Element;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Datasources declared in the {@code dsContext} element of a screen descriptor, parsed once and used by
+ * {@link DsContextLoader} to create datasources for each opened screen without reading the XML again.
+ * <p>Instances are shared by all openings of the screen and must not be modified.
+ */
+public class DsContextDefinition {
+
+    protected static final String[] ROOT_ELEMENTS = {"datasource", "hierarchicalDatasource", "collectionDatasource",
+            "groupDatasource", "runtimePropsDatasource", "valueCollectionDatasource", "valueGroupDatasource",
+            "valueHierarchicalDatasource"};
+
+    protected static final String[] NESTED_ELEMENTS = {"datasource", "collectionDatasource", "groupDatasource",
+            "hierarchicalDatasource", "runtimePropsDatasource"};
+
+    protected final String contextClass;
+    protected final List<DatasourceDefinition> datasources;
+
+    public DsContextDefinition(Element element) {
+        Metadata metadata = AppBeans.get(Metadata.NAME);
+
+        String contextClass = element.attributeValue("class");
+        if (StringUtils.isEmpty(contextClass)) {
+            Element contextClassElement = element.element("class");
+            if (contextClassElement != null) {
+                contextClass = contextClassElement.getText();
+                if (StringUtils.isEmpty(contextClass)) {
+                    throw new IllegalStateException("Can't find dsContext class name");
+                }
+            }
+        }
+        this.contextClass = StringUtils.isEmpty(contextClass) ? null : contextClass;
+        this.datasources = parseDatasources(element, ROOT_ELEMENTS, false, metadata);
+    }
+
+    protected static List<DatasourceDefinition> parseDatasources(Element element, String[] elementNames,
+                                                                 boolean nested, Metadata metadata) {
+        List<DatasourceDefinition> list = new ArrayList<>();
+        for (String elementName : elementNames) {
+            for (Element dsElement : Dom4j.elements(element, elementName)) {
+                list.add(new DatasourceDefinition(dsElement, nested, metadata));
+            }
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * @return class name of the DsContext implementation or null if the standard one is used
+     */
+    @Nullable
+    public String getContextClass() {
+        return contextClass;
+    }
+
+    /**
+     * @return definitions of root datasources in the order they are created
+     */
+    public List<DatasourceDefinition> getDatasources() {
+        return datasources;
+    }
+
+    /**
+     * Attributes of a datasource declared in the descriptor.
+     */
+    public static class DatasourceDefinition {
+
+        protected final String elementName;
+        protected final boolean nested;
+        protected final String id;
+        protected final MetaClass metaClass;
+        protected final String viewName;
+        protected final String datasourceClass;
+        protected final String property;
+        protected final boolean allowCommit;
+        protected final boolean softDeletion;
+        protected final boolean cacheable;
+        protected final boolean loadDynamicAttributes;
+        protected final CollectionDatasource.RefreshMode refreshMode;
+        protected final int maxResults;
+        protected final String hierarchyProperty;
+        protected final String query;
+        protected final Element filterElement;
+        protected final String mainDs;
+        protected final MetaClass categorizedEntityMetaClass;
+        protected final String store;
+        protected final List<ValuePropertyDefinition> valueProperties;
+        protected final String idProperty;
+        protected final List<DatasourceDefinition> datasources;
+
+        public DatasourceDefinition(Element element, boolean nested, Metadata metadata) {
+            this.elementName = element.getName();
+            this.nested = nested;
+            this.id = element.attributeValue("id");
+            // nested datasources take metaClass from their master, value datasources always work with KeyValueEntity
+            boolean hasMetaClass = "runtimePropsDatasource".equals(elementName)
+                    || !nested && !elementName.startsWith("value");
+            this.metaClass = hasMetaClass ? loadMetaClass(element.attributeValue("class"), metadata) : null;
+            this.viewName = element.attributeValue("view");
+            this.property = element.attributeValue("property");
+
+            String datasourceClass = element.attributeValue("datasourceClass");
+            if (StringUtils.isEmpty(datasourceClass)) {
+                Element datasourceClassElement = element.element("datasourceClass");
+                if (datasourceClassElement != null)
+                    datasourceClass = datasourceClassElement.getTextTrim();
+            }
+            this.datasourceClass = StringUtils.isEmpty(datasourceClass) ? null : datasourceClass;
+
+            String allowCommit = element.attributeValue("allowCommit");
+            this.allowCommit = StringUtils.isEmpty(allowCommit) || Boolean.parseBoolean(allowCommit);
+            String softDeletion = element.attributeValue("softDeletion");
+            this.softDeletion = softDeletion == null || Boolean.parseBoolean(softDeletion);
+            this.cacheable = Boolean.parseBoolean(element.attributeValue("cacheable"));
+            this.loadDynamicAttributes = "true".equals(element.attributeValue("loadDynamicAttributes"));
+
+            String refreshMode = element.attributeValue("refreshMode");
+            this.refreshMode = StringUtils.isEmpty(refreshMode) ?
+                    CollectionDatasource.RefreshMode.ALWAYS : CollectionDatasource.RefreshMode.valueOf(refreshMode);
+            String maxResults = element.attributeValue("maxResults");
+            this.maxResults = StringUtils.isEmpty(maxResults) ? 0 : Integer.parseInt(maxResults);
+
+            String hierarchyProperty = element.attributeValue("hierarchyProperty");
+            this.hierarchyProperty = StringUtils.isEmpty(hierarchyProperty) ? null : hierarchyProperty;
+
+            Element queryElem = element.element("query");
+            String query = queryElem != null ? queryElem.getText() : null;
+            this.query = StringUtils.isBlank(query) ? null : query;
+            Element filterElem = queryElem != null ? queryElem.element("filter") : null;
+            // QueryFilter is mutable and exposed by datasources, so each datasource parses its own instance
+            this.filterElement = filterElem != null ? filterElem.createCopy() : null;
+
+            if ("runtimePropsDatasource".equals(elementName)) {
+                this.mainDs = element.attributeValue("mainDs");
+                if (mainDs == null) {
+                    throw new IllegalStateException("RuntimePropsDs attributes not specified");
+                }
+                String categorizedEntityClassName = element.attributeValue("categorizedEntityClass");
+                this.categorizedEntityMetaClass = StringUtils.isNotBlank(categorizedEntityClassName) ?
+                        metadata.getSession().getClass(ReflectionHelper.getClass(categorizedEntityClassName)) : null;
+            } else {
+                this.mainDs = null;
+                this.categorizedEntityMetaClass = null;
+            }
+            this.store = element.attributeValue("store");
+
+            List<ValuePropertyDefinition> valueProperties = new ArrayList<>();
+            Element propsEl = element.element("properties");
+            if (propsEl != null) {
+                for (Element propEl : Dom4j.elements(propsEl)) {
+                    valueProperties.add(new ValuePropertyDefinition(propEl));
+                }
+                this.idProperty = propsEl.attributeValue("idProperty");
+            } else {
+                this.idProperty = null;
+            }
+            this.valueProperties = Collections.unmodifiableList(valueProperties);
+
+            this.datasources = parseDatasources(element, NESTED_ELEMENTS, true, metadata);
+        }
+
+        @Nullable
+        protected static MetaClass loadMetaClass(@Nullable String className, Metadata metadata) {
+            if (className == null)
+                return null;
+
+            Class<?> aClass = ReflectionHelper.getClass(className);
+            MetaClass metaClass = metadata.getSession().getClass(aClass);
+            if (metaClass == null)
+                throw new IllegalStateException(String.format("Can't find metaClass '%s'", className));
+
+            return metaClass;
+        }
+
+        /**
+         * @return name of the XML element, e.g. {@code collectionDatasource}
+         */
+        public String getElementName() {
+            return elementName;
+        }
+
+        /**
+         * @return true if the datasource is declared inside another datasource and works with its property
+         */
+        public boolean isNested() {
+            return nested;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        /**
+         * @return metaClass defined in the {@code class} attribute. Always null for nested and value datasources.
+         */
+        @Nullable
+        public MetaClass getMetaClass() {
+            return metaClass;
+        }
+
+        @Nullable
+        public String getViewName() {
+            return viewName;
+        }
+
+        @Nullable
+        public String getDatasourceClass() {
+            return datasourceClass;
+        }
+
+        @Nullable
+        public String getProperty() {
+            return property;
+        }
+
+        public boolean isAllowCommit() {
+            return allowCommit;
+        }
+
+        public boolean isSoftDeletion() {
+            return softDeletion;
+        }
+
+        public boolean isCacheable() {
+            return cacheable;
+        }
+
+        public boolean isLoadDynamicAttributes() {
+            return loadDynamicAttributes;
+        }
+
+        public CollectionDatasource.RefreshMode getRefreshMode() {
+            return refreshMode;
+        }
+
+        public int getMaxResults() {
+            return maxResults;
+        }
+
+        @Nullable
+        public String getHierarchyProperty() {
+            return hierarchyProperty;
+        }
+
+        @Nullable
+        public String getQuery() {
+            return query;
+        }
+
+        /**
+         * @return detached copy of the {@code filter} element of the query
+         */
+        @Nullable
+        public Element getFilterElement() {
+            return filterElement;
+        }
+
+        @Nullable
+        public String getMainDs() {
+            return mainDs;
+        }
+
+        @Nullable
+        public MetaClass getCategorizedEntityMetaClass() {
+            return categorizedEntityMetaClass;
+        }
+
+        @Nullable
+        public String getStore() {
+            return store;
+        }
+
+        public List<ValuePropertyDefinition> getValueProperties() {
+            return valueProperties;
+        }
+
+        @Nullable
+        public String getIdProperty() {
+            return idProperty;
+        }
+
+        /**
+         * @return definitions of nested datasources in the order they are created
+         */
+        public List<DatasourceDefinition> getDatasources() {
+            return datasources;
+        }
+    }
+
+    /**
+     * Property of a value datasource: its name and either an entity class or a datatype.
+     */
+    public static class ValuePropertyDefinition {
+
+        protected final String name;
+        protected final Class<?> javaClass;
+        protected final Datatype datatype;
+
+        public ValuePropertyDefinition(Element element) {
+            this.name = element.attributeValue("name");
+            String className = element.attributeValue("class");
+            if (className != null) {
+                this.javaClass = ReflectionHelper.getClass(className);
+                this.datatype = null;
+            } else {
+                String typeName = element.attributeValue("datatype");
+                this.javaClass = null;
+                this.datatype = typeName == null ? Datatypes.get(StringDatatype.NAME) : Datatypes.get(typeName);
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return entity class of the property or null if the property has a datatype
+         */
+        @Nullable
+        public Class<?> getJavaClass() {
+            return javaClass;
+        }
+
+        @Nullable
+        public Datatype getDatatype() {
+            return datatype;
+        }
+    }
+}
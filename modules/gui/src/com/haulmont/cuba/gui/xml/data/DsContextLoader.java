@@ -17,11 +17,6 @@
 
 package com.haulmont.cuba.gui.xml.data;
 
-import com.haulmont.bali.util.Dom4j;
-import com.haulmont.bali.util.ReflectionHelper;
-import com.haulmont.chile.core.datatypes.Datatype;
-import com.haulmont.chile.core.datatypes.Datatypes;
-import com.haulmont.chile.core.datatypes.impl.StringDatatype;
 import com.haulmont.chile.core.model.MetaClass;
 import com.haulmont.cuba.core.entity.KeyValueEntity;
 import com.haulmont.cuba.core.global.AppBeans;
@@ -31,12 +26,12 @@ import com.haulmont.cuba.core.global.Scripting;
 import com.haulmont.cuba.gui.data.*;
 import com.haulmont.cuba.gui.data.impl.*;
 import com.haulmont.cuba.core.global.filter.QueryFilter;
-import org.apache.commons.lang.StringUtils;
+import com.haulmont.cuba.gui.xml.data.DsContextDefinition.DatasourceDefinition;
+import com.haulmont.cuba.gui.xml.data.DsContextDefinition.ValuePropertyDefinition;
 import org.dom4j.Element;
 
 import javax.annotation.Nullable;
 import java.lang.reflect.Constructor;
-import java.util.List;
 import java.util.Objects;
 
 public class DsContextLoader {
@@ -54,85 +49,57 @@ public class DsContextLoader {
         this.metadata = AppBeans.get(Metadata.NAME);
     }
 
-    public DsContext loadDatasources(@Nullable Element element,@Nullable DsContext parent) {
-        if (element == null) {
-            context = new DsContextImpl(dataservice);
-            if (parent != null)
-                context.setParent(parent);
-            return context;
-        }
+    public DsContext loadDatasources(@Nullable Element element, @Nullable DsContext parent) {
+        return loadDatasources(element == null ? null : new DsContextDefinition(element), parent);
+    }
 
-        String contextClass = element.attributeValue("class");
-        if (StringUtils.isEmpty(contextClass)) {
-            final Element contextClassElement = element.element("class");
-            if (contextClassElement != null) {
-                contextClass = contextClassElement.getText();
-                if (StringUtils.isEmpty(contextClass)) {
-                    throw new IllegalStateException("Can't find dsContext class name");
-                }
-                context = createDsContext(contextClass, contextClassElement);
-            } else {
-                context = new DsContextImpl(dataservice);
-            }
+    /**
+     * Creates datasources from the definition parsed from a {@code dsContext} element before.
+     */
+    public DsContext loadDatasources(@Nullable DsContextDefinition definition, @Nullable DsContext parent) {
+        if (definition == null || definition.getContextClass() == null) {
+            context = new DsContextImpl(dataservice);
         } else {
-            context = createDsContext(contextClass, null);
+            context = createDsContext(definition.getContextClass());
         }
         if (parent != null) {
             context.setParent(parent);
         }
-
-        builder = DsBuilder.create(context);
-
-        //noinspection unchecked
-        List<Element> elements = element.elements("datasource");
-        for (Element ds : elements) {
-            Datasource datasource = loadDatasource(ds);
-            setLoadDynamicAttributes(ds, datasource);
-        }
-
-        //noinspection unchecked
-        elements = element.elements("hierarchicalDatasource");
-        for (Element ds : elements) {
-            Datasource datasource = loadHierarchicalDatasource(ds);
-            setLoadDynamicAttributes(ds, datasource);
-        }
-
-        //noinspection unchecked
-        elements = element.elements("collectionDatasource");
-        for (Element ds : elements) {
-            CollectionDatasource datasource = loadCollectionDatasource(ds);
-            setLoadDynamicAttributes(ds, datasource);
-        }
-
-        //noinspection unchecked
-        elements = element.elements("groupDatasource");
-        for (Element ds : elements) {
-            Datasource datasource = loadGroupDatasource(ds);
-            setLoadDynamicAttributes(ds, datasource);
-        }
-
-        //noinspection unchecked
-        elements = element.elements("runtimePropsDatasource");
-        for (Element ds : elements) {
-            loadRuntimePropsDatasource(ds);
-        }
-
-        //noinspection unchecked
-        elements = element.elements("valueCollectionDatasource");
-        for (Element ds : elements) {
-            loadValueCollectionDatasource(ds);
+        if (definition == null) {
+            return context;
         }
 
-        //noinspection unchecked
-        elements = element.elements("valueGroupDatasource");
-        for (Element ds : elements) {
-            loadValueGroupDatasource(ds);
-        }
+        builder = DsBuilder.create(context);
 
-        //noinspection unchecked
-        elements = element.elements("valueHierarchicalDatasource");
-        for (Element ds : elements) {
-            loadValueHierarchicalDatasource(ds);
+        for (DatasourceDefinition ds : definition.getDatasources()) {
+            switch (ds.getElementName()) {
+                case "datasource":
+                    setLoadDynamicAttributes(ds, loadDatasource(ds));
+                    break;
+                case "hierarchicalDatasource":
+                    setLoadDynamicAttributes(ds, loadHierarchicalDatasource(ds));
+                    break;
+                case "collectionDatasource":
+                    setLoadDynamicAttributes(ds, loadCollectionDatasource(ds));
+                    break;
+                case "groupDatasource":
+                    setLoadDynamicAttributes(ds, loadGroupDatasource(ds));
+                    break;
+                case "runtimePropsDatasource":
+                    loadRuntimePropsDatasource(ds);
+                    break;
+                case "valueCollectionDatasource":
+                    loadValueCollectionDatasource(ds);
+                    break;
+                case "valueGroupDatasource":
+                    loadValueGroupDatasource(ds);
+                    break;
+                case "valueHierarchicalDatasource":
+                    loadValueHierarchicalDatasource(ds);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown datasource element: " + ds.getElementName());
+            }
         }
 
         context.executeLazyTasks();
@@ -140,11 +107,11 @@ public class DsContextLoader {
         return context;
     }
 
-    protected void setLoadDynamicAttributes(Element element, Datasource datasource) {
-        datasource.setLoadDynamicAttributes("true".equals(element.attributeValue("loadDynamicAttributes")));
+    protected void setLoadDynamicAttributes(DatasourceDefinition definition, Datasource datasource) {
+        datasource.setLoadDynamicAttributes(definition.isLoadDynamicAttributes());
     }
 
-    protected DsContextImplementation createDsContext(String contextClass, Element element) {
+    protected DsContextImplementation createDsContext(String contextClass) {
         DsContextImplementation context;
 
         final Class<?> aClass = scripting.loadClass(contextClass);
@@ -160,38 +127,31 @@ public class DsContextLoader {
         return context;
     }
 
-    protected Datasource loadHierarchicalDatasource(Element element) {
-        MetaClass metaClass = loadMetaClass(element);
-        initCollectionDatasourceAttributes(element, metaClass);
+    protected Datasource loadHierarchicalDatasource(DatasourceDefinition definition) {
+        initCollectionDatasourceAttributes(definition, definition.getMetaClass());
 
         HierarchicalDatasource datasource = builder
-                .setDsClass(getDatasourceClass(element))
+                .setDsClass(getDatasourceClass(definition))
                 .buildHierarchicalDatasource();
 
-        String hierarchyProperty = element.attributeValue("hierarchyProperty");
-        if (!StringUtils.isEmpty(hierarchyProperty)) {
-            datasource.setHierarchyPropertyName(hierarchyProperty);
+        if (definition.getHierarchyProperty() != null) {
+            datasource.setHierarchyPropertyName(definition.getHierarchyProperty());
         }
 
         if (datasource instanceof CollectionDatasource.Suspendable)
             ((CollectionDatasource.Suspendable) datasource).setSuspended(true);
 
-        loadQuery(element, datasource);
+        loadQuery(definition, datasource);
 
-        loadDatasources(element, datasource);
+        loadDatasources(definition, datasource);
 
         return datasource;
     }
 
     @Nullable
-    private Class<?> getDatasourceClass(Element element) {
-        String datasourceClass = element.attributeValue("datasourceClass");
-        if (StringUtils.isEmpty(datasourceClass)) {
-            Element datasourceClassElement = element.element("datasourceClass");
-            if (datasourceClassElement != null)
-                datasourceClass = datasourceClassElement.getTextTrim();
-        }
-        if (StringUtils.isEmpty(datasourceClass)) {
+    private Class<?> getDatasourceClass(DatasourceDefinition definition) {
+        String datasourceClass = definition.getDatasourceClass();
+        if (datasourceClass == null) {
             return null;
         } else {
             Class<?> aClass = scripting.loadClass(datasourceClass);
@@ -201,103 +161,81 @@ public class DsContextLoader {
         }
     }
 
-    protected Datasource loadGroupDatasource(Element element) {
-        MetaClass metaClass = loadMetaClass(element);
-        initCollectionDatasourceAttributes(element, metaClass);
+    protected Datasource loadGroupDatasource(DatasourceDefinition definition) {
+        initCollectionDatasourceAttributes(definition, definition.getMetaClass());
 
         GroupDatasource datasource = builder
-                .setDsClass(getDatasourceClass(element))
+                .setDsClass(getDatasourceClass(definition))
                 .buildGroupDatasource();
 
         if (datasource instanceof CollectionDatasource.Suspendable)
             ((CollectionDatasource.Suspendable) datasource).setSuspended(true);
 
-        loadQuery(element, datasource);
+        loadQuery(definition, datasource);
 
-        loadDatasources(element, datasource);
+        loadDatasources(definition, datasource);
 
         return datasource;
     }
 
-    protected Datasource loadDatasource(Element element) {
-        initDatasourceAttributes(element);
+    protected Datasource loadDatasource(DatasourceDefinition definition) {
+        initDatasourceAttributes(definition);
 
         Datasource datasource = builder
-                .setDsClass(getDatasourceClass(element))
+                .setDsClass(getDatasourceClass(definition))
                 .buildDatasource();
 
-        // TODO implement ContextListeners
-//        String item = element.attributeValue("item");
-//        if (!StringUtils.isBlank(item)) {
-//            final ParametersHelper.ParameterInfo info = ParametersHelper.parse(item);
-//            context.registerListener(info, datasource);
-//        }
-
-        loadDatasources(element, datasource);
+        loadDatasources(definition, datasource);
 
         return datasource;
     }
 
-    private void initDatasourceAttributes(Element element) {
-        String id = getDatasourceId(element);
-        MetaClass metaClass = loadMetaClass(element);
-        String viewName = element.attributeValue("view");
+    private void initDatasourceAttributes(DatasourceDefinition definition) {
+        String id = getDatasourceId(definition);
 
         builder.reset()
-                .setMetaClass(metaClass)
+                .setMetaClass(definition.getMetaClass())
                 .setId(id)
-                .setViewName(viewName)
-                .setAllowCommit(getAllowCommit(element));
+                .setViewName(definition.getViewName())
+                .setAllowCommit(definition.isAllowCommit());
     }
 
-    protected void loadDatasources(Element element, Datasource datasource) {
-        //noinspection unchecked
-        List<Element> elements = element.elements("datasource");
-        for (Element ds : elements) {
-            final String property = ds.attributeValue("property");
-            loadDatasource(ds, datasource, property);
-        }
-
-        //noinspection unchecked
-        elements = element.elements("collectionDatasource");
-        for (Element ds : elements) {
-            final String property = ds.attributeValue("property");
-            loadCollectionDatasource(ds, datasource, property);
-        }
-
-        //noinspection unchecked
-        elements = element.elements("groupDatasource");
-        for (Element ds : elements) {
-            final String property = ds.attributeValue("property");
-            loadGroupDatasource(ds, datasource, property);
-        }
-
-        //noinspection unchecked
-        elements = element.elements("hierarchicalDatasource");
-        for (Element ds : elements) {
-            final String property = ds.attributeValue("property");
-            loadHierarchicalDatasource(ds, datasource, property);
-        }
-
-        //noinspection unchecked
-        elements = element.elements("runtimePropsDatasource");
-        for (Element ds : elements) {
-            loadRuntimePropsDatasource(ds);
+    protected void loadDatasources(DatasourceDefinition definition, Datasource datasource) {
+        for (DatasourceDefinition ds : definition.getDatasources()) {
+            switch (ds.getElementName()) {
+                case "datasource":
+                    loadDatasource(ds, datasource, ds.getProperty());
+                    break;
+                case "collectionDatasource":
+                    loadCollectionDatasource(ds, datasource, ds.getProperty());
+                    break;
+                case "groupDatasource":
+                    loadGroupDatasource(ds, datasource, ds.getProperty());
+                    break;
+                case "hierarchicalDatasource":
+                    loadHierarchicalDatasource(ds, datasource, ds.getProperty());
+                    break;
+                case "runtimePropsDatasource":
+                    loadRuntimePropsDatasource(ds);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown datasource element: " + ds.getElementName());
+            }
         }
     }
 
-    private Datasource loadDatasource(Element element, Datasource ds, String property) {
-        initPropertyDatasourceAttributes(element, ds, property);
+    private Datasource loadDatasource(DatasourceDefinition definition, Datasource ds, String property) {
+        initPropertyDatasourceAttributes(definition, ds, property);
 
         Datasource datasource = builder.buildDatasource();
 
-        loadDatasources(element, datasource);
+        loadDatasources(definition, datasource);
 
         return datasource;
     }
 
-    private void initPropertyDatasourceAttributes(Element element, Datasource ds, String property) {
-        String id = getDatasourceId(element);
+    private void initPropertyDatasourceAttributes(DatasourceDefinition definition, Datasource ds, String property) {
+        String id = getDatasourceId(definition);
         MetaClass metaClass = ds.getMetaClass();
         metaClass.getPropertyNN(property); // check property existense
 
@@ -306,257 +244,191 @@ public class DsContextLoader {
                 .setId(id)
                 .setMaster(ds)
                 .setProperty(property)
-                .setAllowCommit(getAllowCommit(element));
+                .setAllowCommit(definition.isAllowCommit());
     }
 
-    private Datasource loadCollectionDatasource(Element element, Datasource ds, String property) {
-        initPropertyDatasourceAttributes(element, ds, property);
+    private Datasource loadCollectionDatasource(DatasourceDefinition definition, Datasource ds, String property) {
+        initPropertyDatasourceAttributes(definition, ds, property);
 
         CollectionDatasource datasource = builder
-                .setDsClass(getDatasourceClass(element))
+                .setDsClass(getDatasourceClass(definition))
                 .buildCollectionDatasource();
 
-        loadDatasources(element, datasource);
+        loadDatasources(definition, datasource);
 
         return datasource;
     }
 
-    private Datasource loadHierarchicalDatasource(Element element, Datasource ds, String property) {
-        initPropertyDatasourceAttributes(element, ds, property);
+    private Datasource loadHierarchicalDatasource(DatasourceDefinition definition, Datasource ds, String property) {
+        initPropertyDatasourceAttributes(definition, ds, property);
 
         HierarchicalDatasource datasource = builder
-                .setDsClass(getDatasourceClass(element))
+                .setDsClass(getDatasourceClass(definition))
                 .buildHierarchicalDatasource();
 
-        String hierarchyProperty = element.attributeValue("hierarchyProperty");
-        if (!StringUtils.isEmpty(hierarchyProperty)) {
-            datasource.setHierarchyPropertyName(hierarchyProperty);
+        if (definition.getHierarchyProperty() != null) {
+            datasource.setHierarchyPropertyName(definition.getHierarchyProperty());
         }
 
-        loadDatasources(element, datasource);
+        loadDatasources(definition, datasource);
 
         return datasource;
     }
 
-    private Datasource loadGroupDatasource(Element element, Datasource ds, String property) {
-        initPropertyDatasourceAttributes(element, ds, property);
+    private Datasource loadGroupDatasource(DatasourceDefinition definition, Datasource ds, String property) {
+        initPropertyDatasourceAttributes(definition, ds, property);
 
         GroupDatasource datasource = builder
-                .setDsClass(getDatasourceClass(element))
+                .setDsClass(getDatasourceClass(definition))
                 .buildGroupDatasource();
 
-        loadDatasources(element, datasource);
+        loadDatasources(definition, datasource);
 
         return datasource;
     }
 
-    protected MetaClass loadMetaClass(Element element) {
-        final String className = element.attributeValue("class");
-        if (className == null)
-            return null;
-
-        final Class<?> aClass = ReflectionHelper.getClass(className);
-        final MetaClass metaClass = metadata.getSession().getClass(aClass);
-
-        if (metaClass == null)
-            throw new IllegalStateException(String.format("Can't find metaClass '%s'", className));
-
-        return metaClass;
-    }
-
-    protected CollectionDatasource loadCollectionDatasource(Element element) {
-        MetaClass metaClass = loadMetaClass(element);
-        initCollectionDatasourceAttributes(element, metaClass);
+    protected CollectionDatasource loadCollectionDatasource(DatasourceDefinition definition) {
+        initCollectionDatasourceAttributes(definition, definition.getMetaClass());
 
         CollectionDatasource datasource = builder
-                .setDsClass(getDatasourceClass(element))
+                .setDsClass(getDatasourceClass(definition))
                 .buildCollectionDatasource();
 
-        String maxResults = element.attributeValue("maxResults");
-        if (!StringUtils.isEmpty(maxResults))
-            datasource.setMaxResults(Integer.parseInt(maxResults));
+        if (definition.getMaxResults() != 0)
+            datasource.setMaxResults(definition.getMaxResults());
 
         if (datasource instanceof CollectionDatasource.Suspendable)
             ((CollectionDatasource.Suspendable) datasource).setSuspended(true);
 
-        loadQuery(element, datasource);
+        loadQuery(definition, datasource);
 
-        loadDatasources(element, datasource);
+        loadDatasources(definition, datasource);
 
         return datasource;
     }
 
-    private void loadQuery(Element element, CollectionDatasource datasource) {
-        Element queryElem = element.element("query");
-        if (queryElem != null) {
-            Element filterElem = queryElem.element("filter");
-
-            String query = queryElem.getText();
-            if (!StringUtils.isBlank(query)) {
-                if (filterElem != null)
-                    datasource.setQuery(query, new QueryFilter(filterElem));
-                else
-                    datasource.setQuery(query);
-            }
+    private void loadQuery(DatasourceDefinition definition, CollectionDatasource datasource) {
+        String query = definition.getQuery();
+        if (query != null) {
+            if (definition.getFilterElement() != null)
+                datasource.setQuery(query, new QueryFilter(definition.getFilterElement()));
+            else
+                datasource.setQuery(query);
         }
     }
 
-    private void initCollectionDatasourceAttributes(Element element, MetaClass metaClass) {
-        String id = getDatasourceId(element);
-        String viewName = element.attributeValue("view");
-
-        String deletion = element.attributeValue("softDeletion");
-        boolean softDeletion = deletion == null || Boolean.parseBoolean(deletion);
-        boolean cacheable = Boolean.parseBoolean(element.attributeValue("cacheable"));
+    private void initCollectionDatasourceAttributes(DatasourceDefinition definition, MetaClass metaClass) {
+        String id = getDatasourceId(definition);
 
         builder.reset()
                 .setMetaClass(metaClass)
                 .setId(id)
-                .setViewName(viewName)
-                .setSoftDeletion(softDeletion)
-                .setCacheable(cacheable)
-                .setRefreshMode(getRefreshMode(element))
-                .setMaxResults(getMaxResults(element))
-                .setAllowCommit(getAllowCommit(element));
-    }
-
-    private int getMaxResults(Element element) {
-        String maxResults = element.attributeValue("maxResults");
-        return StringUtils.isEmpty(maxResults) ? 0 : Integer.parseInt(maxResults);
-    }
-
-    private CollectionDatasource.RefreshMode getRefreshMode(Element element) {
-        final String refreshModeName = element.attributeValue("refreshMode");
-        return StringUtils.isEmpty(refreshModeName) ?
-                CollectionDatasource.RefreshMode.ALWAYS : CollectionDatasource.RefreshMode.valueOf(refreshModeName);
-    }
-
-    private boolean getAllowCommit(Element element) {
-        final String allowCommitStr = element.attributeValue("allowCommit");
-        return StringUtils.isEmpty(allowCommitStr) || Boolean.parseBoolean(allowCommitStr);
+                .setViewName(definition.getViewName())
+                .setSoftDeletion(definition.isSoftDeletion())
+                .setCacheable(definition.isCacheable())
+                .setRefreshMode(definition.getRefreshMode())
+                .setMaxResults(definition.getMaxResults())
+                .setAllowCommit(definition.isAllowCommit());
     }
 
-    protected RuntimePropsDatasource loadRuntimePropsDatasource(Element element){
-        String id = getDatasourceId(element);
-        MetaClass metaClass = loadMetaClass(element);
+    protected RuntimePropsDatasource loadRuntimePropsDatasource(DatasourceDefinition definition) {
+        String id = getDatasourceId(definition);
 
-        String mainDsId = element.attributeValue("mainDs");
-        if (mainDsId == null) {
-            throw new IllegalStateException("RuntimePropsDs attributes not specified");
-        }
-
-        String categorizedEntityClassName = element.attributeValue("categorizedEntityClass");
-        MetaClass categorizedEntityMetaClass = null;
-        if (StringUtils.isNotBlank(categorizedEntityClassName)) {
-            final Class<?> aClass = ReflectionHelper.getClass(categorizedEntityClassName);
-            categorizedEntityMetaClass = metadata.getSession().getClass(aClass);
-        }
-
-        builder.reset().setMetaClass(metaClass).setId(id);
+        builder.reset().setMetaClass(definition.getMetaClass()).setId(id);
 
-        RuntimePropsDatasource datasource = builder.buildRuntimePropsDatasource(mainDsId, categorizedEntityMetaClass);
+        RuntimePropsDatasource datasource = builder.buildRuntimePropsDatasource(definition.getMainDs(),
+                definition.getCategorizedEntityMetaClass());
 
-        loadDatasources(element, datasource);
+        loadDatasources(definition, datasource);
         return datasource;
     }
 
-    private ValueCollectionDatasourceImpl loadValueCollectionDatasource(Element element) {
-        String id = getDatasourceId(element);
+    private ValueCollectionDatasourceImpl loadValueCollectionDatasource(DatasourceDefinition definition) {
+        String id = getDatasourceId(definition);
         builder.reset().setMetaClass(metadata.getClassNN(KeyValueEntity.class)).setId(id);
 
         ValueCollectionDatasourceImpl datasource = builder.buildValuesCollectionDatasource();
 
-        String maxResults = element.attributeValue("maxResults");
-        if (!StringUtils.isEmpty(maxResults))
-            datasource.setMaxResults(Integer.parseInt(maxResults));
+        if (definition.getMaxResults() != 0)
+            datasource.setMaxResults(definition.getMaxResults());
 
         datasource.setSuspended(true);
 
-        loadQuery(element, datasource);
+        loadQuery(definition, datasource);
 
-        loadProperties(element, datasource);
+        loadProperties(definition, datasource);
 
-        datasource.setStoreName(element.attributeValue("store"));
+        datasource.setStoreName(definition.getStore());
 
         return datasource;
     }
 
-    private ValueGroupDatasourceImpl loadValueGroupDatasource(Element element) {
-        String id = getDatasourceId(element);
+    private ValueGroupDatasourceImpl loadValueGroupDatasource(DatasourceDefinition definition) {
+        String id = getDatasourceId(definition);
         builder.reset().setMetaClass(metadata.getClassNN(KeyValueEntity.class)).setId(id);
 
         ValueGroupDatasourceImpl datasource = builder.buildValuesGroupDatasource();
 
-        String maxResults = element.attributeValue("maxResults");
-        if (!StringUtils.isEmpty(maxResults))
-            datasource.setMaxResults(Integer.parseInt(maxResults));
+        if (definition.getMaxResults() != 0)
+            datasource.setMaxResults(definition.getMaxResults());
 
         datasource.setSuspended(true);
 
-        loadQuery(element, datasource);
+        loadQuery(definition, datasource);
 
-        loadProperties(element, datasource);
+        loadProperties(definition, datasource);
 
-        datasource.setStoreName(element.attributeValue("store"));
+        datasource.setStoreName(definition.getStore());
 
         return datasource;
     }
 
-    private ValueHierarchicalDatasourceImpl loadValueHierarchicalDatasource(Element element) {
-        String id = getDatasourceId(element);
+    private ValueHierarchicalDatasourceImpl loadValueHierarchicalDatasource(DatasourceDefinition definition) {
+        String id = getDatasourceId(definition);
         builder.reset().setMetaClass(metadata.getClassNN(KeyValueEntity.class)).setId(id);
 
         ValueHierarchicalDatasourceImpl datasource = builder.buildValuesHierarchicalDatasourceImpl();
 
-        String maxResults = element.attributeValue("maxResults");
-        if (!StringUtils.isEmpty(maxResults))
-            datasource.setMaxResults(Integer.parseInt(maxResults));
+        if (definition.getMaxResults() != 0)
+            datasource.setMaxResults(definition.getMaxResults());
 
         datasource.setSuspended(true);
 
-        loadQuery(element, datasource);
+        loadQuery(definition, datasource);
 
-        loadProperties(element, datasource);
+        loadProperties(definition, datasource);
 
-        String hierarchyProperty = element.attributeValue("hierarchyProperty");
-        if (!StringUtils.isEmpty(hierarchyProperty)) {
-            datasource.setHierarchyPropertyName(hierarchyProperty);
+        if (definition.getHierarchyProperty() != null) {
+            datasource.setHierarchyPropertyName(definition.getHierarchyProperty());
         }
 
-        datasource.setStoreName(element.attributeValue("store"));
+        datasource.setStoreName(definition.getStore());
 
         return datasource;
     }
 
-    private void loadProperties(Element element, ValueDatasource datasource) {
-        Element propsEl = element.element("properties");
-        if (propsEl != null) {
-            for (Element propEl : Dom4j.elements(propsEl)) {
-                String name = propEl.attributeValue("name");
-                String className = propEl.attributeValue("class");
-                if (className != null) {
-                    datasource.addProperty(name, ReflectionHelper.getClass(className));
-                } else {
-                    String typeName = propEl.attributeValue("datatype");
-                    Datatype datatype = typeName == null ? Datatypes.get(StringDatatype.NAME) : Datatypes.get(typeName);
-                    datasource.addProperty(name, datatype);
-                }
-            }
-            String idProperty = propsEl.attributeValue("idProperty");
-            if (idProperty != null) {
-                if (datasource.getMetaClass().getProperty(idProperty) == null)
-                    throw new DevelopmentException(String.format("Property '%s' is not defined", idProperty));
-                datasource.setIdName(idProperty);
+    private void loadProperties(DatasourceDefinition definition, ValueDatasource datasource) {
+        for (ValuePropertyDefinition property : definition.getValueProperties()) {
+            if (property.getJavaClass() != null) {
+                datasource.addProperty(property.getName(), property.getJavaClass());
+            } else {
+                datasource.addProperty(property.getName(), property.getDatatype());
             }
         }
+        String idProperty = definition.getIdProperty();
+        if (idProperty != null) {
+            if (datasource.getMetaClass().getProperty(idProperty) == null)
+                throw new DevelopmentException(String.format("Property '%s' is not defined", idProperty));
+            datasource.setIdName(idProperty);
+        }
     }
 
-    protected String getDatasourceId(Element element) {
-        String id = element.attributeValue("id");
+    protected String getDatasourceId(DatasourceDefinition definition) {
+        String id = definition.getId();
         for (Datasource datasource : context.getAll()) {
             if (Objects.equals(datasource.getId(), id))
                 throw new DevelopmentException("Duplicated datasource id: " + id);
         }
         return id;
     }
-}
\ No newline at end of file
+}
@@ -43,11 +43,15 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static com.haulmont.bali.util.Preconditions.checkNotNullArgument;
 
 public class LayoutLoader {
 
+    protected static final Map<Class<? extends ComponentLoader>, Constructor<? extends ComponentLoader>>
+            loaderConstructors = new ConcurrentHashMap<>();
+
     protected ComponentLoader.Context context;
     protected ComponentsFactory factory;
     protected LayoutLoaderConfig config;
@@ -146,7 +150,11 @@ public class LayoutLoader {
 
         ComponentLoader loader;
         try {
-            Constructor<? extends ComponentLoader> constructor = loaderClass.getConstructor();
+            Constructor<? extends ComponentLoader> constructor = loaderConstructors.get(loaderClass);
+            if (constructor == null) {
+                constructor = loaderClass.getConstructor();
+                loaderConstructors.put(loaderClass, constructor);
+            }
             loader = constructor.newInstance();
 
             loader.setLocale(locale);
@@ -176,25 +184,26 @@ public class LayoutLoader {
 
         ScreenXmlDocumentCache screenXmlCache = AppBeans.get(ScreenXmlDocumentCache.class);
 
-        Document document = screenXmlCache.get(template);
-        if (document == null) {
+        ScreenBlueprint blueprint = screenXmlCache.getBlueprint(template);
+        if (blueprint == null) {
             Document originalDocument = parseDescriptor(template);
 
             XmlInheritanceProcessor processor = new XmlInheritanceProcessor(originalDocument, context.getParams());
             Element resultRoot = processor.getResultRoot();
 
-            document = resultRoot.getDocument();
-
-            screenXmlCache.put(template, document);
+            blueprint = screenXmlCache.putBlueprint(template, resultRoot.getDocument());
         }
 
-        Element element = document.getRootElement();
+        Element element = blueprint.getRootElement();
 
         xmlLoadWatch.stop();
 
+        blueprint.deployViews();
+
         ComponentLoader loader = getLoader(element);
         FrameLoader frameLoader = (FrameLoader) loader;
         frameLoader.setFrameId(id);
+        frameLoader.setDsContextDefinition(blueprint.getDsContextDefinition());
 
         loader.createComponent();
 
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2008-2016 Haulmont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.haulmont.cuba.gui.xml.layout;
+
+import com.haulmont.bali.util.ReflectionHelper;
+import com.haulmont.cuba.core.global.DevelopmentException;
+import com.haulmont.cuba.gui.WindowCreationHelper;
+import com.haulmont.cuba.gui.data.DataSupplier;
+import com.haulmont.cuba.gui.xml.data.DsContextDefinition;
+import org.apache.commons.lang.StringUtils;
+import org.dom4j.Document;
+import org.dom4j.Element;
+
+import javax.annotation.Nullable;
+
+/**
+ * Screen descriptor prepared once and shared by all instances of the screen: the XML document after inheritance
+ * processing, the resolved data supplier class, the parsed datasources and the views declared in the descriptor's
+ * {@code metadataContext}.
+ * <p>Instances are cached by {@link ScreenXmlDocumentCache}, so the document must be treated as read-only.
+ */
+public class ScreenBlueprint {
+
+    protected final Document document;
+
+    protected volatile boolean viewsDeployed;
+
+    protected volatile Class<? extends DataSupplier> dataSupplierClass;
+    protected volatile boolean dataSupplierResolved;
+
+    protected volatile DsContextDefinition dsContextDefinition;
+    protected volatile boolean dsContextParsed;
+
+    public ScreenBlueprint(Document document) {
+        this.document = document;
+    }
+
+    public Document getDocument() {
+        return document;
+    }
+
+    public Element getRootElement() {
+        return document.getRootElement();
+    }
+
+    /**
+     * Deploys views declared in the descriptor. The views are deployed only by the first call,
+     * subsequent calls do nothing.
+     */
+    public void deployViews() {
+        if (!viewsDeployed) {
+            synchronized (this) {
+                if (!viewsDeployed) {
+                    WindowCreationHelper.deployViews(getRootElement());
+                    viewsDeployed = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return data supplier class defined in the {@code dataSupplier} attribute of the descriptor or null if the
+     * attribute is not set
+     */
+    @Nullable
+    public Class<? extends DataSupplier> getDataSupplierClass() {
+        if (!dataSupplierResolved) {
+            String className = getRootElement().attributeValue("dataSupplier");
+            if (StringUtils.isNotEmpty(className)) {
+                Class<Object> aClass = ReflectionHelper.getClass(className);
+                if (!DataSupplier.class.isAssignableFrom(aClass)) {
+                    throw new DevelopmentException("Class is not a DataSupplier", "Class", className);
+                }
+                //noinspection unchecked
+                dataSupplierClass = (Class<? extends DataSupplier>) (Class) aClass;
+            }
+            dataSupplierResolved = true;
+        }
+        return dataSupplierClass;
+    }
+
+    /**
+     * @return datasources declared in the {@code dsContext} element of the descriptor, parsed on the first call,
+     * or null if the element is absent
+     */
+    @Nullable
+    public DsContextDefinition getDsContextDefinition() {
+        if (!dsContextParsed) {
+            Element dsContextElement = getRootElement().element("dsContext");
+            if (dsContextElement != null) {
+                dsContextDefinition = new DsContextDefinition(dsContextElement);
+            }
+            dsContextParsed = true;
+        }
+        return dsContextDefinition;
+    }
+}
\ No newline at end of file
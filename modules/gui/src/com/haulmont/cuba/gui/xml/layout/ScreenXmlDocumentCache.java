@@ -21,9 +21,13 @@ import com.google.common.cache.CacheBuilder;
 import org.dom4j.Document;
 import org.springframework.stereotype.Component;
 
+/**
+ * Caches screen descriptors processed by {@link com.haulmont.cuba.gui.xml.XmlInheritanceProcessor} as
+ * {@link ScreenBlueprint}s. Cache key is the descriptor text.
+ */
 @Component("cuba_ScreenXmlDocumentCache")
 public class ScreenXmlDocumentCache {
-    protected Cache<String, Document> cache;
+    protected Cache<String, ScreenBlueprint> cache;
 
     public ScreenXmlDocumentCache() {
         this(100);
@@ -34,10 +38,26 @@ public class ScreenXmlDocumentCache {
     }
 
     public void put(String xml, Document document) {
-        cache.put(xml, document);
+        cache.put(xml, new ScreenBlueprint(document));
     }
 
     public Document get(String xml) {
+        ScreenBlueprint blueprint = cache.getIfPresent(xml);
+        return blueprint != null ? blueprint.getDocument() : null;
+    }
+
+    /**
+     * Puts the processed descriptor to the cache.
+     *
+     * @return blueprint created for the document
+     */
+    public ScreenBlueprint putBlueprint(String xml, Document document) {
+        ScreenBlueprint blueprint = new ScreenBlueprint(document);
+        cache.put(xml, blueprint);
+        return blueprint;
+    }
+
+    public ScreenBlueprint getBlueprint(String xml) {
         return cache.getIfPresent(xml);
     }
 
@@ -26,6 +26,7 @@ import com.haulmont.cuba.gui.data.Datasource;
 import com.haulmont.cuba.gui.data.DsContext;
 import com.haulmont.cuba.gui.data.impl.DatasourceImplementation;
 import com.haulmont.cuba.gui.logging.UIPerformanceLogger;
+import com.haulmont.cuba.gui.xml.data.DsContextDefinition;
 import com.haulmont.cuba.gui.xml.data.DsContextLoader;
 import org.apache.commons.lang.StringUtils;
 import org.apache.log4j.Logger;
@@ -34,6 +35,7 @@ import org.perf4j.StopWatch;
 import org.perf4j.log4j.Log4JStopWatch;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import java.util.Map;
 
 public class FrameLoader<T extends Frame> extends ContainerLoader<T> {
@@ -43,6 +45,8 @@ public class FrameLoader<T extends Frame> extends ContainerLoader<T> {
 
     protected String frameId;
 
+    protected DsContextDefinition dsContextDefinition;
+
     protected Frame wrapByCustomClass(Frame frame) {
         String screenClass = element.attributeValue("class");
         if (StringUtils.isBlank(screenClass)) {
@@ -143,12 +147,15 @@ public class FrameLoader<T extends Frame> extends ContainerLoader<T> {
 
     @Override
     public void loadComponent() {
-        WindowCreationHelper.deployViews(element);
-
-        Element dsContextElement = element.element("dsContext");
         DsContextLoader contextLoader = new DsContextLoader(context.getDsContext().getDataSupplier());
 
-        DsContext dsContext = contextLoader.loadDatasources(dsContextElement, context.getDsContext());
+        DsContext dsContext;
+        if (dsContextDefinition != null) {
+            dsContext = contextLoader.loadDatasources(dsContextDefinition, context.getDsContext());
+        } else {
+            Element dsContextElement = element.element("dsContext");
+            dsContext = contextLoader.loadDatasources(dsContextElement, context.getDsContext());
+        }
 
         assignXmlDescriptor(resultComponent, element);
 
@@ -201,6 +208,14 @@ public class FrameLoader<T extends Frame> extends ContainerLoader<T> {
         this.frameId = frameId;
     }
 
+    /**
+     * Sets the datasources of the frame parsed in advance. If not set, they are read from the {@code dsContext}
+     * element of the descriptor.
+     */
+    public void setDsContextDefinition(@Nullable DsContextDefinition dsContextDefinition) {
+        this.dsContextDefinition = dsContextDefinition;
+    }
+
     protected class FrameInjectPostInitTask implements InjectTask {
         protected final Frame wrappingFrame;
         protected final Map<String, Object> params;
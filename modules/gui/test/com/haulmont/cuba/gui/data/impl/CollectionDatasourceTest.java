@@ -19,6 +19,7 @@ package com.haulmont.cuba.gui.data.impl;
 import com.haulmont.cuba.client.testsupport.CubaClientTestCase;
 import com.haulmont.cuba.core.entity.BaseEntityInternalAccess;
 import com.haulmont.cuba.core.global.AppBeans;
+import com.haulmont.cuba.core.global.LoadContext;
 import com.haulmont.cuba.gui.data.CollectionDatasource;
 import com.haulmont.cuba.gui.data.impl.testmodel1.TestDetailEntity;
 import com.haulmont.cuba.gui.data.impl.testmodel1.TestMasterEntity;
@@ -28,10 +29,13 @@ import mockit.NonStrictExpectations;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
 public class CollectionDatasourceTest extends CubaClientTestCase {
 
@@ -105,4 +109,69 @@ public class CollectionDatasourceTest extends CubaClientTestCase {
         assertEquals(1, cpds.itemsToUpdate.size());
         assertEquals(0, cpds.itemsToDelete.size());
     }
+
+    @Test
+    public void testTakePrefetchedData() throws Exception {
+        CollectionDatasourceImpl<TestMasterEntity, UUID> cds = new CollectionDatasourceImpl<>();
+        cds.setMetaClass(metadata.getClassNN(TestMasterEntity.class));
+
+        TestMasterEntity entity = new TestMasterEntity();
+        List<TestMasterEntity> loaded = Collections.singletonList(entity);
+
+        LoadContext<TestMasterEntity> prefetchedContext = LoadContext.create(TestMasterEntity.class);
+        prefetchedContext.setQueryString("select e from test$MasterEntity e").setParameter("name", "a");
+
+        cds.prefetchedContext = prefetchedContext;
+        cds.prefetchedData = CompletableFuture.completedFuture(loaded);
+
+        LoadContext<TestMasterEntity> context = LoadContext.create(TestMasterEntity.class);
+        context.setQueryString("select e from test$MasterEntity e").setParameter("name", "a");
+
+        assertSame(loaded, cds.takePrefetchedData(context));
+        // prefetched data is used only once
+        assertNull(cds.takePrefetchedData(context));
+
+        cds.prefetchedContext = prefetchedContext;
+        cds.prefetchedData = CompletableFuture.completedFuture(loaded);
+
+        LoadContext<TestMasterEntity> changedContext = LoadContext.create(TestMasterEntity.class);
+        changedContext.setQueryString("select e from test$MasterEntity e").setParameter("name", "b");
+
+        assertNull(cds.takePrefetchedData(changedContext));
+
+        cds.prefetchedContext = prefetchedContext;
+        cds.prefetchedData = CompletableFuture.completedFuture(loaded);
+
+        LoadContext<TestMasterEntity> pagedContext = LoadContext.create(TestMasterEntity.class);
+        pagedContext.setQueryString("select e from test$MasterEntity e").setParameter("name", "a").setMaxResults(10);
+
+        assertNull(cds.takePrefetchedData(pagedContext));
+
+        cds.prefetchedContext = prefetchedContext;
+        cds.prefetchedData = CompletableFuture.completedFuture(loaded);
+
+        LoadContext<TestMasterEntity> nextQueryContext = LoadContext.create(TestMasterEntity.class);
+        nextQueryContext.setQueryString("select e from test$MasterEntity e").setParameter("name", "a");
+        nextQueryContext.setQueryKey(1);
+        nextQueryContext.getPrevQueries().add(new LoadContext.Query("select e from test$MasterEntity e"));
+
+        assertNull(cds.takePrefetchedData(nextQueryContext));
+    }
+
+    @Test
+    public void testPrefetchSupported() throws Exception {
+        CollectionDatasourceImpl<TestMasterEntity, UUID> cds = new CollectionDatasourceImpl<>();
+        cds.setDataSupplier(new GenericDataSupplier());
+        assertTrue(cds.isPrefetchSupported());
+
+        CollectionDatasourceImpl<TestMasterEntity, UUID> customizedCds = new CollectionDatasourceImpl<TestMasterEntity, UUID>() {
+            @Override
+            protected void prepareLoadContext(LoadContext context) {
+                super.prepareLoadContext(context);
+                context.setLoadPartialEntities(false);
+            }
+        };
+        customizedCds.setDataSupplier(new GenericDataSupplier());
+        assertFalse(customizedCds.isPrefetchSupported());
+    }
 }
@@ -30,6 +30,7 @@ import com.haulmont.cuba.gui.theme.ThemeConstantsRepository;
 import com.haulmont.cuba.security.app.UserSessionService;
 import com.haulmont.cuba.security.global.NoUserSessionException;
 import com.haulmont.cuba.security.global.UserSession;
+import com.haulmont.cuba.web.app.UserSettingsTools;
 import com.haulmont.cuba.web.auth.CubaAuthProvider;
 import com.haulmont.cuba.web.auth.RequestContext;
 import com.haulmont.cuba.web.auth.WebAuthConfig;
@@ -305,9 +306,28 @@ public abstract class App {
         wm.setUi(ui);
 
         String topLevelWindowId = routeTopLevelWindowId();
+        prefetchSettings(topLevelWindowId);
         wm.createTopLevelWindow(windowConfig.getWindowInfo(topLevelWindowId));
     }
 
+    /**
+     * Loads the settings of the top level window and the settings used by the main window in one invocation.
+     */
+    protected void prefetchSettings(String topLevelWindowId) {
+        if (!getConnection().isAuthenticated()) {
+            return;
+        }
+
+        List<String> names = new ArrayList<>();
+        names.add(topLevelWindowId);
+        names.addAll(UserSettingsTools.MAIN_WINDOW_SETTINGS);
+        try {
+            settingsClient.prefetchSettings(names);
+        } catch (Exception e) {
+            log.warn("Unable to prefetch user settings", e);
+        }
+    }
+
     protected abstract String routeTopLevelWindowId();
 
     public void createTopLevelWindow() {
@@ -529,6 +549,19 @@ public abstract class App {
         } catch (Throwable e) {
             log.error("Error closing all windows", e);
         }
+
+        saveSettings();
+    }
+
+    /**
+     * Saves changed user settings which are not saved yet, see {@link SettingsClient#flush()}.
+     */
+    protected void saveSettings() {
+        try {
+            settingsClient.flush();
+        } catch (Throwable e) {
+            log.warn("Unable to save user settings", e);
+        }
     }
 
     protected void clearSettingsCache() {
@@ -557,6 +590,8 @@ public abstract class App {
 
                 WebWindowManager wm = (WebWindowManager) topLevelWindow.getWindowManager();
                 wm.checkModificationsAndCloseAll(() -> {
+                    saveSettings();
+
                     Connection connection = getConnection();
                     connection.logout();
 
@@ -565,6 +600,8 @@ public abstract class App {
                     }
                 });
             } else {
+                saveSettings();
+
                 Connection connection = getConnection();
                 connection.logout();
 
@@ -307,4 +307,12 @@ public interface WebConfig extends Config {
     @Property("cuba.web.pageInitialScale")
     @DefaultString("0.8")
     String getPageInitialScale();
+
+    /**
+     * @return true if changes of user settings are collected in the HTTP session and saved to the middleware
+     * in one batch at the end of the request, false to save each change immediately
+     */
+    @Property("cuba.web.userSettingsWriteBehind")
+    @DefaultBoolean(true)
+    boolean getUserSettingsWriteBehind();
 }
\ No newline at end of file
@@ -17,15 +17,17 @@
 
 package com.haulmont.cuba.web.app;
 
-import com.haulmont.cuba.core.global.ClientType;
 import com.haulmont.cuba.gui.components.mainwindow.AppWorkArea;
-import com.haulmont.cuba.security.app.UserSettingService;
+import com.haulmont.cuba.gui.settings.SettingsClient;
 import com.haulmont.cuba.web.WebConfig;
 
 import org.springframework.stereotype.Component;
 
 import javax.annotation.Nonnull;
 import javax.inject.Inject;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Utility bean for work with user settings on web client tier.
@@ -36,6 +38,16 @@ public class UserSettingsTools {
 
     public static final String NAME = "cuba_UserSettingsTools";
 
+    public static final String APP_WINDOW_MODE = "appWindowMode";
+    public static final String APP_WINDOW_THEME = "appWindowTheme";
+    public static final String FOLDERS_STATE = "foldersState";
+
+    /**
+     * Names of the settings used by the main window.
+     */
+    public static final List<String> MAIN_WINDOW_SETTINGS = Collections.unmodifiableList(
+            Arrays.asList(APP_WINDOW_MODE, APP_WINDOW_THEME, FOLDERS_STATE));
+
     public static class FoldersState {
 
         public final boolean visible;
@@ -50,13 +62,13 @@ public class UserSettingsTools {
     }
 
     @Inject
-    protected UserSettingService userSettingService;
+    protected SettingsClient settingsClient;
 
     @Inject
     protected WebConfig webConfig;
 
     public AppWorkArea.Mode loadAppWindowMode() {
-        String s = userSettingService.loadSetting(ClientType.WEB, "appWindowMode");
+        String s = settingsClient.getSetting(APP_WINDOW_MODE);
         if (s != null) {
             if (AppWorkArea.Mode.SINGLE.name().equals(s)) {
                 return AppWorkArea.Mode.SINGLE;
@@ -68,12 +80,12 @@ public class UserSettingsTools {
     }
 
     public void saveAppWindowMode(AppWorkArea.Mode mode) {
-        userSettingService.saveSetting(ClientType.WEB, "appWindowMode", mode.name());
+        settingsClient.setSetting(APP_WINDOW_MODE, mode.name());
     }
 
     @Nonnull
     public String loadAppWindowTheme() {
-        String s = userSettingService.loadSetting(ClientType.WEB, "appWindowTheme");
+        String s = settingsClient.getSetting(APP_WINDOW_THEME);
         if (s != null) {
             return s;
         }
@@ -81,11 +93,11 @@ public class UserSettingsTools {
     }
 
     public void saveAppWindowTheme(String theme) {
-        userSettingService.saveSetting(ClientType.WEB, "appWindowTheme", theme);
+        settingsClient.setSetting(APP_WINDOW_THEME, theme);
     }
 
     public FoldersState loadFoldersState() {
-        String s = userSettingService.loadSetting(ClientType.WEB, "foldersState");
+        String s = settingsClient.getSetting(FOLDERS_STATE);
         if (s == null)
             return null;
 
@@ -101,7 +113,7 @@ public class UserSettingsTools {
     }
 
     public void saveFoldersState(boolean visible, int horizontalSplit, int verticalSplit) {
-        userSettingService.saveSetting(ClientType.WEB, "foldersState",
+        settingsClient.setSetting(FOLDERS_STATE,
                 String.valueOf(visible) + ","
                 + String.valueOf(horizontalSplit) + ","
                 + String.valueOf(verticalSplit)
@@ -24,6 +24,7 @@ import com.haulmont.cuba.core.global.ViewRepository;
 import com.haulmont.cuba.core.sys.AbstractViewRepository;
 import com.haulmont.cuba.gui.config.MenuConfig;
 import com.haulmont.cuba.gui.config.WindowConfig;
+import com.haulmont.cuba.gui.xml.layout.ScreenXmlDocumentCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -53,6 +54,9 @@ public class CachingFacade implements CachingFacadeMBean {
     @Inject
     private MenuConfig menuConfig;
 
+    @Inject
+    private ScreenXmlDocumentCache screenXmlDocumentCache;
+
     @Override
     public int getMessagesCacheSize() {
         return messages.getCacheSize();
@@ -79,6 +83,8 @@ public class CachingFacade implements CachingFacadeMBean {
     @Override
     public void clearViewRepositoryCache() {
         ((AbstractViewRepository) viewRepository).reset();
+        // screen blueprints keep track of deployed views, so they must be recreated to deploy the views again
+        screenXmlDocumentCache.invalidateAll();
     }
 
     @Override
@@ -19,25 +19,43 @@ package com.haulmont.cuba.web.settings;
 
 import com.google.common.base.Optional;
 import com.haulmont.cuba.core.global.ClientType;
+import com.haulmont.cuba.core.global.UserSessionSource;
 import com.haulmont.cuba.gui.settings.SettingsClient;
 import com.haulmont.cuba.security.app.UserSettingService;
+import com.haulmont.cuba.web.WebConfig;
 import com.vaadin.server.VaadinSession;
-
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
+
 import javax.annotation.Nullable;
 import javax.inject.Inject;
-import java.util.Map;
+import java.io.Serializable;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * User settings provider for web application. Caches settings in HTTP session.
+ * <p>If {@link WebConfig#getUserSettingsWriteBehind()} is enabled, changed settings are also kept in the session
+ * and saved by {@link #flush()}, which is invoked at the end of each UI request, on logout and before
+ * user substitution.</p>
  */
 @Component(SettingsClient.NAME)
 public class WebSettingsClient implements SettingsClient {
 
+    private final Logger log = LoggerFactory.getLogger(WebSettingsClient.class);
+
+    protected static final String PENDING_CHANGES_ATTR = SettingsClient.NAME + ".pendingChanges";
+
     @Inject
     protected UserSettingService userSettingService;
 
+    @Inject
+    protected UserSessionSource userSessionSource;
+
+    @Inject
+    protected WebConfig webConfig;
+
     @Override
     public String getSetting(String name) {
         Map<String, Optional<String>> settings = getCache();
@@ -53,21 +71,107 @@ public class WebSettingsClient implements SettingsClient {
         return setting;
     }
 
+    /**
+     * Loads the settings that are not cached yet in one middleware invocation.
+     */
+    @Override
+    public void prefetchSettings(Collection<String> names) {
+        Map<String, Optional<String>> settings = getCache();
+
+        List<String> notCached = new ArrayList<>();
+        for (String name : names) {
+            if (!settings.containsKey(name)) {
+                notCached.add(name);
+            }
+        }
+        if (notCached.isEmpty()) {
+            return;
+        }
+
+        Map<String, String> loaded = userSettingService.loadSettings(ClientType.WEB, notCached);
+        for (String name : notCached) {
+            settings.put(name, Optional.fromNullable(loaded.get(name)));
+        }
+    }
+
     @Override
     public void setSetting(String name, @Nullable String value) {
         getCache().put(name, Optional.fromNullable(value));
-        userSettingService.saveSetting(ClientType.WEB, name, value);
+        if (isWriteBehind()) {
+            getPendingChanges().put(name, Optional.fromNullable(value));
+        } else {
+            userSettingService.saveSetting(ClientType.WEB, name, value);
+        }
     }
 
     @Override
     public void deleteSettings(String name) {
         getCache().put(name, Optional.absent());
-        userSettingService.deleteSettings(ClientType.WEB, name);
+        if (isWriteBehind()) {
+            getPendingChanges().put(name, Optional.absent());
+        } else {
+            userSettingService.deleteSettings(ClientType.WEB, name);
+        }
+    }
+
+    protected boolean isWriteBehind() {
+        return webConfig.getUserSettingsWriteBehind() && userSessionSource.checkCurrentUserSession();
+    }
+
+    /**
+     * Saves changed settings of the current session to the middleware in one invocation. If saving fails,
+     * the changes are kept and saved by the next invocation.
+     */
+    @Override
+    public void flush() {
+        VaadinSession session = VaadinSession.getCurrent();
+        PendingChanges pendingChanges = session == null ? null : (PendingChanges) session.getAttribute(PENDING_CHANGES_ATTR);
+        if (pendingChanges == null || pendingChanges.changes.isEmpty()) {
+            return;
+        }
+
+        if (!userSessionSource.checkCurrentUserSession()
+                || !pendingChanges.userId.equals(userSessionSource.getUserSession().getUser().getId())) {
+            log.warn("Unable to save user settings {}: the session of the user has been changed",
+                    pendingChanges.changes.keySet());
+            pendingChanges.changes.clear();
+            return;
+        }
+
+        Map<String, Optional<String>> saved = new LinkedHashMap<>(pendingChanges.changes);
+        Map<String, String> changes = new HashMap<>();
+        for (Map.Entry<String, Optional<String>> entry : saved.entrySet()) {
+            changes.put(entry.getKey(), entry.getValue().orNull());
+        }
+
+        userSettingService.saveSettings(ClientType.WEB, changes);
+
+        // keep the settings changed again while saving
+        for (Map.Entry<String, Optional<String>> entry : saved.entrySet()) {
+            pendingChanges.changes.remove(entry.getKey(), entry.getValue());
+        }
     }
 
     public void clearCache() {
         VaadinSession session = VaadinSession.getCurrent();
         session.setAttribute(SettingsClient.NAME, null);
+        session.setAttribute(PENDING_CHANGES_ATTR, null);
+    }
+
+    protected Map<String, Optional<String>> getPendingChanges() {
+        VaadinSession session = VaadinSession.getCurrent();
+        UUID userId = userSessionSource.getUserSession().getUser().getId();
+
+        PendingChanges pendingChanges = (PendingChanges) session.getAttribute(PENDING_CHANGES_ATTR);
+        if (pendingChanges == null || !pendingChanges.userId.equals(userId)) {
+            if (pendingChanges != null && !pendingChanges.changes.isEmpty()) {
+                log.warn("User settings {} have not been saved before the session of the user has been changed",
+                        pendingChanges.changes.keySet());
+            }
+            pendingChanges = new PendingChanges(userId);
+            session.setAttribute(PENDING_CHANGES_ATTR, pendingChanges);
+        }
+        return pendingChanges.changes;
     }
 
     protected Map<String, Optional<String>> getCache() {
@@ -80,4 +184,16 @@ public class WebSettingsClient implements SettingsClient {
         }
         return settings;
     }
+
+    protected static class PendingChanges implements Serializable {
+
+        private static final long serialVersionUID = 6043285402861137583L;
+
+        protected final UUID userId;
+        protected final Map<String, Optional<String>> changes = new LinkedHashMap<>();
+
+        protected PendingChanges(UUID userId) {
+            this.userId = userId;
+        }
+    }
 }
\ No newline at end of file
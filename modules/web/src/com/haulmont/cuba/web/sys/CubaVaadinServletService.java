@@ -23,6 +23,7 @@ import com.haulmont.cuba.core.global.GlobalConfig;
 import com.haulmont.cuba.core.global.Messages;
 import com.haulmont.cuba.core.sys.AppContext;
 import com.haulmont.cuba.core.sys.SecurityContext;
+import com.haulmont.cuba.gui.settings.SettingsClient;
 import com.haulmont.cuba.security.global.UserSession;
 import com.haulmont.cuba.web.App;
 import com.haulmont.cuba.web.ScreenProfiler;
@@ -308,12 +309,29 @@ public class CubaVaadinServletService extends VaadinServletService {
     // Set security context to AppContext for normal UI requests
     protected static class CubaUidlRequestHandler extends UidlRequestHandler {
 
+        private Logger log = LoggerFactory.getLogger(CubaUidlRequestHandler.class);
+
         protected ScreenProfiler profiler = AppBeans.get(ScreenProfiler.NAME);
 
+        protected SettingsClient settingsClient = AppBeans.get(SettingsClient.NAME);
+
         @Override
         public boolean synchronizedHandleRequest(VaadinSession session, VaadinRequest request, VaadinResponse response)
                 throws IOException {
-            return withUserSession(session, () -> super.synchronizedHandleRequest(session, request, response));
+            return withUserSession(session, () -> {
+                boolean handled = super.synchronizedHandleRequest(session, request, response);
+                saveUserSettings();
+                return handled;
+            });
+        }
+
+        // settings changed while processing the request are saved in one batch
+        protected void saveUserSettings() {
+            try {
+                settingsClient.flush();
+            } catch (Exception e) {
+                log.warn("Unable to save user settings", e);
+            }
         }
 
         @Override